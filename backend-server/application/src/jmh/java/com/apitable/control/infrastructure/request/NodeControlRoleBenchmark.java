@@ -0,0 +1,149 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.control.infrastructure.request;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.apitable.control.infrastructure.permission.NodePermission;
+import com.apitable.control.infrastructure.permission.PermissionDefinition;
+import com.apitable.control.infrastructure.role.ControlRole;
+import com.apitable.control.infrastructure.role.ControlRoleManager;
+import com.apitable.control.infrastructure.role.RoleConstants.Node;
+
+/**
+ * <p>
+ * Role resolving of NodeControlRequest: every node picks the top role of its role codes,
+ * then the node tree checks the permissions of the role.
+ * The group bits derived from the permission set on every call against the bits computed at construction.
+ * </p>
+ * Run with: ./gradlew :application:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class NodeControlRoleBenchmark {
+
+    private static final String[] ROLE_CODES = { Node.READER, Node.UPDATER, Node.EDITOR, Node.MANAGER };
+
+    private static final PermissionDefinition[] CHECKED_PERMISSIONS = {
+        NodePermission.READ_NODE, NodePermission.EDIT_NODE, NodePermission.MANAGE_NODE,
+        NodePermission.CREATE_VIEW, NodePermission.EDIT_CELL, NodePermission.EXPORT_NODE
+    };
+
+    @Param({ "1000", "10000", "50000" })
+    private int nodeCount;
+
+    private List<Set<String>> nodeRoleCodes;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(20221018L);
+        nodeRoleCodes = new ArrayList<>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            // a node is shared with one to three units
+            Set<String> roleCodes = new HashSet<>();
+            int unitCount = 1 + random.nextInt(3);
+            for (int j = 0; j < unitCount; j++) {
+                roleCodes.add(ROLE_CODES[random.nextInt(ROLE_CODES.length)]);
+            }
+            nodeRoleCodes.add(roleCodes);
+        }
+    }
+
+    @Benchmark
+    public void derivedBits(Blackhole bh) {
+        for (Set<String> roleCodes : nodeRoleCodes) {
+            ControlRole role = DerivedBits.getTopNodeRole(roleCodes);
+            for (PermissionDefinition permission : CHECKED_PERMISSIONS) {
+                bh.consume(DerivedBits.hasPermission(role, permission));
+            }
+        }
+    }
+
+    @Benchmark
+    public void precomputedBits(Blackhole bh) {
+        for (Set<String> roleCodes : nodeRoleCodes) {
+            ControlRole role = ControlRoleManager.getTopNodeRole(roleCodes);
+            for (PermissionDefinition permission : CHECKED_PERMISSIONS) {
+                bh.consume(role.hasPermission(permission));
+            }
+        }
+    }
+
+    /**
+     * the role comparing and permission checking before the bits were computed at construction
+     */
+    private static class DerivedBits {
+
+        static ControlRole getTopNodeRole(Collection<String> roleCodes) {
+            List<ControlRole> roles = new ArrayList<>();
+            for (String roleCode : roleCodes) {
+                roles.add(ControlRoleManager.parseNodeRole(roleCode));
+            }
+            Collections.sort(roles, (left, right) -> Long.compare(getBits(left), getBits(right)));
+            return roles.get(roles.size() - 1);
+        }
+
+        static Map<Integer, Long> getGroupPermissionBit(ControlRole role) {
+            Map<Integer, List<PermissionDefinition>> mapGroups = role.getPermissions().stream().distinct()
+                .sorted(Comparator.comparing(PermissionDefinition::getGroup))
+                .collect(Collectors.groupingBy(PermissionDefinition::getGroup, Collectors.toList()));
+            return mapGroups.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey,
+                    entry -> entry.getValue().stream()
+                        .mapToLong(PermissionDefinition::getValue)
+                        .reduce(0L, (left, right) -> left | right)));
+        }
+
+        static boolean hasPermission(ControlRole role, PermissionDefinition permission) {
+            Long groupBits = getGroupPermissionBit(role).get(permission.getGroup());
+            return groupBits != null && (groupBits & permission.getValue()) != 0;
+        }
+
+        static long getBits(ControlRole role) {
+            return getGroupPermissionBit(role).values().stream().reduce(0L, (left, right) -> left | right);
+        }
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.control.infrastructure.request;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.apitable.workspace.dto.SimpleNodeInfo;
+
+/**
+ * <p>
+ * Node tree lookups of NodeControlRequest: linear list scans against NodeTreeIndex.
+ * Every node resolves its parent nodes with permission, and one of ten nodes loads all its children,
+ * which is what the tree building does for the nodes without permission.
+ * </p>
+ * Run with: ./gradlew :application:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class NodeTreeIndexBenchmark {
+
+    @Param({ "1000", "10000", "50000" })
+    private int nodeCount;
+
+    private List<SimpleNodeInfo> nodeList;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(20221018L);
+        nodeList = new ArrayList<>(nodeCount);
+        List<String> folderIds = new ArrayList<>();
+        folderIds.add("root");
+        for (int i = 0; i < nodeCount; i++) {
+            // one of five nodes is a folder, one of eight nodes has its own permission
+            String nodeId = (i % 5 == 0 ? "fod" : "dst") + i;
+            String parentId = folderIds.get(random.nextInt(folderIds.size()));
+            SimpleNodeInfo node = new SimpleNodeInfo();
+            node.setNodeId(nodeId);
+            node.setParentId(parentId);
+            node.setExtend(random.nextInt(8) != 0);
+            nodeList.add(node);
+            if (i % 5 == 0) {
+                folderIds.add(nodeId);
+            }
+        }
+        Collections.shuffle(nodeList, random);
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole bh) {
+        for (int i = 0; i < nodeList.size(); i++) {
+            SimpleNodeInfo node = LinearScan.findNode(nodeList, nodeList.get(i).getNodeId());
+            List<String> parents = new ArrayList<>();
+            LinearScan.findParentNodeRole(nodeList, node, parents);
+            bh.consume(parents);
+            if (i % 10 == 0) {
+                bh.consume(LinearScan.findAllChildren(nodeList, node.getNodeId()));
+            }
+        }
+    }
+
+    @Benchmark
+    public void treeIndex(Blackhole bh) {
+        NodeTreeIndex index = NodeTreeIndex.of(nodeList);
+        for (int i = 0; i < nodeList.size(); i++) {
+            SimpleNodeInfo node = index.getNode(nodeList.get(i).getNodeId());
+            bh.consume(index.getRoleParentIdsFromBottom2Top(node));
+            if (i % 10 == 0) {
+                bh.consume(index.getAllChildren(node.getNodeId()));
+            }
+        }
+    }
+
+    /**
+     * the list scans NodeControlRequest used before the index
+     */
+    private static class LinearScan {
+
+        static SimpleNodeInfo findNode(List<SimpleNodeInfo> simpleNodeInfos, String nodeId) {
+            for (SimpleNodeInfo simpleNodeInfo : simpleNodeInfos) {
+                if (simpleNodeInfo.getNodeId().equals(nodeId)) {
+                    return simpleNodeInfo;
+                }
+            }
+            return null;
+        }
+
+        static void findParentNodeRole(List<SimpleNodeInfo> simpleNodeInfos, SimpleNodeInfo roleInfo, List<String> parents) {
+            for (SimpleNodeInfo simpleNodeInfo : simpleNodeInfos) {
+                if (roleInfo.getParentId().equals(simpleNodeInfo.getNodeId())) {
+                    if (!simpleNodeInfo.getExtend()) {
+                        parents.add(simpleNodeInfo.getNodeId());
+                    }
+                    findParentNodeRole(simpleNodeInfos, simpleNodeInfo, parents);
+                }
+            }
+        }
+
+        static List<String> findAllChildren(List<SimpleNodeInfo> simpleNodeInfos, String parentNodeId) {
+            List<String> allChildren = new ArrayList<>();
+            List<String> children = new ArrayList<>();
+            for (SimpleNodeInfo nodeInfo : simpleNodeInfos) {
+                if (nodeInfo.getParentId().equals(parentNodeId)) {
+                    children.add(nodeInfo.getNodeId());
+                }
+            }
+            allChildren.addAll(children);
+            for (String child : children) {
+                allChildren.addAll(findAllChildren(simpleNodeInfos, child));
+            }
+            return allChildren;
+        }
+    }
+}
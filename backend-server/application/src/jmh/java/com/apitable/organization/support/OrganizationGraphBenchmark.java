@@ -0,0 +1,144 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.organization.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.apitable.organization.entity.TeamEntity;
+import com.apitable.organization.entity.TeamMemberRelEntity;
+import com.apitable.organization.entity.UnitEntity;
+import com.apitable.organization.enums.UnitType;
+
+/**
+ * <p>
+ * Teams of a member with all parent teams: the scan over all teams of the space, which is what the team service did after loading them,
+ * against OrganizationGraph. Members of a team and its sub teams are measured on the graph only, the database did it before.
+ * </p>
+ * Run with: ./gradlew :application:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class OrganizationGraphBenchmark {
+
+    private static final int CHILDREN = 4;
+
+    @Param({ "5000", "50000" })
+    private int memberCount;
+
+    @Param({ "2000" })
+    private int teamCount;
+
+    private List<TeamEntity> teams;
+
+    private List<List<Long>> memberTeams;
+
+    private OrganizationGraph graph;
+
+    private long[] probeMemberIds;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(20221018L);
+        teams = new ArrayList<>(teamCount);
+        teams.add(TeamEntity.builder().id(1L).parentId(0L).teamName("root").build());
+        for (long id = 2; id <= teamCount; id++) {
+            // a complete tree, about six levels deep for two thousand teams
+            long parentId = (id - 2) / CHILDREN + 1;
+            teams.add(TeamEntity.builder().id(id).parentId(parentId).teamName("team" + id).build());
+        }
+        List<TeamMemberRelEntity> rels = new ArrayList<>();
+        List<UnitEntity> units = new ArrayList<>();
+        memberTeams = new ArrayList<>(memberCount);
+        for (long memberId = 1; memberId <= memberCount; memberId++) {
+            long teamId = random.nextInt(teamCount) + 1L;
+            rels.add(TeamMemberRelEntity.builder().teamId(teamId).memberId(memberId).build());
+            memberTeams.add(Collections.singletonList(teamId));
+            units.add(UnitEntity.builder().id(memberId).unitRefId(memberId).unitType(UnitType.MEMBER.getType()).build());
+        }
+        teams.forEach(team -> units.add(UnitEntity.builder().id(memberCount + team.getId()).unitRefId(team.getId())
+                .unitType(UnitType.TEAM.getType()).build()));
+        graph = OrganizationGraph.of(0, teams, rels, Collections.emptyList(), units);
+        probeMemberIds = new long[64];
+        for (int i = 0; i < probeMemberIds.length; i++) {
+            probeMemberIds[i] = random.nextInt(memberCount) + 1L;
+        }
+    }
+
+    @Benchmark
+    public void teamScan(Blackhole bh) {
+        for (long memberId : probeMemberIds) {
+            Set<Long> result = new HashSet<>();
+            for (Long teamId : memberTeams.get((int) memberId - 1)) {
+                Long parentId = teamId;
+                while (parentId != 0) {
+                    Long id = parentId;
+                    TeamEntity team = teams.stream().filter(t -> t.getId().equals(id)).findFirst().orElse(null);
+                    if (team == null) {
+                        break;
+                    }
+                    result.add(team.getId());
+                    parentId = team.getParentId();
+                }
+            }
+            bh.consume(result);
+        }
+    }
+
+    @Benchmark
+    public void graphTeams(Blackhole bh) {
+        for (long memberId : probeMemberIds) {
+            bh.consume(graph.getTeamIdsByMemberId(memberId));
+        }
+    }
+
+    @Benchmark
+    public void graphUnits(Blackhole bh) {
+        for (long memberId : probeMemberIds) {
+            bh.consume(graph.getUnitIdsByMemberId(memberId));
+        }
+    }
+
+    @Benchmark
+    public void graphRootTeamMembers(Blackhole bh) {
+        bh.consume(graph.getMemberIdsByTeamIds(Collections.singletonList(1L)));
+    }
+}
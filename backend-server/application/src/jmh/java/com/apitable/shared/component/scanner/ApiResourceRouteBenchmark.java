@@ -0,0 +1,142 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.component.scanner;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import cn.hutool.core.util.ClassUtil;
+import cn.hutool.core.util.ReUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.apitable.shared.component.ResourceDefinition;
+import com.apitable.shared.component.scanner.annotation.ApiResource;
+import com.apitable.shared.component.scanner.annotation.GetResource;
+import com.apitable.shared.component.scanner.annotation.PostResource;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+/**
+ * <p>
+ * Request url resolving of ApiResourceFactory, replaying the urls of all the scanned controllers:
+ * ant path matching over every registered url against the route index, with and without the resolved url cache.
+ * </p>
+ * Run with: ./gradlew :application:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ApiResourceRouteBenchmark {
+
+    private List<String> resourceUrls;
+
+    private List<String> requestUrls;
+
+    private ApiResourceRouteIndex routeIndex;
+
+    private DefaultApiResourceFactory factory;
+
+    @Setup
+    public void setup() {
+        resourceUrls = new ArrayList<>();
+        Set<Class<?>> controllers = ClassUtil.scanPackageByAnnotation("com.apitable", ApiResource.class);
+        for (Class<?> controller : controllers) {
+            String[] classPath = controller.getAnnotation(ApiResource.class).path();
+            String prefix = classPath.length > 0 ? classPath[0] : "";
+            for (Method method : controller.getDeclaredMethods()) {
+                GetResource getResource = method.getAnnotation(GetResource.class);
+                PostResource postResource = method.getAnnotation(PostResource.class);
+                String[] path = getResource != null ? getResource.path() : postResource != null ? postResource.path() : null;
+                if (path != null && path.length > 0) {
+                    resourceUrls.add(prefix + path[0]);
+                }
+            }
+        }
+        routeIndex = new ApiResourceRouteIndex();
+        factory = new DefaultApiResourceFactory();
+        for (int i = 0; i < resourceUrls.size(); i++) {
+            String url = resourceUrls.get(i);
+            ResourceDefinition resourceDefinition = new ResourceDefinition();
+            resourceDefinition.setModularCode("benchmark");
+            resourceDefinition.setResourceCode("resource" + i);
+            resourceDefinition.setResourceUrl(url);
+            routeIndex.add(resourceDefinition);
+            factory.registerDefinition(Collections.singletonList(resourceDefinition));
+        }
+        // request urls with path variables filled, one of ten is unknown
+        Random random = new Random(20221018L);
+        requestUrls = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            String url = resourceUrls.get(random.nextInt(resourceUrls.size()));
+            url = ReUtil.replaceAll(url, "\\{[^/]+}", "id" + random.nextInt(100));
+            requestUrls.add(i % 10 == 0 ? url + "/unknown" : url);
+        }
+    }
+
+    @Benchmark
+    public void antPathMatcher(Blackhole bh) {
+        Collection<String> keys = resourceUrls;
+        for (String requestUrl : requestUrls) {
+            // a new matcher per request, the same as the factory did
+            PathMatcher matcher = new AntPathMatcher();
+            String matched = null;
+            for (String key : keys) {
+                if (matcher.match(key, requestUrl)) {
+                    matched = key;
+                    break;
+                }
+            }
+            bh.consume(matched);
+        }
+    }
+
+    @Benchmark
+    public void routeIndex(Blackhole bh) {
+        for (String requestUrl : requestUrls) {
+            bh.consume(routeIndex.match(requestUrl));
+        }
+    }
+
+    @Benchmark
+    public void resourceFactory(Blackhole bh) {
+        for (String requestUrl : requestUrls) {
+            bh.consume(factory.getResourceByUrl(requestUrl));
+        }
+    }
+}
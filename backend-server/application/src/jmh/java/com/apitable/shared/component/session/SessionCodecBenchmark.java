@@ -0,0 +1,117 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.component.session;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+
+/**
+ * <p>
+ * Session hash values of a logged in user: the json serializer of spring session against the compact codec.
+ * Every request reads all values of the session, and writes the last accessed time back.
+ * </p>
+ * Run with: ./gradlew :application:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class SessionCodecBenchmark {
+
+    private RedisSerializer<Object> jsonSerializer;
+
+    private RedisSerializer<Object> compactSerializer;
+
+    private Map<String, Object> session;
+
+    private List<byte[]> jsonValues;
+
+    private List<byte[]> compactValues;
+
+    @Setup
+    public void setup() {
+        jsonSerializer = new GenericJackson2JsonRedisSerializer(
+            new ObjectMapper().registerModules(SecurityJackson2Modules.getModules(getClass().getClassLoader())));
+        compactSerializer = new CompactSessionRedisSerializer(jsonSerializer, true);
+        long now = System.currentTimeMillis();
+        session = new LinkedHashMap<>();
+        session.put("creationTime", now - 86400000L);
+        session.put("lastAccessedTime", now);
+        session.put("maxInactiveInterval", 2592000);
+        session.put("sessionAttr:org.springframework.session.FindByIndexNameSessionRepository.PRINCIPAL_NAME_INDEX_NAME", "1587326529423052802");
+        session.put("sessionAttr:loginUserId", 1587326529423052802L);
+        session.put("sessionAttr:externalId", "ext-8f2c1d6e");
+        jsonValues = new ArrayList<>();
+        compactValues = new ArrayList<>();
+        for (Object value : session.values()) {
+            jsonValues.add(jsonSerializer.serialize(value));
+            compactValues.add(compactSerializer.serialize(value));
+        }
+    }
+
+    @Benchmark
+    public void jsonRead(Blackhole bh) {
+        for (byte[] value : jsonValues) {
+            bh.consume(jsonSerializer.deserialize(value));
+        }
+    }
+
+    @Benchmark
+    public void compactRead(Blackhole bh) {
+        for (byte[] value : compactValues) {
+            bh.consume(compactSerializer.deserialize(value));
+        }
+    }
+
+    @Benchmark
+    public void jsonWrite(Blackhole bh) {
+        for (Object value : session.values()) {
+            bh.consume(jsonSerializer.serialize(value));
+        }
+    }
+
+    @Benchmark
+    public void compactWrite(Blackhole bh) {
+        for (Object value : session.values()) {
+            bh.consume(compactSerializer.serialize(value));
+        }
+    }
+}
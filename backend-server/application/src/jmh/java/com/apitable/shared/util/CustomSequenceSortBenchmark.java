@@ -0,0 +1,97 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>
+ * Custom sequence sort of node list, the way getNodeInfoByNodeIds orders the nodes by the keys of role dict:
+ * indexOf per comparison against the rank of each key, with and without a following comparator.
+ * </p>
+ * Run with: ./gradlew :application:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class CustomSequenceSortBenchmark {
+
+    @Param({ "1000", "5000", "20000" })
+    private int nodeCount;
+
+    private Set<String> sequence;
+
+    private List<String> nodeIds;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(20221018L);
+        List<String> ids = new ArrayList<>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            ids.add("dst" + Integer.toHexString(random.nextInt()) + i);
+        }
+        sequence = new LinkedHashSet<>(ids);
+        nodeIds = new ArrayList<>(ids);
+        // the rows come back from database in another order
+        Collections.shuffle(nodeIds, random);
+    }
+
+    @Benchmark
+    public List<String> indexOfComparator() {
+        List<String> list = new ArrayList<>(nodeIds);
+        List<String> customKeySort = new ArrayList<>(sequence);
+        list.sort(Comparator.comparing(o -> {
+            final int index = customKeySort.indexOf(o);
+            return index == -1 ? Integer.MAX_VALUE : index;
+        }));
+        return list;
+    }
+
+    @Benchmark
+    public List<String> rankReorder() {
+        return CollectionUtil.customSequenceSort(new ArrayList<>(nodeIds), String::toString, sequence);
+    }
+
+    @Benchmark
+    public List<String> rankComparator() {
+        return CollectionUtil.customSequenceSort(new ArrayList<>(nodeIds), String::toString, sequence, Comparator.naturalOrder());
+    }
+}
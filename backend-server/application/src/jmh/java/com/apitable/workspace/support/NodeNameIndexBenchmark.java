@@ -0,0 +1,100 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.workspace.support;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.apitable.workspace.vo.BaseNodeInfo;
+
+/**
+ * <p>
+ * Node search of a space: a contains scan over all node names, which is what the LIKE query does, against NodeNameIndex.
+ * The keywords are typed one character at a time, like the search box does.
+ * </p>
+ * Run with: ./gradlew :application:jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class NodeNameIndexBenchmark {
+
+    private static final String[] WORDS = { "sales", "report", "weekly", "plan", "project", "budget", "todo", "customer", "order", "inventory" };
+
+    private static final String[] KEYWORDS = { "r", "re", "rep", "repo", "report", "report 1" };
+
+    @Param({ "10000", "100000" })
+    private int nodeCount;
+
+    private List<BaseNodeInfo> nodes;
+
+    private NodeNameIndex index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(20221018L);
+        nodes = new ArrayList<>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            BaseNodeInfo node = new BaseNodeInfo();
+            node.setNodeId("dst" + i);
+            node.setNodeName(WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i);
+            nodes.add(node);
+        }
+        index = NodeNameIndex.of(0, nodes);
+    }
+
+    @Benchmark
+    public void containsScan(Blackhole bh) {
+        for (String keyword : KEYWORDS) {
+            List<String> nodeIds = new ArrayList<>();
+            for (BaseNodeInfo node : nodes) {
+                if (node.getNodeName().toLowerCase(Locale.ROOT).contains(keyword)) {
+                    nodeIds.add(node.getNodeId());
+                }
+            }
+            bh.consume(nodeIds);
+        }
+    }
+
+    @Benchmark
+    public void nameIndex(Blackhole bh) {
+        for (String keyword : KEYWORDS) {
+            bh.consume(index.search(keyword, 50));
+        }
+    }
+}
@@ -18,7 +18,7 @@
 
 package com.apitable.asset.service.impl;
 
-import java.awt.image.BufferedImage;
+import java.awt.Dimension;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -30,7 +30,6 @@ import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
 import javax.annotation.Resource;
-import javax.imageio.ImageIO;
 
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.util.ObjectUtil;
@@ -60,8 +59,8 @@ import com.apitable.space.dto.SpaceAssetDTO;
 import com.apitable.space.mapper.SpaceAssetMapper;
 import com.apitable.space.service.ISpaceAssetService;
 import com.apitable.core.exception.BusinessException;
-import com.apitable.core.util.DigestUtil;
 import com.apitable.core.util.ExceptionUtil;
+import com.apitable.core.util.ImageTool;
 import com.apitable.core.util.InputStreamCache;
 import com.apitable.core.util.MimeTypeMapping;
 
@@ -317,10 +316,10 @@ public class AssetCallbackServiceImpl implements IAssetCallbackService {
                     if (imageIn == null) {
                         return;
                     }
-                    try (InputStreamCache pdfImgStreamCache = new InputStreamCache(imageIn, imageIn.available())) {
+                    try (InputStreamCache pdfImgStreamCache = new InputStreamCache(imageIn, imageIn.available());
+                         InputStream uploadIn = pdfImgStreamCache.getInputStream()) {
                         pdfImgUploadPath.set(StringUtil.buildPath(SPACE_PREFIX));
-                        String pdfImgChecksum = DigestUtil.md5Hex(pdfImgStreamCache.getInputStream());
-                        ossTemplate.upload(bucketName, pdfImgStreamCache.getInputStream(), pdfImgUploadPath.get(), MediaType.IMAGE_JPEG_VALUE, pdfImgChecksum);
+                        ossTemplate.upload(bucketName, uploadIn, pdfImgUploadPath.get(), MediaType.IMAGE_JPEG_VALUE, pdfImgStreamCache.getChecksum());
                     }
                     catch (IOException e) {
                         log.error("Failed to upload PDF preview resource", e);
@@ -334,10 +333,11 @@ public class AssetCallbackServiceImpl implements IAssetCallbackService {
         ossTemplate.executeStreamFunction(bucketName, key,
                 in -> {
                     try {
-                        BufferedImage bi = ImageIO.read(in);
-                        if (bi != null) {
-                            entity.setHeight(bi.getHeight());
-                            entity.setWidth(bi.getWidth());
+                        // only the image header is read
+                        Dimension size = ImageTool.readSize(in);
+                        if (size != null) {
+                            entity.setHeight(size.height);
+                            entity.setWidth(size.width);
                         }
                     }
                     catch (IOException e) {
@@ -18,7 +18,7 @@
 
 package com.apitable.asset.service.impl;
 
-import java.awt.image.BufferedImage;
+import java.awt.Dimension;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
@@ -32,7 +32,6 @@ import java.util.concurrent.locks.Lock;
 import java.util.stream.Collectors;
 
 import javax.annotation.Resource;
-import javax.imageio.ImageIO;
 
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.io.FileUtil;
@@ -65,7 +64,6 @@ import com.apitable.base.enums.DatabaseException;
 import com.apitable.base.enums.ParameterException;
 import com.apitable.interfaces.security.facade.HumanVerificationServiceFacade;
 import com.apitable.interfaces.security.model.NonRobotMetadata;
-import com.apitable.shared.cache.service.SpaceCapacityCacheService;
 import com.apitable.shared.config.properties.ConstProperties;
 import com.apitable.shared.util.ApiHelper;
 import com.apitable.shared.util.PdfToImageUtil;
@@ -76,9 +74,9 @@ import com.apitable.user.service.IDeveloperService;
 import com.apitable.workspace.enums.PermissionException;
 import com.apitable.workspace.mapper.NodeMapper;
 import com.apitable.core.exception.BusinessException;
-import com.apitable.core.util.DigestUtil;
 import com.apitable.core.util.ExceptionUtil;
 import com.apitable.core.util.HttpContextUtil;
+import com.apitable.core.util.ImageTool;
 import com.apitable.core.util.InputStreamCache;
 import com.apitable.core.util.MimeTypeMapping;
 
@@ -128,9 +126,6 @@ public class AssetServiceImpl extends ServiceImpl<AssetMapper, AssetEntity> impl
     @Resource
     private IDeveloperAssetService iDeveloperAssetService;
 
-    @Resource
-    private SpaceCapacityCacheService spaceCapacityCacheService;
-
     @Resource
     private RedisLockRegistry redisLockRegistry;
 
@@ -189,11 +184,11 @@ public class AssetServiceImpl extends ServiceImpl<AssetMapper, AssetEntity> impl
             result.setName(fileOriginalName);
             // set resource size
             result.setSize(fileSize);
-            // md5 check to determine whether the file already exists
-            String checksum = DigestUtil.md5Hex(streamCache.getInputStream());
+            // md5 check to determine whether the file already exists, computed while the stream is cached
+            String checksum = streamCache.getChecksum();
             // Determine whether the upper limit of the attachment space is exceeded, and the whitelist space is skipped
             // iSubscriptionService.checkCapacity(spaceId, fileSize, checksum);
-            ImageDto imageDto = getImageInfo(streamCache.getInputStream());
+            ImageDto imageDto = getImageInfo(streamCache);
             Integer height = null;
             Integer width = null;
             if (imageDto != null) {
@@ -214,12 +209,14 @@ public class AssetServiceImpl extends ServiceImpl<AssetMapper, AssetEntity> impl
                         // does not exist, upload and store to the cloud
                         String uploadPath = buildPath(SPACE_PREFIX);
                         // upload attachment
-                        ossTemplate.upload(constProperties.getOssBucketByAsset().getBucketName(), streamCache.getInputStream(), uploadPath, mimeType, checksum);
+                        try (InputStream uploadIn = streamCache.getInputStream()) {
+                            ossTemplate.upload(constProperties.getOssBucketByAsset().getBucketName(), uploadIn, uploadPath, mimeType, checksum);
+                        }
                         result.setToken(uploadPath);
                         result.setBucket(constProperties.getOssBucketByAsset().getType());
                         if (isPdf) {
                             // upload pdf image
-                            String pdfImgUploadPath = uploadAndSavePdfImg(streamCache.getInputStream());
+                            String pdfImgUploadPath = uploadAndSavePdfImg(streamCache);
                             result.setPreview(pdfImgUploadPath);
                         }
                         // save in database
@@ -240,7 +237,7 @@ public class AssetServiceImpl extends ServiceImpl<AssetMapper, AssetEntity> impl
                         result.setPreview(assetEntity.getPreview());
                         if (isPdf && assetEntity.getPreview() == null) {
                             // upload pdf image
-                            String pdfImgUploadPath = uploadAndSavePdfImg(streamCache.getInputStream());
+                            String pdfImgUploadPath = uploadAndSavePdfImg(streamCache);
                             result.setPreview(pdfImgUploadPath);
                             // Basic resource records, supplementary preview data
                             AssetEntity update = new AssetEntity();
@@ -255,8 +252,8 @@ public class AssetServiceImpl extends ServiceImpl<AssetMapper, AssetEntity> impl
                             boolean flag = !assetDto.getType().equals(AssetType.COVER.getValue()) && assetType.equals(AssetType.COVER);
                             Integer type = flag ? AssetType.COVER.getValue() : null;
                             if (assetType != AssetType.DATASHEET) {
+                                // space capacity counts the asset once, whatever the references
                                 iSpaceAssetService.edit(assetDto.getId(), assetDto.getCite() + 1, type);
-                                spaceCapacityCacheService.del(spaceId);
                             }
                         }
                         else {
@@ -329,10 +326,12 @@ public class AssetServiceImpl extends ServiceImpl<AssetMapper, AssetEntity> impl
             // Upload public area
             String uploadPath = buildPath(PUBLIC_PREFIX);
             //upload files
-            ossTemplate.upload(constProperties.getOssBucketByAsset().getBucketName(), streamCacher.getInputStream(), uploadPath);
+            try (InputStream uploadIn = streamCacher.getInputStream()) {
+                ossTemplate.upload(constProperties.getOssBucketByAsset().getBucketName(), uploadIn, uploadPath);
+            }
             result.setToken(uploadPath);
             result.setMimeType(contentType);
-            ImageDto imageDto = getImageInfo(streamCacher.getInputStream());
+            ImageDto imageDto = getImageInfo(streamCacher);
             if (imageDto != null) {
                 result.setHeight(imageDto.getHeight());
                 result.setWidth(imageDto.getWidth());
@@ -358,10 +357,10 @@ public class AssetServiceImpl extends ServiceImpl<AssetMapper, AssetEntity> impl
             // set resource size
             result.setSize(fileSize);
             // md5 check to determine whether the file already exists
-            String checksum = DigestUtil.md5Hex(streamCache.getInputStream());
+            String checksum = streamCache.getChecksum();
             AssetEntity assetEntity = baseMapper.selectByChecksum(checksum);
             // read image
-            ImageDto imageDto = getImageInfo(streamCache.getInputStream());
+            ImageDto imageDto = getImageInfo(streamCache);
             if (imageDto != null) {
                 result.setHeight(imageDto.getHeight());
                 result.setWidth(imageDto.getWidth());
@@ -373,9 +372,11 @@ public class AssetServiceImpl extends ServiceImpl<AssetMapper, AssetEntity> impl
                     uploadPath = buildPath(DEVELOP_PREFIX);
                 }
                 // upload attachment
-                ossTemplate.upload(constProperties.getOssBucketByAsset().getBucketName(), streamCache.getInputStream(), uploadPath, contentType, checksum);
+                try (InputStream uploadIn = streamCache.getInputStream()) {
+                    ossTemplate.upload(constProperties.getOssBucketByAsset().getBucketName(), uploadIn, uploadPath, contentType, checksum);
+                }
                 // Calculate the file header Sum
-                String headSum = DigestUtil.createHeadSum(streamCache.getInputStream());
+                String headSum = streamCache.getHeadSum();
                 // Save into the database and bind the developer attachment table relationship
                 Long assetId = this.save(checksum, headSum, fileSize, uploadPath, contentType, result.getHeight(), result.getWidth(), result.getPreview());
                 iDeveloperAssetService.saveAssetInDeveloper(assetId, createdBy, checksum, developerAssetType, fileOriginalName, fileSize);
@@ -458,17 +459,24 @@ public class AssetServiceImpl extends ServiceImpl<AssetMapper, AssetEntity> impl
         }
     }
 
-    private String uploadAndSavePdfImg(InputStream in) {
+    private String uploadAndSavePdfImg(InputStreamCache streamCache) {
         log.info("PDF to generate pictures");
-        InputStream imageIn = PdfToImageUtil.convert(in);
+        InputStream imageIn;
+        try (InputStream in = streamCache.getInputStream()) {
+            imageIn = PdfToImageUtil.convert(in);
+        }
+        catch (IOException e) {
+            log.error("Failed to read PDF resource", e);
+            throw new BusinessException("upload failed");
+        }
         if (imageIn == null) {
             return null;
         }
 
-        try (InputStreamCache pdfImgStreamCache = new InputStreamCache(imageIn, imageIn.available())) {
+        try (InputStreamCache pdfImgStreamCache = new InputStreamCache(imageIn, imageIn.available());
+             InputStream uploadIn = pdfImgStreamCache.getInputStream()) {
             String pdfImgUploadPath = buildPath(SPACE_PREFIX);
-            String pdfImgChecksum = DigestUtil.md5Hex(pdfImgStreamCache.getInputStream());
-            ossTemplate.upload(constProperties.getOssBucketByAsset().getBucketName(), pdfImgStreamCache.getInputStream(), pdfImgUploadPath, MediaType.IMAGE_JPEG_VALUE, pdfImgChecksum);
+            ossTemplate.upload(constProperties.getOssBucketByAsset().getBucketName(), uploadIn, pdfImgUploadPath, MediaType.IMAGE_JPEG_VALUE, pdfImgStreamCache.getChecksum());
             return pdfImgUploadPath;
         }
         catch (IOException e) {
@@ -477,13 +485,14 @@ public class AssetServiceImpl extends ServiceImpl<AssetMapper, AssetEntity> impl
         }
     }
 
-    private ImageDto getImageInfo(InputStream in) {
-        try {
-            BufferedImage bi = ImageIO.read(in);
-            if (bi != null) {
+    private ImageDto getImageInfo(InputStreamCache streamCache) {
+        // read the size from image header instead of decoding the whole image
+        try (InputStream in = streamCache.getInputStream()) {
+            Dimension size = ImageTool.readSize(in);
+            if (size != null) {
                 ImageDto imageDto = new ImageDto();
-                imageDto.setHeight(bi.getHeight());
-                imageDto.setWidth(bi.getWidth());
+                imageDto.setHeight(size.height);
+                imageDto.setWidth(size.width);
                 return imageDto;
             }
         }
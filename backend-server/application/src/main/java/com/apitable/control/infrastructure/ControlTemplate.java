@@ -19,8 +19,17 @@
 package com.apitable.control.infrastructure;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import javax.annotation.Resource;
 
@@ -29,6 +38,8 @@ import cn.hutool.core.util.StrUtil;
 import lombok.extern.slf4j.Slf4j;
 
 import com.apitable.control.infrastructure.ControlIdBuilder.ControlId;
+import com.apitable.control.infrastructure.ControlIdBuilder.FieldControlId;
+import com.apitable.control.infrastructure.ControlIdBuilder.NodeControlId;
 import com.apitable.control.infrastructure.PrincipalBuilder.Principal;
 import com.apitable.control.infrastructure.exception.UnknownControlTypeException;
 import com.apitable.control.infrastructure.exception.UnknownPrincipalTypeException;
@@ -42,11 +53,13 @@ import com.apitable.control.infrastructure.request.NodeControlRequestFactory;
 import com.apitable.control.infrastructure.role.ControlRole;
 import com.apitable.control.infrastructure.role.FieldEditorRole;
 import com.apitable.control.infrastructure.role.NodeManagerRole;
+import com.apitable.organization.entity.MemberEntity;
 import com.apitable.organization.entity.UnitEntity;
 import com.apitable.organization.enums.UnitType;
 import com.apitable.organization.service.IMemberService;
 import com.apitable.organization.service.ITeamService;
 import com.apitable.organization.service.IUnitService;
+import com.apitable.shared.cache.service.ControlRoleCacheService;
 import com.apitable.space.service.ISpaceRoleService;
 import com.apitable.core.exception.BusinessException;
 
@@ -75,6 +88,9 @@ public class ControlTemplate {
     @Resource
     private ISpaceRoleService iSpaceRoleService;
 
+    @Resource
+    private ControlRoleCacheService controlRoleCacheService;
+
     private final List<ControlRequestFactory> factories = new ArrayList<>();
 
     public ControlTemplate() {
@@ -98,6 +114,79 @@ public class ControlTemplate {
         return execute(PrincipalBuilder.memberId(memberId), ControlIdBuilder.nodeIds(nodeIds));
     }
 
+    /**
+     * Fetch the node roles of many members at one time.
+     * Nodes, node roles and units of members are loaded once for all members, instead of once per member.
+     *
+     * @param memberIds member IDs
+     * @param nodeIds node IDs
+     * @return member ID -> node role dict, it is empty if the member is not in space or has no role
+     */
+    public Map<Long, ControlRoleDict> fetchNodeRoles(Collection<Long> memberIds, Collection<String> nodeIds) {
+        return fetchNodeRoles(memberIds, nodeIds, null);
+    }
+
+    /**
+     * Fetch the node roles of many members at one time, built as the request option specifies,
+     * such as the roles of the nodes in rubbish or the roles of internal call.
+     *
+     * @param memberIds member IDs
+     * @param nodeIds node IDs
+     * @param requestOption request option, nullable
+     * @return member ID -> node role dict, it is empty if the member is not in space or has no role
+     */
+    public Map<Long, ControlRoleDict> fetchNodeRoles(Collection<Long> memberIds, Collection<String> nodeIds, ControlRequestOption requestOption) {
+        Map<Long, ControlRoleDict> memberRoles = new LinkedHashMap<>(memberIds.size());
+        memberIds.forEach(memberId -> memberRoles.put(memberId, ControlRoleDict.create()));
+        if (memberRoles.isEmpty() || nodeIds.isEmpty()) {
+            return memberRoles;
+        }
+        List<String> controlIds = new ArrayList<>(new LinkedHashSet<>(nodeIds));
+        // workbench admins of the spaces have the top role
+        Map<String, List<Long>> spaceToMemberIds = iMemberService.listByIds(memberRoles.keySet()).stream()
+                .collect(Collectors.groupingBy(MemberEntity::getSpaceId, Collectors.mapping(MemberEntity::getId, Collectors.toList())));
+        List<Long> normalMemberIds = new ArrayList<>();
+        spaceToMemberIds.forEach((spaceId, spaceMemberIds) -> {
+            Set<Long> admins = new HashSet<>(iSpaceRoleService.getSpaceAdminsWithWorkbenchManage(spaceId));
+            for (Long memberId : spaceMemberIds) {
+                if (admins.contains(memberId)) {
+                    ControlRole topRole = getTopRole(ControlType.NODE);
+                    controlIds.forEach(nodeId -> memberRoles.get(memberId).put(nodeId, topRole));
+                }
+                else {
+                    normalMemberIds.add(memberId);
+                }
+            }
+        });
+        if (normalMemberIds.isEmpty()) {
+            return memberRoles;
+        }
+        Map<Long, List<Long>> memberUnits = iMemberService.getUnitsByMembers(normalMemberIds);
+        NodeControlRequest request = new NodeControlRequest(Collections.emptyList(), controlIds);
+        new DefaultControlRequestWrapper(requestOption).doWrapper(request);
+        memberRoles.putAll(request.execute(memberUnits));
+        return memberRoles;
+    }
+
+    /**
+     * Filter the members which have the specified permission on the node, evaluated at one time
+     *
+     * @param memberIds member IDs
+     * @param nodeId node ID
+     * @param permission node permission
+     * @return member IDs which have the permission
+     */
+    public Set<Long> filterMembersWithNodePermission(Collection<Long> memberIds, String nodeId, NodePermission permission) {
+        Set<Long> result = new LinkedHashSet<>();
+        fetchNodeRoles(memberIds, Collections.singletonList(nodeId)).forEach((memberId, roleDict) -> {
+            ControlRole role = roleDict.get(nodeId);
+            if (role != null && role.hasPermission(permission)) {
+                result.add(memberId);
+            }
+        });
+        return result;
+    }
+
     public ControlRoleDict fetchNodeTreeNode(Long memberId, List<String> nodeIds) {
         return execute(PrincipalBuilder.memberId(memberId), ControlIdBuilder.nodeIds(nodeIds), ControlRequestOption.create().setNodeTreeRoleBuilding(true));
     }
@@ -184,9 +273,67 @@ public class ControlTemplate {
     }
 
     protected ControlRoleDict execute(Principal principal, ControlId controlId, ControlRequestOption requestOption) {
+        String cacheScope = getCacheScope(principal, controlId, requestOption);
+        if (cacheScope != null) {
+            return doCachedExecute(principal.getPrincipal(), controlId, requestOption, cacheScope);
+        }
         return doExecute(principal, controlId, new DefaultControlRequestWrapper(requestOption));
     }
 
+    /**
+     * Only the member roles of nodes and fields are cached, the tree, share tree, rubbish and internal building are not,
+     * the roles of a tree depend on the nodes resolved together.
+     * @return cache scope, null if not cacheable
+     */
+    private String getCacheScope(Principal principal, ControlId controlId, ControlRequestOption requestOption) {
+        if (principal.getPrincipalType() != PrincipalType.MEMBER_ID || CollUtil.isEmpty(controlId.getControlIds())) {
+            return null;
+        }
+        if (controlId.getControlType() == ControlType.DATASHEET_FIELD) {
+            return "field";
+        }
+        if (controlId.getControlType() != ControlType.NODE) {
+            return null;
+        }
+        if (requestOption == null) {
+            return "node";
+        }
+        if (requestOption.nodeTreeRoleBuilding || requestOption.shareNodeTreeRoleBuilding
+                || requestOption.rubbishRoleBuilding || requestOption.internalBuilding) {
+            return null;
+        }
+        return "node";
+    }
+
+    private ControlRoleDict doCachedExecute(Long memberId, ControlId controlId, ControlRequestOption requestOption, String cacheScope) {
+        String spaceId = iMemberService.getSpaceIdByMemberId(memberId);
+        if (StrUtil.isBlank(spaceId)) {
+            throw new BusinessException(MEMBER_NOT_IN_SPACE);
+        }
+        Map<String, ControlRole> controlRoles = controlRoleCacheService.getMemberControlRoles(spaceId, memberId, cacheScope,
+                controlId.getControlIds(), missControlIds -> {
+                    ControlId missControlId = controlId.getControlType() == ControlType.NODE
+                            ? new NodeControlId(new ArrayList<>(missControlIds)) : new FieldControlId(new ArrayList<>(missControlIds));
+                    // the role dict is keyed by real id, take them before the request consumes the control ids
+                    List<String> realIds = new ArrayList<>(missControlId.toRealIdList());
+                    ControlRoleDict loaded = doExecute(PrincipalBuilder.memberId(memberId), missControlId, new DefaultControlRequestWrapper(requestOption));
+                    Map<String, ControlRole> roles = new HashMap<>(missControlIds.size());
+                    for (int i = 0; i < missControlIds.size(); i++) {
+                        roles.put(missControlIds.get(i), loaded.get(realIds.get(i)));
+                    }
+                    return roles;
+                });
+        ControlRoleDict controlRoleDict = ControlRoleDict.create();
+        List<String> realIds = controlId.toRealIdList();
+        for (int i = 0; i < realIds.size(); i++) {
+            ControlRole role = controlRoles.get(controlId.getControlIds().get(i));
+            if (role != null) {
+                controlRoleDict.put(realIds.get(i), role);
+            }
+        }
+        return controlRoleDict;
+    }
+
     protected ControlRoleDict doExecute(Principal principal, ControlId controlId, ControlRequestWrapper requestWrapper) {
         if (principal.getPrincipalType() == PrincipalType.UNIT_ID) {
             UnitEntity unitEntity = iUnitService.getById(principal.getPrincipal());
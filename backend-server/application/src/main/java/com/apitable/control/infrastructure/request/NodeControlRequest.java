@@ -18,15 +18,14 @@
 
 package com.apitable.control.infrastructure.request;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -113,13 +112,52 @@ public class NodeControlRequest extends AbstractControlRequest {
         if (nodeList == null || nodeList.isEmpty()) {
             return ControlRoleDict.create();
         }
+        // Index the node list once, lookups below are constant time instead of scanning the list
+        NodeTreeIndex nodeTree = NodeTreeIndex.of(nodeList);
         // Internal call to load node permission set
         if (internalBuilding) {
             if (logger.isTraceEnabled()) {
                 logger.trace("Load Internal Node Permission");
             }
-            return this.getInternalNodeRoles(nodeList);
+            return this.getInternalNodeRoles(prepareInternal(nodeTree), new HashSet<>(getUnits()));
         }
+        return evaluate(prepare(nodeTree), new HashSet<>(getUnits()));
+    }
+
+    /**
+     * Evaluate the node roles of many principals, the nodes and their roles are loaded only once.
+     * @param principalUnits principal -> organizational units of the principal
+     * @param <K> principal type
+     * @return principal -> role dict
+     */
+    public <K> Map<K, ControlRoleDict> execute(Map<K, ? extends Collection<Long>> principalUnits) {
+        Map<K, ControlRoleDict> result = new LinkedHashMap<>(principalUnits.size());
+        if (rubbishBuilding) {
+            List<ControlRoleInfo> controlRoleInfos = getRubbishControlRoleInfos();
+            principalUnits.forEach((principal, units) -> result.put(principal, getRubbishNodeRoles(controlRoleInfos, new HashSet<>(units))));
+            return result;
+        }
+        List<SimpleNodeInfo> nodeList = getSimpleNodeInfos();
+        if (nodeList == null || nodeList.isEmpty()) {
+            principalUnits.keySet().forEach(principal -> result.put(principal, ControlRoleDict.create()));
+            return result;
+        }
+        NodeTreeIndex nodeTree = NodeTreeIndex.of(nodeList);
+        if (internalBuilding) {
+            InternalRoleContext context = prepareInternal(nodeTree);
+            principalUnits.forEach((principal, units) -> result.put(principal, getInternalNodeRoles(context, new HashSet<>(units))));
+            return result;
+        }
+        NodeRoleContext context = prepare(nodeTree);
+        principalUnits.forEach((principal, units) -> result.put(principal, evaluate(context, new HashSet<>(units))));
+        return result;
+    }
+
+    /**
+     * Collect the parent nodes with permission of each node, and load their roles at one time.
+     * This part does not depend on the principal.
+     */
+    private NodeRoleContext prepare(NodeTreeIndex nodeTree) {
         // Find the upper-level path of the processing node (insert near-far in sequence),
         // and determine the highest authority of the node
         Map<String, Set<String>> parentNodeRoleMap = new LinkedHashMap<>(16);
@@ -132,7 +170,7 @@ public class NodeControlRequest extends AbstractControlRequest {
         // 2.If the node is in inheritance mode, the parent path has to be loaded, and the DB retrieval is also reduced
         for (String controlId : getControlIds()) {
             // Find the node first
-            SimpleNodeInfo node = findNode(nodeList, controlId);
+            SimpleNodeInfo node = nodeTree.getNode(controlId);
             // If the node information does not exist, look for the next one directly.
             // It should exist, unless a deleted node is passed in.
             if (node == null) {
@@ -146,7 +184,7 @@ public class NodeControlRequest extends AbstractControlRequest {
             // If the specified permission in the upper directory is not configured with itself, access is not allowed.
             if (node.getExtend()) {
                 // Continue to look up to the parent directory. If the specified permissions in the parent directory are not configured with themselves, access is not allowed.
-                Set<String> orderParentNodeIds = findParentNodeIdFromTop2Bottom(nodeList, node);
+                Set<String> orderParentNodeIds = nodeTree.getRoleParentIdsFromTop2Bottom(node);
                 if (logger.isTraceEnabled()) {
                     logger.trace("Parent Node Id [{}]", orderParentNodeIds);
                 }
@@ -165,13 +203,8 @@ public class NodeControlRequest extends AbstractControlRequest {
         }
 
         if (roleNodeIds.isEmpty()) {
-            // The parent nodes of all nodes have no permissions, or have no role permissions, return to the default permissions
-            // This is generally the case in new space
-            ControlRoleDict roleDict = ControlRoleDict.create();
-            getControlIds().forEach(controlId -> roleDict.put(controlId, new DefaultWorkbenchRole()));
-            return roleDict;
+            return new NodeRoleContext(nodeTree, parentNodeRoleMap, roleNodeIds, Collections.emptyMap());
         }
-
         // Find the role corresponding to the parent node at one time,
         // and use the algorithm to traverse to calculate the role configuration of each node
         List<ControlRoleInfo> controlRoleInfos = SpringContextHolder.getBean(ControlRoleMapper.class)
@@ -179,6 +212,27 @@ public class NodeControlRequest extends AbstractControlRequest {
         // group by node
         Map<String, List<ControlRoleInfo>> nodeRoleMap = controlRoleInfos.stream()
             .collect(Collectors.groupingBy(ControlRoleInfo::getControlId));
+        return new NodeRoleContext(nodeTree, parentNodeRoleMap, roleNodeIds, nodeRoleMap);
+    }
+
+    /**
+     * Calculate the roles of the organizational units on the prepared nodes
+     */
+    private ControlRoleDict evaluate(NodeRoleContext context, Set<Long> unitIds) {
+        NodeTreeIndex nodeTree = context.nodeTree;
+        Map<String, Set<String>> parentNodeRoleMap = context.parentNodeRoleMap;
+        Set<String> roleNodeIds = context.roleNodeIds;
+        Map<String, List<ControlRoleInfo>> nodeRoleMap = context.nodeRoleMap;
+        if (roleNodeIds.isEmpty()) {
+            // The parent nodes of all nodes have no permissions, or have no role permissions, return to the default permissions
+            // This is generally the case in new space
+            ControlRoleDict roleDict = ControlRoleDict.create();
+            getControlIds().forEach(controlId -> roleDict.put(controlId, new DefaultWorkbenchRole()));
+            return roleDict;
+        }
+
+        // The same parent node is shared by many nodes, compute the roles of each node only once
+        Map<String, Set<String>> calculatedRoles = new HashMap<>(roleNodeIds.size());
         Map<String, Set<String>> nodeRoles = new LinkedHashMap<>(parentNodeRoleMap.size());
         // If the parent from top to bottom does not contain its own permissions, the following can no longer appear
         // The purpose of creating a SET collection to store unauthorized nodes is to avoid repeated comparisons and reduce traversal when a loop node encounters unauthorized access.
@@ -218,12 +272,12 @@ public class NodeControlRequest extends AbstractControlRequest {
                         }
                     }
                     // Categorize the roles the user has on the node, there may be multiple roles
-                    Set<String> roles = calNodeRoles(nodeRoleMap, parentNodeId, getUnits());
+                    Set<String> roles = calculatedRoles.computeIfAbsent(parentNodeId, k -> calNodeRoles(nodeRoleMap, k, unitIds));
                     if (roles.isEmpty()) {
                         // Found that the role configuration of a parent does not grant permission, which means that there is no permission,
                         // and directly filter out the following nodes
                         if (treeBuilding) {
-                            List<String> children = findAllChildren(nodeList, parentNodeId);
+                            List<String> children = nodeTree.getAllChildren(parentNodeId);
                             accessDeniedNode.addAll(children);
                             break;
                         }
@@ -239,14 +293,14 @@ public class NodeControlRequest extends AbstractControlRequest {
             }
             else {
                 // If the node has set permissions, get the node permissions directly
-                Set<String> roles = calNodeRoles(nodeRoleMap, controlId, getUnits());
+                Set<String> roles = calculatedRoles.computeIfAbsent(controlId, k -> calNodeRoles(nodeRoleMap, k, unitIds));
                 if (!roles.isEmpty()) {
                     nodeRoles.put(controlId, roles);
                 }
                 else if (treeBuilding) {
                     // When building node tree, directly filter out the following nodes
                     accessDeniedNode.add(controlId);
-                    List<String> children = findAllChildren(nodeList, controlId);
+                    List<String> children = nodeTree.getAllChildren(controlId);
                     accessDeniedNode.addAll(children);
                 }
             }
@@ -258,10 +312,16 @@ public class NodeControlRequest extends AbstractControlRequest {
     }
 
     public ControlRoleDict getRubbishNodeRoles() {
-        ControlRoleDict roleDict = ControlRoleDict.create();
+        return getRubbishNodeRoles(getRubbishControlRoleInfos(), new HashSet<>(units));
+    }
+
+    private List<ControlRoleInfo> getRubbishControlRoleInfos() {
         // Query the permissions view of a node
-        List<ControlRoleInfo> controlRoleInfos = SpringContextHolder.getBean(ControlRoleMapper.class)
-            .selectControlRoleInfoByControlIds(nodeIds);
+        return SpringContextHolder.getBean(ControlRoleMapper.class).selectControlRoleInfoByControlIds(nodeIds);
+    }
+
+    private ControlRoleDict getRubbishNodeRoles(List<ControlRoleInfo> controlRoleInfos, Set<Long> unitIds) {
+        ControlRoleDict roleDict = ControlRoleDict.create();
         if (controlRoleInfos.isEmpty()) {
             // All nodes have no permissions. The node was previously inherited from the root node and returns to the default permissions.
             nodeIds.forEach(controlId -> roleDict.put(controlId, new DefaultWorkbenchRole()));
@@ -274,7 +334,7 @@ public class NodeControlRequest extends AbstractControlRequest {
                 .forEach(controlId -> roleDict.put(controlId, new DefaultWorkbenchRole()));
         // Filter organizational units and get role sets by node grouping
         Map<String, Set<String>> nodeRoles = controlRoleInfos.stream()
-            .filter(permission -> units.contains(permission.getUnitId()))
+            .filter(permission -> unitIds.contains(permission.getUnitId()))
             .collect(Collectors.groupingBy(ControlRoleInfo::getControlId, Collectors.mapping(ControlRoleInfo::getRole, Collectors.toSet())));
         if (nodeRoles.isEmpty()) {
             return roleDict;
@@ -285,50 +345,64 @@ public class NodeControlRequest extends AbstractControlRequest {
     }
 
     /**
-     * For internal call，Need to determine whether the node belongs to the ghost node
-     * @param nodeList simple node list
+     * For internal call, collect the parent nodes with permission of each node from bottom to top,
+     * and load their roles at one time. This part does not depend on the principal.
+     * @param nodeTree indexed node tree
      */
-    private ControlRoleDict getInternalNodeRoles(List<SimpleNodeInfo> nodeList) {
-        ControlRoleDict roleDict = ControlRoleDict.create();
-        Map<String, SimpleNodeInfo> nodeToInfoMap = nodeList.stream().collect(Collectors.toMap(SimpleNodeInfo::getNodeId, v -> v));
-
+    private InternalRoleContext prepareInternal(NodeTreeIndex nodeTree) {
         Map<String, List<String>> reverseParentNodeRoleMap = new LinkedHashMap<>(16);
         Set<String> roleNodeIds = new HashSet<>();
         for (String controlId : getControlIds()) {
-            if (!nodeToInfoMap.containsKey(controlId)) {
+            SimpleNodeInfo node = nodeTree.getNode(controlId);
+            if (node == null) {
                 continue;
             }
-            SimpleNodeInfo node = nodeToInfoMap.get(controlId);
             // // If the node has set permissions, get the permissions of node directly
             if (!node.getExtend()) {
                 roleNodeIds.add(controlId);
             }
             // Find all parent nodes from bottom to top
-            List<String> reverseParentNodeIds = findParentNodeIdFromBottom2Top(nodeList, node);
+            List<String> reverseParentNodeIds = nodeTree.getRoleParentIdsFromBottom2Top(node);
             reverseParentNodeRoleMap.put(controlId, reverseParentNodeIds);
             if (reverseParentNodeIds.isEmpty()) {
                 continue;
             }
             roleNodeIds.addAll(reverseParentNodeIds);
         }
-        // The parent nodes of all nodes have no permissions, and the current node has no permissions, returning to the default permissions
         if (roleNodeIds.isEmpty()) {
-            getControlIds().forEach(controlId -> roleDict.put(controlId, new DefaultWorkbenchRole()));
-            return roleDict;
+            return new InternalRoleContext(nodeTree, reverseParentNodeRoleMap, roleNodeIds, Collections.emptyMap());
         }
-
         // Find the role corresponding to the parent node at one time, and use the algorithm to traverse to calculate the role configuration of each node
         List<ControlRoleInfo> controlRoleInfos = SpringContextHolder.getBean(ControlRoleMapper.class)
                 .selectControlRoleInfoByControlIds(roleNodeIds);
         // Group by node
         Map<String, List<ControlRoleInfo>> nodeRoleMap = controlRoleInfos.stream()
                 .collect(Collectors.groupingBy(ControlRoleInfo::getControlId));
+        return new InternalRoleContext(nodeTree, reverseParentNodeRoleMap, roleNodeIds, nodeRoleMap);
+    }
+
+    /**
+     * For internal call，Need to determine whether the node belongs to the ghost node
+     * @param context prepared nodes and roles
+     * @param unitIds organizational units of the principal
+     */
+    private ControlRoleDict getInternalNodeRoles(InternalRoleContext context, Set<Long> unitIds) {
+        ControlRoleDict roleDict = ControlRoleDict.create();
+        NodeTreeIndex nodeTree = context.nodeTree;
+        Map<String, List<String>> reverseParentNodeRoleMap = context.reverseParentNodeRoleMap;
+        Map<String, List<ControlRoleInfo>> nodeRoleMap = context.nodeRoleMap;
+        // The parent nodes of all nodes have no permissions, and the current node has no permissions, returning to the default permissions
+        if (context.roleNodeIds.isEmpty()) {
+            getControlIds().forEach(controlId -> roleDict.put(controlId, new DefaultWorkbenchRole()));
+            return roleDict;
+        }
+        Map<String, Set<String>> calculatedRoles = new HashMap<>(context.roleNodeIds.size());
 
         for (String controlId : getControlIds()) {
-            if (!nodeToInfoMap.containsKey(controlId)) {
+            SimpleNodeInfo node = nodeTree.getNode(controlId);
+            if (node == null) {
                 continue;
             }
-            SimpleNodeInfo node = nodeToInfoMap.get(controlId);
             String nodeId = controlId;
             List<String> reverseParentNodeIds = reverseParentNodeRoleMap.get(controlId);
             if (node.getExtend()) {
@@ -337,10 +411,12 @@ public class NodeControlRequest extends AbstractControlRequest {
                     roleDict.put(controlId, new DefaultWorkbenchRole());
                     continue;
                 }
-                nodeId = reverseParentNodeIds.remove(0);
+                // the context is shared by the principals, it is not modified
+                nodeId = reverseParentNodeIds.get(0);
+                reverseParentNodeIds = reverseParentNodeIds.subList(1, reverseParentNodeIds.size());
             }
             // Compute node role
-            Set<String> roles = calNodeRoles(nodeRoleMap, nodeId, getUnits());
+            Set<String> roles = calculatedRoles.computeIfAbsent(nodeId, k -> calNodeRoles(nodeRoleMap, k, unitIds));
             if (!roles.isEmpty()) {
                 // Get the most privileged role
                 roleDict.put(controlId, ControlRoleManager.getTopNodeRole(roles));
@@ -355,14 +431,14 @@ public class NodeControlRequest extends AbstractControlRequest {
             // Query from bottom to top whether there is a superior node without permission, it should be a ghost node
             boolean isGhostNode = false;
             for (String parentNodeId : reverseParentNodeIds) {
-                Set<String> parentRoles = calNodeRoles(nodeRoleMap, parentNodeId, getUnits());
+                Set<String> parentRoles = calculatedRoles.computeIfAbsent(parentNodeId, k -> calNodeRoles(nodeRoleMap, k, unitIds));
                 if (parentRoles.isEmpty()) {
                     isGhostNode = true;
                     break;
                 }
             }
             NodeRole controlRole = (NodeRole) roleDict.get(controlId);
-            controlRole.setGhostNode(isGhostNode);
+            roleDict.put(controlId, controlRole.withGhostNode(isGhostNode));
         }
         return roleDict;
     }
@@ -377,14 +453,15 @@ public class NodeControlRequest extends AbstractControlRequest {
         // The shared tree allows the ghost nodes of the fault to retain permissions,
         // so it cannot be calculated from the top down, but calculated from the shared node down to avoid being directly truncated
         // The share node is at the root
-        SimpleNodeInfo node = findNode(nodeList, getControlIds().get(0));
+        NodeTreeIndex nodeTree = NodeTreeIndex.of(nodeList);
+        SimpleNodeInfo node = nodeTree.getNode(getControlIds().get(0));
         if (node == null) {
             return null;
         }
         // The share node does not have permission
         if (node.getExtend()) {
             // Find the closest parent node of the specified permission and truncate the previous parent node
-            List<String> reverseParentNodeIds = findParentNodeIdFromBottom2Top(nodeList, node);
+            List<String> reverseParentNodeIds = nodeTree.getRoleParentIdsFromBottom2Top(node);
             if (reverseParentNodeIds.isEmpty()) {
                 return nodeList;
             }
@@ -403,121 +480,66 @@ public class NodeControlRequest extends AbstractControlRequest {
         }
     }
 
-    /**
-     * find node
-     * @param simpleNodeInfos node list
-     * @param nodeId node id
-     * @return node info
-     */
-    private static SimpleNodeInfo findNode(List<SimpleNodeInfo> simpleNodeInfos, String nodeId) {
-        SimpleNodeInfo node = null;
-        for (SimpleNodeInfo simpleNodeInfo : simpleNodeInfos) {
-            if (simpleNodeInfo.getNodeId().equals(nodeId)) {
-                node = simpleNodeInfo;
-                break;
-            }
-        }
-        return node;
-    }
-
-    /**
-     * Recursively get the list of parent nodes of a node
-     * @param simpleNodeInfos node list
-     * @param node node
-     * @return List of parent nodes from bottom to top
-     */
-    private static Set<String> findParentNodeIdFromTop2Bottom(List<SimpleNodeInfo> simpleNodeInfos, SimpleNodeInfo node) {
-        // Find parent node from bottom to top
-        List<String> parentNodeIds = findParentNodeIdFromBottom2Top(simpleNodeInfos, node);
-        // Reverse the order, because the acquisition is from bottom to top, for permission control, the order must be reversed, from top to bottom
-        Collections.reverse(parentNodeIds);
-        return new LinkedHashSet<>(parentNodeIds);
-    }
-
-    /**
-     * Query the parent node in reverse order
-     * @param simpleNodeInfos node info list
-     * @param node node
-     * @return list of node id
-     */
-    private static List<String> findParentNodeIdFromBottom2Top(List<SimpleNodeInfo> simpleNodeInfos, SimpleNodeInfo node) {
-        // Find parent nodes in reverse order, from bottom to top
-        List<String> parents = new ArrayList<>();
-        // Find all parent nodes with permissions configured, from bottom to top
-        findParentNodeRole(simpleNodeInfos, node, parents::add);
-        return parents;
-    }
-
-    /**
-     * Find the parent node that enables the role permission configuration
-     * @param simpleNodeInfos node list
-     * @param roleInfo node info
-     * @param parents parent node with permission
-     */
-    private static void findParentNodeRole(List<SimpleNodeInfo> simpleNodeInfos, SimpleNodeInfo roleInfo, Consumer<String> parents) {
-        for (SimpleNodeInfo simpleNodeInfo : simpleNodeInfos) {
-            if (roleInfo.getParentId().equals(simpleNodeInfo.getNodeId())) {
-                if (!simpleNodeInfo.getExtend()) {
-                    parents.accept(simpleNodeInfo.getNodeId());
-                }
-                findParentNodeRole(simpleNodeInfos, simpleNodeInfo, parents);
-            }
-        }
-    }
-
     /**
      * compute node role
      * @param nodeRoleMap Node role key-value pair
      * @param nodeId node id
-     * @param memberUnitIds List of organizational units to which members belong
+     * @param memberUnitIds organizational units to which members belong
      * @return node role
      */
-    private static Set<String> calNodeRoles(Map<String, List<ControlRoleInfo>> nodeRoleMap, String nodeId, List<Long> memberUnitIds) {
+    private static Set<String> calNodeRoles(Map<String, List<ControlRoleInfo>> nodeRoleMap, String nodeId, Set<Long> memberUnitIds) {
         List<ControlRoleInfo> permissions = nodeRoleMap.get(nodeId);
         if (permissions == null) {
             return new HashSet<>();
         }
-        // The organizational unit corresponding to the node role
-        Map<String, List<Long>> roleUnitMap = permissions.stream()
-            .collect(Collectors.groupingBy(ControlRoleInfo::getRole, Collectors.mapping(ControlRoleInfo::getUnitId, Collectors.toList())));
-        return roleUnitMap.entrySet()
-            .stream()
-            .filter(entry -> memberUnitIds.stream().anyMatch(m -> entry.getValue().contains(m)))
-            .map(Map.Entry::getKey).collect(Collectors.toSet());
+        // The roles whose organizational unit is one of the member's units
+        return permissions.stream()
+            .filter(permission -> memberUnitIds.contains(permission.getUnitId()))
+            .map(ControlRoleInfo::getRole)
+            .collect(Collectors.toSet());
     }
 
     /**
-     * find all child nodes
-     * @param simpleNodeInfos list of node info
-     * @param parentNodeId parent node id
-     * @return all child node
+     * nodes and roles loaded for the calculation, independent of the principal
      */
-    private static List<String> findAllChildren(List<SimpleNodeInfo> simpleNodeInfos, String parentNodeId) {
-        List<String> allChildren = new ArrayList<>();
-        List<String> children = findChildren(simpleNodeInfos, parentNodeId);
-        if (!children.isEmpty()) {
-            allChildren.addAll(children);
-            for (String child : children) {
-                List<String> subs = findAllChildren(simpleNodeInfos, child);
-                allChildren.addAll(subs);
-            }
+    private static class NodeRoleContext {
+
+        private final NodeTreeIndex nodeTree;
+
+        private final Map<String, Set<String>> parentNodeRoleMap;
+
+        private final Set<String> roleNodeIds;
+
+        private final Map<String, List<ControlRoleInfo>> nodeRoleMap;
+
+        NodeRoleContext(NodeTreeIndex nodeTree, Map<String, Set<String>> parentNodeRoleMap, Set<String> roleNodeIds,
+                Map<String, List<ControlRoleInfo>> nodeRoleMap) {
+            this.nodeTree = nodeTree;
+            this.parentNodeRoleMap = parentNodeRoleMap;
+            this.roleNodeIds = roleNodeIds;
+            this.nodeRoleMap = nodeRoleMap;
         }
-        return allChildren;
     }
 
     /**
-     * Find child node id
-     * @param simpleNodeInfos list of node info
-     * @param parentNodeId parent node id
-     * @return list of child node id
+     * nodes and roles loaded for the internal calculation, independent of the principal
      */
-    private static List<String> findChildren(List<SimpleNodeInfo> simpleNodeInfos, String parentNodeId) {
-        List<String> children = new ArrayList<>();
-        for (SimpleNodeInfo nodeInfo : simpleNodeInfos) {
-            if (nodeInfo.getParentId().equals(parentNodeId)) {
-                children.add(nodeInfo.getNodeId());
-            }
+    private static class InternalRoleContext {
+
+        private final NodeTreeIndex nodeTree;
+
+        private final Map<String, List<String>> reverseParentNodeRoleMap;
+
+        private final Set<String> roleNodeIds;
+
+        private final Map<String, List<ControlRoleInfo>> nodeRoleMap;
+
+        InternalRoleContext(NodeTreeIndex nodeTree, Map<String, List<String>> reverseParentNodeRoleMap, Set<String> roleNodeIds,
+                Map<String, List<ControlRoleInfo>> nodeRoleMap) {
+            this.nodeTree = nodeTree;
+            this.reverseParentNodeRoleMap = reverseParentNodeRoleMap;
+            this.roleNodeIds = roleNodeIds;
+            this.nodeRoleMap = nodeRoleMap;
         }
-        return children;
     }
 }
@@ -0,0 +1,190 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.control.infrastructure.request;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.apitable.workspace.dto.SimpleNodeInfo;
+
+/**
+ * <p>
+ * Indexed in-memory view of a node list, built once per control request.
+ * Replaces the linear scans over {@link SimpleNodeInfo} list when resolving node roles.
+ * </p>
+ * <ul>
+ *     <li>nodeId -> node info</li>
+ *     <li>parentId -> children (keeps the original list order)</li>
+ *     <li>nodeId -> closest parent node which has its own permission (not extend)</li>
+ * </ul>
+ */
+public final class NodeTreeIndex {
+
+    /**
+     * marker of the node which has no parent node with permission
+     */
+    private static final String NONE = "";
+
+    private final Map<String, SimpleNodeInfo> nodes;
+
+    private final Map<String, List<String>> children;
+
+    private final Map<String, String> closestRoleParent;
+
+    private NodeTreeIndex(int expectedSize) {
+        int capacity = Math.max(16, (int) (expectedSize / 0.75f) + 1);
+        this.nodes = new HashMap<>(capacity);
+        this.children = new HashMap<>(capacity);
+        this.closestRoleParent = new HashMap<>(capacity);
+    }
+
+    /**
+     * build index of node list
+     * @param nodeList node list
+     * @return NodeTreeIndex
+     */
+    public static NodeTreeIndex of(List<SimpleNodeInfo> nodeList) {
+        NodeTreeIndex index = new NodeTreeIndex(nodeList.size());
+        for (SimpleNodeInfo node : nodeList) {
+            // keep the first one, the same as the linear lookup did
+            if (index.nodes.putIfAbsent(node.getNodeId(), node) == null) {
+                index.children.computeIfAbsent(node.getParentId(), k -> new ArrayList<>()).add(node.getNodeId());
+            }
+        }
+        for (SimpleNodeInfo node : index.nodes.values()) {
+            index.resolveClosestRoleParent(node);
+        }
+        return index;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * find node
+     * @param nodeId node id
+     * @return node info, null if not exist
+     */
+    public SimpleNodeInfo getNode(String nodeId) {
+        return nodes.get(nodeId);
+    }
+
+    /**
+     * find child node id
+     * @param parentNodeId parent node id
+     * @return list of child node id
+     */
+    public List<String> getChildren(String parentNodeId) {
+        List<String> nodeIds = children.get(parentNodeId);
+        return nodeIds != null ? nodeIds : Collections.emptyList();
+    }
+
+    /**
+     * find all child nodes, depth first
+     * @param parentNodeId parent node id
+     * @return all child node id
+     */
+    public List<String> getAllChildren(String parentNodeId) {
+        List<String> allChildren = new ArrayList<>();
+        Deque<String> stack = new ArrayDeque<>();
+        stack.push(parentNodeId);
+        while (!stack.isEmpty()) {
+            List<String> subs = children.get(stack.pop());
+            if (subs == null) {
+                continue;
+            }
+            allChildren.addAll(subs);
+            for (int i = subs.size() - 1; i >= 0; i--) {
+                stack.push(subs.get(i));
+            }
+        }
+        return allChildren;
+    }
+
+    /**
+     * Query the parent nodes which have permission in reverse order, from bottom to top
+     * @param node node
+     * @return list of node id
+     */
+    public List<String> getRoleParentIdsFromBottom2Top(SimpleNodeInfo node) {
+        List<String> parents = new ArrayList<>();
+        String parentId = closestRoleParent.get(node.getNodeId());
+        while (parentId != null && !NONE.equals(parentId)) {
+            parents.add(parentId);
+            parentId = closestRoleParent.get(parentId);
+        }
+        return parents;
+    }
+
+    /**
+     * Query the parent nodes which have permission, from top to bottom
+     * @param node node
+     * @return ordered set of node id
+     */
+    public Set<String> getRoleParentIdsFromTop2Bottom(SimpleNodeInfo node) {
+        List<String> parentNodeIds = getRoleParentIdsFromBottom2Top(node);
+        Collections.reverse(parentNodeIds);
+        return new LinkedHashSet<>(parentNodeIds);
+    }
+
+    /**
+     * Walk up the parent chain until a resolved node or the top,
+     * then fill the closest parent with permission of every node on the path.
+     * Each node is resolved only once.
+     */
+    private void resolveClosestRoleParent(SimpleNodeInfo node) {
+        if (closestRoleParent.containsKey(node.getNodeId())) {
+            return;
+        }
+        List<SimpleNodeInfo> path = new ArrayList<>();
+        Set<String> visiting = new HashSet<>();
+        String resolved = NONE;
+        SimpleNodeInfo current = node;
+        while (current != null) {
+            String known = closestRoleParent.get(current.getNodeId());
+            if (known != null) {
+                // closest role parent of the child is this node when it owns permission
+                resolved = current.getExtend() ? known : current.getNodeId();
+                break;
+            }
+            if (!visiting.add(current.getNodeId())) {
+                // broken data with cycle, stop here
+                break;
+            }
+            path.add(current);
+            current = nodes.get(current.getParentId());
+        }
+        for (int i = path.size() - 1; i >= 0; i--) {
+            SimpleNodeInfo item = path.get(i);
+            closestRoleParent.put(item.getNodeId(), resolved);
+            if (!item.getExtend()) {
+                resolved = item.getNodeId();
+            }
+        }
+    }
+}
@@ -18,15 +18,13 @@
 
 package com.apitable.control.infrastructure.role;
 
-import java.util.Comparator;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 
-import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.util.ObjectUtil;
 
 import com.apitable.control.infrastructure.permission.NodePermission;
@@ -35,19 +33,53 @@ import com.apitable.control.infrastructure.ExportLevelEnum;
 import com.apitable.space.vo.SpaceGlobalFeature;
 
 /**
- * base control role
+ * base control role.
+ * <p>
+ * permissions are only granted in the constructors, the group bits are accumulated at the same time,
+ * so the role is immutable and never derives them again when checking or comparing.
+ * </p>
  * @author Shawn Deng
  */
-abstract class AbstractControlRole implements ControlRole {
+abstract class AbstractControlRole implements ControlRole, Cloneable {
 
-    protected volatile Set<PermissionDefinition> permissions = new LinkedHashSet<>();
+    private final Set<PermissionDefinition> permissions = new LinkedHashSet<>();
+
+    private final Set<PermissionDefinition> readOnlyPermissions = Collections.unmodifiableSet(permissions);
 
     private final boolean inherit;
 
+    /**
+     * permission bits indexed by permission group
+     */
+    private long[] groupBits = new long[0];
+
+    /**
+     * bitwise or of all groups, the rank of the role
+     */
+    private long bits;
+
     public AbstractControlRole(boolean inherit) {
         this.inherit = inherit;
     }
 
+    /**
+     * grant permissions to the role, only called in constructors
+     * @param permissionDefinitions permissions
+     */
+    protected final void grant(PermissionDefinition... permissionDefinitions) {
+        for (PermissionDefinition permission : permissionDefinitions) {
+            if (!permissions.add(permission)) {
+                continue;
+            }
+            int group = permission.getGroup();
+            if (group >= groupBits.length) {
+                groupBits = Arrays.copyOf(groupBits, group + 1);
+            }
+            groupBits[group] |= permission.getValue();
+            bits |= permission.getValue();
+        }
+    }
+
     @Override
     public boolean isInherit() {
         return this.inherit;
@@ -55,32 +87,27 @@ abstract class AbstractControlRole implements ControlRole {
 
     @Override
     public Set<PermissionDefinition> getPermissions() {
-        return this.permissions;
+        return this.readOnlyPermissions;
     }
 
     @Override
     public Map<Integer, Long> getGroupPermissionBit() {
-        Map<Integer, List<PermissionDefinition>> mapGroups = permissions.stream().distinct()
-            .sorted(Comparator.comparing(PermissionDefinition::getGroup))
-            .collect(Collectors.groupingBy(PermissionDefinition::getGroup, Collectors.toList()));
-        return mapGroups.entrySet().stream()
-            .collect(Collectors.toMap(Map.Entry::getKey,
-                entry ->
-                    entry.getValue().stream()
-                        .mapToLong(PermissionDefinition::getValue)
-                        .reduce(0L, (left, right) -> left | right)));
+        Map<Integer, Long> groupPermissionBit = new LinkedHashMap<>(groupBits.length);
+        for (PermissionDefinition permission : permissions) {
+            groupPermissionBit.putIfAbsent(permission.getGroup(), groupBits[permission.getGroup()]);
+        }
+        return groupPermissionBit;
     }
 
     @Override
     public boolean hasPermission(PermissionDefinition permission) {
         int group = permission.getGroup();
-        long value = permission.getValue();
-        return !((getGroupPermissionBit().get(group) & value) == 0);
+        return group < groupBits.length && (groupBits[group] & permission.getValue()) != 0;
     }
 
     @Override
     public long getBits() {
-        return getGroupPermissionBit().values().stream().reduce(0L, (left, right) -> left | right);
+        return this.bits;
     }
 
     @Override
@@ -115,22 +142,20 @@ abstract class AbstractControlRole implements ControlRole {
 
     @Override
     public <T> T permissionToBean(Class<T> beanClass) {
-        Map<String, Boolean> map = getPermissions().stream()
-                .collect(HashMap::new, (m, v) -> m.put(v.getCode(), true), HashMap::putAll);
-        return BeanUtil.toBeanIgnoreError(map, beanClass);
+        return PermissionBeanMapper.of(beanClass).toBean(groupBits, permissions, null);
     }
 
     @Override
     public <T> T permissionToBean(Class<T> beanClass, SpaceGlobalFeature feature) {
-        Map<String, Boolean> map = getPermissions().stream()
-                .collect(HashMap::new, (m, v) -> m.put(v.getCode(), true), HashMap::putAll);
+        PermissionDefinition denied = null;
         // For non-main admin, node export permissions are determined by the space global properties
-        if (getPermissions().contains(NodePermission.EXPORT_NODE) && !isAdmin()) {
+        if (permissions.contains(NodePermission.EXPORT_NODE) && !isAdmin()) {
             // Comparison of space global attributes and individual permissions
-            boolean isAllowedNodeExportResult = isAllowedNodeExport(feature);
-            map.put(NodePermission.EXPORT_NODE.getCode(), isAllowedNodeExportResult);
+            if (!isAllowedNodeExport(feature)) {
+                denied = NodePermission.EXPORT_NODE;
+            }
         }
-        return BeanUtil.toBeanIgnoreError(map, beanClass);
+        return PermissionBeanMapper.of(beanClass).toBean(groupBits, permissions, denied);
     }
 
     private boolean isAllowedNodeExport(SpaceGlobalFeature feature) {
@@ -151,4 +176,17 @@ abstract class AbstractControlRole implements ControlRole {
     public String toString() {
         return super.toString();
     }
+
+    /**
+     * shallow copy, the permissions and bits are shared because they never change after construction
+     */
+    @Override
+    protected AbstractControlRole clone() {
+        try {
+            return (AbstractControlRole) super.clone();
+        }
+        catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
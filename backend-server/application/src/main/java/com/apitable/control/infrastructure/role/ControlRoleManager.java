@@ -40,6 +40,21 @@ public class ControlRoleManager {
 
     private static final Map<String, ControlRole> FIELD_CONTROL_ROLE_MAP;
 
+    /**
+     * cache value of no role
+     */
+    private static final String NONE_CACHE_VALUE = "none";
+
+    private static final String WORKBENCH_CACHE_VALUE = "workbench";
+
+    private static final String NODE_ADMIN_CACHE_VALUE = "node_admin";
+
+    private static final String FIELD_ADMIN_CACHE_VALUE = "field_admin";
+
+    private static final String NODE_CACHE_PREFIX = "node:";
+
+    private static final String FIELD_CACHE_PREFIX = "field:";
+
     static {
         // node role container
         NODE_CONTROL_ROLE_MAP = new HashMap<>(16);
@@ -94,8 +109,12 @@ public class ControlRoleManager {
     }
 
     public static ControlRole getTopNodeRole(Collection<String> roleCodes) {
-        List<ControlRole> roles = parseAndSortNodeRole(roleCodes);
-        return roles.get(roles.size() - 1);
+        ControlRole top = null;
+        for (String roleCode : roleCodes) {
+            top = max(top, parseNodeRole(roleCode));
+        }
+        Assert.notNull(top, "role codes is empty");
+        return top;
     }
 
     public static List<ControlRole> parseAndSortFieldRole(Collection<String> roleCodes) {
@@ -113,7 +132,60 @@ public class ControlRoleManager {
     }
 
     public static ControlRole getTopFieldRole(Collection<String> roleCodes) {
-        List<ControlRole> roles = parseAndSortFieldRole(roleCodes);
-        return roles.get(roles.size() - 1);
+        ControlRole top = null;
+        for (String roleCode : roleCodes) {
+            top = max(top, parseFieldRole(roleCode));
+        }
+        Assert.notNull(top, "role codes is empty");
+        return top;
+    }
+
+    /**
+     * the later one wins when equal, the same as the last one of the stable sorting
+     */
+    private static ControlRole max(ControlRole top, ControlRole role) {
+        return top == null || role.getBits() >= top.getBits() ? role : top;
+    }
+
+    /**
+     * convert the resolved role into a cache value
+     * @param role resolved role, null means no role
+     * @return cache value
+     */
+    public static String toCacheValue(ControlRole role) {
+        if (role == null) {
+            return NONE_CACHE_VALUE;
+        }
+        if (role instanceof DefaultWorkbenchRole) {
+            return WORKBENCH_CACHE_VALUE;
+        }
+        if (role.isAdmin()) {
+            return role instanceof NodeRole ? NODE_ADMIN_CACHE_VALUE : FIELD_ADMIN_CACHE_VALUE;
+        }
+        return (role instanceof NodeRole ? NODE_CACHE_PREFIX : FIELD_CACHE_PREFIX) + role.getRoleTag();
+    }
+
+    /**
+     * restore the role from a cache value
+     * @param value cache value
+     * @return role, null means no role
+     */
+    public static ControlRole fromCacheValue(String value) {
+        switch (value) {
+            case NONE_CACHE_VALUE:
+                return null;
+            case WORKBENCH_CACHE_VALUE:
+                return new DefaultWorkbenchRole();
+            case NODE_ADMIN_CACHE_VALUE:
+                return new NodeManagerRole(true, true);
+            case FIELD_ADMIN_CACHE_VALUE:
+                return new FieldEditorRole(true, true);
+            default:
+                if (value.startsWith(NODE_CACHE_PREFIX)) {
+                    return parseNodeRole(value.substring(NODE_CACHE_PREFIX.length()));
+                }
+                Assert.isTrue(value.startsWith(FIELD_CACHE_PREFIX), "role cache value is invalid");
+                return parseFieldRole(value.substring(FIELD_CACHE_PREFIX.length()));
+        }
     }
 }
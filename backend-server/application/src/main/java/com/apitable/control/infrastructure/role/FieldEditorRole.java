@@ -41,7 +41,7 @@ public class FieldEditorRole extends FieldReaderRole {
     public FieldEditorRole(boolean inherit, boolean isAdmin) {
         super(inherit, isAdmin);
 
-        permissions.add(FieldPermission.EDIT_FIELD_DATA);
+        grant(FieldPermission.EDIT_FIELD_DATA);
     }
 
     @Override
@@ -40,7 +40,7 @@ public class FieldReaderRole extends AbstractControlRole {
     public FieldReaderRole(boolean inherit, boolean isAdmin) {
         super(inherit);
         this.isAdmin = isAdmin;
-        permissions.add(FieldPermission.READ_FIELD_DATA);
+        grant(FieldPermission.READ_FIELD_DATA);
     }
 
     @Override
@@ -34,36 +34,36 @@ public class NodeEditorRole extends NodeReaderRole {
 
     public NodeEditorRole(boolean inherit) {
         super(inherit);
-        permissions.add(NodePermission.EDIT_NODE);
-        permissions.add(NodePermission.SHARE_NODE);
+        grant(NodePermission.EDIT_NODE);
+        grant(NodePermission.SHARE_NODE);
 
-        permissions.add(NodePermission.CREATE_VIEW);
-        permissions.add(NodePermission.RENAME_VIEW);
-        permissions.add(NodePermission.REMOVE_VIEW);
-        permissions.add(NodePermission.MOVE_VIEW);
-        permissions.add(NodePermission.SORT_COLUMN);
-        permissions.add(NodePermission.HIDE_COLUMN);
-        permissions.add(NodePermission.FILTER_VIEW);
-        permissions.add(NodePermission.SORT_FIELD);
-        permissions.add(NodePermission.GROUP_FIELD);
-        permissions.add(NodePermission.EDIT_ROW_HIGH);
-        permissions.add(NodePermission.EDIT_COLUMN_WIDTH);
-        permissions.add(NodePermission.EDIT_COLUMN_COUNT);
-        permissions.add(NodePermission.SORT_ROW);
-        permissions.add(NodePermission.CREATE_ROW);
-        permissions.add(NodePermission.REMOVE_ROW);
-        permissions.add(NodePermission.EDIT_CELL);
-        permissions.add(NodePermission.EDIT_VIEW_LAYOUT);
-        permissions.add(NodePermission.EDIT_VIEW_STYLE);
-        permissions.add(NodePermission.EDIT_VIEW_KEY_FIELD);
-        permissions.add(NodePermission.EDIT_VIEW_COLOR_OPTION);
+        grant(NodePermission.CREATE_VIEW);
+        grant(NodePermission.RENAME_VIEW);
+        grant(NodePermission.REMOVE_VIEW);
+        grant(NodePermission.MOVE_VIEW);
+        grant(NodePermission.SORT_COLUMN);
+        grant(NodePermission.HIDE_COLUMN);
+        grant(NodePermission.FILTER_VIEW);
+        grant(NodePermission.SORT_FIELD);
+        grant(NodePermission.GROUP_FIELD);
+        grant(NodePermission.EDIT_ROW_HIGH);
+        grant(NodePermission.EDIT_COLUMN_WIDTH);
+        grant(NodePermission.EDIT_COLUMN_COUNT);
+        grant(NodePermission.SORT_ROW);
+        grant(NodePermission.CREATE_ROW);
+        grant(NodePermission.REMOVE_ROW);
+        grant(NodePermission.EDIT_CELL);
+        grant(NodePermission.EDIT_VIEW_LAYOUT);
+        grant(NodePermission.EDIT_VIEW_STYLE);
+        grant(NodePermission.EDIT_VIEW_KEY_FIELD);
+        grant(NodePermission.EDIT_VIEW_COLOR_OPTION);
 
-        permissions.add(FieldPermission.EDIT_FIELD_DATA);
+        grant(FieldPermission.EDIT_FIELD_DATA);
 
         // views are manually saved and manageable
-        permissions.add(NodePermission.MANAGE_VIEW_MANUAL_SAVE);
+        grant(NodePermission.MANAGE_VIEW_MANUAL_SAVE);
         // view options save editable
-        permissions.add(NodePermission.EDIT_VIEW_OPTION_SAVE);
+        grant(NodePermission.EDIT_VIEW_OPTION_SAVE);
     }
 
     @Override
@@ -40,36 +40,36 @@ public class NodeManagerRole extends NodeEditorRole {
     public NodeManagerRole(boolean inherit, boolean isAdmin) {
         super(inherit);
         this.isAdmin = isAdmin;
-        permissions.add(NodePermission.MANAGE_NODE);
+        grant(NodePermission.MANAGE_NODE);
 
-        permissions.add(NodePermission.CREATE_NODE);
-        permissions.add(NodePermission.RENAME_NODE);
-        permissions.add(NodePermission.EDIT_NODE_ICON);
-        permissions.add(NodePermission.EDIT_NODE_DESC);
-        permissions.add(NodePermission.MOVE_NODE);
-        permissions.add(NodePermission.COPY_NODE);
-        permissions.add(NodePermission.IMPORT_NODE);
-        permissions.add(NodePermission.EXPORT_NODE);
-        permissions.add(NodePermission.REMOVE_NODE);
+        grant(NodePermission.CREATE_NODE);
+        grant(NodePermission.RENAME_NODE);
+        grant(NodePermission.EDIT_NODE_ICON);
+        grant(NodePermission.EDIT_NODE_DESC);
+        grant(NodePermission.MOVE_NODE);
+        grant(NodePermission.COPY_NODE);
+        grant(NodePermission.IMPORT_NODE);
+        grant(NodePermission.EXPORT_NODE);
+        grant(NodePermission.REMOVE_NODE);
 
-        permissions.add(NodePermission.CREATE_TEMPLATE);
+        grant(NodePermission.CREATE_TEMPLATE);
 
-        permissions.add(NodePermission.SET_NODE_SHARE_ALLOW_SAVE);
-        permissions.add(NodePermission.SET_NODE_SHARE_ALLOW_EDIT);
+        grant(NodePermission.SET_NODE_SHARE_ALLOW_SAVE);
+        grant(NodePermission.SET_NODE_SHARE_ALLOW_EDIT);
 
-        permissions.add(NodePermission.ASSIGN_NODE_ROLE);
+        grant(NodePermission.ASSIGN_NODE_ROLE);
 
-        permissions.add(NodePermission.EXPORT_VIEW);
-        permissions.add(NodePermission.CREATE_FIELD);
-        permissions.add(NodePermission.RENAME_FIELD);
-        permissions.add(NodePermission.EDIT_FIELD_PROPERTY);
-        permissions.add(NodePermission.REMOVE_FIELD);
+        grant(NodePermission.EXPORT_VIEW);
+        grant(NodePermission.CREATE_FIELD);
+        grant(NodePermission.RENAME_FIELD);
+        grant(NodePermission.EDIT_FIELD_PROPERTY);
+        grant(NodePermission.REMOVE_FIELD);
 
         // field permission
-        permissions.add(NodePermission.MANAGE_FIELD_PERMISSION);
+        grant(NodePermission.MANAGE_FIELD_PERMISSION);
 
         // view locking is manageable
-        permissions.add(NodePermission.MANAGE_VIEW_LOCK);
+        grant(NodePermission.MANAGE_VIEW_LOCK);
     }
 
     @Override
@@ -34,9 +34,9 @@ public class NodeReaderRole extends NodeRole {
 
     public NodeReaderRole(boolean inherit) {
         super(inherit);
-        permissions.add(NodePermission.READ_NODE);
-        permissions.add(NodePermission.EXPORT_NODE);
-        permissions.add(FieldPermission.READ_FIELD_DATA);
+        grant(NodePermission.READ_NODE);
+        grant(NodePermission.EXPORT_NODE);
+        grant(FieldPermission.READ_FIELD_DATA);
     }
 
     @Override
@@ -41,8 +41,18 @@ public class NodeRole extends AbstractControlRole {
         return ghostNode;
     }
 
-    public void setGhostNode(boolean ghostNode) {
-        this.ghostNode = ghostNode;
+    /**
+     * the same role marked as ghost node or not, roles are shared so it returns a copy when changed
+     * @param ghostNode whether the node is a ghost node
+     * @return NodeRole
+     */
+    public NodeRole withGhostNode(boolean ghostNode) {
+        if (this.ghostNode == ghostNode) {
+            return this;
+        }
+        NodeRole role = (NodeRole) clone();
+        role.ghostNode = ghostNode;
+        return role;
     }
 
     @Override
@@ -36,8 +36,8 @@ public class NodeUpdaterRole extends NodeReaderRole{
     public NodeUpdaterRole(boolean inherit){
         super(inherit);
 
-        permissions.add(NodePermission.EDIT_CELL);
-        permissions.add(NodePermission.CREATE_ROW);
+        grant(NodePermission.EDIT_CELL);
+        grant(NodePermission.CREATE_ROW);
     }
 
     @Override
@@ -0,0 +1,169 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.control.infrastructure.role;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cn.hutool.core.util.StrUtil;
+
+import com.apitable.control.infrastructure.permission.PermissionDefinition;
+
+/**
+ * <p>
+ * maps role permissions into a permission bean, such as NodePermissionView, DatasheetPermissionView and FieldPermission.
+ * setters of the bean class are looked up once as method handles, property of a permission code is set true,
+ * the other properties are left null, the same as BeanUtil did with the permission code map.
+ * the setters of the same permissions are resolved once and shared, every call returns a new bean because callers fill it.
+ * </p>
+ */
+final class PermissionBeanMapper<T> {
+
+    private static final Map<Class<?>, PermissionBeanMapper<?>> MAPPERS = new ConcurrentHashMap<>();
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Boolean.class);
+
+    private final Class<T> beanClass;
+
+    private final MethodHandle constructor;
+
+    private final Map<String, Optional<MethodHandle>> setters = new ConcurrentHashMap<>();
+
+    private final Map<PlanKey, Plan> plans = new ConcurrentHashMap<>();
+
+    private PermissionBeanMapper(Class<T> beanClass) {
+        this.beanClass = beanClass;
+        try {
+            this.constructor = MethodHandles.publicLookup().findConstructor(beanClass, MethodType.methodType(void.class))
+                .asType(MethodType.methodType(Object.class));
+        }
+        catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalArgumentException("permission bean has no public constructor: " + beanClass.getName(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> PermissionBeanMapper<T> of(Class<T> beanClass) {
+        return (PermissionBeanMapper<T>) MAPPERS.computeIfAbsent(beanClass, PermissionBeanMapper::new);
+    }
+
+    /**
+     * create permission bean
+     * @param groupBits permission bits by group, identifies the permissions
+     * @param permissions permissions of role
+     * @param denied permission set false, nullable
+     * @return new bean
+     */
+    T toBean(long[] groupBits, Set<PermissionDefinition> permissions, PermissionDefinition denied) {
+        Plan plan = plans.computeIfAbsent(new PlanKey(groupBits, denied), key -> compile(permissions, denied));
+        try {
+            Object bean = constructor.invokeExact();
+            for (int i = 0; i < plan.setters.length; i++) {
+                plan.setters[i].invokeExact(bean, plan.values[i]);
+            }
+            return beanClass.cast(bean);
+        }
+        catch (Throwable e) {
+            throw new IllegalStateException("fail to create permission bean: " + beanClass.getName(), e);
+        }
+    }
+
+    private Plan compile(Set<PermissionDefinition> permissions, PermissionDefinition denied) {
+        Map<String, Boolean> values = new LinkedHashMap<>(permissions.size() + 1);
+        for (PermissionDefinition permission : permissions) {
+            values.put(permission.getCode(), Boolean.TRUE);
+        }
+        if (denied != null) {
+            values.put(denied.getCode(), Boolean.FALSE);
+        }
+        List<MethodHandle> setterList = new ArrayList<>(values.size());
+        List<Boolean> valueList = new ArrayList<>(values.size());
+        values.forEach((code, value) -> getSetter(code).ifPresent(setter -> {
+            setterList.add(setter);
+            valueList.add(value);
+        }));
+        return new Plan(setterList.toArray(new MethodHandle[0]), valueList.toArray(new Boolean[0]));
+    }
+
+    /**
+     * setter of permission code, empty if the bean has no such property
+     */
+    private Optional<MethodHandle> getSetter(String code) {
+        return setters.computeIfAbsent(code, k -> {
+            try {
+                MethodHandle setter = MethodHandles.publicLookup()
+                    .findVirtual(beanClass, "set" + StrUtil.upperFirst(k), MethodType.methodType(void.class, Boolean.class));
+                return Optional.of(setter.asType(SETTER_TYPE));
+            }
+            catch (NoSuchMethodException | IllegalAccessException e) {
+                return Optional.empty();
+            }
+        });
+    }
+
+    private static final class Plan {
+
+        private final MethodHandle[] setters;
+
+        private final Boolean[] values;
+
+        private Plan(MethodHandle[] setters, Boolean[] values) {
+            this.setters = setters;
+            this.values = values;
+        }
+    }
+
+    private static final class PlanKey {
+
+        private final long[] groupBits;
+
+        private final PermissionDefinition denied;
+
+        private PlanKey(long[] groupBits, PermissionDefinition denied) {
+            this.groupBits = groupBits;
+            this.denied = denied;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof PlanKey)) {
+                return false;
+            }
+            PlanKey other = (PlanKey) o;
+            return Arrays.equals(groupBits, other.groupBits) && denied == other.denied;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Arrays.hashCode(groupBits) + (denied != null ? denied.hashCode() : 0);
+        }
+    }
+}
@@ -18,6 +18,7 @@
 
 package com.apitable.control.mapper;
 
+import java.util.Collection;
 import java.util.List;
 
 import com.baomidou.mybatisplus.annotation.InterceptorIgnore;
@@ -67,6 +68,15 @@ public interface ControlMapper extends BaseMapper<ControlEntity> {
      */
     List<String> selectControlIdByControlIdPrefixAndType(@Param("prefix") String prefix, @Param("type") Integer type);
 
+    /**
+     * Query permission control unit ID of multiple prefixes
+     *
+     * @param prefixes  Control unit ID prefixes
+     * @param type      Control unit type
+     * @return Control unit ID
+     */
+    List<String> selectControlIdByControlIdPrefixesAndType(@Param("prefixes") Collection<String> prefixes, @Param("type") Integer type);
+
     /**
      * Query control unit ID
      *
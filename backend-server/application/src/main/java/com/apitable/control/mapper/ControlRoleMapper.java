@@ -243,6 +243,14 @@ public interface ControlRoleMapper extends BaseMapper<ControlRoleEntity> {
      */
     List<Long> selectIdByUnitIds(@Param("unitIds") List<Long> unitIds);
 
+    /**
+     * Query the control unit ID of roles, including deleted roles
+     *
+     * @param ids        Table ID List
+     * @return control unit ID List
+     */
+    List<String> selectControlIdByIds(@Param("ids") List<Long> ids);
+
     /**
      * Query all roles of the specified control unit and multiple organization units
      *
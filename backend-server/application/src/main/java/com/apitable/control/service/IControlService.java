@@ -18,6 +18,7 @@
 
 package com.apitable.control.service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.function.Consumer;
 
@@ -74,6 +75,15 @@ public interface IControlService extends IService<ControlEntity> {
      */
     List<String> getControlIdByControlIdPrefixAndType(String prefix, Integer type);
 
+    /**
+     * Get the permission control unit ID of multiple prefixes
+     *
+     * @param prefixes  Control unit ID prefixes
+     * @param type      Control unit type
+     * @return Control unit ID
+     */
+    List<String> getControlIdByControlIdPrefixesAndType(Collection<String> prefixes, Integer type);
+
     /**
      * Get the existing control unit ID
      *
@@ -19,6 +19,7 @@
 package com.apitable.control.service.impl;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -37,11 +38,14 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.baomidou.mybatisplus.extension.toolkit.SqlHelper;
 import lombok.extern.slf4j.Slf4j;
 
+import com.apitable.control.entity.ControlEntity;
 import com.apitable.control.entity.ControlRoleEntity;
 import com.apitable.control.infrastructure.role.RoleConstants.Node;
+import com.apitable.control.mapper.ControlMapper;
 import com.apitable.control.mapper.ControlRoleMapper;
 import com.apitable.control.service.IControlRoleService;
 import com.apitable.base.enums.DatabaseException;
+import com.apitable.shared.cache.service.ControlRoleCacheService;
 import com.apitable.workspace.dto.ControlRoleInfo;
 import com.apitable.workspace.dto.ControlRoleUnitDTO;
 import com.apitable.core.util.ExceptionUtil;
@@ -61,6 +65,12 @@ public class ControlRoleServiceImpl extends ServiceImpl<ControlRoleMapper, Contr
     @Resource
     private ControlRoleMapper controlRoleMapper;
 
+    @Resource
+    private ControlMapper controlMapper;
+
+    @Resource
+    private ControlRoleCacheService controlRoleCacheService;
+
     @Override
     public List<ControlRoleEntity> getByControlId(String controlId) {
         log.info("Get all role information of control unit 「{}」", controlId);
@@ -107,6 +117,7 @@ public class ControlRoleServiceImpl extends ServiceImpl<ControlRoleMapper, Contr
     @Transactional(rollbackFor = Exception.class)
     public void addControlRole(Long userId, String controlId, List<Long> unitIds, String role) {
         log.info("New control unit role。userId:{},controlId:{},role:{},unitIds:{}", userId, controlId, role, unitIds);
+        invalidateControlRoleCache(Collections.singletonList(controlId));
         List<ControlRoleEntity> entities = new ArrayList<>();
         List<Long> updateIds = new ArrayList<>();
         List<Long> insertUnitIds = new ArrayList<>(unitIds);
@@ -136,8 +147,10 @@ public class ControlRoleServiceImpl extends ServiceImpl<ControlRoleMapper, Contr
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void addControlRole(Long userId, String controlId, Map<Long, String> unitRoleMap) {
         log.info("「{}」Add the organizational unit role set of control unit 「{}」", userId, controlId);
+        invalidateControlRoleCache(Collections.singletonList(controlId));
         List<Long> unitIds = ListUtil.toList(unitRoleMap.keySet());
         List<String> roleCodes = ListUtil.toList((unitRoleMap.values()));
         // modify former deleted status
@@ -177,6 +190,7 @@ public class ControlRoleServiceImpl extends ServiceImpl<ControlRoleMapper, Contr
             return;
         }
         log.info("「{}」 modifies the role of control unit 「{}」 organizational unit 「{}」 to 「{}」", userId, controlId, unitIds, role);
+        invalidateControlRoleCache(Collections.singletonList(controlId));
         List<ControlRoleEntity> controlRoles = controlRoleMapper.selectByControlIdAndUnitIds(controlId, unitIds, true);
         if (controlRoles.isEmpty()) {
             addControlRole(userId, controlId, unitIds, role);
@@ -214,15 +228,19 @@ public class ControlRoleServiceImpl extends ServiceImpl<ControlRoleMapper, Contr
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void editControlRole(Long userId, List<Long> controlRoleIds, String role) {
         log.info("「{}」 modifies the role of control unit table ID 「{}」 to 「{}」", userId, controlRoleIds, role);
+        invalidateControlRoleCacheByIds(controlRoleIds);
         boolean flag = SqlHelper.retBool(controlRoleMapper.updateRoleCodeByIds(userId, controlRoleIds, role));
         ExceptionUtil.isTrue(flag, DatabaseException.EDIT_ERROR);
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void removeByControlIds(Long userId, List<String> controlIds) {
         log.info("Delete all roles of the specified control unit「{}」", controlIds);
+        invalidateControlRoleCache(controlIds);
         // Query primary key ID
         List<Long> controlRoleIds = controlRoleMapper.selectIdByControlIds(controlIds);
         // Logical delete
@@ -230,25 +248,31 @@ public class ControlRoleServiceImpl extends ServiceImpl<ControlRoleMapper, Contr
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void removeByUnitIds(List<Long> unitIds) {
         log.info("Delete all roles of the specified organizational unit「{}」", unitIds);
         // Query primary key ID
         List<Long> controlRoleIds = controlRoleMapper.selectIdByUnitIds(unitIds);
+        invalidateControlRoleCacheByIds(controlRoleIds);
         // Logical delete
         removeByIds(controlRoleIds);
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void removeByControlIdAndUnitId(String controlId, Long unitId) {
         log.info("Delete the role of organizational unit 「{}」 under control unit 「{}」", controlId, unitId);
+        invalidateControlRoleCache(Collections.singletonList(controlId));
         List<Long> controlRoleIds = controlRoleMapper.selectIdByControlIdAndUnitId(controlId, unitId);
         boolean flag = removeByIds(controlRoleIds);
         ExceptionUtil.isTrue(flag, DatabaseException.DELETE_ERROR);
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void removeByControlIdAndUnitIds(String controlId, List<Long> unitIds) {
         log.info("Delete the role of organizational unit 「{}」 under control unit 「{}」", controlId, unitIds);
+        invalidateControlRoleCache(Collections.singletonList(controlId));
         List<Long> controlRoleIds = controlRoleMapper.selectIdByControlIdAndUnitIds(controlId, unitIds);
         boolean flag = removeByIds(controlRoleIds);
         ExceptionUtil.isTrue(flag, DatabaseException.DELETE_ERROR);
@@ -261,10 +285,12 @@ public class ControlRoleServiceImpl extends ServiceImpl<ControlRoleMapper, Contr
     }
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void editIsDeletedByIds(List<Long> ids, Long userId, boolean isDeleted) {
         if (CollUtil.isEmpty(ids)) {
             return;
         }
+        invalidateControlRoleCacheByIds(ids);
         controlRoleMapper.updateIsDeletedByIds(userId, ids, isDeleted);
     }
 
@@ -278,4 +304,24 @@ public class ControlRoleServiceImpl extends ServiceImpl<ControlRoleMapper, Contr
                 .forEach(controlRole -> unitIdToCodeRole.put(controlRole.getUnitId(), controlRole.getRoleCode()));
         return unitIdToCodeRole;
     }
+
+    /**
+     * discard the cached member roles in the spaces of control units
+     */
+    private void invalidateControlRoleCache(Collection<String> controlIds) {
+        if (CollUtil.isEmpty(controlIds)) {
+            return;
+        }
+        controlMapper.selectByControlIds(new ArrayList<>(new HashSet<>(controlIds))).stream()
+                .map(ControlEntity::getSpaceId).distinct()
+                .forEach(controlRoleCacheService::invalidate);
+    }
+
+    private void invalidateControlRoleCacheByIds(List<Long> controlRoleIds) {
+        if (CollUtil.isEmpty(controlRoleIds)) {
+            return;
+        }
+        List<String> controlIds = controlRoleMapper.selectControlIdByIds(controlRoleIds);
+        invalidateControlRoleCache(controlIds);
+    }
 }
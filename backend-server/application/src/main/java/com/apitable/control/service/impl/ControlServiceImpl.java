@@ -18,6 +18,8 @@
 
 package com.apitable.control.service.impl;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.function.Consumer;
@@ -38,6 +40,7 @@ import com.apitable.control.service.IControlService;
 import com.apitable.control.service.IControlSettingService;
 import com.apitable.organization.entity.MemberEntity;
 import com.apitable.organization.service.IMemberService;
+import com.apitable.shared.cache.service.ControlRoleCacheService;
 import com.apitable.core.util.ExceptionUtil;
 import com.apitable.core.util.SqlTool;
 
@@ -63,6 +66,9 @@ public class ControlServiceImpl extends ServiceImpl<ControlMapper, ControlEntity
     @Resource
     private IMemberService iMemberService;
 
+    @Resource
+    private ControlRoleCacheService controlRoleCacheService;
+
     @Override
     public ControlEntity getByControlId(String controlId) {
         log.info("Query control permission unit information");
@@ -99,12 +105,15 @@ public class ControlServiceImpl extends ServiceImpl<ControlMapper, ControlEntity
             flag = SqlHelper.retBool(controlMapper.insertBatch(Collections.singletonList(entity)));
         }
         ExceptionUtil.isTrue(flag, DatabaseException.INSERT_ERROR);
+        controlRoleCacheService.invalidate(spaceId);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void removeControl(Long userId, List<String> controlIds, boolean delSetting) {
         log.info("Delete the specified control unit「{}」", controlIds);
+        controlMapper.selectByControlIds(controlIds).stream().map(ControlEntity::getSpaceId).distinct()
+                .forEach(controlRoleCacheService::invalidate);
         boolean flag = SqlHelper.retBool(controlMapper.deleteByControlIds(userId, controlIds));
         ExceptionUtil.isTrue(flag, DatabaseException.DELETE_ERROR);
         // Delete all roles of the specified control unit (no role may exist)
@@ -120,6 +129,14 @@ public class ControlServiceImpl extends ServiceImpl<ControlMapper, ControlEntity
         return controlMapper.selectControlIdByControlIdPrefixAndType(prefix, type);
     }
 
+    @Override
+    public List<String> getControlIdByControlIdPrefixesAndType(Collection<String> prefixes, Integer type) {
+        if (prefixes.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return controlMapper.selectControlIdByControlIdPrefixesAndType(prefixes, type);
+    }
+
     @Override
     public List<String> getExistedControlId(List<String> controlIds) {
         return controlMapper.selectControlIdByControlIds(controlIds);
@@ -30,7 +30,6 @@ import com.apitable.shared.component.scanner.annotation.ApiResource;
 import com.apitable.shared.component.scanner.annotation.GetResource;
 import com.apitable.shared.component.notification.annotation.Notification;
 import com.apitable.shared.component.scanner.annotation.PostResource;
-import com.apitable.shared.cache.service.SpaceCapacityCacheService;
 import com.apitable.shared.component.notification.NotificationTemplateId;
 import com.apitable.shared.constants.ParamsConstants;
 import com.apitable.shared.context.LoginContext;
@@ -39,6 +38,8 @@ import com.apitable.control.infrastructure.ControlTemplate;
 import com.apitable.control.infrastructure.permission.NodePermission;
 import com.apitable.control.infrastructure.role.ControlRole;
 import com.apitable.shared.holder.SpaceHolder;
+import com.apitable.space.enums.SpaceUsageType;
+import com.apitable.space.service.ISpaceUsageService;
 import com.apitable.workspace.ro.CreateDatasheetRo;
 import com.apitable.workspace.vo.CreateDatasheetVo;
 import com.apitable.workspace.vo.NodeFromSpaceVo;
@@ -67,7 +68,7 @@ public class InternalNodeController {
     private ControlTemplate controlTemplate;
 
     @Resource
-    private SpaceCapacityCacheService spaceCapacityCacheService;
+    private ISpaceUsageService iSpaceUsageService;
 
     @PostResource(name = "create a table node", path = "/spaces/{spaceId}/datasheets", requiredPermission = false)
     @ApiOperation(value = "create a table node", notes = "create a table node", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -117,8 +118,8 @@ public class InternalNodeController {
         String rootNodeId = nodeService.getRootNodeIdBySpaceId(spaceId);
         ExceptionUtil.isFalse(nodeId.equals(rootNodeId), NODE_OPERATION_DENIED);
         nodeService.deleteById(spaceId, memberId, nodeId);
-        // delete space capacity cache
-        spaceCapacityCacheService.del(spaceId);
+        // records and attachments of the nodes are counted again
+        iSpaceUsageService.invalidate(spaceId, SpaceUsageType.CAPACITY, SpaceUsageType.RECORD);
         return ResponseData.success();
     }
 
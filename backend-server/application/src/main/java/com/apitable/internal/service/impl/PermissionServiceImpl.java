@@ -20,6 +20,7 @@ package com.apitable.internal.service.impl;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Resource;
 
@@ -107,9 +108,11 @@ public class PermissionServiceImpl implements IPermissionService {
                 iNodeShareSettingService.getUpdatedByByShareId(shareId) : userId;
         Long memberId = iMemberService.getMemberIdByUserIdAndSpaceId(owner, spaceId);
         // non space station member
+        // permission to get all fields of the data tables
+        Map<String, FieldPermissionView> fieldPermissionViews = iFieldRoleService.getFieldPermissionViews(memberId, nodeIds, shareId);
         if (memberId == null) {
             for (String nodeId : nodeIds) {
-                DatasheetPermissionView view = this.getEmptyPermissionView(userId, uuid, memberId, nodeId, shareId);
+                DatasheetPermissionView view = this.getEmptyPermissionView(userId, uuid, nodeId, fieldPermissionViews.get(nodeId));
                 view.setIsDeleted(true);
                 views.add(view);
             }
@@ -120,7 +123,7 @@ public class PermissionServiceImpl implements IPermissionService {
         // If no node has permission, return an empty permission set
         if (roleDict.isEmpty()) {
             for (String nodeId : nodeIds) {
-                views.add(this.getEmptyPermissionView(userId, uuid, memberId, nodeId, shareId));
+                views.add(this.getEmptyPermissionView(userId, uuid, nodeId, fieldPermissionViews.get(nodeId)));
             }
             return views;
         }
@@ -131,7 +134,7 @@ public class PermissionServiceImpl implements IPermissionService {
         for (String nodeId : nodeIds) {
             if (!roleDict.containsKey(nodeId)) {
                 // Returns an empty permission set if there is no node permission
-                views.add(this.getEmptyPermissionView(userId, uuid, memberId, nodeId, shareId));
+                views.add(this.getEmptyPermissionView(userId, uuid, nodeId, fieldPermissionViews.get(nodeId)));
                 continue;
             }
             NodeRole controlRole = (NodeRole) roleDict.get(nodeId);
@@ -141,8 +144,7 @@ public class PermissionServiceImpl implements IPermissionService {
             permissionView.setUuid(uuid);
             permissionView.setRole(controlRole.getRoleTag());
             permissionView.setIsGhostNode(controlRole.isGhostNode());
-            // permission to get all fields of the data table
-            FieldPermissionView fieldPermissionView = iFieldRoleService.getFieldPermissionView(memberId, nodeId, shareId);
+            FieldPermissionView fieldPermissionView = fieldPermissionViews.get(nodeId);
             if (fieldPermissionView != null) {
                 permissionView.setDatasheetId(fieldPermissionView.getDatasheetId());
                 permissionView.setFieldPermissionMap(fieldPermissionView.getFieldPermissionMap());
@@ -154,12 +156,10 @@ public class PermissionServiceImpl implements IPermissionService {
         return views;
     }
 
-    private DatasheetPermissionView getEmptyPermissionView(Long userId, String uuid, Long memberId, String nodeId, String shareId) {
+    private DatasheetPermissionView getEmptyPermissionView(Long userId, String uuid, String nodeId, FieldPermissionView fieldPermissionView) {
         DatasheetPermissionView emptyPermissionView = new DatasheetPermissionView();
         emptyPermissionView.setUserId(userId);
         emptyPermissionView.setUuid(uuid);
-        // permission to get all fields of the data table
-        FieldPermissionView fieldPermissionView = iFieldRoleService.getFieldPermissionView(memberId, nodeId, shareId);
         if (fieldPermissionView != null) {
             emptyPermissionView.setDatasheetId(fieldPermissionView.getDatasheetId());
             emptyPermissionView.setFieldPermissionMap(fieldPermissionView.getFieldPermissionMap());
@@ -18,12 +18,16 @@
 
 package com.apitable.organization.excel.handler;
 
-import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
@@ -38,6 +42,7 @@ import com.alibaba.excel.exception.ExcelDataConvertException;
 import lombok.extern.slf4j.Slf4j;
 
 import com.apitable.organization.dto.UploadDataDTO;
+import com.apitable.organization.dto.UploadDataResultDTO;
 import com.apitable.organization.vo.ParseErrorRecordVO;
 import com.apitable.shared.util.excel.ExcelDataValidateException;
 import com.apitable.organization.service.IMemberService;
@@ -46,6 +51,7 @@ import com.apitable.organization.entity.MemberEntity;
 /**
  * <p>
  * template data processor
+ * the rows are validated while reading, then checked against the space and saved in batches after the sheet is read.
  *
  * Don't leave it to Spring to manage.
  * Because you need new every time you use it, and the processing service class can be passed in for use.
@@ -54,8 +60,18 @@ import com.apitable.organization.entity.MemberEntity;
 @Slf4j
 public class UploadDataListener extends AnalysisEventListener<Map<Integer, String>> {
 
+    /**
+     * rows saved in one transaction
+     */
+    private static final int BATCH_SIZE = 500;
+
     private final Map<Integer, String> fields = new LinkedHashMap<>(16);
 
+    /**
+     * valid rows by row index, saved after the sheet is read
+     */
+    private final Map<Integer, UploadDataDTO> rows = new LinkedHashMap<>();
+
     private final List<ParseErrorRecordVO> errorList = new ArrayList<>();
 
     private final List<String> sendInviteEmails = new ArrayList<>();
@@ -121,7 +137,7 @@ public class UploadDataListener extends AnalysisEventListener<Map<Integer, Strin
     }
 
     /**
-     * This method is called for every data parse
+     * This method is called for every data parse, the row is validated and kept until the sheet is read
      *
      * @param data    a row data
      * @param context handle context
@@ -129,45 +145,13 @@ public class UploadDataListener extends AnalysisEventListener<Map<Integer, Strin
     @Override
     public void invoke(Map<Integer, String> data, AnalysisContext context) {
         int currentRowIndex = context.readRowHolder().getRowIndex();
-        int totalDataRow = context.readSheetHolder().getApproximateTotalRowNumber();
-        log.info("Total rows：{}, current row：{}, parsed data：{}", totalDataRow, currentRowIndex, JSONUtil.toJsonStr(data));
         // convert object
-        log.info("index row：{}", JSONUtil.toJsonStr(fields));
         Map<String, String> fieldData = new LinkedHashMap<>(fields.size());
         CollUtil.forEach(fields, (key, value, index) -> fieldData.put(value, MapUtil.getStr(data, key)));
-        log.info("convert object：{}", JSONUtil.toJsonStr(fieldData));
         UploadDataDTO rowData = BeanUtil.toBean(fieldData, UploadDataDTO.class);
-        this.validLimit(currentRowIndex, rowData);
         // validate fields
-        boolean memberExist = validField(currentRowIndex, rowData);
-        try {
-            // data storage
-            if (!memberExist) {
-                Long memberId = iMemberService.saveUploadData(spaceId, rowData, sendInviteEmails, sendNotifyEmails, teamCreatable);
-                memberIds.add(memberId);
-            }
-            successCount++;
-            log.info("Data storage success!");
-        }
-        catch (Exception e) {
-            errorCount++;
-            throw new ExcelDataValidateException(currentRowIndex, rowData, "the data is incorrect and cannot be saved");
-        }
-        finally {
-            rowCount++;
-            // print processing progress
-            this.printProgress(totalDataRow, currentRowIndex);
-        }
-    }
-
-    private void validLimit(int rowIndex, UploadDataDTO rowData) {
-        log.info("the space original member number：{}, the number of successful processes: {}，max member number：{}", currentMemberCount, successCount, defaultMaxMemberCount);
-        if (defaultMaxMemberCount == -1) {
-            return;
-        }
-        if (currentMemberCount + successCount == defaultMaxMemberCount) {
-            throw new ExcelDataValidateException(rowIndex, rowData, "The maximum number of members has been reached");
-        }
+        validField(currentRowIndex, rowData);
+        rows.put(currentRowIndex, rowData);
     }
 
     /**
@@ -176,7 +160,7 @@ public class UploadDataListener extends AnalysisEventListener<Map<Integer, Strin
      * @param rowIndex row index
      * @param rowData  row data
      */
-    private boolean validField(int rowIndex, UploadDataDTO rowData) {
+    private void validField(int rowIndex, UploadDataDTO rowData) {
         if (StrUtil.isBlank(rowData.getEmail())) {
             throw new ExcelDataValidateException(rowIndex, rowData, "email not filled in");
         }
@@ -184,33 +168,86 @@ public class UploadDataListener extends AnalysisEventListener<Map<Integer, Strin
         if (!Validator.isEmail(rowData.getEmail().trim())) {
             throw new ExcelDataValidateException(rowIndex, rowData, "the email format is incorrect");
         }
-        // verifying email duplication
-        MemberEntity member = iMemberService.getBySpaceIdAndEmail(spaceId, rowData.getEmail());
-        if (member != null) {
-            if (BooleanUtil.isTrue(member.getIsActive())) {
-                throw new ExcelDataValidateException(rowIndex, rowData, "The email already exist in the current space");
+    }
+
+    /**
+     * check the rows against the members of space and the member limit, in the order of rows
+     *
+     * @return rows to save
+     */
+    private List<Map.Entry<Integer, UploadDataDTO>> resolveRows() {
+        // verifying email duplication, query the members of space by the emails at once
+        List<String> emails = rows.values().stream().map(UploadDataDTO::getEmail).distinct().collect(Collectors.toList());
+        Map<String, MemberEntity> emailMemberMap = new HashMap<>(emails.size());
+        for (List<String> part : CollUtil.split(emails, BATCH_SIZE)) {
+            iMemberService.getBySpaceIdAndEmailsIgnoreDeleted(spaceId, part).stream()
+                    .filter(member -> BooleanUtil.isFalse(member.getIsDeleted()))
+                    .forEach(member -> emailMemberMap.putIfAbsent(member.getEmail().trim().toLowerCase(), member));
+        }
+        Set<String> sheetEmails = new HashSet<>(rows.size());
+        List<Map.Entry<Integer, UploadDataDTO>> saveRows = new ArrayList<>(rows.size());
+        for (Map.Entry<Integer, UploadDataDTO> row : rows.entrySet()) {
+            String email = row.getValue().getEmail().trim().toLowerCase();
+            if (!sheetEmails.add(email)) {
+                // the email is imported by a previous row of the sheet
+                addError(row.getKey(), row.getValue(), "The email is repeated in the uploaded file");
+                continue;
             }
-            else {
-                sendInviteEmails.add(rowData.getEmail());
+            if (defaultMaxMemberCount != -1 && currentMemberCount + successCount >= defaultMaxMemberCount) {
+                addError(row.getKey(), row.getValue(), "The maximum number of members has been reached");
+                continue;
+            }
+            MemberEntity member = emailMemberMap.get(email);
+            if (member != null) {
+                if (BooleanUtil.isTrue(member.getIsActive())) {
+                    addError(row.getKey(), row.getValue(), "The email already exist in the current space");
+                    continue;
+                }
+                sendInviteEmails.add(row.getValue().getEmail());
                 memberIds.add(member.getId());
-                return true;
             }
+            else {
+                saveRows.add(row);
+            }
+            successCount++;
         }
-        return false;
+        return saveRows;
     }
 
     /**
-     * print processing progress
+     * save the rows in one transaction, the rows of a failed batch are saved one by one to find out the incorrect rows
      *
-     * @param totalDataRow    row data
-     * @param currentRowIndex current row index
+     * @param batch rows
      */
-    private void printProgress(int totalDataRow, int currentRowIndex) {
-        NumberFormat numberFormat = NumberFormat.getInstance();
-        // compute parsing progress
-        numberFormat.setMaximumFractionDigits(2);
-        String format = numberFormat.format(((float) (currentRowIndex - 2) / (totalDataRow - 3)) * 100).concat("%");
-        log.info("analytical progress: {}", format);
+    private void saveRows(List<Map.Entry<Integer, UploadDataDTO>> batch) {
+        try {
+            List<UploadDataDTO> uploadData = batch.stream().map(Map.Entry::getValue).collect(Collectors.toList());
+            UploadDataResultDTO result = iMemberService.saveUploadData(spaceId, uploadData, teamCreatable);
+            memberIds.addAll(result.getMemberIds());
+            sendInviteEmails.addAll(result.getInviteEmails());
+            sendNotifyEmails.addAll(result.getNotifyEmails());
+        }
+        catch (Exception e) {
+            if (batch.size() > 1) {
+                log.warn("Data storage of {} rows failed, save them one by one", batch.size(), e);
+                batch.forEach(row -> saveRows(Collections.singletonList(row)));
+                return;
+            }
+            log.warn("Data storage failed", e);
+            successCount--;
+            addError(batch.get(0).getKey(), batch.get(0).getValue(), "the data is incorrect and cannot be saved");
+        }
+    }
+
+    private void addError(int rowIndex, UploadDataDTO rowData, String errorMessage) {
+        log.warn("the {} row data illegal，data: [{}], reason:{}", rowIndex, JSONUtil.toJsonStr(rowData), errorMessage);
+        errorCount++;
+        errorList.add(ParseErrorRecordVO.builder()
+                .rowNumber(rowIndex + 1)
+                .name(rowData.getName())
+                .email(rowData.getEmail())
+                .team(rowData.getTeam())
+                .message(errorMessage).build());
     }
 
     /**
@@ -231,7 +268,15 @@ public class UploadDataListener extends AnalysisEventListener<Map<Integer, Strin
      */
     @Override
     public void doAfterAllAnalysed(AnalysisContext context) {
-        log.info("All data parsing is complete. Make sure the last remaining data is also stored in the database");
+        log.info("All data parsing is complete, {} rows are valid. Store them in the database", rows.size());
+        rowCount = rows.size();
+        List<Map.Entry<Integer, UploadDataDTO>> saveRows = resolveRows();
+        List<List<Map.Entry<Integer, UploadDataDTO>>> batches = CollUtil.split(saveRows, BATCH_SIZE);
+        for (int i = 0; i < batches.size(); i++) {
+            saveRows(batches.get(i));
+            log.info("storage progress: {}/{} batches", i + 1, batches.size());
+        }
+        errorList.sort(Comparator.comparing(ParseErrorRecordVO::getRowNumber));
     }
 
     /**
@@ -253,18 +298,7 @@ public class UploadDataListener extends AnalysisEventListener<Map<Integer, Strin
         else if (exception instanceof ExcelDataValidateException) {
             // construct failure list
             ExcelDataValidateException validateException = (ExcelDataValidateException) exception;
-            String errorMessage = exception.getMessage();
-            log.warn("the {} row data illegal，data: [{}], reason:{}",
-                    validateException.getRowIndex(),
-                    JSONUtil.toJsonStr(validateException.getRowData()),
-                    errorMessage);
-            errorCount++;
-            errorList.add(ParseErrorRecordVO.builder()
-                    .rowNumber(validateException.getRowIndex() + 1)
-                    .name(validateException.getRowData().getName())
-                    .email(validateException.getRowData().getEmail())
-                    .team(validateException.getRowData().getTeam())
-                    .message(errorMessage).build());
+            addError(validateException.getRowIndex(), validateException.getRowData(), exception.getMessage());
         }
     }
 
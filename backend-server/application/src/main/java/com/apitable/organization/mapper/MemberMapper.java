@@ -583,6 +583,15 @@ public interface MemberMapper extends ExpandBaseMapper<MemberEntity> {
      */
     MemberEntity selectByUserIdAndSpaceIdIgnoreDelete(@Param("userId") Long userId, @Param("spaceId") String spaceId);
 
+    /**
+     * !!!This query does not query the is deleted field, which may be historical members or already in the space.
+     *
+     * @param userIds user ids
+     * @param spaceId space id
+     * @return MemberEntities
+     */
+    List<MemberEntity> selectByUserIdsAndSpaceIdIgnoreDelete(@Param("userIds") Collection<Long> userIds, @Param("spaceId") String spaceId);
+
     /**
      * !!! even if member is deleted.
      *
@@ -90,6 +90,22 @@ public interface RoleMemberMapper extends ExpandBaseMapper<RoleMemberEntity> {
      */
     List<Long> selectRoleIdsByUnitRefId(@Param("unitRefId") Long unitRefId);
 
+    /**
+     * get role members by role member ids.
+     *
+     * @param unitRefIds the role members' id
+     * @return the role members, only role id and role member id are filled.
+     */
+    List<RoleMemberEntity> selectRoleIdsByUnitRefIds(@Param("unitRefIds") Collection<Long> unitRefIds);
+
+    /**
+     * get role members of the space, excluding deleted roles.
+     *
+     * @param spaceId space id
+     * @return the role members, only role id, role member id and type are filled.
+     */
+    List<RoleMemberEntity> selectRoleMembersBySpaceId(@Param("spaceId") String spaceId);
+
     /**
      * get role members' information by role's id and role members' id.
      *
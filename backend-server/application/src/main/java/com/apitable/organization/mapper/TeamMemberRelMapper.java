@@ -118,6 +118,14 @@ public interface TeamMemberRelMapper extends ExpandBaseMapper<TeamMemberRelEntit
      */
     List<Long> selectTeamIdAndMemberIds(@Param("teamId") Long teamId, @Param("memberIds") List<Long> memberIds);
 
+    /**
+     * query the team members of the space, excluding deleted teams and members
+     *
+     * @param spaceId space id
+     * @return team members, only team id and member id are filled
+     */
+    List<TeamMemberRelEntity> selectTeamIdAndMemberIdBySpaceId(@Param("spaceId") String spaceId);
+
     /**
      * @param rootTeamId root team id
      * @return the root team's member ids
@@ -132,6 +140,14 @@ public interface TeamMemberRelMapper extends ExpandBaseMapper<TeamMemberRelEntit
      */
     List<Long> selectAllTeamIdByMemberId(@Param("memberId") Long memberId);
 
+    /**
+     * Query the teams which the members belong, including all parent departments of the teams.
+     *
+     * @param memberIds member ids
+     * @return member id and team id pairs
+     */
+    List<TeamMemberRelEntity> selectAllTeamIdByMemberIds(@Param("memberIds") Collection<Long> memberIds);
+
     /**
      * @param teamIds team ids
      * @return affected rows
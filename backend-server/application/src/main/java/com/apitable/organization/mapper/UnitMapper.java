@@ -68,6 +68,12 @@ public interface UnitMapper extends ExpandBaseMapper<UnitEntity> {
      */
     List<Long> selectIdBySpaceId(@Param("spaceId") String spaceId);
 
+    /**
+     * @param spaceId space id
+     * @return UnitEntities, only id, unit type and ref id are filled
+     */
+    List<UnitEntity> selectRefIdAndTypeBySpaceId(@Param("spaceId") String spaceId);
+
     /**
      * query the unit which no deleted in the space.
      *
@@ -18,13 +18,16 @@
 
 package com.apitable.organization.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 import com.baomidou.mybatisplus.extension.service.IService;
 
 import com.apitable.organization.dto.MemberDTO;
 import com.apitable.organization.dto.TenantMemberDto;
 import com.apitable.organization.dto.UploadDataDTO;
+import com.apitable.organization.dto.UploadDataResultDTO;
 import com.apitable.organization.entity.MemberEntity;
 import com.apitable.organization.ro.TeamAddMemberRo;
 import com.apitable.organization.ro.UpdateMemberOpRo;
@@ -109,6 +112,14 @@ public interface IMemberService extends IService<MemberEntity> {
      */
     List<Long> getUnitsByMember(Long memberId);
 
+    /**
+     * get unit ids of members in batch
+     *
+     * @param memberIds member ids
+     * @return member id -> unit id list
+     */
+    Map<Long, List<Long>> getUnitsByMembers(Collection<Long> memberIds);
+
     /**
      * get the space's users who binds third party
      *
@@ -442,16 +453,15 @@ public interface IMemberService extends IService<MemberEntity> {
     UploadParseResultVO parseExcelFile(String spaceId, MultipartFile multipartFile);
 
     /**
-     * save uploaded data
+     * save a batch of uploaded data in one transaction, all rows are saved or none.
+     * the emails must be validated and not belong to members in the space
      *
      * @param spaceId space id
-     * @param uploadData uploadData
-     * @param inviteEmails inviteEmails, callback
-     * @param notifyEmails notifyEmails，callback
+     * @param rows uploaded rows
      * @param teamCreatable whether a department can be created
-     * @return modified num
+     * @return saved members and the emails to send
      */
-    Long saveUploadData(String spaceId, UploadDataDTO uploadData, List<String> inviteEmails, List<String> notifyEmails, boolean teamCreatable);
+    UploadDataResultDTO saveUploadData(String spaceId, List<UploadDataDTO> rows, boolean teamCreatable);
 
     /**
      * send invite notification
@@ -0,0 +1,52 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.organization.service;
+
+import com.apitable.organization.support.OrganizationGraph;
+
+/**
+ * <p>
+ * organization graph of space, changes of teams, members and roles discard the graph after the transaction commits
+ * </p>
+ */
+public interface IOrganizationGraphService {
+
+    /**
+     * get the organization graph of space, loaded if absent or out of date
+     *
+     * @param spaceId space id
+     * @return OrganizationGraph, null if the graph is disabled
+     */
+    OrganizationGraph getGraph(String spaceId);
+
+    /**
+     * get the organization graph of the space the member belongs to
+     *
+     * @param memberId member id
+     * @return OrganizationGraph, null if the graph is disabled or the member does not exist
+     */
+    OrganizationGraph getGraphByMemberId(Long memberId);
+
+    /**
+     * discard the graph of the space, it is loaded again on the next use
+     *
+     * @param spaceId space id
+     */
+    void invalidate(String spaceId);
+}
@@ -20,6 +20,7 @@ package com.apitable.organization.service;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
@@ -89,6 +90,14 @@ public interface IRoleMemberService {
      */
     List<Long> getRoleIdsByRoleMemberId(Long roleMemberId);
 
+    /**
+     * get roles' id by role member ids.
+     *
+     * @param roleMemberIds role members' id
+     * @return role member id -> roles' id
+     */
+    Map<Long, List<Long>> getRoleIdsByRoleMemberIds(Collection<Long> roleMemberIds);
+
     /**
      * get members' id in roles.
      *
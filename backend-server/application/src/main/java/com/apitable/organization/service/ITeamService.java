@@ -171,6 +171,15 @@ public interface ITeamService extends IService<TeamEntity> {
      */
     Long getByTeamNamePath(String spaceId, List<String> teamNames);
 
+    /**
+     * get all teams of the space by team path, the path is the team names below the root team joined with "-"
+     * !!!Designed for uploading data processing, otherwise use don't use.
+     *
+     * @param spaceId space id
+     * @return team path -> team id
+     */
+    Map<String, Long> getTeamNamePathMap(String spaceId);
+
     /**
      * @param spaceId space id
      * @param teamId team id, root team default 0
@@ -21,13 +21,17 @@ package com.apitable.organization.service.impl;
 import java.io.IOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.annotation.Resource;
@@ -54,6 +58,7 @@ import com.apitable.interfaces.user.model.MultiInvitationMetadata;
 import com.apitable.organization.dto.MemberDTO;
 import com.apitable.organization.dto.TenantMemberDto;
 import com.apitable.organization.dto.UploadDataDTO;
+import com.apitable.organization.dto.UploadDataResultDTO;
 import com.apitable.organization.entity.AuditUploadParseRecordEntity;
 import com.apitable.organization.entity.MemberEntity;
 import com.apitable.organization.entity.TeamEntity;
@@ -72,15 +77,18 @@ import com.apitable.organization.ro.TeamAddMemberRo;
 import com.apitable.organization.ro.UpdateMemberOpRo;
 import com.apitable.organization.ro.UpdateMemberRo;
 import com.apitable.organization.service.IMemberService;
+import com.apitable.organization.service.IOrganizationGraphService;
 import com.apitable.organization.service.IRoleMemberService;
 import com.apitable.organization.service.ITeamMemberRelService;
 import com.apitable.organization.service.ITeamService;
 import com.apitable.organization.service.IUnitService;
+import com.apitable.organization.support.OrganizationGraph;
 import com.apitable.organization.vo.MemberBriefInfoVo;
 import com.apitable.organization.vo.MemberInfoVo;
 import com.apitable.organization.vo.MemberTeamPathInfo;
 import com.apitable.organization.vo.UploadParseResultVO;
 import com.apitable.shared.cache.bean.UserSpaceDto;
+import com.apitable.shared.cache.service.ControlRoleCacheService;
 import com.apitable.shared.cache.service.UserActiveSpaceCacheService;
 import com.apitable.shared.cache.service.UserSpaceCacheService;
 import com.apitable.shared.component.TaskManager;
@@ -99,18 +107,21 @@ import com.apitable.shared.util.ibatis.ExpandServiceImpl;
 import com.apitable.space.entity.SpaceInviteRecordEntity;
 import com.apitable.space.enums.InviteType;
 import com.apitable.space.enums.SpaceException;
+import com.apitable.space.enums.SpaceUsageType;
 import com.apitable.space.mapper.SpaceApplyMapper;
 import com.apitable.space.mapper.SpaceInviteLinkMapper;
 import com.apitable.space.mapper.SpaceInviteRecordMapper;
 import com.apitable.space.mapper.StaticsMapper;
 import com.apitable.space.service.ISpaceRoleService;
 import com.apitable.space.service.ISpaceService;
+import com.apitable.space.service.ISpaceUsageService;
 import com.apitable.user.entity.UserEntity;
 import com.apitable.user.dto.UserLangDTO;
 import com.apitable.user.service.IUserService;
 import com.apitable.workspace.enums.PermissionException;
 import com.apitable.core.exception.BusinessException;
 import com.apitable.core.util.ExceptionUtil;
+import com.apitable.core.util.SpringContextHolder;
 import com.apitable.core.util.SqlTool;
 
 import org.springframework.context.i18n.LocaleContextHolder;
@@ -168,6 +179,9 @@ public class MemberServiceImpl extends ExpandServiceImpl<MemberMapper, MemberEnt
     @Resource
     private ISpaceRoleService iSpaceRoleService;
 
+    @Resource
+    private ISpaceUsageService iSpaceUsageService;
+
     @Resource
     private SpaceApplyMapper spaceApplyMapper;
 
@@ -188,6 +202,12 @@ public class MemberServiceImpl extends ExpandServiceImpl<MemberMapper, MemberEnt
     @Resource
     private IRoleMemberService iRoleMemberService;
 
+    @Resource
+    private IOrganizationGraphService iOrganizationGraphService;
+
+    @Resource
+    private ControlRoleCacheService controlRoleCacheService;
+
 
     @Override
     public Long getMemberIdByUserIdAndSpaceId(Long userId, String spaceId) {
@@ -232,6 +252,10 @@ public class MemberServiceImpl extends ExpandServiceImpl<MemberMapper, MemberEnt
     @Override
     public List<Long> getUnitsByMember(Long memberId) {
         log.info("Gets all unit ids for the member");
+        OrganizationGraph graph = iOrganizationGraphService.getGraphByMemberId(memberId);
+        if (graph != null) {
+            return graph.getUnitIdsByMemberId(memberId);
+        }
         List<Long> unitRefIds = CollUtil.newArrayList(memberId);
         List<Long> teamIds = teamMemberRelMapper.selectAllTeamIdByMemberId(memberId);
         unitRefIds.addAll(teamIds);
@@ -240,6 +264,29 @@ public class MemberServiceImpl extends ExpandServiceImpl<MemberMapper, MemberEnt
         return iUnitService.getUnitIdsByRefIds(unitRefIds);
     }
 
+    @Override
+    public Map<Long, List<Long>> getUnitsByMembers(Collection<Long> memberIds) {
+        log.info("Gets all unit ids for the members");
+        Map<Long, Set<Long>> memberUnitRefIds = new LinkedHashMap<>(memberIds.size());
+        memberIds.forEach(memberId -> memberUnitRefIds.computeIfAbsent(memberId, k -> new LinkedHashSet<>()).add(memberId));
+        if (memberUnitRefIds.isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        teamMemberRelMapper.selectAllTeamIdByMemberIds(memberUnitRefIds.keySet())
+                .forEach(rel -> memberUnitRefIds.get(rel.getMemberId()).add(rel.getTeamId()));
+        iRoleMemberService.getRoleIdsByRoleMemberIds(memberUnitRefIds.keySet())
+                .forEach((memberId, roleIds) -> memberUnitRefIds.get(memberId).addAll(roleIds));
+        // one query of unit for all members
+        Set<Long> unitRefIds = memberUnitRefIds.values().stream().flatMap(Set::stream).collect(Collectors.toSet());
+        Map<Long, Long> refIdToUnitId = iUnitService.getByRefIds(unitRefIds).stream()
+                .filter(unit -> !Boolean.TRUE.equals(unit.getIsDeleted()))
+                .collect(Collectors.toMap(UnitEntity::getUnitRefId, UnitEntity::getId, (k1, k2) -> k1));
+        Map<Long, List<Long>> memberUnitIds = new LinkedHashMap<>(memberUnitRefIds.size());
+        memberUnitRefIds.forEach((memberId, refIds) -> memberUnitIds.put(memberId, refIds.stream()
+                .map(refIdToUnitId::get).filter(Objects::nonNull).collect(Collectors.toList())));
+        return memberUnitIds;
+    }
+
     @Override
     public List<MemberEntity> getSocialMemberBySpaceId(String spaceId, long offset, int limit) {
         return baseMapper.selectBindSocialListBySpaceIdWithOffset(spaceId, offset, limit);
@@ -405,11 +452,13 @@ public class MemberServiceImpl extends ExpandServiceImpl<MemberMapper, MemberEnt
         }
         boolean addBatchUnit = iUnitService.createBatch(unitEntities);
         ExceptionUtil.isTrue(addBatchUnit, DatabaseException.INSERT_ERROR);
+        iSpaceUsageService.applyDelta(spaceId, SpaceUsageType.MEMBER, entities.size());
     }
 
     @Override
     public void restoreMember(MemberEntity member) {
         baseMapper.restoreMember(member);
+        iSpaceUsageService.applyDelta(member.getSpaceId(), SpaceUsageType.MEMBER, 1);
     }
 
     @Override
@@ -650,6 +699,8 @@ public class MemberServiceImpl extends ExpandServiceImpl<MemberMapper, MemberEnt
         if (CollUtil.isNotEmpty(removeTeamList)) {
             boolean dmrFlag = SqlHelper.retBool(teamMemberRelMapper.deleteByTeamIdsAndMemberId(memberId, removeTeamList));
             ExceptionUtil.isTrue(dmrFlag, OrganizationException.UPDATE_MEMBER_ERROR);
+            controlRoleCacheService.invalidate(member.getSpaceId());
+            iOrganizationGraphService.invalidate(member.getSpaceId());
         }
     }
 
@@ -660,6 +711,8 @@ public class MemberServiceImpl extends ExpandServiceImpl<MemberMapper, MemberEnt
         // Check if there are duplicates in the adjusted departments, and eliminate the duplicates
         Long rootTeamId = teamMapper.selectRootIdBySpaceId(spaceId);
         teamMemberRelMapper.deleteBatchMemberByTeams(memberIds, rootTeamId);
+        controlRoleCacheService.invalidate(spaceId);
+        iOrganizationGraphService.invalidate(spaceId);
         // Query the departments to which a member belongs, including the root department
         List<TeamMemberRelEntity> tmrList = teamMemberRelMapper.selectByMemberIds(memberIds);
         Map<Long, List<Long>> toAddMap = new LinkedHashMap<>(memberIds.size());
@@ -699,6 +752,8 @@ public class MemberServiceImpl extends ExpandServiceImpl<MemberMapper, MemberEnt
         }
         boolean flag = SqlHelper.retBool(teamMemberRelMapper.deleteBatchMemberByTeams(memberIds, teamId));
         ExceptionUtil.isTrue(flag, OrganizationException.DELETE_MEMBER_ERROR);
+        controlRoleCacheService.invalidate(spaceId);
+        iOrganizationGraphService.invalidate(spaceId);
         if (CollUtil.isNotEmpty(needRelateRoots)) {
             // Associating the root team
             Long rootTeamId = teamMapper.selectRootIdBySpaceId(spaceId);
@@ -711,6 +766,9 @@ public class MemberServiceImpl extends ExpandServiceImpl<MemberMapper, MemberEnt
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void removeByMemberIds(List<Long> memberIds) {
+        // members of several spaces if the user is closed
+        baseMapper.selectBatchIds(memberIds).stream().map(MemberEntity::getSpaceId).distinct()
+                .forEach(iOrganizationGraphService::invalidate);
         baseMapper.deleteBatchByIds(memberIds);
         // Logically deletes a member unit from an organizational unit
         iUnitService.removeByMemberId(memberIds);
@@ -735,14 +793,12 @@ public class MemberServiceImpl extends ExpandServiceImpl<MemberMapper, MemberEnt
         // delete cache
         List<Long> userIds = baseMapper.selectUserIdsByMemberIds(memberIds);
         if (CollUtil.isNotEmpty(userIds)) {
-            for (Long userId : userIds) {
-                if (userId != null) {
-                    userActiveSpaceCacheService.delete(userId);
-                    userSpaceCacheService.delete(userId, spaceId);
-                }
-            }
+            userActiveSpaceCacheService.delete(userIds);
+            userSpaceCacheService.deleteByUserIds(spaceId, userIds);
         }
         List<MemberEntity> memberEntities = baseMapper.selectBatchIds(memberIds);
+        // only the members not deleted yet are counted
+        long removedCount = memberEntities.stream().filter(member -> spaceId.equals(member.getSpaceId())).count();
         // The invitation link is invalid and the public link it created is deleted
         if (CollUtil.isNotEmpty(memberEntities)) {
             List<String> deleteMails = new ArrayList<>();
@@ -764,6 +820,7 @@ public class MemberServiceImpl extends ExpandServiceImpl<MemberMapper, MemberEnt
         removeByMemberIds(memberIds);
         // Removed from the space management role
         iSpaceRoleService.batchRemoveByMemberIds(spaceId, memberIds);
+        iSpaceUsageService.applyDelta(spaceId, SpaceUsageType.MEMBER, -removedCount);
         // sending a notification email
         if (mailNotify) {
             String spaceName = iSpaceService.getNameBySpaceId(spaceId);
@@ -803,17 +860,14 @@ public class MemberServiceImpl extends ExpandServiceImpl<MemberMapper, MemberEnt
         List<Long> userIds = baseMapper.selectUserIdBySpaceIds(Collections.singletonList(spaceId));
         if (CollUtil.isNotEmpty(userIds)) {
             userIds.remove(userId);
-            userIds.forEach(id -> {
-                userActiveSpaceCacheService.delete(id);
-                userSpaceCacheService.delete(id, spaceId);
-            });
+            userActiveSpaceCacheService.delete(userIds);
+            userSpaceCacheService.deleteByUserIds(spaceId, userIds);
             NotificationRenderFieldHolder.set(NotificationRenderField.builder().playerIds(userIds).build());
         }
         baseMapper.delBySpaceIds(Collections.singletonList(spaceId), userId);
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public UploadParseResultVO parseExcelFile(String spaceId, MultipartFile multipartFile) {
         // subscribe to the limit
         // iSubscriptionService.checkSeat(spaceId);
@@ -824,8 +878,9 @@ public class MemberServiceImpl extends ExpandServiceImpl<MemberMapper, MemberEnt
             // obtaining statistics
             int currentMemberCount = (int) SqlTool.retCount(staticsMapper.countMemberBySpaceId(spaceId));
             // long defaultMaxMemberCount = iSubscriptionService.getPlanSeats(spaceId);
-            // Use the object to read data row by row, set the number of rows in the table header, and start reading data at line 4, asynchronous reading.
-            UploadDataListener listener = new UploadDataListener(spaceId, this, -1, currentMemberCount)
+            // Use the object to read data row by row, set the number of rows in the table header, and start reading data at line 4.
+            // the rows are saved in batches after the sheet is read, each batch in its own transaction of the service proxy
+            UploadDataListener listener = new UploadDataListener(spaceId, SpringContextHolder.getBean(IMemberService.class), -1, currentMemberCount)
                     .resources(userSpaceDto.getResourceCodes());
             EasyExcel.read(multipartFile.getInputStream(), listener).sheet().headRowNumber(3).doRead();
             // gets the parse store record
@@ -897,122 +952,140 @@ public class MemberServiceImpl extends ExpandServiceImpl<MemberMapper, MemberEnt
 
     @Override
     @Transactional(rollbackFor = Exception.class)
-    public Long saveUploadData(String spaceId, UploadDataDTO uploadData, List<String> inviteEmails,
-            List<String> notifyEmails, boolean teamCreatable) {
-        log.info("saving template data:{}", JSONUtil.toJsonStr(uploadData));
-        Long memberId = IdWorker.getId();
-        MemberEntity member = new MemberEntity();
-        member.setId(memberId);
-        member.setSpaceId(spaceId);
-        member.setStatus(UserSpaceStatus.INACTIVE.getStatus());
-        member.setEmail(uploadData.getEmail());
-        member.setPosition(uploadData.getPosition());
-        member.setJobNumber(uploadData.getJobNumber());
-        member.setIsPoint(true);
-        member.setIsAdmin(false);
-        member.setNameModified(false);
-        member.setIsSocialNameModified(SocialNameModified.NO_SOCIAL.getValue());
-        // query whether a user is bound to this mailbox
-        UserEntity user = iUserService.getByEmail(uploadData.getEmail());
-        boolean historyMember = false;
-        if (user != null) {
-            // notification email
-            notifyEmails.add(uploadData.getEmail());
-            // The mailbox is bound to the user and directly activates the member
-            Long userId = user.getId();
-            member.setUserId(userId);
-            member.setMemberName(StrUtil.isBlank(uploadData.getName()) ? user.getNickName() : StrUtil.subWithLength(uploadData.getName(), 0, 32));
-            member.setIsActive(true);
-            // whether the user is already in space
-            MemberEntity existInSpace = baseMapper.selectByUserIdAndSpaceIdIgnoreDelete(userId, spaceId);
-            if (existInSpace != null) {
-                memberId = existInSpace.getId();
-                member.setId(existInSpace.getId());
-                historyMember = true;
-            }
-            // the application for adding space is invalid
-            spaceApplyMapper.invalidateTheApply(ListUtil.toList(userId), spaceId, InviteType.FILE_IMPORT.getType());
+    public UploadDataResultDTO saveUploadData(String spaceId, List<UploadDataDTO> rows, boolean teamCreatable) {
+        log.info("saving {} rows of template data", rows.size());
+        UploadDataResultDTO result = new UploadDataResultDTO();
+        if (CollUtil.isEmpty(rows)) {
+            return result;
         }
-        else {
-            // The mailbox is not bound to any user and is inactive. The mailbox is waiting for the user to accept the invitation and register to enter the space
-            member.setMemberName(StrUtil.isBlank(uploadData.getName()) ? "unnamed" : StrUtil.subWithLength(uploadData.getName(), 0, 32));
-            member.setIsActive(false);
-            // invitation email
-            inviteEmails.add(uploadData.getEmail());
+        // query the users bound to the mailboxes at once
+        List<String> emails = rows.stream().map(UploadDataDTO::getEmail).collect(Collectors.toList());
+        Map<String, UserEntity> emailUserMap = iUserService.getByEmails(emails).stream()
+                .collect(Collectors.toMap(user -> user.getEmail().trim().toLowerCase(), Function.identity(), (k1, k2) -> k1));
+        List<Long> userIds = emailUserMap.values().stream().map(UserEntity::getId).collect(Collectors.toList());
+        // whether the users are already in space, take the latest member of each user
+        Map<Long, MemberEntity> userMemberMap = userIds.isEmpty() ? Collections.emptyMap()
+                : baseMapper.selectByUserIdsAndSpaceIdIgnoreDelete(userIds, spaceId).stream()
+                .collect(Collectors.toMap(MemberEntity::getUserId, Function.identity(), (k1, k2) -> k1.getId() > k2.getId() ? k1 : k2));
+        List<MemberEntity> newMembers = new ArrayList<>();
+        List<MemberEntity> historyMembers = new ArrayList<>();
+        Map<Long, String> memberTeams = new LinkedHashMap<>(rows.size());
+        for (UploadDataDTO uploadData : rows) {
+            MemberEntity member = new MemberEntity();
+            member.setId(IdWorker.getId());
+            member.setSpaceId(spaceId);
+            member.setStatus(UserSpaceStatus.INACTIVE.getStatus());
+            member.setEmail(uploadData.getEmail());
+            member.setPosition(uploadData.getPosition());
+            member.setJobNumber(uploadData.getJobNumber());
+            member.setIsPoint(true);
+            member.setIsAdmin(false);
+            member.setNameModified(false);
+            member.setIsSocialNameModified(SocialNameModified.NO_SOCIAL.getValue());
+            UserEntity user = emailUserMap.get(uploadData.getEmail().trim().toLowerCase());
+            if (user != null) {
+                // notification email
+                result.getNotifyEmails().add(uploadData.getEmail());
+                // The mailbox is bound to the user and directly activates the member
+                member.setUserId(user.getId());
+                member.setMemberName(StrUtil.isBlank(uploadData.getName()) ? user.getNickName() : StrUtil.subWithLength(uploadData.getName(), 0, 32));
+                member.setIsActive(true);
+                MemberEntity existInSpace = userMemberMap.get(user.getId());
+                if (existInSpace != null) {
+                    member.setId(existInSpace.getId());
+                    historyMembers.add(member);
+                }
+                else {
+                    newMembers.add(member);
+                }
+            }
+            else {
+                // The mailbox is not bound to any user and is inactive. The mailbox is waiting for the user to accept the invitation and register to enter the space
+                member.setMemberName(StrUtil.isBlank(uploadData.getName()) ? "unnamed" : StrUtil.subWithLength(uploadData.getName(), 0, 32));
+                member.setIsActive(false);
+                // invitation email
+                result.getInviteEmails().add(uploadData.getEmail());
+                newMembers.add(member);
+            }
+            result.getMemberIds().add(member.getId());
+            memberTeams.put(member.getId(), uploadData.getTeam());
         }
-        if (historyMember) {
+        if (!historyMembers.isEmpty()) {
             // logical deletion restoration
-            restoreMember(member);
+            historyMembers.forEach(this::restoreMember);
             // recovery team unit
-            iUnitService.restoreMemberUnit(spaceId, Collections.singletonList(member.getId()));
+            iUnitService.restoreMemberUnit(spaceId, historyMembers.stream().map(MemberEntity::getId).collect(Collectors.toList()));
         }
-        else {
-            this.batchCreate(spaceId, Collections.singletonList(member));
+        this.batchCreate(spaceId, newMembers);
+        if (!userIds.isEmpty()) {
+            // the application for adding space is invalid
+            spaceApplyMapper.invalidateTheApply(userIds, spaceId, InviteType.FILE_IMPORT.getType());
         }
         // Deal with related departments
-        if (StrUtil.isNotBlank(uploadData.getTeam())) {
-            List<TeamMemberRelEntity> dmrEntities = new ArrayList<>();
-            // comma intercept department
-            List<String> teamNamePaths = StrUtil.splitTrim(Convert.toDBC(uploadData.getTeam().trim()), ',');
-            // root team
-            Long rootTeamId = teamMapper.selectRootIdBySpaceId(spaceId);
-            // traverse to see if it exists
-            for (String teamNamePath : teamNamePaths) {
-                if (StrUtil.isBlank(teamNamePath)) {
-                    // Null values are directly skipped and associated under the root team
-                    TeamMemberRelEntity dmr = new TeamMemberRelEntity();
-                    dmr.setId(IdWorker.getId());
-                    dmr.setMemberId(memberId);
-                    dmr.setTeamId(rootTeamId);
-                    dmrEntities.add(dmr);
-                    continue;
-                }
-                log.debug("before the intercept:{}", teamNamePath);
-                // Interception is in order. First - second - third
-                List<String> teamNames = StrUtil.splitTrim(teamNamePath, '-');
-                log.info("after  the intercept:{}", teamNames);
-                // Check whether the department exists based on the department path
-                Long teamId = iTeamService.getByTeamNamePath(spaceId, teamNames);
-                if (teamId != null) {
-                    // There is, directly related to
-                    TeamMemberRelEntity dmr = new TeamMemberRelEntity();
-                    dmr.setId(IdWorker.getId());
-                    dmr.setMemberId(memberId);
-                    dmr.setTeamId(teamId);
-                    dmrEntities.add(dmr);
-                }
-                else {
-                    // Does not exist. Create if you have administrative team permission，if not it is related to the root team.
-                    if (teamCreatable) {
-                        // Have permission, create team and associate members
-                        List<Long> teamIds = iTeamService.createBatchByTeamName(spaceId, rootTeamId, teamNames);
-                        for (Long id : teamIds) {
-                            TeamMemberRelEntity dmr = new TeamMemberRelEntity();
-                            dmr.setId(IdWorker.getId());
-                            dmr.setMemberId(memberId);
-                            dmr.setTeamId(id);
-                            dmrEntities.add(dmr);
-                        }
-                    }
-                    else {
-                        TeamMemberRelEntity dmr = new TeamMemberRelEntity();
-                        dmr.setId(IdWorker.getId());
-                        dmr.setMemberId(memberId);
-                        dmr.setTeamId(rootTeamId);
-                        dmrEntities.add(dmr);
-                    }
+        List<TeamMemberRelEntity> dmrEntities = this.buildUploadMemberTeams(spaceId, memberTeams, teamCreatable);
+        teamMemberRelMapper.insertBatch(dmrEntities);
+        controlRoleCacheService.invalidate(spaceId);
+        iOrganizationGraphService.invalidate(spaceId);
+        return result;
+    }
+
+    /**
+     * relate the uploaded members to their teams, the teams of space are loaded once and matched by team path
+     *
+     * @param spaceId space id
+     * @param memberTeams member id -> team column of the row
+     * @param teamCreatable whether a department can be created
+     * @return TeamMemberRelEntities
+     */
+    private List<TeamMemberRelEntity> buildUploadMemberTeams(String spaceId, Map<Long, String> memberTeams, boolean teamCreatable) {
+        // root team
+        Long rootTeamId = teamMapper.selectRootIdBySpaceId(spaceId);
+        Map<String, Long> teamPathMap = memberTeams.values().stream().anyMatch(StrUtil::isNotBlank)
+                ? iTeamService.getTeamNamePathMap(spaceId) : new HashMap<>(0);
+        List<TeamMemberRelEntity> dmrEntities = new ArrayList<>();
+        memberTeams.forEach((memberId, team) -> {
+            Set<Long> teamIds = new LinkedHashSet<>();
+            if (StrUtil.isNotBlank(team)) {
+                // comma intercept department
+                for (String teamNamePath : StrUtil.splitTrim(Convert.toDBC(team.trim()), ',')) {
+                    // Interception is in order. First - second - third
+                    List<String> teamNames = StrUtil.splitTrim(teamNamePath, '-');
+                    teamIds.add(this.getUploadTeamId(spaceId, rootTeamId, teamNames, teamPathMap, teamCreatable));
                 }
             }
-            if (CollUtil.isNotEmpty(dmrEntities)) {
-                teamMemberRelMapper.insertBatch(dmrEntities);
+            if (teamIds.isEmpty()) {
+                // no department directly tied to the root door
+                teamIds.add(rootTeamId);
             }
+            for (Long teamId : teamIds) {
+                TeamMemberRelEntity dmr = new TeamMemberRelEntity();
+                dmr.setId(IdWorker.getId());
+                dmr.setMemberId(memberId);
+                dmr.setTeamId(teamId);
+                dmrEntities.add(dmr);
+            }
+        });
+        return dmrEntities;
+    }
+
+    private Long getUploadTeamId(String spaceId, Long rootTeamId, List<String> teamNames, Map<String, Long> teamPathMap, boolean teamCreatable) {
+        if (teamNames.isEmpty()) {
+            // Null values are directly associated under the root team
+            return rootTeamId;
         }
-        else {
-            // no department directly tied to the root door
-            Long rootTeamId = teamMapper.selectRootIdBySpaceId(spaceId);
-            iTeamMemberRelService.addMemberTeams(Collections.singletonList(memberId), Collections.singletonList(rootTeamId));
+        String teamNamePath = CollUtil.join(teamNames, "-");
+        Long teamId = teamPathMap.get(teamNamePath);
+        if (teamId != null) {
+            return teamId;
+        }
+        // Does not exist. Create if you have administrative team permission，if not it is related to the root team.
+        if (!teamCreatable) {
+            return rootTeamId;
         }
-        return memberId;
+        teamId = CollUtil.getFirst(iTeamService.createBatchByTeamName(spaceId, rootTeamId, teamNames));
+        // the rows after use the created team
+        teamPathMap.put(teamNamePath, teamId);
+        return teamId;
     }
 
     @Override
@@ -1180,6 +1253,7 @@ public class MemberServiceImpl extends ExpandServiceImpl<MemberMapper, MemberEnt
         // todo is the recovery department migrated here？
         // restore a member from an organizational unit
         iUnitService.batchUpdateIsDeletedBySpaceIdAndRefId(spaceId, memberIds, UnitType.MEMBER, false);
+        iSpaceUsageService.invalidate(spaceId, SpaceUsageType.MEMBER);
     }
 
     @Override
@@ -0,0 +1,173 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.organization.service.impl;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.core.util.StrUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import com.apitable.core.constants.RedisConstants;
+import com.apitable.organization.mapper.MemberMapper;
+import com.apitable.organization.mapper.RoleMemberMapper;
+import com.apitable.organization.mapper.TeamMapper;
+import com.apitable.organization.mapper.TeamMemberRelMapper;
+import com.apitable.organization.mapper.UnitMapper;
+import com.apitable.organization.service.IOrganizationGraphService;
+import com.apitable.organization.support.OrganizationGraph;
+import com.apitable.shared.config.properties.OrganizationGraphProperties;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * <p>
+ * organization graph of spaces, loaded lazily on the first use of the space.
+ * every change bumps the version stamp of the space in redis,
+ * a graph behind the version stamp is loaded again, so all nodes see the change on their next use.
+ * </p>
+ */
+@Slf4j
+@Service
+public class OrganizationGraphServiceImpl implements IOrganizationGraphService {
+
+    /**
+     * locks of loading graph, so that a space is loaded once at a time
+     */
+    private static final int LOAD_LOCKS = 64;
+
+    /**
+     * space of members, a member never moves to another space
+     */
+    private static final int MEMBER_SPACE_CAPACITY = 100000;
+
+    @Resource
+    private TeamMapper teamMapper;
+
+    @Resource
+    private TeamMemberRelMapper teamMemberRelMapper;
+
+    @Resource
+    private RoleMemberMapper roleMemberMapper;
+
+    @Resource
+    private UnitMapper unitMapper;
+
+    @Resource
+    private MemberMapper memberMapper;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private OrganizationGraphProperties organizationGraphProperties;
+
+    private final Object[] loadLocks = new Object[LOAD_LOCKS];
+
+    private final Cache<Long, String> memberSpaces = CacheUtil.newLRUCache(MEMBER_SPACE_CAPACITY);
+
+    private Cache<String, OrganizationGraph> graphs;
+
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < LOAD_LOCKS; i++) {
+            loadLocks[i] = new Object();
+        }
+        graphs = CacheUtil.newLRUCache(organizationGraphProperties.getMaximumSpaces(),
+                organizationGraphProperties.getExpireMinutes() * 60 * 1000L);
+    }
+
+    @Override
+    public OrganizationGraph getGraph(String spaceId) {
+        if (!organizationGraphProperties.isEnabled() || StrUtil.isBlank(spaceId)) {
+            return null;
+        }
+        long version = getVersion(spaceId);
+        OrganizationGraph graph = graphs.get(spaceId);
+        if (graph != null && graph.getVersion() == version) {
+            return graph;
+        }
+        synchronized (loadLocks[Math.floorMod(spaceId.hashCode(), LOAD_LOCKS)]) {
+            graph = graphs.get(spaceId);
+            if (graph != null && graph.getVersion() == version) {
+                return graph;
+            }
+            long start = System.currentTimeMillis();
+            // read the version before loading, a change committed meanwhile makes the next use load again
+            version = getVersion(spaceId);
+            graph = OrganizationGraph.of(version, teamMapper.selectAllBySpaceId(spaceId),
+                    teamMemberRelMapper.selectTeamIdAndMemberIdBySpaceId(spaceId),
+                    roleMemberMapper.selectRoleMembersBySpaceId(spaceId),
+                    unitMapper.selectRefIdAndTypeBySpaceId(spaceId));
+            graphs.put(spaceId, graph);
+            log.info("Load organization graph of space「{}」, teams: {}, members: {}, cost: {}ms",
+                    spaceId, graph.getTeamCount(), graph.getMemberCount(), System.currentTimeMillis() - start);
+            return graph;
+        }
+    }
+
+    @Override
+    public OrganizationGraph getGraphByMemberId(Long memberId) {
+        if (!organizationGraphProperties.isEnabled() || memberId == null) {
+            return null;
+        }
+        String spaceId = memberSpaces.get(memberId, false);
+        if (spaceId == null) {
+            spaceId = memberMapper.selectSpaceIdByMemberId(memberId);
+            if (spaceId == null) {
+                return null;
+            }
+            memberSpaces.put(memberId, spaceId);
+        }
+        return getGraph(spaceId);
+    }
+
+    @Override
+    public void invalidate(String spaceId) {
+        if (!organizationGraphProperties.isEnabled() || StrUtil.isBlank(spaceId)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // bump after commit, otherwise a concurrent use may load the old organization under the new version
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpVersion(spaceId);
+                }
+            });
+            return;
+        }
+        bumpVersion(spaceId);
+    }
+
+    private void bumpVersion(String spaceId) {
+        stringRedisTemplate.opsForValue().increment(RedisConstants.getOrganizationGraphVersionKey(spaceId));
+        graphs.remove(spaceId);
+    }
+
+    private long getVersion(String spaceId) {
+        String version = stringRedisTemplate.opsForValue().get(RedisConstants.getOrganizationGraphVersionKey(spaceId));
+        return version != null ? Long.parseLong(version) : 0L;
+    }
+}
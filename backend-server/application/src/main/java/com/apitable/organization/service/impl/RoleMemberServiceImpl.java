@@ -20,6 +20,7 @@ package com.apitable.organization.service.impl;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -39,15 +40,19 @@ import com.apitable.organization.ro.RoleMemberUnitRo;
 import com.apitable.organization.vo.RoleMemberVo;
 import com.apitable.organization.vo.UnitMemberVo;
 import com.apitable.organization.vo.UnitTeamVo;
+import com.apitable.organization.mapper.RoleMapper;
 import com.apitable.organization.mapper.RoleMemberMapper;
 import com.apitable.organization.dto.RoleMemberInfoDTO;
+import com.apitable.organization.service.IOrganizationGraphService;
 import com.apitable.organization.service.IOrganizationService;
 import com.apitable.organization.service.IRoleMemberService;
 import com.apitable.organization.service.ITeamService;
+import com.apitable.shared.cache.service.ControlRoleCacheService;
 import com.apitable.space.service.ISpaceService;
 import com.apitable.organization.enums.OrganizationException;
 import com.apitable.core.util.ExceptionUtil;
 import com.apitable.core.util.SqlTool;
+import com.apitable.organization.entity.RoleEntity;
 import com.apitable.organization.entity.RoleMemberEntity;
 import com.apitable.organization.entity.TeamEntity;
 
@@ -72,6 +77,15 @@ public class RoleMemberServiceImpl extends ServiceImpl<RoleMemberMapper, RoleMem
     @Resource
     ISpaceService iSpaceService;
 
+    @Resource
+    RoleMapper roleMapper;
+
+    @Resource
+    ControlRoleCacheService controlRoleCacheService;
+
+    @Resource
+    IOrganizationGraphService iOrganizationGraphService;
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public List<Long> addRoleMembers(Long roleId, List<RoleMemberUnitRo> unitList) {
@@ -97,6 +111,7 @@ public class RoleMemberServiceImpl extends ServiceImpl<RoleMemberMapper, RoleMem
         });
         boolean flag = saveBatch(roleMembers);
         ExceptionUtil.isTrue(flag, OrganizationException.ADD_ROLE_MEMBER_ERROR);
+        invalidateOrganizationCache(roleId);
         return getMemberIds(teamIds, memberIds);
     }
 
@@ -108,11 +123,13 @@ public class RoleMemberServiceImpl extends ServiceImpl<RoleMemberMapper, RoleMem
         List<RoleMemberInfoDTO> removedRoleMember = baseMapper.selectRoleMembersByRoleIdAndUnitRefIds(roleId, roleMemberIds);
         // begin remove role members.
         baseMapper.deleteByRoleIdAndUnitRefIds(roleId, roleMemberIds);
+        invalidateOrganizationCache(roleId);
         return getMemberIds(removedRoleMember);
     }
 
     @Override
     public void removeByRoleId(Long roleId) {
+        invalidateOrganizationCache(roleId);
         baseMapper.deleteByRoleId(roleId);
     }
 
@@ -214,6 +231,15 @@ public class RoleMemberServiceImpl extends ServiceImpl<RoleMemberMapper, RoleMem
         return baseMapper.selectRoleIdsByUnitRefId(memberId);
     }
 
+    @Override
+    public Map<Long, List<Long>> getRoleIdsByRoleMemberIds(Collection<Long> roleMemberIds) {
+        if (CollUtil.isEmpty(roleMemberIds)) {
+            return new HashMap<>();
+        }
+        return baseMapper.selectRoleIdsByUnitRefIds(roleMemberIds).stream()
+                .collect(groupingBy(RoleMemberEntity::getUnitRefId, mapping(RoleMemberEntity::getRoleId, toList())));
+    }
+
     @Override
     public List<Long> getMemberIdsByRoleIds(List<Long> roleIds) {
         if (CollUtil.isEmpty(roleIds)) {
@@ -247,4 +273,15 @@ public class RoleMemberServiceImpl extends ServiceImpl<RoleMemberMapper, RoleMem
         return memberIds;
     }
 
+
+    /**
+     * the units of role members are changed, discard the cached member roles and the organization graph of the space
+     */
+    private void invalidateOrganizationCache(Long roleId) {
+        RoleEntity role = roleMapper.selectById(roleId);
+        if (role != null) {
+            controlRoleCacheService.invalidate(role.getSpaceId());
+            iOrganizationGraphService.invalidate(role.getSpaceId());
+        }
+    }
 }
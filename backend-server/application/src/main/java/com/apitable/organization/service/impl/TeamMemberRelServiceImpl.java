@@ -33,7 +33,9 @@ import lombok.extern.slf4j.Slf4j;
 import com.apitable.organization.enums.OrganizationException;
 import com.apitable.organization.mapper.TeamMapper;
 import com.apitable.organization.mapper.TeamMemberRelMapper;
+import com.apitable.organization.service.IOrganizationGraphService;
 import com.apitable.organization.service.ITeamMemberRelService;
+import com.apitable.shared.cache.service.ControlRoleCacheService;
 import com.apitable.shared.util.ibatis.ExpandServiceImpl;
 import com.apitable.core.util.ExceptionUtil;
 import com.apitable.organization.entity.TeamMemberRelEntity;
@@ -46,6 +48,12 @@ public class TeamMemberRelServiceImpl extends ExpandServiceImpl<TeamMemberRelMap
     @Resource
     private TeamMapper teamMapper;
 
+    @Resource
+    private ControlRoleCacheService controlRoleCacheService;
+
+    @Resource
+    private IOrganizationGraphService iOrganizationGraphService;
+
     @Override
     public void addMemberTeams(List<Long> memberIds, List<Long> teamIds) {
         log.info("member associated team");
@@ -66,6 +74,7 @@ public class TeamMemberRelServiceImpl extends ExpandServiceImpl<TeamMemberRelMap
             boolean flag = SqlHelper.retBool(baseMapper.insertBatch(entities));
             ExceptionUtil.isTrue(flag, OrganizationException.UPDATE_MEMBER_TEAM_ERROR);
         }
+        invalidateOrganizationCache(teamIds);
     }
 
     @Override
@@ -74,6 +83,7 @@ public class TeamMemberRelServiceImpl extends ExpandServiceImpl<TeamMemberRelMap
             return;
         }
         saveBatch(entities);
+        invalidateOrganizationCache(Collections.singletonList(entities.get(0).getTeamId()));
     }
 
     @Override
@@ -102,16 +112,31 @@ public class TeamMemberRelServiceImpl extends ExpandServiceImpl<TeamMemberRelMap
         List<Long> subTeamIds = teamMapper.selectAllSubTeamIdsByParentId(teamId, true);
         subTeamIds.add(teamId);
         baseMapper.deleteByTeamIds(subTeamIds);
+        invalidateOrganizationCache(subTeamIds);
     }
 
     @Override
     public void removeByTeamIds(Collection<Long> teamIds) {
         log.info("Delete the binding relationships between member and department");
         baseMapper.deleteByTeamIds(teamIds);
+        invalidateOrganizationCache(teamIds);
     }
 
     @Override
     public void removeByTeamIdsAndMemberId(Long memberId, List<Long> teamIds) {
         baseMapper.deleteByTeamIdsAndMemberId(memberId, teamIds);
+        invalidateOrganizationCache(teamIds);
+    }
+
+    /**
+     * the units of members are changed, discard the cached member roles and the organization graph of the space
+     */
+    private void invalidateOrganizationCache(Collection<Long> teamIds) {
+        if (CollUtil.isEmpty(teamIds)) {
+            return;
+        }
+        String spaceId = teamMapper.selectSpaceIdById(teamIds.iterator().next());
+        controlRoleCacheService.invalidate(spaceId);
+        iOrganizationGraphService.invalidate(spaceId);
     }
 }
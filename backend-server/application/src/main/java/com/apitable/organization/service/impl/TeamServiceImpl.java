@@ -29,6 +29,7 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.annotation.Resource;
@@ -59,10 +60,12 @@ import com.apitable.organization.dto.MemberTeamInfoDTO;
 import com.apitable.organization.vo.MemberTeamPathInfo;
 import com.apitable.organization.dto.TeamCteInfo;
 import com.apitable.organization.dto.TeamPathInfo;
+import com.apitable.organization.service.IOrganizationGraphService;
 import com.apitable.organization.service.IRoleMemberService;
 import com.apitable.organization.service.ITeamMemberRelService;
 import com.apitable.organization.service.ITeamService;
 import com.apitable.organization.service.IUnitService;
+import com.apitable.shared.cache.service.ControlRoleCacheService;
 import com.apitable.space.mapper.SpaceMapper;
 import com.apitable.space.service.ISpaceInviteLinkService;
 import com.apitable.space.service.ISpaceRoleService;
@@ -74,6 +77,7 @@ import com.apitable.core.util.SqlTool;
 import com.apitable.space.entity.SpaceEntity;
 import com.apitable.organization.entity.TeamEntity;
 import com.apitable.organization.entity.UnitEntity;
+import com.apitable.organization.support.OrganizationGraph;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -115,9 +119,19 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, TeamEntity> impleme
     @Resource
     private IRoleMemberService iRoleMemberService;
 
+    @Resource
+    private IOrganizationGraphService iOrganizationGraphService;
+
+    @Resource
+    private ControlRoleCacheService controlRoleCacheService;
+
     @Override
     public Set<Long> getTeamIdsByMemberId(String spaceId, Long memberId) {
         log.info("query the member's team includes all parent team.");
+        OrganizationGraph graph = iOrganizationGraphService.getGraph(spaceId);
+        if (graph != null) {
+            return graph.getTeamIdsByMemberId(memberId);
+        }
         List<Long> teamIds = teamMemberRelMapper.selectTeamIdsByMemberId(memberId);
         List<TeamEntity> allTeams = baseMapper.selectAllBySpaceId(spaceId);
         Set<Long> resultList = new HashSet<>();
@@ -332,6 +346,29 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, TeamEntity> impleme
         return teamPathName.getOrDefault(withoutBlankTeamNamePath, null);
     }
 
+    @Override
+    public Map<String, Long> getTeamNamePathMap(String spaceId) {
+        List<TeamEntity> teamEntities = baseMapper.selectAllBySpaceId(spaceId);
+        Map<Long, TeamEntity> teamMap = teamEntities.stream()
+                .collect(Collectors.toMap(TeamEntity::getId, Function.identity(), (k1, k2) -> k1));
+        Map<String, Long> teamPathMap = new HashMap<>(teamEntities.size());
+        for (TeamEntity team : teamEntities) {
+            if (team.getParentId().equals(0L)) {
+                continue;
+            }
+            // walk up to the root team, the depth bounds a broken tree
+            List<String> teamPath = new ArrayList<>();
+            TeamEntity current = team;
+            while (current != null && !current.getParentId().equals(0L) && teamPath.size() < teamEntities.size()) {
+                teamPath.add(current.getTeamName());
+                current = teamMap.get(current.getParentId());
+            }
+            Collections.reverse(teamPath);
+            teamPathMap.put(CollUtil.join(teamPath, "-"), team.getId());
+        }
+        return teamPathMap;
+    }
+
     public Map<String, Long> buildTreeTeamList(List<TeamEntity> teamEntities, String teamName) {
         Map<String, Long> teamPathMap = new HashMap<>();
         List<Long> teamIds = teamEntities.stream()
@@ -421,6 +458,8 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, TeamEntity> impleme
         update.setTeamName(teamName);
         boolean flag = updateById(update);
         ExceptionUtil.isTrue(flag, OrganizationException.UPDATE_TEAM_NAME_ERROR);
+        // team path names of members
+        iOrganizationGraphService.invalidate(baseMapper.selectSpaceIdById(teamId));
     }
 
     @Override
@@ -436,12 +475,19 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, TeamEntity> impleme
         update.setSequence(max + 1);
         boolean flag = updateById(update);
         ExceptionUtil.isTrue(flag, OrganizationException.UPDATE_TEAM_NAME_ERROR);
+        // members inherit the roles of parent teams
+        String spaceId = baseMapper.selectSpaceIdById(teamId);
+        controlRoleCacheService.invalidate(spaceId);
+        iOrganizationGraphService.invalidate(spaceId);
     }
 
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void deleteTeam(Long teamId) {
         log.info("delete team");
+        String spaceId = baseMapper.selectSpaceIdById(teamId);
+        controlRoleCacheService.invalidate(spaceId);
+        iOrganizationGraphService.invalidate(spaceId);
         iRoleMemberService.removeByRoleMemberIds(CollUtil.newArrayList(teamId));
         boolean flag = removeById(teamId);
         ExceptionUtil.isTrue(flag, OrganizationException.DELETE_TEAM_ERROR);
@@ -457,6 +503,9 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, TeamEntity> impleme
         if (CollUtil.isEmpty(teamIds)) {
             return;
         }
+        String spaceId = baseMapper.selectSpaceIdById(teamIds.iterator().next());
+        controlRoleCacheService.invalidate(spaceId);
+        iOrganizationGraphService.invalidate(spaceId);
         iRoleMemberService.removeByRoleMemberIds(teamIds);
         boolean flag = removeByIds(teamIds);
         ExceptionUtil.isTrue(flag, OrganizationException.DELETE_TEAM_ERROR);
@@ -481,6 +530,8 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, TeamEntity> impleme
         iUnitService.batchRemoveByTeamId(subTeamIds);
         // Delete departments in batches and delete public links
         iSpaceInviteLinkService.deleteByTeamIds(subTeamIds);
+        controlRoleCacheService.invalidate(spaceId);
+        iOrganizationGraphService.invalidate(spaceId);
     }
 
     @Override
@@ -660,6 +711,17 @@ public class TeamServiceImpl extends ServiceImpl<TeamMapper, TeamEntity> impleme
         for (Entry<Long, List<Long>> entry : memberTeamMap.entrySet()) {
             allTeamIds.addAll(entry.getValue());
         }
+        OrganizationGraph graph = iOrganizationGraphService.getGraph(spaceId);
+        if (graph != null) {
+            Map<Long, List<String>> teamIdToPathMap = new HashMap<>(allTeamIds.size());
+            for (Long teamId : allTeamIds) {
+                List<String> teamNames = graph.getTeamPathNames(teamId);
+                if (!teamNames.isEmpty()) {
+                    teamIdToPathMap.put(teamId, new ArrayList<>(teamNames));
+                }
+            }
+            return teamIdToPathMap;
+        }
         // get member's team's all parent team, include itself
         List<TeamPathInfo> teamPathInfos = teamMapper.selectParentTreeByTeamIds(spaceId, new ArrayList<>(allTeamIds));
         List<TeamTreeVo> teamTreeVos = this.buildTree(spaceId, teamPathInfos.stream().map(TeamCteInfo::getId).collect(Collectors.toList()));
@@ -21,6 +21,7 @@ package com.apitable.organization.service.impl;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -46,6 +47,7 @@ import com.apitable.organization.vo.MemberTeamPathInfo;
 import com.apitable.organization.dto.RoleBaseInfoDto;
 import com.apitable.organization.dto.TeamBaseInfoDTO;
 import com.apitable.organization.dto.UnitInfoDTO;
+import com.apitable.organization.service.IOrganizationGraphService;
 import com.apitable.organization.service.IRoleMemberService;
 import com.apitable.organization.service.IRoleService;
 import com.apitable.organization.service.ITeamService;
@@ -57,6 +59,7 @@ import com.apitable.core.util.SqlTool;
 import com.apitable.organization.entity.MemberEntity;
 import com.apitable.organization.entity.TeamEntity;
 import com.apitable.organization.entity.UnitEntity;
+import com.apitable.organization.support.OrganizationGraph;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -86,6 +89,9 @@ public class UnitServiceImpl extends ExpandServiceImpl<UnitMapper, UnitEntity> i
     @Resource
     private ITeamService iTeamService;
 
+    @Resource
+    private IOrganizationGraphService iOrganizationGraphService;
+
     @Override
     public Long getUnitIdByRefId(Long refId) {
         return baseMapper.selectUnitIdByRefId(refId);
@@ -119,12 +125,16 @@ public class UnitServiceImpl extends ExpandServiceImpl<UnitMapper, UnitEntity> i
         unit.setUnitRefId(unitRefId);
         boolean flag = save(unit);
         ExceptionUtil.isTrue(flag, DatabaseException.INSERT_ERROR);
+        iOrganizationGraphService.invalidate(spaceId);
         return unit.getId();
     }
 
     @Override
     public boolean createBatch(List<UnitEntity> unitEntities) {
         log.info("Batch create unit.");
+        if (CollUtil.isNotEmpty(unitEntities)) {
+            iOrganizationGraphService.invalidate(unitEntities.get(0).getSpaceId());
+        }
         return saveBatch(unitEntities);
     }
 
@@ -139,6 +149,7 @@ public class UnitServiceImpl extends ExpandServiceImpl<UnitMapper, UnitEntity> i
 
         if (CollUtil.isNotEmpty(restores)) {
             baseMapper.batchRestoreByIds(restores);
+            iOrganizationGraphService.invalidate(spaceId);
         }
     }
 
@@ -282,6 +293,10 @@ public class UnitServiceImpl extends ExpandServiceImpl<UnitMapper, UnitEntity> i
         if (CollUtil.isEmpty(entities)) {
             return new ArrayList<>();
         }
+        List<Long> graphMemberIds = getMembersIdByUnitsInGraph(entities);
+        if (graphMemberIds != null) {
+            return graphMemberIds;
+        }
         Map<Integer, List<Long>> typeToRefIdsMap = entities.stream().collect(Collectors.groupingBy(UnitEntity::getUnitType,
                 Collectors.mapping(UnitEntity::getUnitRefId, Collectors.toList())));
         if (typeToRefIdsMap.isEmpty()) {
@@ -311,9 +326,45 @@ public class UnitServiceImpl extends ExpandServiceImpl<UnitMapper, UnitEntity> i
         return memberIds;
     }
 
+    /**
+     * get the units' ref members from the organization graph of their spaces
+     *
+     * @param entities units
+     * @return member ids, null if the organization graph is disabled
+     */
+    private List<Long> getMembersIdByUnitsInGraph(List<UnitEntity> entities) {
+        Map<String, List<UnitEntity>> spaceToUnitsMap = entities.stream().collect(Collectors.groupingBy(UnitEntity::getSpaceId));
+        Set<Long> memberIds = new LinkedHashSet<>();
+        for (Map.Entry<String, List<UnitEntity>> spaceEntry : spaceToUnitsMap.entrySet()) {
+            OrganizationGraph graph = iOrganizationGraphService.getGraph(spaceEntry.getKey());
+            if (graph == null) {
+                return null;
+            }
+            Map<Integer, List<Long>> typeToRefIdsMap = spaceEntry.getValue().stream().collect(Collectors.groupingBy(UnitEntity::getUnitType,
+                    Collectors.mapping(UnitEntity::getUnitRefId, Collectors.toList())));
+            for (Map.Entry<Integer, List<Long>> entry : typeToRefIdsMap.entrySet()) {
+                switch (UnitType.toEnum(entry.getKey())) {
+                    case TEAM:
+                        memberIds.addAll(graph.getMemberIdsByTeamIds(entry.getValue()));
+                        break;
+                    case MEMBER:
+                        memberIds.addAll(entry.getValue());
+                        break;
+                    case ROLE:
+                        memberIds.addAll(graph.getMemberIdsByRoleIds(entry.getValue()));
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        return new ArrayList<>(memberIds);
+    }
+
     @Override
     public boolean batchUpdateIsDeletedBySpaceIdAndRefId(String spaceId, List<Long> refIds, UnitType unitType,
             Boolean isDeleted) {
+        iOrganizationGraphService.invalidate(spaceId);
         return SqlHelper.retBool(baseMapper.batchUpdateIsDeletedBySpaceIdAndRefId(spaceId, refIds, unitType, isDeleted));
     }
 
@@ -0,0 +1,345 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.organization.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.apitable.organization.entity.RoleMemberEntity;
+import com.apitable.organization.entity.TeamEntity;
+import com.apitable.organization.entity.TeamMemberRelEntity;
+import com.apitable.organization.entity.UnitEntity;
+import com.apitable.organization.enums.UnitType;
+
+/**
+ * <p>
+ * In-memory organization of a space, the teams with their hierarchy, the members of teams, the role members and the units.
+ * Members are numbered densely, the members of a team and all its sub teams are a bitmap over the numbers,
+ * computed on the first use of the team and kept with the graph.
+ * </p>
+ * <p>
+ * The graph is a snapshot and never changes, a change of the organization loads a new graph.
+ * Deleted teams, members and units are not loaded, the same as the queries it replaces.
+ * </p>
+ */
+public final class OrganizationGraph {
+
+    private static final int NONE = -1;
+
+    private final long version;
+
+    private final Map<Long, Integer> teamIndex;
+
+    private final long[] teamIds;
+
+    private final String[] teamNames;
+
+    /**
+     * parent team of each team, NONE if it is the root team or its parent is not loaded
+     */
+    private final int[] parents;
+
+    private final boolean[] roots;
+
+    private final int[][] children;
+
+    private final int[][] teamMembers;
+
+    private final long[] memberIds;
+
+    private final Map<Long, int[]> memberTeams;
+
+    private final Map<Long, List<Long>> memberRoleIds;
+
+    private final Map<Long, List<Long>> roleMemberIds;
+
+    private final Map<Long, List<Long>> roleTeamIds;
+
+    private final Map<Long, Long> unitIds;
+
+    private final Map<Integer, BitSet> closures = new ConcurrentHashMap<>();
+
+    private OrganizationGraph(long version, List<TeamEntity> teams, List<TeamMemberRelEntity> teamMemberRels,
+            List<RoleMemberEntity> roleMembers, List<UnitEntity> units) {
+        this.version = version;
+        int teamCount = teams.size();
+        teamIndex = new HashMap<>(capacity(teamCount));
+        teamIds = new long[teamCount];
+        teamNames = new String[teamCount];
+        for (int i = 0; i < teamCount; i++) {
+            TeamEntity team = teams.get(i);
+            teamIndex.put(team.getId(), i);
+            teamIds[i] = team.getId();
+            teamNames[i] = team.getTeamName();
+        }
+        parents = new int[teamCount];
+        roots = new boolean[teamCount];
+        int[] childCounts = new int[teamCount];
+        for (int i = 0; i < teamCount; i++) {
+            Long parentId = teams.get(i).getParentId();
+            roots[i] = parentId == null || parentId == 0;
+            parents[i] = roots[i] ? NONE : teamIndex.getOrDefault(parentId, NONE);
+            if (parents[i] != NONE) {
+                childCounts[parents[i]]++;
+            }
+        }
+        children = new int[teamCount][];
+        for (int i = 0; i < teamCount; i++) {
+            children[i] = new int[childCounts[i]];
+            childCounts[i] = 0;
+        }
+        for (int i = 0; i < teamCount; i++) {
+            if (parents[i] != NONE) {
+                children[parents[i]][childCounts[parents[i]]++] = i;
+            }
+        }
+
+        unitIds = new HashMap<>(capacity(units.size()));
+        units.forEach(unit -> unitIds.put(unit.getUnitRefId(), unit.getId()));
+
+        Map<Long, Integer> memberIndex = new HashMap<>(capacity(teamMemberRels.size()));
+        List<Long> members = new ArrayList<>();
+        Map<Long, List<Integer>> memberTeamLists = new HashMap<>(capacity(teamMemberRels.size()));
+        List<List<Integer>> teamMemberLists = new ArrayList<>(teamCount);
+        for (int i = 0; i < teamCount; i++) {
+            teamMemberLists.add(new ArrayList<>());
+        }
+        for (TeamMemberRelEntity rel : teamMemberRels) {
+            Integer team = teamIndex.get(rel.getTeamId());
+            if (team == null) {
+                continue;
+            }
+            Integer member = memberIndex.get(rel.getMemberId());
+            if (member == null) {
+                member = members.size();
+                memberIndex.put(rel.getMemberId(), member);
+                members.add(rel.getMemberId());
+            }
+            teamMemberLists.get(team).add(member);
+            memberTeamLists.computeIfAbsent(rel.getMemberId(), k -> new ArrayList<>(1)).add(team);
+        }
+        memberIds = members.stream().mapToLong(Long::longValue).toArray();
+        teamMembers = new int[teamCount][];
+        for (int i = 0; i < teamCount; i++) {
+            teamMembers[i] = teamMemberLists.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+        memberTeams = new HashMap<>(capacity(memberTeamLists.size()));
+        memberTeamLists.forEach((memberId, list) -> memberTeams.put(memberId, list.stream().mapToInt(Integer::intValue).toArray()));
+
+        memberRoleIds = new HashMap<>();
+        roleMemberIds = new HashMap<>();
+        roleTeamIds = new HashMap<>();
+        for (RoleMemberEntity roleMember : roleMembers) {
+            if (UnitType.MEMBER.getType().equals(roleMember.getUnitType())) {
+                memberRoleIds.computeIfAbsent(roleMember.getUnitRefId(), k -> new ArrayList<>(1)).add(roleMember.getRoleId());
+            }
+            if (!unitIds.containsKey(roleMember.getUnitRefId())) {
+                // the unit of role member is deleted
+                continue;
+            }
+            Map<Long, List<Long>> refs = UnitType.TEAM.getType().equals(roleMember.getUnitType()) ? roleTeamIds : roleMemberIds;
+            refs.computeIfAbsent(roleMember.getRoleId(), k -> new ArrayList<>()).add(roleMember.getUnitRefId());
+        }
+    }
+
+    /**
+     * build the graph of a space
+     * @param version        version of the space the organization is loaded at
+     * @param teams          teams of the space
+     * @param teamMemberRels team members of the space
+     * @param roleMembers    role members of the space
+     * @param units          units of the space
+     * @return OrganizationGraph
+     */
+    public static OrganizationGraph of(long version, List<TeamEntity> teams, List<TeamMemberRelEntity> teamMemberRels,
+            List<RoleMemberEntity> roleMembers, List<UnitEntity> units) {
+        return new OrganizationGraph(version, teams, teamMemberRels, roleMembers, units);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getTeamCount() {
+        return teamIds.length;
+    }
+
+    public int getMemberCount() {
+        return memberIds.length;
+    }
+
+    /**
+     * teams of the member and all their parent teams
+     * @param memberId member id
+     * @return team ids
+     */
+    public Set<Long> getTeamIdsByMemberId(Long memberId) {
+        int[] teams = memberTeams.get(memberId);
+        if (teams == null) {
+            return new LinkedHashSet<>();
+        }
+        Set<Long> result = new LinkedHashSet<>();
+        for (int team : teams) {
+            // walk up until a team already added
+            int t = team;
+            while (t != NONE && result.add(teamIds[t])) {
+                t = parents[t];
+            }
+        }
+        return result;
+    }
+
+    /**
+     * units of the member, its teams with all their parent teams, and its roles
+     * @param memberId member id
+     * @return unit ids
+     */
+    public List<Long> getUnitIdsByMemberId(Long memberId) {
+        Set<Long> refIds = new LinkedHashSet<>();
+        refIds.add(memberId);
+        refIds.addAll(getTeamIdsByMemberId(memberId));
+        refIds.addAll(memberRoleIds.getOrDefault(memberId, Collections.emptyList()));
+        List<Long> result = new ArrayList<>(refIds.size());
+        for (Long refId : refIds) {
+            Long unitId = unitIds.get(refId);
+            if (unitId != null) {
+                result.add(unitId);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * members of the teams and all their sub teams
+     * @param teamIds team ids
+     * @return member ids
+     */
+    public Set<Long> getMemberIdsByTeamIds(Collection<Long> teamIds) {
+        BitSet members = new BitSet(memberIds.length);
+        for (Long teamId : teamIds) {
+            Integer team = teamIndex.get(teamId);
+            if (team != null) {
+                members.or(closure(team));
+            }
+        }
+        return toMemberIds(members);
+    }
+
+    /**
+     * members of the roles, the members of a team in role include the members of its sub teams
+     * @param roleIds role ids
+     * @return member ids
+     */
+    public Set<Long> getMemberIdsByRoleIds(Collection<Long> roleIds) {
+        Set<Long> result = new LinkedHashSet<>();
+        List<Long> teams = new ArrayList<>();
+        for (Long roleId : roleIds) {
+            result.addAll(roleMemberIds.getOrDefault(roleId, Collections.emptyList()));
+            teams.addAll(roleTeamIds.getOrDefault(roleId, Collections.emptyList()));
+        }
+        if (!teams.isEmpty()) {
+            result.addAll(getMemberIdsByTeamIds(teams));
+        }
+        return result;
+    }
+
+    /**
+     * team names from the first level team down to the team, the root team is not in the path except itself
+     * @param teamId team id
+     * @return team names, empty if the team or one of its parents is deleted
+     */
+    public List<String> getTeamPathNames(Long teamId) {
+        Integer team = teamIndex.get(teamId);
+        if (team == null) {
+            return Collections.emptyList();
+        }
+        List<String> names = new ArrayList<>();
+        int t = team;
+        while (!roots[t]) {
+            names.add(teamNames[t]);
+            if (parents[t] == NONE || names.size() > teamIds.length) {
+                // parent is deleted or the hierarchy is broken, the team is not reachable from the root
+                return Collections.emptyList();
+            }
+            t = parents[t];
+        }
+        if (t == team) {
+            names.add(teamNames[t]);
+        }
+        Collections.reverse(names);
+        return names;
+    }
+
+    private BitSet closure(int team) {
+        BitSet cached = closures.get(team);
+        if (cached != null) {
+            return cached;
+        }
+        BitSet members = new BitSet(memberIds.length);
+        BitSet visited = new BitSet(teamIds.length);
+        // iterate the sub tree, a deep hierarchy does not recurse
+        int[] stack = new int[Math.max(16, children[team].length + 1)];
+        int size = 0;
+        stack[size++] = team;
+        while (size > 0) {
+            int t = stack[--size];
+            if (visited.get(t)) {
+                continue;
+            }
+            visited.set(t);
+            BitSet sub = closures.get(t);
+            if (sub != null) {
+                members.or(sub);
+                continue;
+            }
+            for (int member : teamMembers[t]) {
+                members.set(member);
+            }
+            for (int child : children[t]) {
+                if (size == stack.length) {
+                    stack = Arrays.copyOf(stack, size * 2);
+                }
+                stack[size++] = child;
+            }
+        }
+        closures.put(team, members);
+        return members;
+    }
+
+    private Set<Long> toMemberIds(BitSet members) {
+        Set<Long> result = new LinkedHashSet<>(capacity(members.cardinality()));
+        for (int member = members.nextSetBit(0); member >= 0; member = members.nextSetBit(member + 1)) {
+            result.add(memberIds[member]);
+        }
+        return result;
+    }
+
+    private static int capacity(int size) {
+        return Math.max(16, (int) (size / 0.75f) + 1);
+    }
+}
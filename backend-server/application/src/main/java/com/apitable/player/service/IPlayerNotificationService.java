@@ -72,7 +72,7 @@ public interface IPlayerNotificationService extends IService<PlayerNotificationE
             NotificationCreateRo ro);
 
     /**
-     * Create system notifications
+     * Create system notifications, the recipients are fanned out in background
      */
     void createAllUserNotify(NotificationTemplate template, NotificationCreateRo ro) throws IOException;
 
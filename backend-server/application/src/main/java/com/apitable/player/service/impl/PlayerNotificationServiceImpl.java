@@ -29,6 +29,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -81,6 +82,7 @@ import com.apitable.shared.component.notification.NotificationHelper;
 import com.apitable.shared.component.notification.NotificationRenderMap;
 import com.apitable.shared.component.notification.NotificationTemplateId;
 import com.apitable.shared.component.notification.NotificationToTag;
+import com.apitable.shared.component.notification.queue.NotificationFanoutWorker;
 import com.apitable.shared.component.notification.NotifyMailFactory;
 import com.apitable.shared.component.notification.NotifyMailFactory.MailWithLang;
 import com.apitable.shared.config.properties.ConstProperties;
@@ -168,6 +170,9 @@ public class PlayerNotificationServiceImpl extends ServiceImpl<PlayerNotificatio
     @Resource
     private IMemberService iMemberService;
 
+    @Resource
+    private NotificationFanoutWorker notificationFanoutWorker;
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public boolean batchCreateNotify(List<NotificationCreateRo> notificationCreateRoList) {
@@ -240,41 +245,11 @@ public class PlayerNotificationServiceImpl extends ServiceImpl<PlayerNotificatio
 
     /**
      * Create system notifications
-     * Curson cursor query is used to prevent each query from closing the connection, plus @Transactional control
+     * The recipients are paged and inserted in background by the fan-out worker, which keeps a checkpoint of the job
      */
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public void createAllUserNotify(NotificationTemplate template, NotificationCreateRo ro) {
-        Cursor<Long> userIdCursor = null;
-        try {
-            userIdCursor = userMapper.selectAllUserIdByIgnoreDelete(false);
-            List<Long> userIds = CollUtil.newArrayList();
-            userIdCursor.forEach(userId -> {
-                if (userIds.size() < NOTIFY_LIMIT) {
-                    userIds.add(userId);
-                }
-                if (userIds.size() == NOTIFY_LIMIT) {
-                    createNotifyWithoutVerify(userIds, template, ro);
-                    userIds.clear();
-                }
-            });
-            if (CollUtil.isNotEmpty(userIds)) {
-                createNotifyWithoutVerify(userIds, template, ro);
-            }
-        }
-        catch (Exception e) {
-            log.error("Create notification exception", e);
-        }
-        finally {
-            if (ObjectUtil.isNotNull(userIdCursor)) {
-                try {
-                    userIdCursor.close();
-                }
-                catch (IOException e) {
-                    log.error("Create notification close cursor exception", e);
-                }
-            }
-        }
+        notificationFanoutWorker.submit(ro);
     }
 
     @Override
@@ -283,10 +258,11 @@ public class PlayerNotificationServiceImpl extends ServiceImpl<PlayerNotificatio
         List<PlayerNotificationEntity> creatEntities = new ArrayList<>();
         List<PlayerNotificationEntity> notifyEntities = new ArrayList<>();
         List<Long> mailUserIds = new ArrayList<>();
+        // Record the sending frequency, and judge that it is recorded if it is not sent successfully because the data can be recovered --redis delete key
+        String nonce = StrUtil.blankToDefault(ro.getSpaceId(), "") + StrUtil.blankToDefault(ro.getNodeId(), "");
+        Set<Long> limitedUserIds = notificationFactory.frequencyLimited(userIds, template, DigestUtil.md5Hex(nonce));
         for (Long userId : userIds) {
-            // Record the sending frequency, and judge that it is recorded if it is not sent successfully because the data can be recovered --redis delete key
-            String nonce = StrUtil.blankToDefault(ro.getSpaceId(), "") + StrUtil.blankToDefault(ro.getNodeId(), "");
-            if (!notificationFactory.frequencyLimited(userId, template, DigestUtil.md5Hex(nonce))) {
+            if (!limitedUserIds.contains(userId)) {
                 if (ObjectUtil.isNotNull(userId) && !userId.equals(Convert.toLong(ro.getFromUserId()))) {
                     PlayerNotificationEntity entity = getCreateEntity(userId, template, ro);
                     // Send notifications and create records
@@ -0,0 +1,107 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.cache.near;
+
+import java.util.function.UnaryOperator;
+
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * <p>
+ * in-process LRU cache with expire time in front of a redis cache.
+ * values are copied in and out, a caller modifying its value does not change the cached one.
+ * hits and misses are counted as near.cache.gets{cache, result}.
+ * </p>
+ */
+public class NearCache<V> {
+
+    private final String name;
+
+    private final boolean enabled;
+
+    private final Cache<String, V> cache;
+
+    private final UnaryOperator<V> copier;
+
+    private final Counter hitCounter;
+
+    private final Counter missCounter;
+
+    NearCache(String name, boolean enabled, int maximumSize, long timeout, UnaryOperator<V> copier, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.enabled = enabled;
+        this.cache = CacheUtil.newLRUCache(maximumSize, timeout);
+        this.copier = copier;
+        this.hitCounter = Counter.builder("near.cache.gets").tag("cache", name).tag("result", "hit")
+                .description("the number of near cache hits").register(meterRegistry);
+        this.missCounter = Counter.builder("near.cache.gets").tag("cache", name).tag("result", "miss")
+                .description("the number of near cache misses").register(meterRegistry);
+        Gauge.builder("near.cache.size", cache, Cache::size).tag("cache", name)
+                .description("the number of entries in near cache").register(meterRegistry);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * get value, the expire time is counted from put and not renewed by get
+     * @param key key
+     * @return copy of value, null if absent, expired or disabled
+     */
+    public V get(String key) {
+        if (!enabled) {
+            return null;
+        }
+        V value = cache.get(key, false);
+        if (value == null) {
+            missCounter.increment();
+            return null;
+        }
+        hitCounter.increment();
+        return copier.apply(value);
+    }
+
+    /**
+     * put a copy of value
+     * @param key key
+     * @param value value
+     */
+    public void put(String key, V value) {
+        if (enabled && value != null) {
+            cache.put(key, copier.apply(value));
+        }
+    }
+
+    public void evict(String key) {
+        cache.remove(key);
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    public int size() {
+        return cache.size();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.cache.near;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+import javax.annotation.Resource;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import com.apitable.core.constants.RedisConstants;
+import com.apitable.shared.config.properties.NearCacheProperties;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * near cache manager.
+ * eviction and write are published to redis channel, every other node drops the keys from its own near cache,
+ * the message is the id of the publishing node and the cache name followed by the keys, one per line.
+ * </p>
+ */
+@Slf4j
+@Component
+public class NearCacheManager implements MessageListener {
+
+    private static final char SEPARATOR = '\n';
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private NearCacheProperties nearCacheProperties;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, NearCache<?>> caches = new ConcurrentHashMap<>();
+
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    /**
+     * get or create near cache
+     * @param name cache name
+     * @param copier copy a value, the cached values are not shared with callers
+     * @param <V> value type
+     * @return NearCache
+     */
+    @SuppressWarnings("unchecked")
+    public <V> NearCache<V> getCache(String name, UnaryOperator<V> copier) {
+        return (NearCache<V>) caches.computeIfAbsent(name, k -> new NearCache<>(k, nearCacheProperties.isEnabled(),
+                nearCacheProperties.getMaximumSize(), nearCacheProperties.getExpireSeconds() * 1000L, copier, meterRegistry));
+    }
+
+    /**
+     * put value into near cache, and evict the key from near cache of other nodes,
+     * call it when the value is written to redis, the other nodes may hold the overwritten value
+     * @param cache near cache
+     * @param key cache key
+     * @param value value written
+     * @param <V> value type
+     */
+    public <V> void put(NearCache<V> cache, String key, V value) {
+        if (!nearCacheProperties.isEnabled()) {
+            return;
+        }
+        cache.put(key, value);
+        publish(cache.getName(), Collections.singletonList(key));
+    }
+
+    /**
+     * evict keys from near cache of all nodes
+     * @param name cache name
+     * @param keys cache keys
+     */
+    public void evict(String name, Collection<String> keys) {
+        if (!nearCacheProperties.isEnabled() || CollUtil.isEmpty(keys)) {
+            return;
+        }
+        evictLocal(name, keys);
+        publish(name, keys);
+    }
+
+    private void publish(String name, Collection<String> keys) {
+        stringRedisTemplate.convertAndSend(RedisConstants.NEAR_CACHE_INVALIDATE_CHANNEL,
+                nodeId + SEPARATOR + name + SEPARATOR + CollUtil.join(keys, String.valueOf(SEPARATOR)));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        List<String> lines = StrUtil.split(new String(message.getBody(), StandardCharsets.UTF_8), SEPARATOR);
+        if (lines.size() < 3) {
+            log.warn("Ignore invalid near cache message: {}", lines);
+            return;
+        }
+        if (nodeId.equals(lines.get(0))) {
+            // published by this node, the near cache is up to date
+            return;
+        }
+        evictLocal(lines.get(1), lines.subList(2, lines.size()));
+    }
+
+    private void evictLocal(String name, Collection<String> keys) {
+        NearCache<?> cache = caches.get(name);
+        if (cache != null) {
+            keys.forEach(cache::evict);
+        }
+    }
+}
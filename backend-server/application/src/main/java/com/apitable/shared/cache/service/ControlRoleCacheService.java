@@ -0,0 +1,54 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.cache.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.apitable.control.infrastructure.role.ControlRole;
+
+/**
+ * <p>
+ * member control role cache interface,
+ * entries of a space are discarded together by bumping the version stamp of the space
+ * </p>
+ */
+public interface ControlRoleCacheService {
+
+    /**
+     * get the resolved roles of the member, the missing ones are loaded and cached
+     *
+     * @param spaceId    space id
+     * @param memberId   member id
+     * @param scope      role building scope, roles of different scopes are cached separately
+     * @param controlIds control ids
+     * @param loader     load the roles of control ids which are not cached, no role if absent in result
+     * @return control id -> role, value is null if no role
+     */
+    Map<String, ControlRole> getMemberControlRoles(String spaceId, Long memberId, String scope, List<String> controlIds,
+            Function<List<String>, Map<String, ControlRole>> loader);
+
+    /**
+     * discard the cached roles of all members in the space
+     *
+     * @param spaceId space id
+     */
+    void invalidate(String spaceId);
+}
@@ -0,0 +1,46 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.cache.service;
+
+import com.apitable.space.vo.SpaceGlobalFeature;
+
+/**
+ * <p>
+ * space global feature cache interface,
+ * a local level in front of redis, and the redis entries are discarded by bumping the version stamp of the space
+ * </p>
+ */
+public interface SpaceGlobalFeatureCacheService {
+
+    /**
+     * get space global feature, loaded and cached when missing.
+     * the returned feature is shared, do not change it
+     *
+     * @param spaceId space id
+     * @return SpaceGlobalFeature
+     */
+    SpaceGlobalFeature getSpaceGlobalFeature(String spaceId);
+
+    /**
+     * discard the cached feature of the space
+     *
+     * @param spaceId space id
+     */
+    void invalidate(String spaceId);
+}
@@ -18,6 +18,8 @@
 
 package com.apitable.shared.cache.service;
 
+import java.util.Collection;
+
 /**
  * <p>
  * user active space interface
@@ -49,4 +51,11 @@ public interface UserActiveSpaceCacheService {
      * @param userId user id
      */
     void delete(Long userId);
+
+    /**
+     * delete cache of users in batch
+     *
+     * @param userIds user id list
+     */
+    void delete(Collection<Long> userIds);
 }
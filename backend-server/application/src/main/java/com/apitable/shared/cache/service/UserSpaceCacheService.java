@@ -18,6 +18,7 @@
 
 package com.apitable.shared.cache.service;
 
+import java.util.Collection;
 import java.util.List;
 
 import com.apitable.shared.cache.bean.UserSpaceDto;
@@ -58,6 +59,14 @@ public interface UserSpaceCacheService {
      */
     void delete(Long userId, String spaceId);
 
+    /**
+     * delete cache of spaces stayed by user in batch
+     *
+     * @param userId   user id
+     * @param spaceIds space id list
+     */
+    void delete(Long userId, Collection<String> spaceIds);
+
     /**
      * get cache space stayed by users
      *
@@ -75,6 +84,14 @@ public interface UserSpaceCacheService {
      */
     void delete(String spaceId, List<Long> memberIds);
 
+    /**
+     * delete cache of users in batch
+     *
+     * @param spaceId space id
+     * @param userIds user id list
+     */
+    void deleteByUserIds(String spaceId, Collection<Long> userIds);
+
     /**
      * delete space cache
      *
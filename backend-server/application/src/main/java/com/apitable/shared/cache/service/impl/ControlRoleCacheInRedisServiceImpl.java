@@ -0,0 +1,157 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.cache.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import javax.annotation.Resource;
+
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.core.util.StrUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import com.apitable.control.infrastructure.role.ControlRole;
+import com.apitable.control.infrastructure.role.ControlRoleManager;
+import com.apitable.core.constants.RedisConstants;
+import com.apitable.shared.cache.service.ControlRoleCacheService;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * <p>
+ * member control role cache, local LRU in front of redis hash.
+ * the version stamp of space is part of the key, so both levels miss after it is bumped.
+ * </p>
+ */
+@Slf4j
+@Service
+public class ControlRoleCacheInRedisServiceImpl implements ControlRoleCacheService {
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * expire time of redis hash, minutes
+     */
+    private static final int TIMEOUT = 30;
+
+    private static final int LOCAL_CAPACITY = 10000;
+
+    /**
+     * expire time of local entries, milliseconds
+     */
+    private static final long LOCAL_TIMEOUT = 60 * 1000;
+
+    private final Cache<String, String> localCache = CacheUtil.newLRUCache(LOCAL_CAPACITY, LOCAL_TIMEOUT);
+
+    @Override
+    public Map<String, ControlRole> getMemberControlRoles(String spaceId, Long memberId, String scope, List<String> controlIds,
+            Function<List<String>, Map<String, ControlRole>> loader) {
+        String key = RedisConstants.getMemberControlRoleKey(spaceId, memberId, getVersion(spaceId));
+        Map<String, String> values = new HashMap<>(controlIds.size());
+        List<String> localMissIds = new ArrayList<>();
+        for (String controlId : controlIds) {
+            String value = localCache.get(getLocalKey(key, scope, controlId), false);
+            if (value != null) {
+                values.put(controlId, value);
+            }
+            else {
+                localMissIds.add(controlId);
+            }
+        }
+        if (!localMissIds.isEmpty()) {
+            List<Object> hashKeys = new ArrayList<>(localMissIds.size());
+            localMissIds.forEach(controlId -> hashKeys.add(getHashKey(scope, controlId)));
+            List<Object> cachedValues = stringRedisTemplate.opsForHash().multiGet(key, hashKeys);
+            List<String> loadIds = new ArrayList<>();
+            for (int i = 0; i < localMissIds.size(); i++) {
+                String controlId = localMissIds.get(i);
+                Object value = cachedValues.get(i);
+                if (value != null) {
+                    values.put(controlId, value.toString());
+                    localCache.put(getLocalKey(key, scope, controlId), value.toString());
+                }
+                else {
+                    loadIds.add(controlId);
+                }
+            }
+            if (!loadIds.isEmpty()) {
+                Map<String, ControlRole> loadedRoles = loader.apply(loadIds);
+                Map<String, String> entries = new HashMap<>(loadIds.size());
+                for (String controlId : loadIds) {
+                    String value = ControlRoleManager.toCacheValue(loadedRoles.get(controlId));
+                    values.put(controlId, value);
+                    entries.put(getHashKey(scope, controlId), value);
+                    localCache.put(getLocalKey(key, scope, controlId), value);
+                }
+                stringRedisTemplate.opsForHash().putAll(key, entries);
+                stringRedisTemplate.expire(key, TIMEOUT, TimeUnit.MINUTES);
+            }
+        }
+        Map<String, ControlRole> roles = new LinkedHashMap<>(controlIds.size());
+        controlIds.forEach(controlId -> roles.put(controlId, ControlRoleManager.fromCacheValue(values.get(controlId))));
+        return roles;
+    }
+
+    @Override
+    public void invalidate(String spaceId) {
+        if (StrUtil.isBlank(spaceId)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // bump after commit, otherwise a concurrent read may cache the old roles under the new version
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpVersion(spaceId);
+                }
+            });
+            return;
+        }
+        bumpVersion(spaceId);
+    }
+
+    private void bumpVersion(String spaceId) {
+        log.info("Invalidate the control role cache of space「{}」", spaceId);
+        stringRedisTemplate.opsForValue().increment(RedisConstants.getSpaceControlRoleVersionKey(spaceId));
+    }
+
+    private long getVersion(String spaceId) {
+        String version = stringRedisTemplate.opsForValue().get(RedisConstants.getSpaceControlRoleVersionKey(spaceId));
+        return version != null ? Long.parseLong(version) : 0L;
+    }
+
+    private String getHashKey(String scope, String controlId) {
+        return scope + StrUtil.COLON + controlId;
+    }
+
+    private String getLocalKey(String key, String scope, String controlId) {
+        return key + StrUtil.COLON + getHashKey(scope, controlId);
+    }
+}
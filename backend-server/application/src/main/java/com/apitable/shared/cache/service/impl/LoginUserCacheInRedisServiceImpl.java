@@ -18,6 +18,7 @@
 
 package com.apitable.shared.cache.service.impl;
 
+import java.util.Collections;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
@@ -28,6 +29,8 @@ import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONUtil;
 
 import com.apitable.shared.cache.bean.LoginUserDto;
+import com.apitable.shared.cache.near.NearCache;
+import com.apitable.shared.cache.near.NearCacheManager;
 import com.apitable.shared.cache.service.LoginUserCacheService;
 import com.apitable.interfaces.social.enums.SocialNameModified;
 import com.apitable.user.mapper.UserMapper;
@@ -46,17 +49,29 @@ public class LoginUserCacheInRedisServiceImpl implements LoginUserCacheService {
     @Resource
     private UserMapper userMapper;
 
+    @Resource
+    private NearCacheManager nearCacheManager;
+
     /**
      * Storage unit(minutes)
      */
     private static final int TIMEOUT = 30;
 
+    private static final String NEAR_CACHE_NAME = "loginUser";
+
     @Override
     public LoginUserDto getLoginUser(Long userId) {
-        String str = redisTemplate.opsForValue().get(RedisConstants.getLoginUserKey(userId));
+        String key = RedisConstants.getLoginUserKey(userId);
+        NearCache<LoginUserDto> nearCache = nearCacheManager.getCache(NEAR_CACHE_NAME, LoginUserCacheInRedisServiceImpl::copy);
+        LoginUserDto cached = nearCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        String str = redisTemplate.opsForValue().get(key);
         if (str != null) {
             LoginUserDto userDto = JSONUtil.toBean(str, LoginUserDto.class);
             if (userDto != null && StrUtil.isNotBlank(userDto.getAreaCode()) && Objects.nonNull(userDto.getIsNickNameModified())) {
+                nearCache.put(key, userDto);
                 return userDto;
             }
         }
@@ -79,12 +94,34 @@ public class LoginUserCacheInRedisServiceImpl implements LoginUserCacheService {
         if (StrUtil.isBlank(user.getPassword())) {
             loginUserDto.setNeedPwd(true);
         }
-        redisTemplate.opsForValue().set(RedisConstants.getLoginUserKey(userId), JSONUtil.toJsonStr(loginUserDto), TIMEOUT, TimeUnit.MINUTES);
+        redisTemplate.opsForValue().set(key, JSONUtil.toJsonStr(loginUserDto), TIMEOUT, TimeUnit.MINUTES);
+        nearCacheManager.put(nearCache, key, loginUserDto);
         return loginUserDto;
     }
 
     @Override
     public void delete(Long userId) {
-        redisTemplate.delete(RedisConstants.getLoginUserKey(userId));
+        String key = RedisConstants.getLoginUserKey(userId);
+        redisTemplate.delete(key);
+        nearCacheManager.evict(NEAR_CACHE_NAME, Collections.singletonList(key));
+    }
+
+    private static LoginUserDto copy(LoginUserDto source) {
+        LoginUserDto copy = new LoginUserDto();
+        copy.setUserId(source.getUserId());
+        copy.setUuid(source.getUuid());
+        copy.setNickName(source.getNickName());
+        copy.setAreaCode(source.getAreaCode());
+        copy.setMobile(source.getMobile());
+        copy.setEmail(source.getEmail());
+        copy.setAvatar(source.getAvatar());
+        copy.setColor(source.getColor());
+        copy.setNeedPwd(source.getNeedPwd());
+        copy.setSignUpTime(source.getSignUpTime());
+        copy.setLastLoginTime(source.getLastLoginTime());
+        copy.setLocale(source.getLocale());
+        copy.setIsPaused(source.getIsPaused());
+        copy.setIsNickNameModified(source.getIsNickNameModified());
+        return copy;
     }
 }
@@ -18,52 +18,33 @@
 
 package com.apitable.shared.cache.service.impl;
 
-import java.util.List;
-import java.util.Objects;
-import java.util.concurrent.TimeUnit;
-
 import javax.annotation.Resource;
 
-import cn.hutool.core.util.StrUtil;
-import lombok.extern.slf4j.Slf4j;
-
 import com.apitable.shared.cache.service.SpaceCapacityCacheService;
-import com.apitable.space.mapper.SpaceAssetMapper;
+import com.apitable.space.enums.SpaceUsageType;
+import com.apitable.space.service.ISpaceUsageService;
 
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
-import static com.apitable.core.constants.RedisConstants.GENERAL_STATICS;
-
-@Slf4j
+/**
+ * <p>
+ * space capacity is the capacity counter of space usage, kept in redis and changed by deltas
+ * </p>
+ */
 @Service
 public class SpaceCapacityCacheInRedisServiceImpl implements SpaceCapacityCacheService {
 
     @Resource
-    private SpaceAssetMapper spaceAssetMapper;
-
-    @Resource
-    private RedisTemplate<String, Number> redisTemplate;
-
-    private static final int TIMEOUT = 30;
+    private ISpaceUsageService iSpaceUsageService;
 
     @Override
     public long getSpaceCapacity(String spaceId) {
-        String key = StrUtil.format(GENERAL_STATICS, "space:capacity", spaceId);
-        Number number = redisTemplate.opsForValue().get(key);
-        if (number != null) {
-            return number.longValue();
-        }
-        List<Integer> fileSizes = spaceAssetMapper.selectFileSizeBySpaceId(spaceId);
-        long statics = fileSizes.stream().filter(Objects::nonNull).mapToLong(Integer::intValue).sum();
-        redisTemplate.opsForValue().set(key, statics, TIMEOUT, TimeUnit.MINUTES);
-        return statics;
+        return iSpaceUsageService.getUsage(spaceId, SpaceUsageType.CAPACITY);
     }
 
     @Override
     public void del(String spaceId) {
-        String key = StrUtil.format(GENERAL_STATICS, "space:capacity", spaceId);
-        redisTemplate.delete(key);
+        iSpaceUsageService.invalidate(spaceId, SpaceUsageType.CAPACITY);
     }
 
 }
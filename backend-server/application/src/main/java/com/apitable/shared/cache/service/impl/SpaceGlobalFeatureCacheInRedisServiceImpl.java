@@ -0,0 +1,121 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.cache.service.impl;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import com.apitable.core.constants.RedisConstants;
+import com.apitable.core.util.ExceptionUtil;
+import com.apitable.shared.cache.near.NearCache;
+import com.apitable.shared.cache.near.NearCacheManager;
+import com.apitable.shared.cache.service.SpaceGlobalFeatureCacheService;
+import com.apitable.space.enums.SpaceException;
+import com.apitable.space.mapper.SpaceMapper;
+import com.apitable.space.vo.SpaceGlobalFeature;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * <p>
+ * space global feature cache, near cache in front of redis.
+ * the version stamp of space is part of the redis key, so a read racing with the change never stays in cache.
+ * </p>
+ */
+@Slf4j
+@Service
+public class SpaceGlobalFeatureCacheInRedisServiceImpl implements SpaceGlobalFeatureCacheService {
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private SpaceMapper spaceMapper;
+
+    @Resource
+    private NearCacheManager nearCacheManager;
+
+    /**
+     * expire time of redis entry, hours
+     */
+    private static final int TIMEOUT = 24;
+
+    private static final String NEAR_CACHE_NAME = "spaceFeature";
+
+    @Override
+    public SpaceGlobalFeature getSpaceGlobalFeature(String spaceId) {
+        SpaceGlobalFeature cached = getNearCache().get(spaceId);
+        if (cached != null) {
+            return cached;
+        }
+        String key = RedisConstants.getSpaceFeatureKey(spaceId, getVersion(spaceId));
+        String str = stringRedisTemplate.opsForValue().get(key);
+        if (str == null) {
+            log.info("gets space global properties，spaceId:{}", spaceId);
+            str = spaceMapper.selectPropsBySpaceId(spaceId);
+            ExceptionUtil.isNotNull(str, SpaceException.SPACE_NOT_EXIST);
+            stringRedisTemplate.opsForValue().set(key, str, TIMEOUT, TimeUnit.HOURS);
+        }
+        SpaceGlobalFeature feature = JSONUtil.toBean(str, SpaceGlobalFeature.class);
+        getNearCache().put(spaceId, feature);
+        return feature;
+    }
+
+    @Override
+    public void invalidate(String spaceId) {
+        if (StrUtil.isBlank(spaceId)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // bump after commit, otherwise a concurrent read may cache the old feature under the new version
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpVersion(spaceId);
+                }
+            });
+            return;
+        }
+        bumpVersion(spaceId);
+    }
+
+    private void bumpVersion(String spaceId) {
+        log.info("Invalidate the global feature cache of space「{}」", spaceId);
+        stringRedisTemplate.opsForValue().increment(RedisConstants.getSpaceFeatureVersionKey(spaceId));
+        nearCacheManager.evict(NEAR_CACHE_NAME, Collections.singletonList(spaceId));
+    }
+
+    private long getVersion(String spaceId) {
+        String version = stringRedisTemplate.opsForValue().get(RedisConstants.getSpaceFeatureVersionKey(spaceId));
+        return version != null ? Long.parseLong(version) : 0L;
+    }
+
+    private NearCache<SpaceGlobalFeature> getNearCache() {
+        return nearCacheManager.getCache(NEAR_CACHE_NAME, feature -> feature.toBuilder().build());
+    }
+}
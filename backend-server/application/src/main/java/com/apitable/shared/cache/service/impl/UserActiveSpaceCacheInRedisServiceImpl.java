@@ -18,10 +18,15 @@
 
 package com.apitable.shared.cache.service.impl;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import javax.annotation.Resource;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.StrUtil;
 import lombok.extern.slf4j.Slf4j;
 
@@ -45,6 +50,8 @@ public class UserActiveSpaceCacheInRedisServiceImpl implements UserActiveSpaceCa
 
     private static final int TIMEOUT = 7;
 
+    private static final int DELETE_BATCH_SIZE = 1000;
+
     @Override
     public void save(Long userId, String spaceId) {
         BoundValueOperations<String, String> opts = redisTemplate.boundValueOps(RedisConstants.getUserActiveSpaceKey(userId));
@@ -68,4 +75,11 @@ public class UserActiveSpaceCacheInRedisServiceImpl implements UserActiveSpaceCa
     public void delete(Long userId) {
         redisTemplate.delete(RedisConstants.getUserActiveSpaceKey(userId));
     }
+
+    @Override
+    public void delete(Collection<Long> userIds) {
+        List<String> keys = userIds.stream().filter(Objects::nonNull)
+                .map(RedisConstants::getUserActiveSpaceKey).collect(Collectors.toList());
+        CollUtil.split(keys, DELETE_BATCH_SIZE).forEach(redisTemplate::delete);
+    }
 }
@@ -19,6 +19,8 @@
 package com.apitable.shared.cache.service.impl;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
@@ -35,6 +37,8 @@ import lombok.extern.slf4j.Slf4j;
 
 import com.apitable.shared.cache.bean.SpaceResourceDto;
 import com.apitable.shared.cache.bean.UserSpaceDto;
+import com.apitable.shared.cache.near.NearCache;
+import com.apitable.shared.cache.near.NearCacheManager;
 import com.apitable.shared.cache.service.UserSpaceCacheService;
 import com.apitable.space.enums.SpaceException;
 import com.apitable.organization.mapper.MemberMapper;
@@ -51,7 +55,6 @@ import com.apitable.organization.entity.MemberEntity;
 import com.apitable.space.entity.SpaceEntity;
 import com.apitable.organization.entity.UnitEntity;
 
-import org.springframework.data.redis.core.BoundValueOperations;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
@@ -79,8 +82,15 @@ public class UserSpaceCacheInRedisServiceImpl implements UserSpaceCacheService {
     @Resource
     private SpaceMemberRoleRelMapper spaceMemberRoleRelMapper;
 
+    @Resource
+    private NearCacheManager nearCacheManager;
+
     private static final int TIMEOUT = 2;
 
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    private static final String NEAR_CACHE_NAME = "userSpace";
+
     @Override
     public UserSpaceDto saveUserSpace(Long userId, String spaceId, Long memberId) {
         MemberEntity memberEntity = memberMapper.selectMemberIdAndSpaceId(spaceId, memberId);
@@ -122,15 +132,20 @@ public class UserSpaceCacheInRedisServiceImpl implements UserSpaceCacheService {
             userSpaceDto.setResourceCodes(resourceCodes);
             userSpaceDto.setResourceGroupCodes(resourceGroupCodes);
         }
-        BoundValueOperations<String, String> opts = redisTemplate.boundValueOps(RedisConstants.getUserSpaceKey(userId, spaceId));
-        opts.set(JSONUtil.toJsonStr(userSpaceDto), TIMEOUT, TimeUnit.HOURS);
+        String key = RedisConstants.getUserSpaceKey(userId, spaceId);
+        redisTemplate.boundValueOps(key).set(JSONUtil.toJsonStr(userSpaceDto), TIMEOUT, TimeUnit.HOURS);
+        nearCacheManager.put(getNearCache(), key, userSpaceDto);
         return userSpaceDto;
     }
 
     @Override
     public Long getMemberId(Long userId, String spaceId) {
-        BoundValueOperations<String, String> opts = redisTemplate.boundValueOps(RedisConstants.getUserSpaceKey(userId, spaceId));
-        String str = opts.get();
+        String key = RedisConstants.getUserSpaceKey(userId, spaceId);
+        UserSpaceDto cached = getNearCache().get(key);
+        if (cached != null && cached.getMemberId() != null) {
+            return cached.getMemberId();
+        }
+        String str = redisTemplate.boundValueOps(key).get();
         if (str != null) {
             return Optional.ofNullable(JSONUtil.toBean(str, UserSpaceDto.class).getMemberId())
                     .orElseThrow(() -> new BusinessException(NOT_IN_SPACE));
@@ -143,26 +158,37 @@ public class UserSpaceCacheInRedisServiceImpl implements UserSpaceCacheService {
 
     @Override
     public void delete(Long userId, String spaceId) {
-        redisTemplate.delete(RedisConstants.getUserSpaceKey(userId, spaceId));
+        this.delete(Collections.singletonList(RedisConstants.getUserSpaceKey(userId, spaceId)));
+    }
+
+    @Override
+    public void delete(Long userId, Collection<String> spaceIds) {
+        List<String> keys = new ArrayList<>(spaceIds.size());
+        spaceIds.forEach(spaceId -> keys.add(RedisConstants.getUserSpaceKey(userId, spaceId)));
+        this.delete(keys);
     }
 
     @Override
     public UserSpaceDto getUserSpace(Long userId, String spaceId) {
-        BoundValueOperations<String, String> opts = redisTemplate.boundValueOps(RedisConstants.getUserSpaceKey(userId, spaceId));
-        String str = opts.get();
+        String key = RedisConstants.getUserSpaceKey(userId, spaceId);
+        // only complete values are put into near cache, no need to check again
+        UserSpaceDto cached = getNearCache().get(key);
+        if (cached != null) {
+            return cached;
+        }
+        String str = redisTemplate.boundValueOps(key).get();
         if (str != null) {
             UserSpaceDto userSpaceDto = JSONUtil.toBean(str, UserSpaceDto.class);
             if (Objects.isNull(userSpaceDto.getIsMemberNameModified())) {
                 return this.saveUserSpace(userId, spaceId, userSpaceDto.getMemberId());
             }
             boolean isMainAdmin = userSpaceDto.isMainAdmin();
-            if (!isMainAdmin) {
-                return userSpaceDto;
-            }
             boolean containSecuritySetting = CollUtil.isNotEmpty(userSpaceDto.getResourceGroupCodes());
-            return containSecuritySetting ?
-                    userSpaceDto :
-                    this.saveUserSpace(userId, spaceId, userSpaceDto.getMemberId());
+            if (isMainAdmin && !containSecuritySetting) {
+                return this.saveUserSpace(userId, spaceId, userSpaceDto.getMemberId());
+            }
+            getNearCache().put(key, userSpaceDto);
+            return userSpaceDto;
         }
         Long memberId = memberMapper.selectIdByUserIdAndSpaceId(userId, spaceId);
         ExceptionUtil.isNotNull(memberId, NOT_IN_SPACE);
@@ -174,18 +200,58 @@ public class UserSpaceCacheInRedisServiceImpl implements UserSpaceCacheService {
         if (CollUtil.isNotEmpty(memberIds)) {
             List<Long> userIds = memberMapper.selectUserIdsByMemberIds(memberIds);
             if (CollUtil.isNotEmpty(userIds)) {
-                for (Long userId : userIds) {
-                    if (userId != null) {
-                        redisTemplate.delete(RedisConstants.getUserSpaceKey(userId, spaceId));
-                    }
-                }
+                this.deleteByUserIds(spaceId, userIds);
             }
         }
     }
 
+    @Override
+    public void deleteByUserIds(String spaceId, Collection<Long> userIds) {
+        List<String> keys = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            if (userId != null) {
+                keys.add(RedisConstants.getUserSpaceKey(userId, spaceId));
+            }
+        }
+        this.delete(keys);
+    }
+
     @Override
     public void delete(String spaceId) {
-        List<Long> userIds = memberMapper.selectUserIdBySpaceId(spaceId);
-        userIds.forEach(userId -> redisTemplate.delete(RedisConstants.getUserSpaceKey(userId, spaceId)));
+        this.deleteByUserIds(spaceId, memberMapper.selectUserIdBySpaceId(spaceId));
+    }
+
+    /**
+     * multi-key delete, split so that a large space does not block redis with one command
+     */
+    private void delete(List<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        CollUtil.split(keys, DELETE_BATCH_SIZE).forEach(redisTemplate::delete);
+        nearCacheManager.evict(NEAR_CACHE_NAME, keys);
+    }
+
+    private NearCache<UserSpaceDto> getNearCache() {
+        return nearCacheManager.getCache(NEAR_CACHE_NAME, UserSpaceCacheInRedisServiceImpl::copy);
+    }
+
+    private static UserSpaceDto copy(UserSpaceDto source) {
+        UserSpaceDto copy = new UserSpaceDto();
+        copy.setUserId(source.getUserId());
+        copy.setSpaceId(source.getSpaceId());
+        copy.setSpaceName(source.getSpaceName());
+        copy.setSpaceLogo(source.getSpaceLogo());
+        copy.setMemberId(source.getMemberId());
+        copy.setMemberName(source.getMemberName());
+        copy.setUnitId(source.getUnitId());
+        copy.setMainAdmin(source.isMainAdmin());
+        copy.setAdmin(source.isAdmin());
+        copy.setDel(source.isDel());
+        copy.setResourceCodes(source.getResourceCodes() != null ? new HashSet<>(source.getResourceCodes()) : null);
+        copy.setResourceGroupCodes(source.getResourceGroupCodes() != null ? new HashSet<>(source.getResourceGroupCodes()) : null);
+        copy.setIsNameModified(source.getIsNameModified());
+        copy.setIsMemberNameModified(source.getIsMemberNameModified());
+        return copy;
     }
 }
@@ -18,6 +18,7 @@
 
 package com.apitable.shared.component;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 
 import com.apitable.control.infrastructure.ControlIdBuilder;
@@ -44,7 +45,8 @@ public class SocketBroadcastFactory {
     }
 
     public void fieldBroadcast(String memberName, List<String> controlIds) {
-        controlIds.forEach(controlId -> {
+        // the events of a datasheet are coalesced by the listener, publish each field once
+        new LinkedHashSet<>(controlIds).forEach(controlId -> {
             int index = controlId.indexOf(ControlIdBuilder.SYMBOL);
             Arg arg = Arg.builder().event(FIELD_PERMISSION_DISABLE)
                     .datasheetId(controlId.substring(0, index))
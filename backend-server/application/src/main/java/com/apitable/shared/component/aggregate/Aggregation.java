@@ -0,0 +1,194 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.component.aggregate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import com.apitable.core.exception.BusinessException;
+
+/**
+ * <p>
+ * Lookups of one request, each branch is forked at once and got when it is used.
+ * a branch with fallback returns the fallback if it fails or runs out of time,
+ * a branch without fallback is required, its failure is thrown as the lookup in the request thread did.
+ * </p>
+ */
+@Slf4j
+public class Aggregation {
+
+    private static final String TIMER_NAME = "task.aggregate.branch";
+
+    private static final String FALLBACK_COUNTER_NAME = "task.aggregate.fallback";
+
+    private final String name;
+
+    private final Executor executor;
+
+    private final long defaultTimeoutMillis;
+
+    private final MeterRegistry meterRegistry;
+
+    Aggregation(String name, Executor executor, long defaultTimeoutMillis, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.executor = executor;
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * fork a required lookup, the result is waited without timeout
+     *
+     * @param branch   branch name
+     * @param supplier lookup
+     * @param <T>      result type
+     * @return Branch
+     */
+    public <T> Branch<T> fork(String branch, Supplier<T> supplier) {
+        return newBranch(branch, CompletableFuture.supplyAsync(supplier, executor), null, true, -1);
+    }
+
+    /**
+     * fork a lookup with fallback and the default timeout
+     *
+     * @param branch   branch name
+     * @param supplier lookup
+     * @param fallback result if the lookup fails or times out
+     * @param <T>      result type
+     * @return Branch
+     */
+    public <T> Branch<T> fork(String branch, Supplier<T> supplier, T fallback) {
+        return fork(branch, supplier, fallback, defaultTimeoutMillis);
+    }
+
+    /**
+     * fork a lookup with fallback
+     *
+     * @param branch        branch name
+     * @param supplier      lookup
+     * @param fallback      result if the lookup fails or times out
+     * @param timeoutMillis timeout from now, milliseconds
+     * @param <T>           result type
+     * @return Branch
+     */
+    public <T> Branch<T> fork(String branch, Supplier<T> supplier, T fallback, long timeoutMillis) {
+        return newBranch(branch, CompletableFuture.supplyAsync(supplier, executor), fallback, false, timeoutMillis);
+    }
+
+    private <T> Branch<T> newBranch(String branch, CompletableFuture<T> future, T fallback, boolean required, long timeoutMillis) {
+        long start = System.nanoTime();
+        future.whenComplete((result, e) -> Timer.builder(TIMER_NAME)
+                .tag("aggregation", name).tag("branch", branch).tag("outcome", e == null ? "success" : "error")
+                .register(meterRegistry).record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        long deadline = required ? Long.MAX_VALUE : start + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        return new Branch<>(branch, future, fallback, required, deadline);
+    }
+
+    /**
+     * result of a lookup
+     *
+     * @param <T> result type
+     */
+    public final class Branch<T> {
+
+        private final String branch;
+
+        private final CompletableFuture<T> future;
+
+        private final T fallback;
+
+        private final boolean required;
+
+        private final long deadline;
+
+        private Branch(String branch, CompletableFuture<T> future, T fallback, boolean required, long deadline) {
+            this.branch = branch;
+            this.future = future;
+            this.fallback = fallback;
+            this.required = required;
+            this.deadline = deadline;
+        }
+
+        /**
+         * fork a lookup depending on this branch, it starts after this branch with its result, or its fallback
+         *
+         * @param branch   branch name
+         * @param function lookup
+         * @param fallback result if the lookup fails or times out
+         * @param <R>      result type
+         * @return Branch
+         */
+        public <R> Branch<R> then(String branch, Function<? super T, ? extends R> function, R fallback) {
+            CompletableFuture<R> next = future.handle((result, e) -> e == null ? result : this.fallback)
+                    .thenApplyAsync(function, executor);
+            return newBranch(branch, next, fallback, false, defaultTimeoutMillis);
+        }
+
+        /**
+         * wait for the result
+         *
+         * @return result, or fallback
+         */
+        public T get() {
+            try {
+                if (required) {
+                    return future.get();
+                }
+                return future.get(Math.max(deadline - System.nanoTime(), 0L), TimeUnit.NANOSECONDS);
+            }
+            catch (TimeoutException e) {
+                log.warn("Lookup「{}」of「{}」timed out, use fallback", branch, name);
+                return fallback("timeout");
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BusinessException("lookup is interrupted");
+            }
+            catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                // business exception is the answer of the request, not a failure of the lookup
+                if (required || cause instanceof BusinessException) {
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+                log.error("Lookup「{}」of「{}」failed, use fallback", branch, name, cause);
+                return fallback("error");
+            }
+        }
+
+        private T fallback(String reason) {
+            Counter.builder(FALLBACK_COUNTER_NAME)
+                    .tag("aggregation", name).tag("branch", branch).tag("reason", reason)
+                    .register(meterRegistry).increment();
+            return fallback;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.component.aggregate;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.apitable.shared.config.properties.TaskAggregateProperties;
+
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * Task aggregator, runs the independent lookups of a request concurrently and joins them.
+ * the pool is built like the application task executor, so the request, locale and MDC context are passed to the lookups,
+ * it has no queue, a lookup runs in the request thread when all threads are busy.
+ * </p>
+ */
+@Component
+public class TaskAggregator {
+
+    @Resource
+    private TaskExecutorBuilder taskExecutorBuilder;
+
+    @Resource
+    private TaskAggregateProperties taskAggregateProperties;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private ThreadPoolTaskExecutor pool;
+
+    private Executor executor;
+
+    @PostConstruct
+    public void init() {
+        if (!taskAggregateProperties.isEnabled()) {
+            executor = Runnable::run;
+            return;
+        }
+        // the builder applies the task decorator, the pool settings of the customizer are replaced below
+        pool = taskExecutorBuilder.build();
+        pool.setCorePoolSize(taskAggregateProperties.getPoolSize());
+        pool.setMaxPoolSize(taskAggregateProperties.getPoolSize());
+        pool.setQueueCapacity(0);
+        pool.setAllowCoreThreadTimeOut(true);
+        pool.setKeepAliveSeconds(60);
+        pool.setThreadNamePrefix("thread-aggregate-");
+        // the caller runs policy of the customizer would run the decorated task in the request thread,
+        // and the decorator resets the context of the request thread when the task ends
+        pool.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        pool.initialize();
+        executor = command -> {
+            try {
+                pool.execute(command);
+            }
+            catch (RejectedExecutionException e) {
+                // run the undecorated task, the decorator would reset the context of the request thread
+                command.run();
+            }
+        };
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * begin an aggregation, fork the lookups and get them
+     *
+     * @param name aggregation name, tag of the metrics
+     * @return Aggregation
+     */
+    public Aggregation begin(String name) {
+        return new Aggregation(name, executor, taskAggregateProperties.getTimeoutMillis(), meterRegistry);
+    }
+}
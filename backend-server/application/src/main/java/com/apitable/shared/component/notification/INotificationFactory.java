@@ -18,8 +18,10 @@
 
 package com.apitable.shared.component.notification;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import cn.hutool.json.JSONObject;
 
@@ -192,6 +194,15 @@ public interface INotificationFactory {
      */
     Boolean frequencyLimited(Long userId, NotificationTemplate template, String nonce);
 
+    /**
+     * check notification frequency of users in batch
+     * @param userIds user ids
+     * @param template template
+     * @param nonce random string
+     * @return user ids which are limited
+     */
+    Set<Long> frequencyLimited(Collection<Long> userIds, NotificationTemplate template, String nonce);
+
     /**
      * Number of times the mark has been sent(users/every day)
      * @param userId user id
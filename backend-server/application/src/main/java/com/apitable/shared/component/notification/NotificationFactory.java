@@ -21,10 +21,14 @@ package com.apitable.shared.component.notification;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -63,7 +67,10 @@ import com.apitable.workspace.dto.NodeBaseInfoDTO;
 import com.apitable.workspace.mapper.NodeMapper;
 import com.apitable.core.constants.RedisConstants;
 
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
 import org.springframework.stereotype.Component;
 
 import static com.apitable.shared.constants.NotificationConstants.BODY_EXTRAS;
@@ -285,22 +292,49 @@ public class NotificationFactory implements INotificationFactory {
 
     @Override
     public Boolean frequencyLimited(Long userId, NotificationTemplate template, String nonce) {
-        if (template.getFrequency() != null) {
-            String key = RedisConstants.getUserNotifyFrequencyKey(userId, template.getId(), nonce);
-            if (Boolean.TRUE.equals(redisTemplate.hasKey(key))) {
-                Object frequency = redisTemplate.opsForValue().get(key);
-                if (frequency != null && Long.parseLong(frequency.toString()) <= template.getFrequency()) {
-                    return true;
-                }
-                else {
-                    addUserNotifyFrequency(userId, template, nonce);
-                }
+        return frequencyLimited(Collections.singletonList(userId), template, nonce).contains(userId);
+    }
+
+    @Override
+    public Set<Long> frequencyLimited(Collection<Long> userIds, NotificationTemplate template, String nonce) {
+        if (template.getFrequency() == null || CollUtil.isEmpty(userIds)) {
+            return Collections.emptySet();
+        }
+        List<Long> distinctUserIds = userIds.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        List<String> keys = distinctUserIds.stream()
+                .map(userId -> RedisConstants.getUserNotifyFrequencyKey(userId, template.getId(), nonce))
+                .collect(Collectors.toList());
+        // one round trip to read all counters, one pipeline to write them back
+        List<Object> frequencies = redisTemplate.opsForValue().multiGet(keys);
+        Set<Long> limitedUserIds = new HashSet<>();
+        List<String> incrementKeys = new ArrayList<>();
+        List<String> initKeys = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            Object frequency = frequencies != null ? frequencies.get(i) : null;
+            if (frequency == null) {
+                initKeys.add(keys.get(i));
+            }
+            else if (Long.parseLong(frequency.toString()) <= template.getFrequency()) {
+                limitedUserIds.add(distinctUserIds.get(i));
             }
             else {
-                addUserNotifyFrequency(userId, template, nonce);
+                incrementKeys.add(keys.get(i));
             }
         }
-        return false;
+        if (!incrementKeys.isEmpty() || !initKeys.isEmpty()) {
+            long between = secondsToEndOfDay();
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    ValueOperations<String, Object> opts = ((RedisOperations<String, Object>) operations).opsForValue();
+                    incrementKeys.forEach(opts::increment);
+                    initKeys.forEach(key -> opts.set(key, 1L, between, TimeUnit.SECONDS));
+                    return null;
+                }
+            });
+        }
+        return limitedUserIds;
     }
 
     @Override
@@ -310,10 +344,13 @@ public class NotificationFactory implements INotificationFactory {
             redisTemplate.opsForValue().increment(key);
         }
         else {
-            LocalDateTime now = DateUtil.toLocalDateTime(new Date());
-            LocalDateTime endOfDay = LocalDateTimeUtil.endOfDay(now);
-            long between = LocalDateTimeUtil.between(now, endOfDay, ChronoUnit.SECONDS);
-            redisTemplate.opsForValue().set(key, Long.valueOf("1"), between, TimeUnit.SECONDS);
+            redisTemplate.opsForValue().set(key, Long.valueOf("1"), secondsToEndOfDay(), TimeUnit.SECONDS);
         }
     }
+
+    private long secondsToEndOfDay() {
+        LocalDateTime now = DateUtil.toLocalDateTime(new Date());
+        LocalDateTime endOfDay = LocalDateTimeUtil.endOfDay(now);
+        return LocalDateTimeUtil.between(now, endOfDay, ChronoUnit.SECONDS);
+    }
 }
@@ -0,0 +1,244 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.component.notification.queue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.json.JSONUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import com.apitable.core.constants.RedisConstants;
+import com.apitable.player.ro.NotificationCreateRo;
+import com.apitable.player.service.IPlayerNotificationService;
+import com.apitable.shared.component.notification.INotificationFactory;
+import com.apitable.shared.sysconfig.notification.NotificationTemplate;
+import com.apitable.user.mapper.UserMapper;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * fan-out of notifications sent to all users.
+ * a job pages the user ids in id order, each wave is split into chunks which are inserted in parallel,
+ * then the last user id of the wave is saved as the checkpoint of the job in redis.
+ * unfinished jobs are resumed from their checkpoint when a node starts or a new job is submitted,
+ * a failed job is retried from its checkpoint with exponential backoff.
+ * a lease key keeps one node working on a job. The wave running at a crash may be sent twice.
+ * </p>
+ */
+@Slf4j
+@Component
+public class NotificationFanoutWorker implements ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    /**
+     * recipients of one chunk, inserted with one statement
+     */
+    private static final int CHUNK_SIZE = 1000;
+
+    /**
+     * chunks inserted at the same time
+     */
+    private static final int MAX_CONCURRENT_CHUNKS = 4;
+
+    /**
+     * lease of running job, renewed after every wave (minutes)
+     */
+    private static final int LEASE_TIMEOUT = 5;
+
+    /**
+     * delay of the first retry of a failed job, doubled after every failure (seconds)
+     */
+    private static final long INITIAL_RETRY_DELAY = 30;
+
+    /**
+     * maximum delay between retries of a failed job (seconds)
+     */
+    private static final long MAX_RETRY_DELAY = 30 * 60;
+
+    private static final String FIELD_RO = "ro";
+
+    private static final String FIELD_CHECKPOINT = "checkpoint";
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private IPlayerNotificationService iPlayerNotificationService;
+
+    @Resource
+    private INotificationFactory notificationFactory;
+
+    @Resource
+    private TaskExecutor taskExecutor;
+
+    private final String instanceId = IdUtil.fastSimpleUUID();
+
+    /**
+     * jobs run one by one, chunks of a job run on the task executor
+     */
+    private final ScheduledExecutorService coordinator = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("notification-fanout-", true));
+
+    /**
+     * consecutive failures of the jobs run by this node
+     */
+    private final Map<String, Integer> failures = new ConcurrentHashMap<>();
+
+    /**
+     * save the job and run it in background
+     *
+     * @param ro notification
+     * @return job id
+     */
+    public String submit(NotificationCreateRo ro) {
+        String jobId = IdUtil.fastSimpleUUID();
+        Map<String, String> job = new HashMap<>(2);
+        job.put(FIELD_RO, JSONUtil.toJsonStr(ro));
+        job.put(FIELD_CHECKPOINT, "0");
+        stringRedisTemplate.opsForHash().putAll(RedisConstants.getNotifyFanoutJobKey(jobId), job);
+        stringRedisTemplate.opsForSet().add(RedisConstants.NOTIFY_FANOUT_JOBS, jobId);
+        log.info("Submit notification fan-out job「{}」of template「{}」", jobId, ro.getTemplateId());
+        resumeAll();
+        return jobId;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        resumeAll();
+    }
+
+    /**
+     * schedule all unfinished jobs, the ones still leased by a node are skipped when they run
+     */
+    public void resumeAll() {
+        Set<String> jobIds = stringRedisTemplate.opsForSet().members(RedisConstants.NOTIFY_FANOUT_JOBS);
+        if (CollUtil.isNotEmpty(jobIds)) {
+            jobIds.forEach(jobId -> coordinator.execute(() -> run(jobId)));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        coordinator.shutdownNow();
+    }
+
+    private void run(String jobId) {
+        String leaseKey = RedisConstants.getNotifyFanoutLeaseKey(jobId);
+        if (!Boolean.TRUE.equals(stringRedisTemplate.opsForValue().setIfAbsent(leaseKey, instanceId, LEASE_TIMEOUT, TimeUnit.MINUTES))) {
+            return;
+        }
+        try {
+            String jobKey = RedisConstants.getNotifyFanoutJobKey(jobId);
+            Map<Object, Object> job = stringRedisTemplate.opsForHash().entries(jobKey);
+            if (job.isEmpty()) {
+                // finished by the time it is scheduled again
+                finish(jobId);
+                return;
+            }
+            NotificationCreateRo ro = JSONUtil.toBean(job.get(FIELD_RO).toString(), NotificationCreateRo.class);
+            NotificationTemplate template = notificationFactory.getTemplateById(ro.getTemplateId());
+            if (template == null) {
+                log.warn("Drop notification fan-out job「{}」without notification template", jobId);
+                finish(jobId);
+                return;
+            }
+            long checkpoint = Long.parseLong(job.get(FIELD_CHECKPOINT).toString());
+            log.info("Run notification fan-out job「{}」from checkpoint「{}」", jobId, checkpoint);
+            int waveSize = CHUNK_SIZE * MAX_CONCURRENT_CHUNKS;
+            List<Long> userIds;
+            do {
+                userIds = userMapper.selectUserIdsAfterId(checkpoint, waveSize);
+                if (userIds.isEmpty()) {
+                    break;
+                }
+                List<CompletableFuture<Void>> futures = new ArrayList<>(MAX_CONCURRENT_CHUNKS);
+                for (List<Long> chunk : CollUtil.split(userIds, CHUNK_SIZE)) {
+                    futures.add(CompletableFuture.runAsync(() -> iPlayerNotificationService.createNotifyWithoutVerify(chunk, template, ro), taskExecutor));
+                }
+                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+                checkpoint = userIds.get(userIds.size() - 1);
+                stringRedisTemplate.opsForHash().put(jobKey, FIELD_CHECKPOINT, String.valueOf(checkpoint));
+                if (!renewLease(leaseKey)) {
+                    log.warn("Notification fan-out job「{}」is taken over at checkpoint「{}」", jobId, checkpoint);
+                    return;
+                }
+            }
+            while (userIds.size() == waveSize);
+            finish(jobId);
+            log.info("Finish notification fan-out job「{}」", jobId);
+        }
+        catch (Exception e) {
+            int attempts = failures.merge(jobId, 1, Integer::sum);
+            long delay = retryDelay(attempts);
+            log.error("Notification fan-out job「{}」stopped, it will be resumed from the last checkpoint in {}s", jobId, delay, e);
+            if (!coordinator.isShutdown()) {
+                coordinator.schedule(() -> run(jobId), delay, TimeUnit.SECONDS);
+            }
+        }
+        finally {
+            if (instanceId.equals(stringRedisTemplate.opsForValue().get(leaseKey))) {
+                stringRedisTemplate.delete(leaseKey);
+            }
+        }
+    }
+
+    private boolean renewLease(String leaseKey) {
+        if (!instanceId.equals(stringRedisTemplate.opsForValue().get(leaseKey))) {
+            return false;
+        }
+        return Boolean.TRUE.equals(stringRedisTemplate.expire(leaseKey, LEASE_TIMEOUT, TimeUnit.MINUTES));
+    }
+
+    /**
+     * delay before the next run of a failed job
+     *
+     * @param attempts consecutive failures of the job
+     * @return delay (seconds)
+     */
+    static long retryDelay(int attempts) {
+        return Math.min(INITIAL_RETRY_DELAY << Math.min(attempts - 1, 16), MAX_RETRY_DELAY);
+    }
+
+    private void finish(String jobId) {
+        failures.remove(jobId);
+        stringRedisTemplate.delete(RedisConstants.getNotifyFanoutJobKey(jobId));
+        stringRedisTemplate.opsForSet().remove(RedisConstants.NOTIFY_FANOUT_JOBS, jobId);
+    }
+}
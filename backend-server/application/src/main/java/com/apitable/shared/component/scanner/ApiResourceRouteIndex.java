@@ -0,0 +1,191 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.component.scanner;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import cn.hutool.core.util.StrUtil;
+
+import com.apitable.shared.component.ResourceDefinition;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+/**
+ * <p>
+ * route index of api resources, filled while the controllers are scanned.
+ * urls without path variables are found in a hash map, urls with path variables walk a segment trie,
+ * where literal segments are tried before path variables.
+ * other ant patterns(*, **, ?, or variables inside a segment) fall back to AntPathMatcher.
+ * </p>
+ */
+public class ApiResourceRouteIndex {
+
+    private static final char SEPARATOR = '/';
+
+    private final Map<String, ResourceDefinition> exactRoutes = new ConcurrentHashMap<>();
+
+    private final Map<String, ResourceDefinition> patternRoutes = new ConcurrentHashMap<>();
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private volatile RouteNode root = new RouteNode();
+
+    /**
+     * add route, the later one replaces the same url
+     *
+     * @param resourceDefinition resource definition
+     */
+    public void add(ResourceDefinition resourceDefinition) {
+        String url = resourceDefinition.getResourceUrl();
+        List<String> segments = split(url);
+        if (!isIndexable(url, segments)) {
+            patternRoutes.put(url, resourceDefinition);
+            return;
+        }
+        RouteNode node = root;
+        boolean hasVariable = false;
+        for (String segment : segments) {
+            if (isVariable(segment)) {
+                hasVariable = true;
+                node = node.getOrCreateVariable();
+            }
+            else {
+                node = node.literals.computeIfAbsent(segment, k -> new RouteNode());
+            }
+        }
+        if (isTrailingSlash(url)) {
+            node.trailingSlashDefinition = resourceDefinition;
+        }
+        else {
+            node.definition = resourceDefinition;
+        }
+        if (!hasVariable) {
+            exactRoutes.put(normalize(segments, isTrailingSlash(url)), resourceDefinition);
+        }
+    }
+
+    /**
+     * find the resource of request url
+     *
+     * @param url request url
+     * @return ResourceDefinition, null if none matches
+     */
+    public ResourceDefinition match(String url) {
+        if (url == null) {
+            return null;
+        }
+        ResourceDefinition resourceDefinition = exactRoutes.get(url);
+        if (resourceDefinition != null) {
+            return resourceDefinition;
+        }
+        if (!url.isEmpty() && url.charAt(0) == SEPARATOR) {
+            resourceDefinition = match(root, split(url), 0, isTrailingSlash(url));
+            if (resourceDefinition != null) {
+                return resourceDefinition;
+            }
+        }
+        for (Map.Entry<String, ResourceDefinition> entry : patternRoutes.entrySet()) {
+            if (pathMatcher.match(entry.getKey(), url)) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    public void clear() {
+        exactRoutes.clear();
+        patternRoutes.clear();
+        root = new RouteNode();
+    }
+
+    private ResourceDefinition match(RouteNode node, List<String> segments, int index, boolean trailingSlash) {
+        if (index == segments.size()) {
+            return trailingSlash ? node.trailingSlashDefinition : node.definition;
+        }
+        RouteNode literal = node.literals.get(segments.get(index));
+        if (literal != null) {
+            ResourceDefinition resourceDefinition = match(literal, segments, index + 1, trailingSlash);
+            if (resourceDefinition != null) {
+                return resourceDefinition;
+            }
+        }
+        RouteNode variable = node.variable;
+        return variable != null ? match(variable, segments, index + 1, trailingSlash) : null;
+    }
+
+    /**
+     * split by separator and ignore empty segment, the same as AntPathMatcher tokenizes
+     */
+    private static List<String> split(String url) {
+        return StrUtil.split(url, SEPARATOR, false, true);
+    }
+
+    private static boolean isTrailingSlash(String url) {
+        return url.length() > 0 && url.charAt(url.length() - 1) == SEPARATOR;
+    }
+
+    private static String normalize(List<String> segments, boolean trailingSlash) {
+        String url = SEPARATOR + StrUtil.join(String.valueOf(SEPARATOR), segments);
+        return trailingSlash && !segments.isEmpty() ? url + SEPARATOR : url;
+    }
+
+    /**
+     * the url is absolute, and every segment is literal or a whole path variable
+     */
+    private static boolean isIndexable(String url, List<String> segments) {
+        if (url.isEmpty() || url.charAt(0) != SEPARATOR) {
+            return false;
+        }
+        for (String segment : segments) {
+            if (isVariable(segment)) {
+                continue;
+            }
+            if (StrUtil.containsAny(segment, "*", "?", "{", "}")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isVariable(String segment) {
+        return segment.length() > 2 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}'
+                && !StrUtil.containsAny(segment.substring(1, segment.length() - 1), "{", "}", ":");
+    }
+
+    private static class RouteNode {
+
+        private final Map<String, RouteNode> literals = new ConcurrentHashMap<>();
+
+        private volatile RouteNode variable;
+
+        private volatile ResourceDefinition definition;
+
+        private volatile ResourceDefinition trailingSlashDefinition;
+
+        private synchronized RouteNode getOrCreateVariable() {
+            if (variable == null) {
+                variable = new RouteNode();
+            }
+            return variable;
+        }
+    }
+}
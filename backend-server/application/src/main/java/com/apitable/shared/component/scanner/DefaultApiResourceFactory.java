@@ -20,9 +20,10 @@ package com.apitable.shared.component.scanner;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.StrUtil;
 import lombok.extern.slf4j.Slf4j;
@@ -30,8 +31,6 @@ import lombok.extern.slf4j.Slf4j;
 import com.apitable.shared.component.ResourceDefinition;
 
 import org.springframework.stereotype.Service;
-import org.springframework.util.AntPathMatcher;
-import org.springframework.util.PathMatcher;
 
 /**
  * <p>
@@ -44,11 +43,18 @@ import org.springframework.util.PathMatcher;
 @Service
 public class DefaultApiResourceFactory implements ApiResourceFactory {
 
+    private static final int RESOLVED_URL_CAPACITY = 4096;
+
     private final Map<String, ResourceDefinition> resourceDefinitions = new ConcurrentHashMap<>();
 
     private final Map<String, Map<String, ResourceDefinition>> modularResourceDefinitions = new ConcurrentHashMap<>();
 
-    private final Map<String, ResourceDefinition> urlDefineResources = new ConcurrentHashMap<>();
+    private final ApiResourceRouteIndex routeIndex = new ApiResourceRouteIndex();
+
+    /**
+     * recently resolved request urls
+     */
+    private final Cache<String, ResourceDefinition> resolvedUrls = CacheUtil.newLRUCache(RESOLVED_URL_CAPACITY);
 
     @Override
     public synchronized void registerDefinition(List<ResourceDefinition> apiResource) {
@@ -59,7 +65,7 @@ public class DefaultApiResourceFactory implements ApiResourceFactory {
                     throw new RuntimeException("There are duplicate resources during resource scanning！\nNew resources are： " + resourceDefinition);
                 }
                 resourceDefinitions.put(resourceDefinition.getResourceCode(), resourceDefinition);
-                urlDefineResources.put(resourceDefinition.getResourceUrl(), resourceDefinition);
+                routeIndex.add(resourceDefinition);
 
                 Map<String, ResourceDefinition> modularResources = modularResourceDefinitions.get(StrUtil.toUnderlineCase(resourceDefinition.getModularCode()));
                 if (modularResources == null) {
@@ -70,21 +76,30 @@ public class DefaultApiResourceFactory implements ApiResourceFactory {
                     modularResources.put(resourceDefinition.getResourceCode(), resourceDefinition);
                 }
             }
+            resolvedUrls.clear();
         }
     }
 
     @Override
     public ResourceDefinition getResourceByUrl(String resourceUrl) {
-        PathMatcher matcher = new AntPathMatcher();
-        Set<String> keys = this.urlDefineResources.keySet();
-        String url = CollUtil.findOne(keys, key -> matcher.match(key, resourceUrl));
-        return StrUtil.isNotEmpty(url) ? this.urlDefineResources.get(url) : null;
+        if (resourceUrl == null) {
+            return null;
+        }
+        ResourceDefinition resourceDefinition = resolvedUrls.get(resourceUrl, false);
+        if (resourceDefinition == null) {
+            resourceDefinition = routeIndex.match(resourceUrl);
+            if (resourceDefinition != null) {
+                resolvedUrls.put(resourceUrl, resourceDefinition);
+            }
+        }
+        return resourceDefinition;
     }
 
     @Override
     public void clear() {
         resourceDefinitions.clear();
         modularResourceDefinitions.clear();
-        urlDefineResources.clear();
+        routeIndex.clear();
+        resolvedUrls.clear();
     }
 }
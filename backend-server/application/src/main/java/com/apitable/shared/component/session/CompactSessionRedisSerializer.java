@@ -0,0 +1,175 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.component.session;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * <p>
+ * compact codec of session hash values.
+ * the session times and the attributes set by the application are strings and numbers,
+ * they are written as a type tag and the raw value instead of polymorphic json,
+ * any other value, e.g. security context, is written with the json serializer behind the tag.
+ * </p>
+ * <p>
+ * layout: magic byte, schema version, type tag, value.
+ * values without the magic byte are json written before this codec, and are read with the json serializer.
+ * a json document never starts with the magic byte, which is not a valid leading byte of utf-8.
+ * </p>
+ */
+public class CompactSessionRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xAC;
+
+    /**
+     * schema version, bump it when the layout changes and keep reading the old versions
+     */
+    static final byte VERSION = 1;
+
+    private static final byte TYPE_JSON = 0;
+
+    private static final byte TYPE_STRING = 1;
+
+    private static final byte TYPE_LONG = 2;
+
+    private static final byte TYPE_INTEGER = 3;
+
+    private static final byte TYPE_BOOLEAN = 4;
+
+    private static final int HEADER_LENGTH = 3;
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final RedisSerializer<Object> jsonSerializer;
+
+    private final boolean writeCompact;
+
+    /**
+     * @param jsonSerializer json serializer of the values which are not strings or numbers, and of the old values
+     * @param writeCompact   write the compact layout, false to keep writing json while older nodes are still running
+     */
+    public CompactSessionRedisSerializer(RedisSerializer<Object> jsonSerializer, boolean writeCompact) {
+        this.jsonSerializer = jsonSerializer;
+        this.writeCompact = writeCompact;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return EMPTY;
+        }
+        if (!writeCompact) {
+            return jsonSerializer.serialize(value);
+        }
+        if (value instanceof String) {
+            byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+            byte[] result = header(TYPE_STRING, bytes.length);
+            System.arraycopy(bytes, 0, result, HEADER_LENGTH, bytes.length);
+            return result;
+        }
+        if (value instanceof Long) {
+            return varLong(TYPE_LONG, (Long) value);
+        }
+        if (value instanceof Integer) {
+            return varLong(TYPE_INTEGER, (Integer) value);
+        }
+        if (value instanceof Boolean) {
+            byte[] result = header(TYPE_BOOLEAN, 1);
+            result[HEADER_LENGTH] = (byte) ((Boolean) value ? 1 : 0);
+            return result;
+        }
+        byte[] json = jsonSerializer.serialize(value);
+        byte[] result = header(TYPE_JSON, json.length);
+        System.arraycopy(json, 0, result, HEADER_LENGTH, json.length);
+        return result;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            // written by the json serializer
+            return jsonSerializer.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_LENGTH) {
+            throw new SerializationException("Invalid session value, length: " + bytes.length);
+        }
+        if (bytes[1] > VERSION) {
+            throw new SerializationException("Unsupported session schema version: " + bytes[1]);
+        }
+        switch (bytes[2]) {
+            case TYPE_STRING:
+                return new String(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH, StandardCharsets.UTF_8);
+            case TYPE_LONG:
+                return readVarLong(bytes);
+            case TYPE_INTEGER:
+                return (int) readVarLong(bytes);
+            case TYPE_BOOLEAN:
+                return bytes.length > HEADER_LENGTH && bytes[HEADER_LENGTH] != 0;
+            case TYPE_JSON:
+                return jsonSerializer.deserialize(Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length));
+            default:
+                throw new SerializationException("Unknown session value type: " + bytes[2]);
+        }
+    }
+
+    private static byte[] header(byte type, int length) {
+        byte[] result = new byte[HEADER_LENGTH + length];
+        result[0] = MAGIC;
+        result[1] = VERSION;
+        result[2] = type;
+        return result;
+    }
+
+    /**
+     * zigzag varint, a timestamp of milliseconds takes 6 bytes, a small id takes 1 or 2
+     */
+    private static byte[] varLong(byte type, long value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(HEADER_LENGTH + 10);
+        out.write(MAGIC);
+        out.write(VERSION);
+        out.write(type);
+        long v = (value << 1) ^ (value >> 63);
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+        return out.toByteArray();
+    }
+
+    private static long readVarLong(byte[] bytes) {
+        long v = 0;
+        int shift = 0;
+        for (int i = HEADER_LENGTH; i < bytes.length && shift < 64; i++, shift += 7) {
+            v |= (long) (bytes[i] & 0x7F) << shift;
+            if ((bytes[i] & 0x80) == 0) {
+                return (v >>> 1) ^ -(v & 1);
+            }
+        }
+        throw new SerializationException("Invalid session number value");
+    }
+}
@@ -0,0 +1,311 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.component.session;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+
+/**
+ * <p>
+ * session repository with a short-lived local copy of the sessions in front of redis.
+ * a cached session is read without touching redis, the last accessed time is written back at most once per touch interval,
+ * and the first change of the session loads it from redis and goes through the redis repository.
+ * </p>
+ * <p>
+ * a session is dropped from the local copy on its keyspace notification,
+ * which requires notify-keyspace-events of redis to include the hash, generic and expired events (e.g. "Khgx"),
+ * the expire time bounds how long a missed notification keeps a stale session.
+ * the events are enabled at startup if missing, and the local copy is turned off when they can not be enabled.
+ * </p>
+ */
+@Slf4j
+public class LocalCachedSessionRepository implements FindByIndexNameSessionRepository<Session>, MessageListener {
+
+    private static final String NOTIFY_KEYSPACE_EVENTS = "notify-keyspace-events";
+
+    /**
+     * keyspace events of the session changes, hash, generic and expired
+     */
+    private static final String REQUIRED_KEYSPACE_EVENTS = "Khgx";
+
+    private final FindByIndexNameSessionRepository<Session> delegate;
+
+    private final Cache<String, MapSession> sessions;
+
+    private final Duration touchInterval;
+
+    private final String sessionKeyPrefix;
+
+    private volatile boolean localCopyEnabled = true;
+
+    /**
+     * @param delegate        redis session repository
+     * @param namespace       redis key namespace of sessions
+     * @param maximumSize     maximum sessions cached
+     * @param expireMillis    expire time of cached sessions
+     * @param touchInterval   minimum interval of writing back the last accessed time
+     */
+    @SuppressWarnings("unchecked")
+    public LocalCachedSessionRepository(FindByIndexNameSessionRepository<? extends Session> delegate, String namespace, int maximumSize,
+            long expireMillis, Duration touchInterval) {
+        // redis session type is not public, work with the session interface
+        this.delegate = (FindByIndexNameSessionRepository<Session>) delegate;
+        this.sessions = CacheUtil.newLRUCache(maximumSize, expireMillis);
+        this.touchInterval = touchInterval;
+        this.sessionKeyPrefix = namespace + ":sessions:";
+    }
+
+    /**
+     * make sure redis publishes the keyspace events of sessions, enable the missing ones,
+     * and turn off the local copy if they can not be enabled, e.g. the config command is not allowed.
+     *
+     * @param connectionFactory redis connection factory
+     */
+    public void checkKeyspaceNotifications(RedisConnectionFactory connectionFactory) {
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            Properties config = connection.serverCommands().getConfig(NOTIFY_KEYSPACE_EVENTS);
+            String events = config != null ? config.getProperty(NOTIFY_KEYSPACE_EVENTS, "") : "";
+            String missing = missingKeyspaceEvents(events);
+            if (!missing.isEmpty()) {
+                connection.serverCommands().setConfig(NOTIFY_KEYSPACE_EVENTS, events + missing);
+                log.info("Enable keyspace events「{}」of redis for the local copy of sessions", missing);
+            }
+        }
+        catch (RuntimeException e) {
+            localCopyEnabled = false;
+            sessions.clear();
+            log.error("Keyspace events of redis can not be enabled, the local copy of sessions is turned off", e);
+        }
+    }
+
+    /**
+     * @param events notify-keyspace-events of redis
+     * @return required events not enabled
+     */
+    static String missingKeyspaceEvents(String events) {
+        StringBuilder missing = new StringBuilder();
+        for (char event : REQUIRED_KEYSPACE_EVENTS.toCharArray()) {
+            // A is the alias of all the events except key miss and new key
+            boolean enabled = events.indexOf(event) >= 0 || (event != 'K' && events.indexOf('A') >= 0);
+            if (!enabled) {
+                missing.append(event);
+            }
+        }
+        return missing.toString();
+    }
+
+    public boolean isLocalCopyEnabled() {
+        return localCopyEnabled;
+    }
+
+    @Override
+    public Session createSession() {
+        return delegate.createSession();
+    }
+
+    @Override
+    public void save(Session session) {
+        if (session instanceof CachedSession) {
+            ((CachedSession) session).save();
+            return;
+        }
+        delegate.save(session);
+        cache(session);
+    }
+
+    @Override
+    public Session findById(String id) {
+        if (!localCopyEnabled) {
+            return delegate.findById(id);
+        }
+        MapSession cached = sessions.get(id);
+        if (cached != null && !cached.isExpired()) {
+            return new CachedSession(new MapSession(cached));
+        }
+        Session session = delegate.findById(id);
+        if (session == null) {
+            sessions.remove(id);
+            return null;
+        }
+        cache(session);
+        return session;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        sessions.remove(id);
+        delegate.deleteById(id);
+    }
+
+    @Override
+    public Map<String, Session> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+        return delegate.findByIndexNameAndIndexValue(indexName, indexValue);
+    }
+
+    private void cache(Session session) {
+        if (localCopyEnabled) {
+            sessions.put(session.getId(), new MapSession(session));
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // channel: __keyspace@<db>__:<namespace>:sessions:<id>
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        int index = channel.indexOf(sessionKeyPrefix);
+        if (index >= 0) {
+            sessions.remove(channel.substring(index + sessionKeyPrefix.length()));
+        }
+    }
+
+    /**
+     * session read from the local copy.
+     * reads come from the copy until the first change, which loads the session from redis,
+     * applies the change to it, and every call goes to the redis session from then on.
+     */
+    private final class CachedSession implements Session {
+
+        private final MapSession cached;
+
+        private final Instant originalLastAccessedTime;
+
+        private Session session;
+
+        private CachedSession(MapSession cached) {
+            this.cached = cached;
+            this.originalLastAccessedTime = cached.getLastAccessedTime();
+        }
+
+        @Override
+        public String getId() {
+            return session != null ? session.getId() : cached.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            String originalId = cached.getId();
+            String id = load().changeSessionId();
+            sessions.remove(originalId);
+            return id;
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return session != null ? session.getAttribute(attributeName) : cached.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return session != null ? session.getAttributeNames() : cached.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            load().setAttribute(attributeName, attributeValue);
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            load().removeAttribute(attributeName);
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return session != null ? session.getCreationTime() : cached.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            cached.setLastAccessedTime(lastAccessedTime);
+            if (session != null) {
+                session.setLastAccessedTime(lastAccessedTime);
+            }
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return session != null ? session.getLastAccessedTime() : cached.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            cached.setMaxInactiveInterval(interval);
+            load().setMaxInactiveInterval(interval);
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return session != null ? session.getMaxInactiveInterval() : cached.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return session != null ? session.isExpired() : cached.isExpired();
+        }
+
+        void save() {
+            if (session == null) {
+                if (Duration.between(originalLastAccessedTime, cached.getLastAccessedTime()).compareTo(touchInterval) < 0) {
+                    return;
+                }
+                // write back the last accessed time
+                session = delegate.findById(cached.getId());
+                if (session == null) {
+                    sessions.remove(cached.getId());
+                    return;
+                }
+                session.setLastAccessedTime(cached.getLastAccessedTime());
+            }
+            delegate.save(session);
+            cache(session);
+        }
+
+        private Session load() {
+            if (session != null) {
+                return session;
+            }
+            session = delegate.findById(cached.getId());
+            if (session == null) {
+                // deleted by another node meanwhile, e.g. logout, the change goes to a new session like a request without session
+                log.warn("Session「{}」is gone before the change is applied", cached.getId());
+                sessions.remove(cached.getId());
+                session = delegate.createSession();
+                return session;
+            }
+            session.setLastAccessedTime(cached.getLastAccessedTime());
+            return session;
+        }
+    }
+}
@@ -25,10 +25,19 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import lombok.extern.slf4j.Slf4j;
 
+import com.apitable.core.constants.RedisConstants;
+import com.apitable.shared.cache.near.NearCacheManager;
+import com.apitable.shared.config.properties.NearCacheProperties;
+import com.apitable.shared.config.properties.NodeSearchIndexProperties;
+import com.apitable.workspace.service.impl.NodeSearchIndexServiceImpl;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.integration.redis.util.RedisLockRegistry;
@@ -67,4 +76,22 @@ public class RedisConfig {
     public RedisLockRegistry redisLockRegistry(RedisConnectionFactory redisConnectionFactory) {
         return new RedisLockRegistry(redisConnectionFactory, "apitable:concurrent");
     }
+
+    @Bean
+    @ConditionalOnProperty(prefix = NearCacheProperties.PREFIX, name = "enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer nearCacheListenerContainer(RedisConnectionFactory factory, NearCacheManager nearCacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener(nearCacheManager, new ChannelTopic(RedisConstants.NEAR_CACHE_INVALIDATE_CHANNEL));
+        return container;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = NodeSearchIndexProperties.PREFIX, name = "enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer nodeSearchIndexListenerContainer(RedisConnectionFactory factory, NodeSearchIndexServiceImpl nodeSearchIndexService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.addMessageListener(nodeSearchIndexService, new ChannelTopic(RedisConstants.NODE_SEARCH_INDEX_CHANNEL));
+        return container;
+    }
 }
@@ -18,12 +18,25 @@
 
 package com.apitable.shared.config;
 
+import java.time.Duration;
+
 import javax.annotation.Resource;
 
+import com.apitable.shared.component.session.LocalCachedSessionRepository;
+import com.apitable.shared.config.properties.SessionStoreProperties;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.boot.autoconfigure.session.RedisSessionProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.PatternTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.session.FindByIndexNameSessionRepository;
 import org.springframework.session.Session;
+import org.springframework.session.data.redis.RedisIndexedSessionRepository;
 import org.springframework.session.security.SpringSessionBackedSessionRegistry;
 
 /**
@@ -40,4 +53,30 @@ public class SessionRepositoryConfig<S extends Session> {
     public SpringSessionBackedSessionRegistry<S> sessionRegistry() {
         return new SpringSessionBackedSessionRegistry<>(this.sessionRepository);
     }
+
+    /**
+     * session repository of the session filter, with the local copy of sessions in front of redis
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = SessionStoreProperties.PREFIX, name = "local-cache-enabled", havingValue = "true")
+    public LocalCachedSessionRepository localCachedSessionRepository(RedisIndexedSessionRepository redisSessionRepository,
+            RedisConnectionFactory factory, RedisSessionProperties redisSessionProperties, SessionStoreProperties sessionStoreProperties) {
+        LocalCachedSessionRepository repository = new LocalCachedSessionRepository(redisSessionRepository, redisSessionProperties.getNamespace(),
+                sessionStoreProperties.getLocalCacheMaximumSize(), sessionStoreProperties.getLocalCacheExpireSeconds() * 1000L,
+                Duration.ofSeconds(sessionStoreProperties.getTouchIntervalSeconds()));
+        repository.checkKeyspaceNotifications(factory);
+        return repository;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = SessionStoreProperties.PREFIX, name = "local-cache-enabled", havingValue = "true")
+    public RedisMessageListenerContainer sessionKeyspaceListenerContainer(RedisConnectionFactory factory, RedisProperties redisProperties,
+            RedisSessionProperties redisSessionProperties, LocalCachedSessionRepository localCachedSessionRepository) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        String pattern = "__keyspace@" + redisProperties.getDatabase() + "__:" + redisSessionProperties.getNamespace() + ":sessions:*";
+        container.addMessageListener(localCachedSessionRepository, new PatternTopic(pattern));
+        return container;
+    }
 }
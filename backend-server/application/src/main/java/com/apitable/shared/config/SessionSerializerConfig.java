@@ -20,6 +20,9 @@ package com.apitable.shared.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import com.apitable.shared.component.session.CompactSessionRedisSerializer;
+import com.apitable.shared.config.properties.SessionStoreProperties;
+
 import org.springframework.beans.factory.BeanClassLoaderAware;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -42,10 +45,11 @@ public class SessionSerializerConfig implements BeanClassLoaderAware {
     private ClassLoader classLoader;
 
     @Bean("springSessionDefaultRedisSerializer")
-    public RedisSerializer<Object> springSessionDefaultRedisSerializer() {
-        return new GenericJackson2JsonRedisSerializer(
+    public RedisSerializer<Object> springSessionDefaultRedisSerializer(SessionStoreProperties sessionStoreProperties) {
+        RedisSerializer<Object> jsonSerializer = new GenericJackson2JsonRedisSerializer(
             new ObjectMapper().registerModules(SecurityJackson2Modules.getModules(this.classLoader))
         );
+        return new CompactSessionRedisSerializer(jsonSerializer, sessionStoreProperties.isCompactCodec());
     }
 
     @Bean
@@ -63,6 +63,26 @@ public class LimitProperties {
      */
     private Integer maxColumnCount = 200;
 
+    /**
+     * Rows of each batch insert when importing a file
+     */
+    private Integer importBatchSize = 2000;
+
+    /**
+     * Maximum batches being inserted at the same time when importing a file
+     */
+    private Integer importMaxPendingBatches = 2;
+
+    /**
+     * Rows of each INSERT ... SELECT when copying the records of a datasheet
+     */
+    private Integer copyRecordBatchSize = 1000;
+
+    /**
+     * Maximum datasheets copying records at the same time when copying a folder
+     */
+    private Integer copyMaxParallelDatasheets = 4;
+
     /**
      * Maximum Views
      */
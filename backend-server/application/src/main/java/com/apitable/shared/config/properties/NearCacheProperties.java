@@ -0,0 +1,52 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.config.properties;
+
+import lombok.Data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import static com.apitable.shared.config.properties.NearCacheProperties.PREFIX;
+
+/**
+ * <p>
+ * near cache properties, the in-process cache in front of redis
+ * </p>
+ */
+@Data
+@ConfigurationProperties(prefix = PREFIX)
+public class NearCacheProperties {
+
+    public static final String PREFIX = "near-cache";
+
+    /**
+     * enable the near cache
+     */
+    private boolean enabled = true;
+
+    /**
+     * maximum entries of each near cache
+     */
+    private int maximumSize = 10000;
+
+    /**
+     * expire time of local entries, seconds
+     */
+    private int expireSeconds = 30;
+}
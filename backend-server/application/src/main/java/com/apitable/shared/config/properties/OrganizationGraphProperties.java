@@ -0,0 +1,52 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.config.properties;
+
+import lombok.Data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import static com.apitable.shared.config.properties.OrganizationGraphProperties.PREFIX;
+
+/**
+ * <p>
+ * organization graph properties, the in-process teams, members and roles of spaces
+ * </p>
+ */
+@Data
+@ConfigurationProperties(prefix = PREFIX)
+public class OrganizationGraphProperties {
+
+    public static final String PREFIX = "organization-graph";
+
+    /**
+     * enable the graph, query the database if disabled
+     */
+    private boolean enabled = true;
+
+    /**
+     * maximum spaces loaded in each node
+     */
+    private int maximumSpaces = 100;
+
+    /**
+     * discard the graph of the space not used for this long, minutes
+     */
+    private int expireMinutes = 30;
+}
@@ -0,0 +1,63 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.config.properties;
+
+import lombok.Data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import static com.apitable.shared.config.properties.SessionStoreProperties.PREFIX;
+
+/**
+ * <p>
+ * http session store properties, the codec of session values in redis and the local copy of sessions
+ * </p>
+ */
+@Data
+@ConfigurationProperties(prefix = PREFIX)
+public class SessionStoreProperties {
+
+    public static final String PREFIX = "session-store";
+
+    /**
+     * write session values with the compact codec, json values are always readable.
+     * turn it on after all nodes have the codec, nodes without it cannot read the compact values.
+     */
+    private boolean compactCodec = false;
+
+    /**
+     * keep a local copy of sessions, requires keyspace notifications of redis, which are enabled at startup if allowed
+     */
+    private boolean localCacheEnabled = false;
+
+    /**
+     * maximum sessions of the local copy
+     */
+    private int localCacheMaximumSize = 10000;
+
+    /**
+     * expire time of the local copy, seconds
+     */
+    private int localCacheExpireSeconds = 10;
+
+    /**
+     * minimum interval of writing back the last accessed time of a session read from the local copy, seconds
+     */
+    private int touchIntervalSeconds = 60;
+}
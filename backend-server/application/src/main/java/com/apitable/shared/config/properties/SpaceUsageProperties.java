@@ -0,0 +1,67 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.config.properties;
+
+import lombok.Data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import static com.apitable.shared.config.properties.SpaceUsageProperties.PREFIX;
+
+/**
+ * <p>
+ * space usage counter properties, the checkpoint and reconciliation of the counters in redis
+ * </p>
+ */
+@Data
+@ConfigurationProperties(prefix = PREFIX)
+public class SpaceUsageProperties {
+
+    public static final String PREFIX = "space-usage";
+
+    /**
+     * run the checkpoint and reconciliation in this node
+     */
+    private boolean workerEnabled = true;
+
+    /**
+     * interval of saving the changed counters to database, seconds
+     */
+    private int checkpointIntervalSeconds = 60;
+
+    /**
+     * max spaces saved by one checkpoint
+     */
+    private int checkpointBatchSize = 500;
+
+    /**
+     * interval of looking for the counters to reconcile, seconds
+     */
+    private int reconcileIntervalSeconds = 300;
+
+    /**
+     * counters are counted again from database when they are reconciled before this age, minutes
+     */
+    private int reconcileAfterMinutes = 60;
+
+    /**
+     * max spaces reconciled by one run
+     */
+    private int reconcileBatchSize = 200;
+}
@@ -0,0 +1,52 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.config.properties;
+
+import lombok.Data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import static com.apitable.shared.config.properties.TaskAggregateProperties.PREFIX;
+
+/**
+ * <p>
+ * task aggregate properties, the independent lookups of a request run concurrently
+ * </p>
+ */
+@Data
+@ConfigurationProperties(prefix = PREFIX)
+public class TaskAggregateProperties {
+
+    public static final String PREFIX = "task-aggregate";
+
+    /**
+     * enable concurrent lookups, run them one by one in the request thread if disabled
+     */
+    private boolean enabled = true;
+
+    /**
+     * maximum threads, the lookup runs in the request thread when all threads are busy
+     */
+    private int poolSize = 32;
+
+    /**
+     * default timeout of a lookup, milliseconds, the fallback value is used after it
+     */
+    private long timeoutMillis = 3000;
+}
@@ -18,6 +18,9 @@
 
 package com.apitable.shared.holder;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import com.apitable.space.vo.SpaceGlobalFeature;
 
 /**
@@ -35,6 +38,11 @@ public class SpaceHolder {
 
     private static final ThreadLocal<SpaceGlobalFeature> SPACE_GLOBAL_FEATURE = new ThreadLocal<>();
 
+    /**
+     * space global features loaded in the current request, space id -> feature
+     */
+    private static final ThreadLocal<Map<String, SpaceGlobalFeature>> SPACE_GLOBAL_FEATURES = new ThreadLocal<>();
+
     public static void init() {
         OPEN_UP_FLAG.set(true);
     }
@@ -73,9 +81,34 @@ public class SpaceHolder {
         }
     }
 
+    public static SpaceGlobalFeature getGlobalFeature(String spaceId) {
+        Map<String, SpaceGlobalFeature> features = SPACE_GLOBAL_FEATURES.get();
+        return features != null ? features.get(spaceId) : null;
+    }
+
+    public static void setGlobalFeature(String spaceId, SpaceGlobalFeature feature) {
+        Boolean openUpFlag = OPEN_UP_FLAG.get();
+        if (openUpFlag != null && openUpFlag.equals(true)) {
+            Map<String, SpaceGlobalFeature> features = SPACE_GLOBAL_FEATURES.get();
+            if (features == null) {
+                features = new HashMap<>(4);
+                SPACE_GLOBAL_FEATURES.set(features);
+            }
+            features.put(spaceId, feature);
+        }
+    }
+
+    public static void removeGlobalFeature(String spaceId) {
+        Map<String, SpaceGlobalFeature> features = SPACE_GLOBAL_FEATURES.get();
+        if (features != null) {
+            features.remove(spaceId);
+        }
+    }
+
     public static void remove() {
         OPEN_UP_FLAG.remove();
         SPACE_HOLDER.remove();
         SPACE_GLOBAL_FEATURE.remove();
+        SPACE_GLOBAL_FEATURES.remove();
     }
 }
@@ -0,0 +1,195 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.listener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import com.apitable.shared.listener.event.FieldPermissionEvent.Arg;
+
+import static com.apitable.shared.listener.enums.FieldPermissionChangeEvent.FIELD_PERMISSION_CHANGE;
+
+/**
+ * <p>
+ * Buffer the field permission changes of a datasheet for a short window, and broadcast them together.
+ * the changes of a field in a row are merged into one, a bulk edit of the permission matrix
+ * is broadcast once per field instead of once per unit.
+ * </p>
+ */
+@Slf4j
+public class FieldPermissionChangeCoalescer {
+
+    private final ScheduledExecutorService scheduler;
+
+    private final long windowMillis;
+
+    private final Consumer<Arg> emitter;
+
+    private final Map<String, Pending> pendings = new ConcurrentHashMap<>();
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+
+    private final DistributionSummary mergeRatio;
+
+    private final Timer emitLatency;
+
+    /**
+     * @param scheduler     scheduler to broadcast the buffered changes
+     * @param windowMillis  window to buffer the changes of a datasheet, milliseconds
+     * @param emitter       broadcast a merged change
+     * @param meterRegistry meter registry
+     */
+    public FieldPermissionChangeCoalescer(ScheduledExecutorService scheduler, long windowMillis, Consumer<Arg> emitter, MeterRegistry meterRegistry) {
+        this.scheduler = scheduler;
+        this.windowMillis = windowMillis;
+        this.emitter = emitter;
+        meterRegistry.gauge("field.permission.broadcast.queue", queueDepth);
+        this.mergeRatio = DistributionSummary.builder("field.permission.broadcast.merge.ratio")
+                .description("changes received per change broadcast")
+                .register(meterRegistry);
+        this.emitLatency = Timer.builder("field.permission.broadcast.emit")
+                .description("time from the first buffered change to the broadcast")
+                .register(meterRegistry);
+    }
+
+    /**
+     * buffer a change, it is broadcast when the window of the datasheet ends
+     *
+     * @param arg change
+     */
+    public void offer(Arg arg) {
+        String datasheetId = arg.getDatasheetId();
+        pendings.compute(datasheetId, (key, pending) -> {
+            if (pending == null) {
+                pending = new Pending();
+                try {
+                    scheduler.schedule(() -> flush(key), windowMillis, TimeUnit.MILLISECONDS);
+                }
+                catch (RejectedExecutionException e) {
+                    // shutting down, broadcast by the last flush
+                    log.warn("Schedule field permission broadcast of datasheet「{}」rejected", key);
+                }
+            }
+            pending.args.add(arg);
+            return pending;
+        });
+        queueDepth.incrementAndGet();
+    }
+
+    /**
+     * broadcast the buffered changes of all datasheets
+     */
+    public void flushAll() {
+        new ArrayList<>(pendings.keySet()).forEach(this::flush);
+    }
+
+    void flush(String datasheetId) {
+        Pending pending = pendings.remove(datasheetId);
+        if (pending == null) {
+            return;
+        }
+        queueDepth.addAndGet(-pending.args.size());
+        List<Arg> merged = merge(pending.args);
+        mergeRatio.record((double) pending.args.size() / merged.size());
+        for (Arg arg : merged) {
+            try {
+                emitter.accept(arg);
+            }
+            catch (RuntimeException e) {
+                log.error("Fail to broadcast field permission change of field「{}」in datasheet「{}」", arg.getFieldId(), datasheetId, e);
+            }
+        }
+        emitLatency.record(System.nanoTime() - pending.startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * merge the changes of a datasheet, the changes of different fields are kept apart,
+     * the units of consecutive permission changes of a field are merged into one change,
+     * only the last one of other consecutive events of a field is kept.
+     *
+     * @param args changes, in order of arrival
+     * @return merged changes
+     */
+    static List<Arg> merge(List<Arg> args) {
+        Map<String, List<Arg>> fieldToArgsMap = new LinkedHashMap<>();
+        for (Arg arg : args) {
+            List<Arg> fieldArgs = fieldToArgsMap.computeIfAbsent(arg.getFieldId(), k -> new ArrayList<>());
+            Arg last = fieldArgs.isEmpty() ? null : fieldArgs.get(fieldArgs.size() - 1);
+            if (last == null || last.getEvent() != arg.getEvent()) {
+                fieldArgs.add(arg);
+            }
+            else if (arg.getEvent() == FIELD_PERMISSION_CHANGE) {
+                fieldArgs.set(fieldArgs.size() - 1, mergeChange(last, arg));
+            }
+            else {
+                fieldArgs.set(fieldArgs.size() - 1, arg);
+            }
+        }
+        List<Arg> merged = new ArrayList<>(args.size());
+        fieldToArgsMap.values().forEach(merged::addAll);
+        return merged;
+    }
+
+    /**
+     * the merged change carries all the units of both changes as changed units,
+     * the roles of the members are read again when it is broadcast, so the role of a single change is dropped.
+     */
+    private static Arg mergeChange(Arg previous, Arg next) {
+        Set<Long> unitIds = new LinkedHashSet<>();
+        addUnitIds(unitIds, previous);
+        addUnitIds(unitIds, next);
+        return next.toBuilder()
+                .role(null)
+                .changedUnitIds(new ArrayList<>(unitIds))
+                .delUnitIds(null)
+                .build();
+    }
+
+    private static void addUnitIds(Set<Long> unitIds, Arg arg) {
+        if (arg.getChangedUnitIds() != null) {
+            arg.getChangedUnitIds().stream().filter(Objects::nonNull).forEach(unitIds::add);
+        }
+        if (arg.getDelUnitIds() != null) {
+            arg.getDelUnitIds().stream().filter(Objects::nonNull).forEach(unitIds::add);
+        }
+    }
+
+    private static class Pending {
+
+        private final long startNanos = System.nanoTime();
+
+        private final List<Arg> args = new ArrayList<>();
+    }
+}
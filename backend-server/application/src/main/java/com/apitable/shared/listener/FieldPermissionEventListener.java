@@ -22,23 +22,29 @@ import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.annotation.Resource;
 
 import cn.hutool.core.bean.BeanUtil;
-import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.collection.ListUtil;
+import cn.hutool.core.thread.NamedThreadFactory;
 import cn.hutool.core.util.BooleanUtil;
 import cn.hutool.core.util.StrUtil;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 
 import com.apitable.base.service.RestTemplateService;
@@ -56,6 +62,7 @@ import com.apitable.organization.mapper.MemberMapper;
 import com.apitable.organization.dto.MemberBaseInfoDTO;
 import com.apitable.organization.service.ITeamService;
 import com.apitable.organization.service.IUnitService;
+import com.apitable.shared.config.properties.FieldPermissionBroadcastProperties;
 import com.apitable.shared.listener.event.FieldPermissionEvent;
 import com.apitable.shared.listener.event.FieldPermissionEvent.Arg;
 import com.apitable.shared.util.MultiValueMapUtils;
@@ -114,10 +121,51 @@ public class FieldPermissionEventListener implements ApplicationListener<FieldPe
     @Resource
     private RestTemplateService restTemplateService;
 
+    @Resource
+    private FieldPermissionBroadcastProperties fieldPermissionBroadcastProperties;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private ScheduledExecutorService scheduler;
+
+    private FieldPermissionChangeCoalescer coalescer;
+
+    @PostConstruct
+    public void init() {
+        if (!fieldPermissionBroadcastProperties.isEnabled()) {
+            return;
+        }
+        scheduler = Executors.newScheduledThreadPool(fieldPermissionBroadcastProperties.getThreads(),
+                new NamedThreadFactory("field-permission-broadcast-", true));
+        coalescer = new FieldPermissionChangeCoalescer(scheduler, fieldPermissionBroadcastProperties.getWindowMillis(),
+                this::broadcast, meterRegistry);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            coalescer.flushAll();
+        }
+    }
+
     @Override
     @Async
     public void onApplicationEvent(FieldPermissionEvent event) {
-        Arg arg = event.getArg();
+        if (coalescer != null) {
+            coalescer.offer(event.getArg());
+            return;
+        }
+        broadcast(event.getArg());
+    }
+
+    /**
+     * notify the change to the socket server
+     *
+     * @param arg change, a permission change may be merged from several ones
+     */
+    void broadcast(Arg arg) {
         FieldPermissionChangeNotifyRo notifyRo = BeanUtil.copyProperties(arg, FieldPermissionChangeNotifyRo.class);
         notifyRo.setChangeTime(Instant.now(Clock.system(ZoneId.of("+8"))).toEpochMilli());
         switch (arg.getEvent()) {
@@ -133,32 +181,34 @@ public class FieldPermissionEventListener implements ApplicationListener<FieldPe
                 notifyRo.setSetting(fieldRoleSetting);
                 break;
             case FIELD_PERMISSION_CHANGE:
-                List<Long> unitIds = arg.getChangedUnitIds() != null ? ListUtil.toList(arg.getChangedUnitIds()) : arg.getDelUnitIds();
+                Set<Long> unitIds = new LinkedHashSet<>();
+                if (arg.getChangedUnitIds() != null) {
+                    unitIds.addAll(arg.getChangedUnitIds());
+                }
+                if (arg.getDelUnitIds() != null) {
+                    unitIds.addAll(arg.getDelUnitIds());
+                }
                 if (unitIds.isEmpty()) {
                     return;
                 }
                 // Get all member IDs under the organizational unit. If there are no members,
                 // it means that there will be no affected users, and end directly
-                List<Long> memberIds = iUnitService.getMembersIdByUnitIds(unitIds);
+                Set<Long> memberIds = new HashSet<>(iUnitService.getMembersIdByUnitIds(unitIds));
                 if (memberIds.isEmpty()) {
                     return;
                 }
                 // get space workbench admin
-                List<Long> spaceAdmins = iSpaceRoleService.getSpaceAdminsWithWorkbenchManage(iNodeService.getSpaceIdByNodeId(arg.getDatasheetId()));
-                // Changes to space workbench administrators do not result in permission changes, filtering
-                spaceAdmins.stream().filter(memberIds::contains).forEach(memberIds::remove);
-                if (memberIds.isEmpty()) {
-                    return;
-                }
+                Set<Long> spaceAdmins = new HashSet<>(iSpaceRoleService.getSpaceAdminsWithWorkbenchManage(iNodeService.getSpaceIdByNodeId(arg.getDatasheetId())));
                 // get column permission opener
                 ControlId controlId = ControlIdBuilder.fieldId(arg.getDatasheetId(), arg.getFieldId());
                 Long ownerMemberId = iControlService.getOwnerMemberId(controlId.toString());
                 if (ownerMemberId != null) {
                     spaceAdmins.add(ownerMemberId);
-                    memberIds.remove(ownerMemberId);
-                    if (memberIds.isEmpty()) {
-                        return;
-                    }
+                }
+                // Changes to space workbench administrators and the opener do not result in permission changes, filtering
+                memberIds.removeAll(spaceAdmins);
+                if (memberIds.isEmpty()) {
+                    return;
                 }
                 // load member information
                 List<MemberBaseInfoDTO> members = memberMapper.selectBaseInfoDTOByIds(memberIds);
@@ -168,38 +218,16 @@ public class FieldPermissionEventListener implements ApplicationListener<FieldPe
                 if (memberIdToUuidMap.isEmpty()) {
                     return;
                 }
-                ControlRole fieldRole = ControlRoleManager.parseFieldRole(arg.getRole());
-                Map<String, List<String>> roleToUuidsMap = new HashMap<>(3);
+                // The field permission roles of the members as they are now, the changed units included,
+                // so several changes merged together are broadcast as one diff per member.
+                // A member without any role left is broadcast an empty permission set
+                Map<Long, ControlRole> memberRoleMap = this.getMemberRoleMap(controlId, spaceAdmins);
                 String noRoleKey = "";
-                // field permission roles of members after getting the organizational unit that filters changes
-                Map<Long, ControlRole> memberRoleMap = this.getFilterMemberRoleMap(controlId, spaceAdmins, unitIds);
-                if (arg.getRole() != null && arg.getChangedUnitIds() != null) {
-                    // Add or modify field roles, and the changed role permissions are created from scratch,
-                    // or broadcast only when they become higher (for example, the original editable permissions are already available, and another organizational unit setting brings viewing permissions, no need to broadcast)
-                    for (Entry<Long, String> entry : memberIdToUuidMap.entrySet()) {
-                        if (memberRoleMap.containsKey(entry.getKey()) && memberRoleMap.get(entry.getKey()).isGreaterThan(fieldRole)) {
-                            continue;
-                        }
-                        MultiValueMapUtils.accumulatedValueIfAbsent(roleToUuidsMap, arg.getRole(), entry.getValue());
-                    }
-                }
-                else if (CollUtil.isNotEmpty(arg.getDelUnitIds())) {
-                    // After the specified organizational unit role is deleted,
-                    // the changed role permissions will be broadcast from existence to non-existence, or only if they are reduced.
-                    for (Entry<Long, String> entry : memberIdToUuidMap.entrySet()) {
-                        if (memberRoleMap.containsKey(entry.getKey())) {
-                            ControlRole memberFileRole = memberRoleMap.get(entry.getKey());
-                            if (memberFileRole.isLessThan(fieldRole)) {
-                                MultiValueMapUtils.accumulatedValueIfAbsent(roleToUuidsMap, memberFileRole.getRoleTag(), entry.getValue());
-                            }
-                        }
-                        else {
-                            MultiValueMapUtils.accumulatedValueIfAbsent(roleToUuidsMap, noRoleKey, entry.getValue());
-                        }
-                    }
-                }
-                if (roleToUuidsMap.size() == 0) {
-                    return;
+                Map<String, List<String>> roleToUuidsMap = new HashMap<>(3);
+                for (Entry<Long, String> entry : memberIdToUuidMap.entrySet()) {
+                    ControlRole memberFieldRole = memberRoleMap.get(entry.getKey());
+                    String roleKey = memberFieldRole != null ? memberFieldRole.getRoleTag() : noRoleKey;
+                    MultiValueMapUtils.accumulatedValueIfAbsent(roleToUuidsMap, roleKey, entry.getValue());
                 }
                 List<ChangeObject> objects = new ArrayList<>(roleToUuidsMap.size());
                 for (Entry<String, List<String>> entry : roleToUuidsMap.entrySet()) {
@@ -253,7 +281,7 @@ public class FieldPermissionEventListener implements ApplicationListener<FieldPe
         return changes;
     }
 
-    private Map<Long, ControlRole> getFilterMemberRoleMap(ControlId controlId, List<Long> admins, Collection<Long> changedUnitIds) {
+    private Map<Long, ControlRole> getMemberRoleMap(ControlId controlId, Set<Long> admins) {
         // build member role mappings
         Map<Long, ControlRole> memberRoleMap = new HashMap<>(16);
         FieldEditorRole editorRole = new FieldEditorRole();
@@ -266,9 +294,9 @@ public class FieldPermissionEventListener implements ApplicationListener<FieldPe
         if (controlRoles.isEmpty()) {
             return memberRoleMap;
         }
-        // Filter org units with no changes and administrators
+        // Filter administrators
         Map<String, List<ControlRoleUnitDTO>> fieldRoleControlMap = controlRoles.stream()
-                .filter(dto -> !changedUnitIds.contains(dto.getUnitId()) && !admins.contains(dto.getUnitRefId()))
+                .filter(dto -> !admins.contains(dto.getUnitRefId()))
                 .sorted(Comparator.comparing((Function<ControlRoleUnitDTO, Long>) t -> ControlRoleManager.parseFieldRole(t.getRole()).getBits()).reversed())
                 .collect(groupingBy(ControlRoleUnitDTO::getRole, LinkedHashMap::new, toList()));
         if (fieldRoleControlMap.isEmpty()) {
@@ -21,7 +21,10 @@ package com.apitable.shared.util;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
@@ -79,15 +82,46 @@ public class CollectionUtil {
     }
 
     /**
-     * Sorting a custom sequence for List, the sorting will modify the original list
+     * Sorting a custom sequence for List, the sorting will modify the original list.
+     * Elements whose key is not in the sequence are moved to the end, keeping their original order.
+     * The list is reordered in linear time by the position of each key in the sequence.
      *
      * @param list to be sorted list
      * @param keyExtractor The function that the user extracts the sorting key
-     * @param customKeySort custom sequence list
+     * @param customKeySort custom sequence
      * @return sorted list
      */
-    public static <T, U extends Comparable<? super U>> List<T> customSequenceSort(List<T> list, Function<? super T, ? extends U> keyExtractor, List<? super U> customKeySort) {
-        return customSequenceSort(list, keyExtractor, customKeySort, null);
+    @SuppressWarnings("unchecked")
+    public static <T, U extends Comparable<? super U>> List<T> customSequenceSort(List<T> list, Function<? super T, ? extends U> keyExtractor, Collection<? super U> customKeySort) {
+        if (isEmpty(list) || isEmpty(customKeySort)) {
+            return list;
+        }
+        Map<Object, Integer> sequenceRank = sequenceRank(customKeySort);
+        int missingRank = customKeySort.size();
+        // counting sort by the rank of key, stable for the same rank
+        int[] ranks = new int[list.size()];
+        int[] offsets = new int[missingRank + 2];
+        int index = 0;
+        for (T item : list) {
+            Integer rank = sequenceRank.get(keyExtractor.apply(item));
+            ranks[index] = rank == null ? missingRank : rank;
+            offsets[ranks[index] + 1]++;
+            index++;
+        }
+        for (int rank = 1; rank < offsets.length; rank++) {
+            offsets[rank] += offsets[rank - 1];
+        }
+        Object[] sorted = new Object[list.size()];
+        index = 0;
+        for (T item : list) {
+            sorted[offsets[ranks[index++]]++] = item;
+        }
+        ListIterator<T> iterator = list.listIterator();
+        for (Object item : sorted) {
+            iterator.next();
+            iterator.set((T) item);
+        }
+        return list;
     }
 
     /**
@@ -95,29 +129,38 @@ public class CollectionUtil {
      *
      * @param list to be sorted list
      * @param keyExtractor The function that the user extracts the sorting key
-     * @param customKeySort custom sequence list
+     * @param customKeySort custom sequence
      * @param thenComparing Sort function again after custom sorting is complete
      * @return sorted list
      */
-    public static <T, U extends Comparable<? super U>> List<T> customSequenceSort(List<T> list, Function<? super T, ? extends U> keyExtractor, List<? super U> customKeySort, Comparator<? super T> thenComparing) {
+    public static <T, U extends Comparable<? super U>> List<T> customSequenceSort(List<T> list, Function<? super T, ? extends U> keyExtractor, Collection<? super U> customKeySort, Comparator<? super T> thenComparing) {
+        if (null == thenComparing) {
+            return customSequenceSort(list, keyExtractor, customKeySort);
+        }
         if (isEmpty(list) || isEmpty(customKeySort)) {
             return list;
         }
 
-        // sort by custom sequence
-        Comparator<T> comparing = Comparator.comparing(o -> {
-            final int index = customKeySort.indexOf(keyExtractor.apply(o));
-            return index == -1 ? Integer.MAX_VALUE : index;
-        });
-        // if there is a subsequent sort operation
-        if (null != thenComparing) {
-            comparing = comparing.thenComparing(thenComparing);
-        }
-
+        // sort by custom sequence, the rank of each key is computed once instead of searching the sequence per comparison
+        Map<Object, Integer> sequenceRank = sequenceRank(customKeySort);
+        Comparator<T> comparing = Comparator.<T>comparingInt(o -> sequenceRank.getOrDefault(keyExtractor.apply(o), Integer.MAX_VALUE))
+                .thenComparing(thenComparing);
         list.sort(comparing);
         return list;
     }
 
+    /**
+     * position of the first occurrence of each key in the sequence
+     */
+    private static Map<Object, Integer> sequenceRank(Collection<?> customKeySort) {
+        Map<Object, Integer> sequenceRank = new HashMap<>(Math.max(16, (int) (customKeySort.size() / 0.75f) + 1));
+        int index = 0;
+        for (Object key : customKeySort) {
+            sequenceRank.putIfAbsent(key, index++);
+        }
+        return sequenceRank;
+    }
+
     public static <T> int[] findIndex(Collection<T> collection, Predicate<T> matcher) {
         final List<Integer> indexList = new ArrayList<>();
         if (null != collection) {
@@ -54,4 +54,35 @@ public class ExportUtil {
             }
         }
     }
+
+    /**
+     * export by writing to the response output stream directly, the content is never held in memory
+     *
+     * @param filename    file name
+     * @param contentType content type
+     * @param writer      writer of the content
+     * @throws IOException failed to write the content
+     */
+    public static void exportStream(String filename, String contentType, StreamWriter writer) throws IOException {
+        HttpServletResponse response = HttpContextUtil.getResponse();
+        if (response == null) {
+            return;
+        }
+        if (contentType != null) {
+            response.setContentType(contentType);
+        }
+        response.setHeader("content-disposition", "attachment;filename=" + filename);
+        try (OutputStream out = response.getOutputStream()) {
+            writer.write(out);
+        }
+    }
+
+    /**
+     * writer of the exported content
+     */
+    @FunctionalInterface
+    public interface StreamWriter {
+
+        void write(OutputStream out) throws IOException;
+    }
 }
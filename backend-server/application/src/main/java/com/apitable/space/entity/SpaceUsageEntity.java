@@ -0,0 +1,91 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.space.entity;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.experimental.Accessors;
+
+/**
+ * <p>
+ * Workbench - Space Usage Checkpoint Table
+ * </p>
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Accessors(chain = true)
+@EqualsAndHashCode
+@TableName(keepGlobalPrefix = true, value = "space_usage")
+public class SpaceUsageEntity implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Primary Key
+     */
+    @TableId(value = "id", type = IdType.ASSIGN_ID)
+    private Long id;
+
+    /**
+     * Space ID(link#xxxx_space#space_id)
+     */
+    private String spaceId;
+
+    /**
+     * Used Capacity(Unit: byte)
+     */
+    private Long capacity;
+
+    /**
+     * Number Of Records
+     */
+    private Long recordCount;
+
+    /**
+     * Number Of Members
+     */
+    private Long memberCount;
+
+    /**
+     * Last Reconcile Time
+     */
+    private LocalDateTime reconciledAt;
+
+    /**
+     * Create Time
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * Update Time
+     */
+    private LocalDateTime updatedAt;
+
+}
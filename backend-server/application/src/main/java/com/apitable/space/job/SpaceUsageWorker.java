@@ -0,0 +1,119 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.space.job;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import javax.annotation.Resource;
+
+import cn.hutool.core.thread.NamedThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import com.apitable.shared.config.properties.SpaceUsageProperties;
+import com.apitable.space.service.ISpaceUsageService;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.integration.redis.util.RedisLockRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * <p>
+ * background work of space usage counters.
+ * checkpoint saves the changed counters to database, every node takes its own share of the changed spaces.
+ * reconciliation counts the counters from database again, it fixes the drift of the changes done outside this server
+ * (records edited in datasheet, for example), one node runs it at a time.
+ * </p>
+ */
+@Slf4j
+@Component
+public class SpaceUsageWorker implements ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+    private static final String RECONCILE_LOCK = "space:usage:reconcile";
+
+    @Resource
+    private ISpaceUsageService iSpaceUsageService;
+
+    @Resource
+    private SpaceUsageProperties spaceUsageProperties;
+
+    @Resource
+    private RedisLockRegistry redisLockRegistry;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("space-usage-", true));
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!spaceUsageProperties.isWorkerEnabled()) {
+            log.info("Space usage worker is disabled");
+            return;
+        }
+        int checkpointInterval = spaceUsageProperties.getCheckpointIntervalSeconds();
+        scheduler.scheduleWithFixedDelay(this::checkpoint, checkpointInterval, checkpointInterval, TimeUnit.SECONDS);
+        int reconcileInterval = spaceUsageProperties.getReconcileIntervalSeconds();
+        scheduler.scheduleWithFixedDelay(this::reconcile, reconcileInterval, reconcileInterval, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdownNow();
+    }
+
+    void checkpoint() {
+        try {
+            int saved = iSpaceUsageService.checkpoint(spaceUsageProperties.getCheckpointBatchSize());
+            if (saved > 0) {
+                log.info("Checkpoint usage counters of {} spaces", saved);
+            }
+        }
+        catch (RuntimeException e) {
+            // an exception cancels the following runs of the scheduled task
+            log.error("Fail to checkpoint space usage counters", e);
+        }
+    }
+
+    void reconcile() {
+        Lock lock = redisLockRegistry.obtain(RECONCILE_LOCK);
+        boolean locked = false;
+        try {
+            locked = lock.tryLock();
+            if (!locked) {
+                return;
+            }
+            LocalDateTime reconciledBefore = LocalDateTime.now().minusMinutes(spaceUsageProperties.getReconcileAfterMinutes());
+            int reconciled = iSpaceUsageService.reconcileStale(reconciledBefore, spaceUsageProperties.getReconcileBatchSize());
+            if (reconciled > 0) {
+                log.info("Reconcile usage counters of {} spaces", reconciled);
+            }
+        }
+        catch (RuntimeException e) {
+            log.error("Fail to reconcile space usage counters", e);
+        }
+        finally {
+            if (locked) {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -100,11 +100,20 @@ public interface SpaceAssetMapper extends BaseMapper<SpaceAssetEntity> {
      */
     int updateCiteByNodeIdAndToken(@Param("nodeId") String nodeId, @Param("token") String token, @Param("offset") int offset);
 
+    /**
+     * total file size of the assets in space, each asset counts once
+     *
+     * @param spaceId space id
+     * @return total file size
+     */
+    Long sumFileSizeBySpaceId(@Param("spaceId") String spaceId);
+
     /**
      * @param spaceId space id
-     * @return file sizes
+     * @param assetId asset id
+     * @return count
      */
-    List<Integer> selectFileSizeBySpaceId(@Param("spaceId") String spaceId);
+    Integer countBySpaceIdAndAssetId(@Param("spaceId") String spaceId, @Param("assetId") Long assetId);
 
     /**
      * @param ids id
@@ -0,0 +1,68 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.space.mapper;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Param;
+
+import com.apitable.space.entity.SpaceUsageEntity;
+
+/**
+ * <p>
+ * Space Usage Checkpoint Mapper
+ * </p>
+ */
+public interface SpaceUsageMapper extends BaseMapper<SpaceUsageEntity> {
+
+    /**
+     * @param spaceId space id
+     * @return SpaceUsageEntity
+     */
+    SpaceUsageEntity selectBySpaceId(@Param("spaceId") String spaceId);
+
+    /**
+     * save the counters of spaces, the null counter keeps its saved value
+     *
+     * @param entities checkpoints
+     * @return affected rows
+     */
+    int insertOrUpdateBatch(@Param("entities") Collection<SpaceUsageEntity> entities);
+
+    /**
+     * overwrite all counters of space and the reconcile time
+     *
+     * @param entity checkpoint
+     * @return affected rows
+     */
+    int insertOrUpdateReconciled(@Param("entity") SpaceUsageEntity entity);
+
+    /**
+     * space ids whose counters are never reconciled or reconciled before the time, oldest first
+     *
+     * @param reconciledBefore reconcile time
+     * @param limit            max number of spaces
+     * @return space ids
+     */
+    List<String> selectSpaceIdByReconciledAtBefore(@Param("reconciledBefore") LocalDateTime reconciledBefore,
+            @Param("limit") int limit);
+}
@@ -100,12 +100,12 @@ public interface StaticsMapper {
     Long selectMaxId();
 
     /**
-     * File size collection of query space reference resources
+     * Total file size of query space reference resources, each asset counts once
      *
      * @param spaceId space id
-     * @return file size
+     * @return total file size
      */
-    List<Integer> selectFileSizeBySpaceId(@Param("spaceId") String spaceId);
+    Long sumFileSizeBySpaceId(@Param("spaceId") String spaceId);
 
     /**
      * The column permission size set in the query space
@@ -0,0 +1,84 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.space.service;
+
+import java.time.LocalDateTime;
+
+import com.apitable.space.enums.SpaceUsageType;
+
+/**
+ * <p>
+ * space usage counters, kept in redis and changed by deltas,
+ * saved to database by checkpoint and counted again from database by reconciliation
+ * </p>
+ */
+public interface ISpaceUsageService {
+
+    /**
+     * Get the usage of space, counted from database when the counter does not exist
+     *
+     * @param spaceId space id
+     * @param type    counter type
+     * @return usage
+     */
+    long getUsage(String spaceId, SpaceUsageType type);
+
+    /**
+     * Change the counter by delta after the transaction commits.
+     * the counter does not exist is counted again when it is read.
+     *
+     * @param spaceId space id
+     * @param type    counter type
+     * @param delta   delta, negative for decrease
+     */
+    void applyDelta(String spaceId, SpaceUsageType type, long delta);
+
+    /**
+     * Drop the counters after the transaction commits, they are counted again when they are read.
+     * for the changes whose delta is unknown.
+     *
+     * @param spaceId space id
+     * @param types   counter types
+     */
+    void invalidate(String spaceId, SpaceUsageType... types);
+
+    /**
+     * Save the counters changed since the last checkpoint to database
+     *
+     * @param limit max number of spaces
+     * @return number of saved spaces
+     */
+    int checkpoint(int limit);
+
+    /**
+     * Count all counters of space from database, and overwrite redis and checkpoint
+     *
+     * @param spaceId space id
+     */
+    void reconcile(String spaceId);
+
+    /**
+     * Reconcile the spaces whose counters are never reconciled or reconciled before the time
+     *
+     * @param reconciledBefore reconcile time
+     * @param limit            max number of spaces
+     * @return number of reconciled spaces
+     */
+    int reconcileStale(LocalDateTime reconciledBefore, int limit);
+}
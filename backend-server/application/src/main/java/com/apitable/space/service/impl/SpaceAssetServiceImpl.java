@@ -45,9 +45,12 @@ import com.apitable.space.dto.NodeAssetDTO;
 import com.apitable.space.dto.SpaceAssetDTO;
 import com.apitable.space.mapper.SpaceAssetMapper;
 import com.apitable.space.ro.SpaceAssetOpRo;
+import com.apitable.space.enums.SpaceUsageType;
 import com.apitable.space.service.ISpaceAssetService;
+import com.apitable.space.service.ISpaceUsageService;
 import com.apitable.workspace.enums.DataSheetException;
 import com.apitable.core.util.ExceptionUtil;
+import com.apitable.core.util.SqlTool;
 import com.apitable.space.entity.SpaceAssetEntity;
 
 import org.springframework.stereotype.Service;
@@ -63,6 +66,9 @@ public class SpaceAssetServiceImpl extends ServiceImpl<SpaceAssetMapper, SpaceAs
     @Resource
     private SpaceCapacityCacheService spaceCapacityCacheService;
 
+    @Resource
+    private ISpaceUsageService iSpaceUsageService;
+
     @Override
     public void saveEntities(List<SpaceAssetEntity> entities) {
         log.info("Save space asset.");
@@ -75,6 +81,8 @@ public class SpaceAssetServiceImpl extends ServiceImpl<SpaceAssetMapper, SpaceAs
     @Override
     public void saveAssetInSpace(String spaceId, String nodeId, Long assetId, String assetChecksum, AssetType assetType, String originalFileName, long fileSize) {
         log.info("add space asset");
+        // the asset counts once in space capacity
+        boolean counted = SqlTool.retCount(baseMapper.countBySpaceIdAndAssetId(spaceId, assetId)) > 0;
         SpaceAssetEntity entity = SpaceAssetEntity.builder()
                 .spaceId(spaceId)
                 .nodeId(nodeId)
@@ -85,8 +93,9 @@ public class SpaceAssetServiceImpl extends ServiceImpl<SpaceAssetMapper, SpaceAs
                 .fileSize((int) fileSize)
                 .build();
         this.save(entity);
-        // delete the capacity cache
-        spaceCapacityCacheService.del(spaceId);
+        if (!counted) {
+            iSpaceUsageService.applyDelta(spaceId, SpaceUsageType.CAPACITY, fileSize);
+        }
     }
 
     @Override
@@ -41,6 +41,7 @@ import com.apitable.organization.entity.MemberEntity;
 import com.apitable.organization.mapper.MemberMapper;
 import com.apitable.shared.cache.bean.SpaceMenuResourceGroupDto;
 import com.apitable.shared.cache.bean.SpaceResourceGroupDto;
+import com.apitable.shared.cache.service.ControlRoleCacheService;
 import com.apitable.shared.cache.service.SpaceResourceCacheService;
 import com.apitable.shared.component.notification.NotificationRenderField;
 import com.apitable.shared.context.LoginContext;
@@ -121,6 +122,9 @@ public class SpaceRoleServiceImpl extends ServiceImpl<SpaceRoleMapper, SpaceRole
     @Resource
     private SocialServiceFacade socialServiceFacade;
 
+    @Resource
+    private ControlRoleCacheService controlRoleCacheService;
+
     @Override
     public List<Long> getSpaceAdminsWithWorkbenchManage(String spaceId) {
         log.info("Queries all space administrators who have workbench permission，including the main admin.");
@@ -219,6 +223,8 @@ public class SpaceRoleServiceImpl extends ServiceImpl<SpaceRoleMapper, SpaceRole
         ExceptionUtil.isTrue(relFlag, CREATE_SUB_ADMIN_ERROR);
         // save the ref space role and resource code.
         iSpaceRoleResourceRelService.createBatch(roleCodes, CollUtil.distinct(resourceCodes));
+        // sub admins have the workbench role
+        controlRoleCacheService.invalidate(spaceId);
         NotificationRenderFieldHolder.set(NotificationRenderField.builder().playerIds(data.getMemberIds()).build());
     }
 
@@ -280,6 +286,7 @@ public class SpaceRoleServiceImpl extends ServiceImpl<SpaceRoleMapper, SpaceRole
             // To re-select a member, you must check the new member criteria
             this.checkBeforeCreate(spaceId, data.getMemberId());
             iSpaceMemberRoleRelService.updateMemberIdById(data.getId(), data.getMemberId());
+            controlRoleCacheService.invalidate(spaceId);
         }
         // assigned permissions
         List<String> resourceCodes = spaceResourceMapper.selectResourceCodesByGroupCode(CollUtil.distinct(data.getResourceCodes()));
@@ -332,6 +339,7 @@ public class SpaceRoleServiceImpl extends ServiceImpl<SpaceRoleMapper, SpaceRole
 
         boolean memberRoleFlag = SqlHelper.retBool(spaceMemberRoleRelMapper.deleteBySpaceIdAndMemberId(spaceId, memberId));
         ExceptionUtil.isTrue(memberRoleFlag, DELETE_ROLE_ERROR);
+        controlRoleCacheService.invalidate(spaceId);
     }
 
     @Override
@@ -339,6 +347,7 @@ public class SpaceRoleServiceImpl extends ServiceImpl<SpaceRoleMapper, SpaceRole
     public void batchRemoveByMemberIds(String spaceId, List<Long> memberIds) {
         List<String> roleCodes = spaceMemberRoleRelMapper.selectRoleCodeByMemberIds(spaceId, memberIds);
         spaceMemberRoleRelMapper.batchDeleteByMemberIds(memberIds);
+        controlRoleCacheService.invalidate(spaceId);
         if (CollUtil.isNotEmpty(roleCodes)) {
             // Query for role codes that still exist. If a role is bound to someone else, you cannot delete the role
             List<String> existRoleCodes = spaceMemberRoleRelMapper.selectRoleCodesBySpaceIdAndRoleCodes(spaceId, roleCodes);
@@ -362,7 +371,7 @@ public class SpaceRoleServiceImpl extends ServiceImpl<SpaceRoleMapper, SpaceRole
             spaceRoleResourceRelMapper.batchDeleteByRoleCodes(roleCodes);
         }
         spaceMemberRoleRelMapper.deleteBySpaceId(spaceId);
-
+        controlRoleCacheService.invalidate(spaceId);
     }
 
     @Override
@@ -49,13 +49,18 @@ import com.apitable.organization.service.ITeamMemberRelService;
 import com.apitable.organization.service.ITeamService;
 import com.apitable.organization.service.IUnitService;
 import com.apitable.shared.cache.bean.UserSpaceDto;
+import com.apitable.shared.cache.service.ControlRoleCacheService;
 import com.apitable.shared.cache.service.SpaceCapacityCacheService;
+import com.apitable.shared.cache.service.SpaceGlobalFeatureCacheService;
 import com.apitable.shared.cache.service.UserActiveSpaceCacheService;
 import com.apitable.shared.cache.service.UserSpaceCacheService;
 import com.apitable.shared.captcha.ValidateCodeProcessorManage;
 import com.apitable.shared.captcha.ValidateCodeType;
 import com.apitable.shared.captcha.ValidateTarget;
 import com.apitable.shared.component.TaskManager;
+import com.apitable.shared.component.aggregate.Aggregation;
+import com.apitable.shared.component.aggregate.Aggregation.Branch;
+import com.apitable.shared.component.aggregate.TaskAggregator;
 import com.apitable.shared.component.notification.NotificationManager;
 import com.apitable.shared.component.notification.NotificationRenderField;
 import com.apitable.shared.component.notification.NotificationTemplateId;
@@ -66,6 +71,7 @@ import com.apitable.shared.constants.AuditConstants;
 import com.apitable.shared.constants.MailPropConstants;
 import com.apitable.shared.context.SessionContext;
 import com.apitable.shared.holder.NotificationRenderFieldHolder;
+import com.apitable.shared.holder.SpaceHolder;
 import com.apitable.shared.listener.event.AuditSpaceEvent;
 import com.apitable.shared.listener.event.AuditSpaceEvent.AuditSpaceArg;
 import com.apitable.shared.util.IdUtil;
@@ -76,6 +82,7 @@ import com.apitable.space.entity.SpaceEntity;
 import com.apitable.space.enums.AuditSpaceAction;
 import com.apitable.space.enums.SpaceException;
 import com.apitable.space.enums.SpaceResourceGroupCode;
+import com.apitable.space.enums.SpaceUsageType;
 import com.apitable.space.mapper.SpaceMapper;
 import com.apitable.space.mapper.SpaceMemberRoleRelMapper;
 import com.apitable.space.ro.SpaceUpdateOpRo;
@@ -131,6 +138,9 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, SpaceEntity> impl
     @Resource
     private UserActiveSpaceCacheService userActiveSpaceCacheService;
 
+    @Resource
+    private ControlRoleCacheService controlRoleCacheService;
+
     @Resource
     private ITeamService iTeamService;
 
@@ -146,6 +156,9 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, SpaceEntity> impl
     @Resource
     private SpaceCapacityCacheService spaceCapacityCacheService;
 
+    @Resource
+    private SpaceGlobalFeatureCacheService spaceGlobalFeatureCacheService;
+
     @Resource
     private ISpaceInviteLinkService iSpaceInviteLinkService;
 
@@ -173,6 +186,9 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, SpaceEntity> impl
     @Resource
     private IStaticsService iStaticsService;
 
+    @Resource
+    private ISpaceUsageService iSpaceUsageService;
+
     @Resource
     private SocialServiceFacade socialServiceFacade;
 
@@ -185,6 +201,9 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, SpaceEntity> impl
     @Resource
     private IInvitationService iInvitationService;
 
+    @Resource
+    private TaskAggregator taskAggregator;
+
     @Override
     public SpaceEntity getBySpaceId(String spaceId) {
         SpaceEntity entity = baseMapper.selectBySpaceId(spaceId);
@@ -354,7 +373,8 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, SpaceEntity> impl
         // After the space is pre-deleted, only the member data of the master management is not logically deleted.
         // If the product logic changes, all members that have not been logically deleted need to be queried to clear the cache
         userActiveSpaceCacheService.delete(userId);
-        spaceIds.forEach(spaceId -> userSpaceCacheService.delete(userId, spaceId));
+        userSpaceCacheService.delete(userId, spaceIds);
+        spaceIds.forEach(spaceGlobalFeatureCacheService::invalidate);
         // delete member（must be after deleting user）
         memberMapper.delBySpaceIds(spaceIds, null);
         // delete space exclusive domain name
@@ -368,6 +388,7 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, SpaceEntity> impl
         ExceptionUtil.isTrue(flag, DatabaseException.EDIT_ERROR);
         //restore other members
         memberMapper.cancelPreDelBySpaceId(spaceId);
+        spaceGlobalFeatureCacheService.invalidate(spaceId);
     }
 
     @Override
@@ -423,24 +444,42 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, SpaceEntity> impl
     @Override
     public SpaceInfoVO getSpaceInfo(String spaceId) {
         SpaceEntity entity = getBySpaceId(spaceId);
+        // the statistics are independent, look up them concurrently
+        Aggregation aggregation = taskAggregator.begin("space_info");
         // numbers statistics
-        long memberNumber = iStaticsService.getMemberTotalCountBySpaceId(spaceId);
+        Branch<Long> memberNumber = aggregation.fork("seats", () -> iSpaceUsageService.getUsage(spaceId, SpaceUsageType.MEMBER), 0L);
         // teams statistics
-        long teamCount = iStaticsService.getTeamTotalCountBySpaceId(spaceId);
+        Branch<Long> teamCount = aggregation.fork("teams", () -> iStaticsService.getTeamTotalCountBySpaceId(spaceId), 0L);
         // admin statistics
-        long adminCount = iStaticsService.getAdminTotalCountBySpaceId(spaceId);
+        Branch<Long> adminCount = aggregation.fork("admins", () -> iStaticsService.getAdminTotalCountBySpaceId(spaceId), 0L);
         // record statistics
-        long recordCount = iStaticsService.getDatasheetRecordTotalCountBySpaceId(spaceId);
+        Branch<Long> recordCount = aggregation.fork("records", () -> iSpaceUsageService.getUsage(spaceId, SpaceUsageType.RECORD), 0L);
         // used space statistics
-        long capacityUsedSize = spaceCapacityCacheService.getSpaceCapacity(spaceId);
+        Branch<Long> capacityUsedSize = aggregation.fork("capacity", () -> spaceCapacityCacheService.getSpaceCapacity(spaceId), 0L);
+        // space attachment capacity usage information
+        Branch<SpaceCapacityUsedInfo> spaceCapacityUsedInfo = capacityUsedSize.then("capacity_used_info",
+                size -> this.getSpaceCapacityUsedInfo(spaceId, size), null);
         // API usage statistics
-        long apiUsage = iStaticsService.getCurrentMonthApiUsage(spaceId);
+        Branch<Long> apiUsage = aggregation.fork("api_usage", () -> iStaticsService.getCurrentMonthApiUsage(spaceId), 0L);
         // file control amount
-        ControlStaticsDTO controlStaticsDTO = iStaticsService.getFieldRoleTotalCountBySpaceId(spaceId);
+        Branch<ControlStaticsDTO> controlStatics = aggregation.fork("control_roles", () -> iStaticsService.getFieldRoleTotalCountBySpaceId(spaceId), null);
+        // node statistics
+        Branch<List<NodeTypeStaticsDTO>> nodeTypeStatics = aggregation.fork("node_types",
+                () -> iStaticsService.getNodeTypeStaticsBySpaceId(spaceId), Collections.emptyList());
+        // table view statistics
+        Branch<DatasheetStaticsDTO> viewStatics = aggregation.fork("views", () -> iStaticsService.getDatasheetStaticsBySpaceId(spaceId), new DatasheetStaticsDTO());
+        // owner and creator info
+        Branch<MemberDTO> owner = entity.getOwner() != null
+                ? aggregation.fork("owner", () -> memberMapper.selectDtoByMemberId(entity.getOwner()), null) : null;
+        Branch<MemberDTO> creator = entity.getOwner() != null && entity.getCreator() != null && !entity.getCreator().equals(entity.getOwner())
+                ? aggregation.fork("creator", () -> memberMapper.selectDtoByMemberId(entity.getCreator()), null) : null;
+        // obtain third party information
+        Branch<SocialConnectInfo> social = aggregation.fork("social", () -> socialServiceFacade.getConnectInfo(spaceId), null);
+
+        ControlStaticsDTO controlStaticsDTO = controlStatics.get();
         long nodeRoleNums = controlStaticsDTO != null ? controlStaticsDTO.getNodeRoleCount() : 0L;
         long fieldRoleNums = controlStaticsDTO != null ? controlStaticsDTO.getFieldRoleCount() : 0L;
-        // node statistics
-        List<NodeTypeStaticsDTO> nodeTypeStaticDTOS = iStaticsService.getNodeTypeStaticsBySpaceId(spaceId);
+        List<NodeTypeStaticsDTO> nodeTypeStaticDTOS = nodeTypeStatics.get();
         long sheetNums = nodeTypeStaticDTOS.stream()
                 .filter(condition -> NodeType.toEnum(condition.getType()).isFileNode())
                 .mapToLong(NodeTypeStaticsDTO::getTotal).sum();
@@ -450,19 +489,18 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, SpaceEntity> impl
 
         Map<Integer, Integer> typeStaticsMap = nodeTypeStaticDTOS.stream().collect(Collectors.toMap(NodeTypeStaticsDTO::getType, NodeTypeStaticsDTO::getTotal));
         long formViewNums = typeStaticsMap.containsKey(NodeType.FORM.getNodeType()) ? typeStaticsMap.get(NodeType.FORM.getNodeType()) : 0L;
-        // table view statistics
-        DatasheetStaticsDTO viewVO = iStaticsService.getDatasheetStaticsBySpaceId(spaceId);
+        DatasheetStaticsDTO viewVO = viewStatics.get();
         SpaceInfoVO vo = SpaceInfoVO.builder()
                 .spaceName(entity.getName())
                 .spaceLogo(entity.getLogo())
                 .createTime(entity.getCreatedAt())
-                .deptNumber(teamCount)
-                .seats(memberNumber)
+                .deptNumber(teamCount.get())
+                .seats(memberNumber.get())
                 .sheetNums(sheetNums)
-                .recordNums(recordCount)
-                .adminNums(adminCount)
-                .apiRequestCountUsage(apiUsage)
-                .capacityUsedSizes(capacityUsedSize)
+                .recordNums(recordCount.get())
+                .adminNums(adminCount.get())
+                .apiRequestCountUsage(apiUsage.get())
+                .capacityUsedSizes(capacityUsedSize.get())
                 .nodeRoleNums(nodeRoleNums)
                 .fieldRoleNums(fieldRoleNums)
                 .formViewNums(formViewNums)
@@ -472,38 +510,31 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, SpaceEntity> impl
                 .ganttViewNums(viewVO.getGanttViews())
                 .mirrorNums(mirrorNums)
                 .build();
-        // space attachment capacity usage information
-        SpaceCapacityUsedInfo spaceCapacityUsedInfo = this.getSpaceCapacityUsedInfo(spaceId, capacityUsedSize);
-        vo.setCurrentBundleCapacityUsedSizes(spaceCapacityUsedInfo.getCurrentBundleCapacityUsedSizes());
-        vo.setGiftCapacityUsedSizes(spaceCapacityUsedInfo.getGiftCapacityUsedSizes());
+        SpaceCapacityUsedInfo capacityUsedInfo = spaceCapacityUsedInfo.get();
+        if (capacityUsedInfo != null) {
+            vo.setCurrentBundleCapacityUsedSizes(capacityUsedInfo.getCurrentBundleCapacityUsedSizes());
+            vo.setGiftCapacityUsedSizes(capacityUsedInfo.getGiftCapacityUsedSizes());
+        }
         // owner info
-        if (entity.getOwner() != null) {
-            MemberDTO ownerMember = memberMapper.selectDtoByMemberId(entity.getOwner());
-            if (ownerMember != null) {
-                vo.setOwnerName(ownerMember.getMemberName());
-                vo.setOwnerAvatar(ownerMember.getAvatar());
-                vo.setIsOwnerNameModified(ownerMember.getIsSocialNameModified() > 0);
-                if (entity.getCreator() != null) {
-                    if (entity.getCreator().equals(ownerMember.getId())) {
-                        vo.setCreatorName(ownerMember.getMemberName());
-                        vo.setCreatorAvatar(ownerMember.getAvatar());
-                        vo.setIsCreatorNameModified(ownerMember.getIsSocialNameModified() > 0);
-                    } else {
-                        MemberDTO creatorMember = memberMapper.selectDtoByMemberId(entity.getCreator());
-                        if (creatorMember != null) {
-                            vo.setCreatorName(creatorMember.getMemberName());
-                            vo.setCreatorAvatar(creatorMember.getAvatar());
-                            vo.setIsCreatorNameModified(creatorMember.getIsSocialNameModified() > 0);
-                        }
-                    }
-                }
+        MemberDTO ownerMember = owner != null ? owner.get() : null;
+        if (ownerMember != null) {
+            vo.setOwnerName(ownerMember.getMemberName());
+            vo.setOwnerAvatar(ownerMember.getAvatar());
+            vo.setIsOwnerNameModified(ownerMember.getIsSocialNameModified() > 0);
+            MemberDTO creatorMember = creator != null ? creator.get() : null;
+            if (entity.getCreator() != null && entity.getCreator().equals(ownerMember.getId())) {
+                creatorMember = ownerMember;
+            }
+            if (creatorMember != null) {
+                vo.setCreatorName(creatorMember.getMemberName());
+                vo.setCreatorAvatar(creatorMember.getAvatar());
+                vo.setIsCreatorNameModified(creatorMember.getIsSocialNameModified() > 0);
             }
         }
         if (ObjectUtil.isNotNull(entity.getPreDeletionTime())) {
             vo.setDelTime(entity.getPreDeletionTime().plusDays(7));
         }
-        // obtain third party information
-        SocialConnectInfo socialConnectInfo = socialServiceFacade.getConnectInfo(spaceId);
+        SocialConnectInfo socialConnectInfo = social.get();
         SpaceSocialConfig bindInfo = new SpaceSocialConfig();
         if (ObjectUtil.isNotNull(socialConnectInfo)) {
             if (socialConnectInfo.isEnabled()) {
@@ -553,7 +584,7 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, SpaceEntity> impl
         log.info("Get the usage information of the space {}", spaceId);
         InternalSpaceUsageVo vo = new InternalSpaceUsageVo();
         // statistics of total records
-        long recordNums = iStaticsService.getDatasheetRecordTotalCountBySpaceId(spaceId);
+        long recordNums = iSpaceUsageService.getUsage(spaceId, SpaceUsageType.RECORD);
         vo.setRecordNums(recordNums);
         // table view statistics
         DatasheetStaticsDTO viewVO = iStaticsService.getDatasheetStaticsBySpaceId(spaceId);
@@ -610,6 +641,7 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, SpaceEntity> impl
         ExceptionUtil.isTrue(flag, SET_MAIN_ADMIN_FAIL);
         iMemberService.cancelMemberMainAdmin(dto.getMemberId());
         iMemberService.setMemberMainAdmin(memberId);
+        controlRoleCacheService.invalidate(spaceId);
         // If the new administrator is a sub-administrator, delete the original permission
         int count = SqlTool.retCount(spaceMemberRoleRelMapper.selectCountBySpaceIdAndMemberId(spaceId, memberId));
         if (count > 0) {
@@ -697,11 +729,13 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, SpaceEntity> impl
 
     @Override
     public SpaceGlobalFeature getSpaceGlobalFeature(String spaceId) {
-        log.info("gets space global properties，spaceId:{}", spaceId);
-        String props = baseMapper.selectPropsBySpaceId(spaceId);
-        ExceptionUtil.isNotNull(props, SpaceException.SPACE_NOT_EXIST);
-
-        return JSONUtil.toBean(props, SpaceGlobalFeature.class);
+        // loaded once in a request
+        SpaceGlobalFeature feature = SpaceHolder.getGlobalFeature(spaceId);
+        if (feature == null) {
+            feature = spaceGlobalFeatureCacheService.getSpaceGlobalFeature(spaceId);
+            SpaceHolder.setGlobalFeature(spaceId, feature);
+        }
+        return feature;
     }
 
     @Override
@@ -718,6 +752,8 @@ public class SpaceServiceImpl extends ServiceImpl<SpaceMapper, SpaceEntity> impl
         }
         boolean flag = SqlHelper.retBool(baseMapper.updateProps(userId, spaceId, features));
         ExceptionUtil.isTrue(flag, DatabaseException.EDIT_ERROR);
+        spaceGlobalFeatureCacheService.invalidate(spaceId);
+        SpaceHolder.removeGlobalFeature(spaceId);
         // When the function of inviting all members of the space is turned off,
         // all public invitation links generated by the original main administrator become invalid.
         if (Boolean.FALSE.equals(feature.getInvitable())) {
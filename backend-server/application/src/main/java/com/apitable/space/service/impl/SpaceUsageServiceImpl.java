@@ -0,0 +1,319 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.space.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.ArrayUtil;
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import lombok.extern.slf4j.Slf4j;
+
+import com.apitable.core.constants.RedisConstants;
+import com.apitable.core.util.SqlTool;
+import com.apitable.space.entity.SpaceUsageEntity;
+import com.apitable.space.enums.SpaceUsageType;
+import com.apitable.space.mapper.SpaceAssetMapper;
+import com.apitable.space.mapper.SpaceUsageMapper;
+import com.apitable.space.mapper.StaticsMapper;
+import com.apitable.space.service.ISpaceUsageService;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * <p>
+ * space usage counters in redis hash, one hash per space.
+ * the marker field is written with every change, a hash with the marker but without the counter
+ * means the counter is dropped and must be counted from database,
+ * a hash without the marker means redis lost it and the checkpoint can be loaded.
+ * </p>
+ */
+@Slf4j
+@Service
+public class SpaceUsageServiceImpl implements ISpaceUsageService {
+
+    private static final String MARKER = "marker";
+
+    /**
+     * expire time of the hash, renewed by every change (days)
+     */
+    private static final int TIMEOUT = 7;
+
+    private static final String TIMEOUT_SECONDS = String.valueOf(TimeUnit.DAYS.toSeconds(TIMEOUT));
+
+    /**
+     * KEYS[1] hash, ARGV[1] marker, ARGV[2] expire seconds, ARGV[3] counter, ARGV[4] delta.
+     * the delta of a dropped counter is discarded, it is counted later.
+     */
+    private static final RedisScript<Long> APPLY_DELTA_SCRIPT = new DefaultRedisScript<>(
+            "local applied = redis.call('HEXISTS', KEYS[1], ARGV[3]) "
+                    + "if applied == 1 then redis.call('HINCRBY', KEYS[1], ARGV[3], ARGV[4]) end "
+                    + "redis.call('HSET', KEYS[1], ARGV[1], 1) "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[2]) "
+                    + "return applied", Long.class);
+
+    /**
+     * KEYS[1] hash, ARGV[1] marker, ARGV[2] expire seconds, ARGV[3..] counters
+     */
+    private static final RedisScript<Long> DROP_SCRIPT = new DefaultRedisScript<>(
+            "for i = 3, #ARGV do redis.call('HDEL', KEYS[1], ARGV[i]) end "
+                    + "redis.call('HSET', KEYS[1], ARGV[1], 1) "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[2]) "
+                    + "return 1", Long.class);
+
+    /**
+     * KEYS[1] hash, ARGV[1] marker, ARGV[2] expire seconds, ARGV[3..] counter and value pairs.
+     * loads the checkpoint only when redis has nothing of the space.
+     */
+    private static final RedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HEXISTS', KEYS[1], ARGV[1]) == 1 then return 0 end "
+                    + "for i = 3, #ARGV, 2 do redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1]) end "
+                    + "redis.call('HSET', KEYS[1], ARGV[1], 1) "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[2]) "
+                    + "return 1", Long.class);
+
+    /**
+     * KEYS[1] hash, ARGV[1] marker, ARGV[2] expire seconds, ARGV[3] counter, ARGV[4] value.
+     * returns the value in redis, which is the counted one unless another node was faster.
+     */
+    private static final RedisScript<Long> PUT_IF_ABSENT_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('HSETNX', KEYS[1], ARGV[3], ARGV[4]) "
+                    + "redis.call('HSET', KEYS[1], ARGV[1], 1) "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[2]) "
+                    + "return tonumber(redis.call('HGET', KEYS[1], ARGV[3]))", Long.class);
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private SpaceUsageMapper spaceUsageMapper;
+
+    @Resource
+    private SpaceAssetMapper spaceAssetMapper;
+
+    @Resource
+    private StaticsMapper staticsMapper;
+
+    @Override
+    public long getUsage(String spaceId, SpaceUsageType type) {
+        String key = RedisConstants.getSpaceUsageKey(spaceId);
+        List<Object> values = stringRedisTemplate.opsForHash().multiGet(key, Arrays.asList(type.getField(), MARKER));
+        if (values.get(0) != null) {
+            return Long.parseLong(values.get(0).toString());
+        }
+        if (values.get(1) == null) {
+            // redis lost the counters of space, the checkpoint is much cheaper than counting
+            SpaceUsageEntity checkpoint = spaceUsageMapper.selectBySpaceId(spaceId);
+            if (checkpoint != null) {
+                this.load(key, checkpoint);
+                Object value = stringRedisTemplate.opsForHash().get(key, type.getField());
+                if (value != null) {
+                    return Long.parseLong(value.toString());
+                }
+            }
+        }
+        long usage = this.count(spaceId, type);
+        Long value = stringRedisTemplate.execute(PUT_IF_ABSENT_SCRIPT, Collections.singletonList(key),
+                MARKER, TIMEOUT_SECONDS, type.getField(), String.valueOf(usage));
+        stringRedisTemplate.opsForSet().add(RedisConstants.SPACE_USAGE_DIRTY_KEY, spaceId);
+        return value != null ? value : usage;
+    }
+
+    @Override
+    public void applyDelta(String spaceId, SpaceUsageType type, long delta) {
+        if (StrUtil.isBlank(spaceId) || delta == 0) {
+            return;
+        }
+        this.afterCommit(() -> {
+            String key = RedisConstants.getSpaceUsageKey(spaceId);
+            Long applied = stringRedisTemplate.execute(APPLY_DELTA_SCRIPT, Collections.singletonList(key),
+                    MARKER, TIMEOUT_SECONDS, type.getField(), String.valueOf(delta));
+            if (applied != null && applied == 1) {
+                stringRedisTemplate.opsForSet().add(RedisConstants.SPACE_USAGE_DIRTY_KEY, spaceId);
+            }
+        });
+    }
+
+    @Override
+    public void invalidate(String spaceId, SpaceUsageType... types) {
+        if (StrUtil.isBlank(spaceId) || ArrayUtil.isEmpty(types)) {
+            return;
+        }
+        this.afterCommit(() -> {
+            log.info("Invalidate the usage counters「{}」of space「{}」", types, spaceId);
+            List<String> args = new ArrayList<>(types.length + 2);
+            args.add(MARKER);
+            args.add(TIMEOUT_SECONDS);
+            for (SpaceUsageType type : types) {
+                args.add(type.getField());
+            }
+            stringRedisTemplate.execute(DROP_SCRIPT, Collections.singletonList(RedisConstants.getSpaceUsageKey(spaceId)),
+                    args.toArray());
+        });
+    }
+
+    @Override
+    public int checkpoint(int limit) {
+        List<String> spaceIds = stringRedisTemplate.opsForSet().pop(RedisConstants.SPACE_USAGE_DIRTY_KEY, limit);
+        if (CollUtil.isEmpty(spaceIds)) {
+            return 0;
+        }
+        List<Object> fields = new ArrayList<>();
+        for (SpaceUsageType type : SpaceUsageType.values()) {
+            fields.add(type.getField());
+        }
+        List<SpaceUsageEntity> entities = new ArrayList<>(spaceIds.size());
+        for (String spaceId : spaceIds) {
+            List<Object> values = stringRedisTemplate.opsForHash().multiGet(RedisConstants.getSpaceUsageKey(spaceId), fields);
+            if (values.stream().allMatch(value -> value == null)) {
+                continue;
+            }
+            entities.add(SpaceUsageEntity.builder()
+                    .id(IdWorker.getId())
+                    .spaceId(spaceId)
+                    .capacity(toLong(values.get(SpaceUsageType.CAPACITY.ordinal())))
+                    .recordCount(toLong(values.get(SpaceUsageType.RECORD.ordinal())))
+                    .memberCount(toLong(values.get(SpaceUsageType.MEMBER.ordinal())))
+                    .build());
+        }
+        if (entities.isEmpty()) {
+            return 0;
+        }
+        try {
+            spaceUsageMapper.insertOrUpdateBatch(entities);
+        }
+        catch (RuntimeException e) {
+            // keep them for the next checkpoint
+            stringRedisTemplate.opsForSet().add(RedisConstants.SPACE_USAGE_DIRTY_KEY, spaceIds.toArray(new String[0]));
+            throw e;
+        }
+        return entities.size();
+    }
+
+    @Override
+    public void reconcile(String spaceId) {
+        Map<String, String> values = new HashMap<>(SpaceUsageType.values().length + 1);
+        SpaceUsageEntity entity = SpaceUsageEntity.builder()
+                .id(IdWorker.getId())
+                .spaceId(spaceId)
+                .reconciledAt(LocalDateTime.now())
+                .build();
+        for (SpaceUsageType type : SpaceUsageType.values()) {
+            long usage = this.count(spaceId, type);
+            values.put(type.getField(), String.valueOf(usage));
+            switch (type) {
+                case CAPACITY:
+                    entity.setCapacity(usage);
+                    break;
+                case RECORD:
+                    entity.setRecordCount(usage);
+                    break;
+                case MEMBER:
+                    entity.setMemberCount(usage);
+                    break;
+                default:
+                    break;
+            }
+        }
+        values.put(MARKER, "1");
+        String key = RedisConstants.getSpaceUsageKey(spaceId);
+        stringRedisTemplate.opsForHash().putAll(key, values);
+        stringRedisTemplate.expire(key, TIMEOUT, TimeUnit.DAYS);
+        spaceUsageMapper.insertOrUpdateReconciled(entity);
+    }
+
+    @Override
+    public int reconcileStale(LocalDateTime reconciledBefore, int limit) {
+        List<String> spaceIds = spaceUsageMapper.selectSpaceIdByReconciledAtBefore(reconciledBefore, limit);
+        int reconciled = 0;
+        for (String spaceId : spaceIds) {
+            try {
+                this.reconcile(spaceId);
+                reconciled++;
+            }
+            catch (RuntimeException e) {
+                log.error("Fail to reconcile the usage counters of space「{}」", spaceId, e);
+            }
+        }
+        return reconciled;
+    }
+
+    private long count(String spaceId, SpaceUsageType type) {
+        switch (type) {
+            case CAPACITY:
+                return SqlTool.retCount(spaceAssetMapper.sumFileSizeBySpaceId(spaceId));
+            case RECORD:
+                return SqlTool.retCount(staticsMapper.countRecordsBySpaceId(spaceId));
+            case MEMBER:
+                return SqlTool.retCount(staticsMapper.countMemberBySpaceId(spaceId));
+            default:
+                throw new IllegalArgumentException("unknown space usage type: " + type);
+        }
+    }
+
+    private void load(String key, SpaceUsageEntity checkpoint) {
+        List<String> args = new ArrayList<>();
+        args.add(MARKER);
+        args.add(TIMEOUT_SECONDS);
+        addArg(args, SpaceUsageType.CAPACITY, checkpoint.getCapacity());
+        addArg(args, SpaceUsageType.RECORD, checkpoint.getRecordCount());
+        addArg(args, SpaceUsageType.MEMBER, checkpoint.getMemberCount());
+        stringRedisTemplate.execute(LOAD_SCRIPT, Collections.singletonList(key), args.toArray());
+    }
+
+    private void afterCommit(Runnable runnable) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // apply after commit, a rolled back change must not move the counter
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    runnable.run();
+                }
+            });
+            return;
+        }
+        runnable.run();
+    }
+
+    private static void addArg(List<String> args, SpaceUsageType type, Long value) {
+        if (value != null) {
+            args.add(type.getField());
+            args.add(value.toString());
+        }
+    }
+
+    private static Long toLong(Object value) {
+        return value != null ? Long.valueOf(value.toString()) : null;
+    }
+}
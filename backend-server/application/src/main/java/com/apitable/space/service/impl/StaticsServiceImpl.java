@@ -181,8 +181,7 @@ public class StaticsServiceImpl implements IStaticsService {
 
     @Override
     public long getTotalFileSizeBySpaceId(String spaceId) {
-        List<Integer> fileSizes = staticsMapper.selectFileSizeBySpaceId(spaceId);
-        return fileSizes.stream().filter(Objects::nonNull).mapToLong(Integer::intValue).sum();
+        return SqlTool.retCount(staticsMapper.sumFileSizeBySpaceId(spaceId));
     }
 
     @Override
@@ -160,6 +160,15 @@ public interface UserMapper extends BaseMapper<UserEntity> {
     @InterceptorIgnore(illegalSql = "true")
     Cursor<Long> selectAllUserIdByIgnoreDelete(@Param("ignoreDelete") boolean ignoreDelete);
 
+    /**
+     * Query the next page of user IDs in ID order, paging by the last ID instead of offset
+     *
+     * @param lastId last user id of previous page, 0 for the first page
+     * @param count  page size
+     * @return user ids
+     */
+    List<Long> selectUserIdsAfterId(@Param("lastId") Long lastId, @Param("count") Integer count);
+
     /**
      * Modify user's mobile number
      *
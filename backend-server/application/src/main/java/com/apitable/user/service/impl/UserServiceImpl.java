@@ -71,6 +71,9 @@ import com.apitable.shared.cache.service.UserSpaceCacheService;
 import com.apitable.shared.cache.service.UserSpaceOpenedSheetCacheService;
 import com.apitable.shared.component.LanguageManager;
 import com.apitable.shared.component.TaskManager;
+import com.apitable.shared.component.aggregate.Aggregation;
+import com.apitable.shared.component.aggregate.Aggregation.Branch;
+import com.apitable.shared.component.aggregate.TaskAggregator;
 import com.apitable.shared.component.notification.INotificationFactory;
 import com.apitable.shared.component.notification.NotificationManager;
 import com.apitable.shared.component.notification.NotificationTemplateId;
@@ -209,6 +212,9 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, UserEntity> impleme
     @Resource
     private IDeveloperService iDeveloperService;
 
+    @Resource
+    private TaskAggregator taskAggregator;
+
     @Override
     public Long getUserIdByMobile(String mobile) {
         return baseMapper.selectIdByMobile(mobile);
@@ -590,9 +596,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, UserEntity> impleme
             // Delete the space cache with modified member names
             TaskManager.me().execute(() -> {
                 List<String> spaceIds = iMemberService.getSpaceIdWithoutNameModifiedByUserId(userId);
-                for (String spcId : spaceIds) {
-                    userSpaceCacheService.delete(userId, spcId);
-                }
+                userSpaceCacheService.delete(userId, spaceIds);
             });
             user.setNickName(param.getNickName())
                     .setIsSocialNameModified(SocialNameModified.YES.getValue());
@@ -631,82 +635,106 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, UserEntity> impleme
     @Override
     public UserInfoVo getCurrentUserInfo(Long userId, String spaceId, Boolean filter) {
         log.info("Get user information and space content");
-        // Query the user's basic information
+        // the lookups of user and space are independent, look up them concurrently
+        Aggregation aggregation = taskAggregator.begin("current_user_info");
         // Whether the invitation code has been used for rewards
-        boolean usedInviteReward = userServiceFacade.getInvitationReward(userId);
+        Branch<Boolean> usedInviteReward = aggregation.fork("invite_reward", () -> userServiceFacade.getInvitationReward(userId), false);
+        Branch<UserLinkInfo> userLinkInfo = aggregation.fork("user_link", () -> userLinkServiceFacade.getUserLinkInfo(userId), null);
+        Branch<String> apiKey = userLinkInfo.then("api_key",
+                linkInfo -> linkInfo == null ? iDeveloperService.getApiKeyByUserId(userId) : null, null);
+        // Query the user's basic information
+        LoginUserDto loginUserDto = LoginContext.me().getLoginUser();
+        Branch<UserHistoryEntity> userHistory = BooleanUtil.isTrue(loginUserDto.getIsPaused())
+                ? aggregation.fork("user_history", () -> iUserHistoryService.getLatestUserHistoryEntity(userId, UserOperationType.APPLY_FOR_CLOSING))
+                : null;
+        String activeSpaceId = this.getInfoSpaceId(userId, spaceId, filter);
+        Branch<UserSpaceDto> userSpace = null;
+        Branch<Boolean> hasModifyName = null;
+        Branch<OpenedSheet> openedSheet = null;
+        if (activeSpaceId != null) {
+            // Cache session
+            userSpace = aggregation.fork("user_space", () -> userSpaceCacheService.getUserSpace(userId, activeSpaceId));
+            hasModifyName = aggregation.fork("member_name_modified", () -> iMemberService.checkUserHasModifyNameInSpace(userId), true);
+            // Get the last opened data table information
+            openedSheet = aggregation.fork("opened_sheet", () -> userSpaceOpenedSheetCacheService.getOpenedSheet(userId, activeSpaceId), null);
+        }
+
         UserInfoVo userInfo = UserInfoVo.builder().sendSubscriptionNotify(true)
-                .usedInviteReward(usedInviteReward)
+                .usedInviteReward(usedInviteReward.get())
                 .build();
-        LoginUserDto loginUserDto = LoginContext.me().getLoginUser();
         userInfo.transferDataFromLoginUserDto(loginUserDto);
-        UserLinkInfo userLinkInfo = userLinkServiceFacade.getUserLinkInfo(userId);
-        if (userLinkInfo != null) {
+        UserLinkInfo linkInfo = userLinkInfo.get();
+        if (linkInfo != null) {
             // Copy third-party account associated information
-            List<UserLinkVo> userLinkVos = new ArrayList<>(userLinkInfo.getAccountLinkList().size());
-            for (int i = 0; i < userLinkInfo.getAccountLinkList().size(); i++) {
+            List<UserLinkVo> userLinkVos = new ArrayList<>(linkInfo.getAccountLinkList().size());
+            for (int i = 0; i < linkInfo.getAccountLinkList().size(); i++) {
                 UserLinkVo linkVo = new UserLinkVo();
-                BeanUtil.copyProperties(userLinkInfo.getAccountLinkList().get(i), linkVo);
+                BeanUtil.copyProperties(linkInfo.getAccountLinkList().get(i), linkVo);
                 userLinkVos.add(linkVo);
             }
-            userInfo.transferDataFromDto(userLinkInfo, userLinkVos);
+            userInfo.transferDataFromDto(linkInfo, userLinkVos);
         }
         else {
-            userInfo.setApiKey(iDeveloperService.getApiKeyByUserId(userId));
+            userInfo.setApiKey(apiKey.get());
+        }
+        if (userHistory != null) { // Cancel the account during the calm period, and calculate the official cancellation time
+            UserHistoryEntity history = userHistory.get();
+            ExceptionUtil.isNotNull(history, UserClosingException.USER_HISTORY_RECORD_ISSUE);
+            userInfo.setCloseAt(history.getCreatedAt().plusDays(30).withHour(0).withMinute(0).withSecond(0));
         }
-        if (userInfo.getIsPaused()) { // Cancel the account during the calm period, and calculate the official cancellation time
-            UserHistoryEntity userHistory = iUserHistoryService
-                    .getLatestUserHistoryEntity(userId, UserOperationType.APPLY_FOR_CLOSING);
-            ExceptionUtil.isNotNull(userHistory, UserClosingException.USER_HISTORY_RECORD_ISSUE);
-            userInfo.setCloseAt(userHistory.getCreatedAt().plusDays(30).withHour(0).withMinute(0).withSecond(0));
+        if (activeSpaceId == null) {
+            return userInfo;
         }
+        userInfo.setNeedCreate(false);
+        UserSpaceDto userSpaceDto = userSpace.get();
+        userInfo.setSpaceId(userSpaceDto.getSpaceId());
+        userInfo.setSpaceName(userSpaceDto.getSpaceName());
+        userInfo.setSpaceLogo(userSpaceDto.getSpaceLogo());
+        userInfo.setMemberId(userSpaceDto.getMemberId());
+        userInfo.setMemberName(userSpaceDto.getMemberName());
+        userInfo.setUnitId(userSpaceDto.getUnitId());
+        userInfo.setIsAdmin(userSpaceDto.isAdmin() || userSpaceDto.isMainAdmin());
+        userInfo.setIsMainAdmin(userSpaceDto.isMainAdmin());
+        userInfo.setIsDelSpace(userSpaceDto.isDel());
+        userInfo.setIsNewComer(!hasModifyName.get());
+        userInfo.setIsMemberNameModified(userSpaceDto.getIsMemberNameModified());
+
+        OpenedSheet sheet = openedSheet.get();
+        if (ObjectUtil.isNotNull(sheet) && ObjectUtil.isNotNull(sheet.getNodeId())) {
+            userInfo.setActiveNodeId(sheet.getNodeId());
+            userInfo.setActiveViewId(sheet.getViewId());
+            userInfo.setActiveNodePos(sheet.getPosition());
+        }
+
+        return userInfo;
+    }
 
+    /**
+     * get the space of the user information
+     *
+     * @param userId  user id
+     * @param spaceId space id of request
+     * @param filter  whether only the space the user joined
+     * @return space id, null if the space information is not returned
+     */
+    private String getInfoSpaceId(Long userId, String spaceId, Boolean filter) {
         boolean noSpace = StrUtil.isBlank(spaceId);
         // Selectively filter spatial related information
         if (BooleanUtil.isTrue(filter)) {
             if (noSpace) {
-                return userInfo;
+                return null;
             }
             Long memberId = iMemberService.getMemberIdByUserIdAndSpaceId(userId, spaceId);
-            if (ObjectUtil.isNull(memberId)) {
-                return userInfo;
-            }
+            return ObjectUtil.isNull(memberId) ? null : spaceId;
         }
-        else if (noSpace) {
+        if (noSpace) {
             // When the space ID is not transferred, obtain the space ID of the user's recent work
             String activeSpaceId = userActiveSpaceCacheService.getLastActiveSpace(userId);
-            if (StrUtil.isBlank(activeSpaceId)) {
-                return userInfo;
-            }
-            spaceId = activeSpaceId;
+            return StrUtil.isBlank(activeSpaceId) ? null : activeSpaceId;
         }
-        else {
-            // Prevent access to not join spaces
-            userSpaceCacheService.getMemberId(userId, spaceId);
-        }
-        userInfo.setNeedCreate(false);
-        // Cache session
-        UserSpaceDto userSpace = userSpaceCacheService.getUserSpace(userId, spaceId);
-        userInfo.setSpaceId(userSpace.getSpaceId());
-        userInfo.setSpaceName(userSpace.getSpaceName());
-        userInfo.setSpaceLogo(userSpace.getSpaceLogo());
-        userInfo.setMemberId(userSpace.getMemberId());
-        userInfo.setMemberName(userSpace.getMemberName());
-        userInfo.setUnitId(userSpace.getUnitId());
-        userInfo.setIsAdmin(userSpace.isAdmin() || userSpace.isMainAdmin());
-        userInfo.setIsMainAdmin(userSpace.isMainAdmin());
-        userInfo.setIsDelSpace(userSpace.isDel());
-        userInfo.setIsNewComer(!iMemberService.checkUserHasModifyNameInSpace(userId));
-        userInfo.setIsMemberNameModified(userSpace.getIsMemberNameModified());
-
-        // Get the last opened data table information
-        OpenedSheet openedSheet = userSpaceOpenedSheetCacheService.getOpenedSheet(userId, spaceId);
-        if (ObjectUtil.isNotNull(openedSheet) && ObjectUtil.isNotNull(openedSheet.getNodeId())) {
-            userInfo.setActiveNodeId(openedSheet.getNodeId());
-            userInfo.setActiveViewId(openedSheet.getViewId());
-            userInfo.setActiveNodePos(openedSheet.getPosition());
-        }
-
-        return userInfo;
+        // Prevent access to not join spaces
+        userSpaceCacheService.getMemberId(userId, spaceId);
+        return spaceId;
     }
 
     @Override
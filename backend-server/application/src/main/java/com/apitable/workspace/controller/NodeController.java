@@ -18,12 +18,14 @@
 
 package com.apitable.workspace.controller;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.annotation.Resource;
@@ -40,7 +42,7 @@ import io.swagger.annotations.ApiImplicitParam;
 import io.swagger.annotations.ApiImplicitParams;
 import io.swagger.annotations.ApiOperation;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.ReaderInputStream;
 
 import com.apitable.base.enums.ActionException;
 import com.apitable.base.enums.ParameterException;
@@ -52,7 +54,6 @@ import com.apitable.shared.component.scanner.annotation.GetResource;
 import com.apitable.shared.component.notification.annotation.Notification;
 import com.apitable.shared.component.scanner.annotation.PostResource;
 import com.apitable.shared.cache.bean.OpenedSheet;
-import com.apitable.shared.cache.service.SpaceCapacityCacheService;
 import com.apitable.shared.cache.service.UserActiveSpaceCacheService;
 import com.apitable.shared.cache.service.UserSpaceOpenedSheetCacheService;
 import com.apitable.shared.component.notification.NotificationTemplateId;
@@ -108,6 +109,8 @@ import com.apitable.workspace.service.INodeRelService;
 import com.apitable.workspace.service.INodeService;
 import com.apitable.workspace.service.NodeBundleService;
 import com.apitable.shared.util.information.InformationUtil;
+import com.apitable.space.enums.SpaceUsageType;
+import com.apitable.space.service.ISpaceUsageService;
 import com.apitable.workspace.enums.NodeException;
 import com.apitable.workspace.enums.NodeType;
 import com.apitable.core.util.SpringContextHolder;
@@ -179,7 +182,7 @@ public class NodeController {
     private LimitProperties limitProperties;
 
     @Resource
-    private SpaceCapacityCacheService spaceCapacityCacheService;
+    private ISpaceUsageService iSpaceUsageService;
 
     @Resource
     private UserActiveSpaceCacheService userActiveSpaceCacheService;
@@ -503,8 +506,8 @@ public class NodeController {
         controlTemplate.checkNodePermission(memberId, nodeId, NodePermission.REMOVE_NODE,
                 status -> ExceptionUtil.isTrue(status, PermissionException.NODE_OPERATION_DENIED));
         iNodeService.deleteById(spaceId, memberId, nodeId);
-        // delete space capacity cache
-        spaceCapacityCacheService.del(spaceId);
+        // records and attachments of the nodes are counted again
+        iSpaceUsageService.invalidate(spaceId, SpaceUsageType.CAPACITY, SpaceUsageType.RECORD);
         return ResponseData.success();
     }
 
@@ -615,9 +618,9 @@ public class NodeController {
         if (FileSuffixConstants.CSV.equals(fileSuffix)) {
             // identification file code
             String encoding = FileTool.identifyCoding(data.getFile().getInputStream());
-            // Regenerate the byte stream according to the identification file encoding
-            InputStream targetInputStream =
-                    new ByteArrayInputStream(IOUtils.toString(data.getFile().getInputStream(), encoding).getBytes());
+            // Transcode the byte stream according to the identification file encoding while reading
+            InputStream targetInputStream = new ReaderInputStream(
+                    new InputStreamReader(data.getFile().getInputStream(), encoding), Charset.defaultCharset());
             createNodeId = iNodeService.parseCsv(userId, uuid, spaceId, memberId, data.getParentId(), mainName, targetInputStream);
         }
         else {
@@ -680,8 +683,9 @@ public class NodeController {
         List<Long> allMemberIds = unitService.getMembersIdByUnitIds(request.getUnitIds());
         String nodeId = request.getNodeId();
         // list of member ids without permissions
+        Set<Long> permissionMemberIds = controlTemplate.filterMembersWithNodePermission(allMemberIds, nodeId, NodePermission.READ_NODE);
         List<Long> noPermissionMemberIds = allMemberIds.stream()
-                .filter(memberId -> !controlTemplate.hasNodePermission(memberId, nodeId, NodePermission.READ_NODE))
+                .filter(memberId -> !permissionMemberIds.contains(memberId))
                 .collect(Collectors.toList());
 
         return ResponseData.success(memberService.getMemberBriefInfo(noPermissionMemberIds));
@@ -35,7 +35,6 @@ import com.apitable.shared.component.scanner.annotation.ApiResource;
 import com.apitable.shared.component.scanner.annotation.GetResource;
 import com.apitable.shared.component.notification.annotation.Notification;
 import com.apitable.shared.component.scanner.annotation.PostResource;
-import com.apitable.shared.cache.service.SpaceCapacityCacheService;
 import com.apitable.shared.component.notification.NotificationTemplateId;
 import com.apitable.shared.constants.ParamsConstants;
 import com.apitable.shared.context.LoginContext;
@@ -47,6 +46,8 @@ import com.apitable.control.infrastructure.role.RoleConstants.Node;
 import com.apitable.space.enums.AuditSpaceAction;
 import com.apitable.shared.listener.event.AuditSpaceEvent;
 import com.apitable.shared.listener.event.AuditSpaceEvent.AuditSpaceArg;
+import com.apitable.space.enums.SpaceUsageType;
+import com.apitable.space.service.ISpaceUsageService;
 import com.apitable.workspace.ro.NodeRecoverRo;
 import com.apitable.workspace.vo.NodeInfoVo;
 import com.apitable.workspace.vo.RubbishNodeVo;
@@ -78,7 +79,7 @@ public class NodeRubbishController {
     private ControlTemplate controlTemplate;
 
     @Resource
-    private SpaceCapacityCacheService spaceCapacityCacheService;
+    private ISpaceUsageService iSpaceUsageService;
 
     @GetResource(path = "/list")
     @ApiOperation(value = "Get node in rubbish", notes = "If the last node id is passed in, the service status code 422 is returned.It means that the node is no longer in the recovery compartment, the positioning fails, and the last node can be requested again.")
@@ -119,8 +120,8 @@ public class NodeRubbishController {
         }
         Long userId = SessionContext.getUserId();
         iNodeRubbishService.recoverRubbishNode(userId, ro.getNodeId(), parentId);
-        // delete space capacity cache
-        spaceCapacityCacheService.del(spaceId);
+        // records and attachments of the nodes are counted again
+        iSpaceUsageService.invalidate(spaceId, SpaceUsageType.CAPACITY, SpaceUsageType.RECORD);
         // publish space audit events
         AuditSpaceArg arg = AuditSpaceArg.builder().action(AuditSpaceAction.RECOVER_RUBBISH_NODE).userId(userId).nodeId(ro.getNodeId()).build();
         SpringContextHolder.getApplicationContext().publishEvent(new AuditSpaceEvent(this, arg));
@@ -141,8 +142,8 @@ public class NodeRubbishController {
         // Delete node in rubbish
         Long userId = SessionContext.getUserId();
         iNodeRubbishService.delRubbishNode(userId, nodeId);
-        // delete space capacity cache
-        spaceCapacityCacheService.del(spaceId);
+        // attachments of the nodes are counted again
+        iSpaceUsageService.invalidate(spaceId, SpaceUsageType.CAPACITY);
         // publish space audit events
         AuditSpaceArg arg = AuditSpaceArg.builder().action(AuditSpaceAction.DELETE_RUBBISH_NODE).userId(userId).nodeId(nodeId).build();
         SpringContextHolder.getApplicationContext().publishEvent(new AuditSpaceEvent(this, arg));
@@ -23,6 +23,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,7 +35,6 @@ import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
 import com.alibaba.excel.context.AnalysisContext;
 import com.alibaba.excel.event.AnalysisEventListener;
-import com.alibaba.excel.util.ListUtils;
 import com.baomidou.mybatisplus.core.toolkit.IdWorker;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
@@ -59,23 +59,18 @@ import com.apitable.workspace.entity.NodeEntity;
 @Slf4j
 public class CsvReadListener extends AnalysisEventListener<Map<Integer, String>> {
 
-    /**
-     * Store the database every 100, and then clean it up to facilitate memory recovery.
-     */
-    private static final int BATCH_COUNT = 100;
-
-    private List<DatasheetRecordEntity> recordEntities = ListUtils.newArrayListWithExpectedSize(BATCH_COUNT);
-
     private Map<Integer, String> sheetHeadMap;
 
     private Meta meta;
 
-    private JSONObject fieldUpdatedInfo = new JSONObject();
+    private final String fieldUpdatedInfo;
 
     private String retNodeId;
 
     private final INodeService iNodeService;
 
+    private final RecordBatchWriter recordWriter;
+
     private final Long userId;
 
     private final String spaceId;
@@ -86,8 +81,9 @@ public class CsvReadListener extends AnalysisEventListener<Map<Integer, String>>
 
     private final String fileName;
 
-    public CsvReadListener(INodeService iNodeService, Long userId, String uuid, String spaceId, Long memberId, String parentNodeId, String fileName) {
+    public CsvReadListener(INodeService iNodeService, RecordBatchWriter recordWriter, Long userId, String uuid, String spaceId, Long memberId, String parentNodeId, String fileName) {
         this.iNodeService = iNodeService;
+        this.recordWriter = recordWriter;
         this.userId = userId;
         this.spaceId = spaceId;
         this.memberId = memberId;
@@ -96,8 +92,11 @@ public class CsvReadListener extends AnalysisEventListener<Map<Integer, String>>
 
         this.retNodeId = IdUtil.createDstId();
 
-        fieldUpdatedInfo.set("createdAt", Instant.now(Clock.system(ZoneId.of("+8"))).toEpochMilli());
-        fieldUpdatedInfo.set("createdBy", uuid);
+        JSONObject fieldUpdated = new JSONObject();
+        fieldUpdated.set("createdAt", Instant.now(Clock.system(ZoneId.of("+8"))).toEpochMilli());
+        fieldUpdated.set("createdBy", uuid);
+        // the same for every record, serialize once
+        fieldUpdatedInfo = fieldUpdated.toString();
     }
 
     @Override
@@ -208,25 +207,15 @@ public class CsvReadListener extends AnalysisEventListener<Map<Integer, String>>
             }
         }
 
-        recordEntities.add(DatasheetRecordEntity.builder()
+        recordWriter.add(DatasheetRecordEntity.builder()
                 .id(IdWorker.getId())
                 .dstId(retNodeId)
                 .recordId(recordId)
                 .data(recordData.toString())
-                .fieldUpdatedInfo(fieldUpdatedInfo.toString())
+                .fieldUpdatedInfo(fieldUpdatedInfo)
                 .createdBy(userId)
                 .updatedBy(userId)
                 .build());
-
-        if (recordEntities.size() >= BATCH_COUNT) {
-            saveRecords();
-            recordEntities = ListUtils.newArrayListWithExpectedSize(BATCH_COUNT);
-        }
-    }
-
-    public void saveRecords() {
-        log.info("save line records in batches");
-        iNodeService.batchSaveDstRecords(recordEntities);
     }
 
     @Override
@@ -272,11 +261,14 @@ public class CsvReadListener extends AnalysisEventListener<Map<Integer, String>>
                 .updatedBy(userId)
                 .build());
 
+        // wait for the records being saved before the datasheet becomes visible
+        recordWriter.finish();
+
         log.info("start bulk insertion");
         long begin = System.currentTimeMillis();
         iNodeService.batchCreateDataSheet(
                 new NodeData(null, retNodeId, null, null, parentNodeId),
-                nodeEntities, datasheetEntities, metaEntities, recordEntities
+                nodeEntities, datasheetEntities, metaEntities, Collections.emptyList()
         );
         long end = System.currentTimeMillis();
         log.info("insert complete: {}", Duration.ofMillis(end - begin).getSeconds());
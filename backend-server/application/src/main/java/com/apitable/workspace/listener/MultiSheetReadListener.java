@@ -22,6 +22,7 @@ import java.time.Clock;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,7 +35,6 @@ import cn.hutool.json.JSONUtil;
 import com.alibaba.excel.context.AnalysisContext;
 import com.alibaba.excel.event.AnalysisEventListener;
 import com.alibaba.excel.read.metadata.ReadSheet;
-import com.alibaba.excel.util.ListUtils;
 import com.baomidou.mybatisplus.core.toolkit.IdWorker;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
@@ -64,13 +64,6 @@ import org.springframework.util.StopWatch;
 @Slf4j
 public class MultiSheetReadListener extends AnalysisEventListener<Map<Integer, String>> {
 
-    /**
-     * Store the database every 100, and then clean it up to facilitate memory recovery.
-     */
-    private static final int BATCH_COUNT = 100;
-
-    private List<DatasheetRecordEntity> recordEntities = ListUtils.newArrayListWithExpectedSize(BATCH_COUNT);
-
     /**
      * sheet[index] -> index head
      */
@@ -80,9 +73,11 @@ public class MultiSheetReadListener extends AnalysisEventListener<Map<Integer, S
 
     private Map<String, Meta> metaMap = new LinkedHashMap<>();
 
-    private JSONObject fieldUpdatedInfo = new JSONObject();
+    private final String fieldUpdatedInfo;
 
-    private INodeService iNodeService;
+    private final INodeService iNodeService;
+
+    private final RecordBatchWriter recordWriter;
 
     private final Long userId;
 
@@ -98,16 +93,25 @@ public class MultiSheetReadListener extends AnalysisEventListener<Map<Integer, S
 
     private NodeData retNodeData = null;
 
-    public MultiSheetReadListener(INodeService iNodeService, Long userId, String uuid, String spaceId, Long memberId, String parentNodeId, String fileName) {
+    /**
+     * the sheet whose row count has been checked
+     */
+    private String rowCheckedSheetName;
+
+    public MultiSheetReadListener(INodeService iNodeService, RecordBatchWriter recordWriter, Long userId, String uuid, String spaceId, Long memberId, String parentNodeId, String fileName) {
         this.iNodeService = iNodeService;
+        this.recordWriter = recordWriter;
         this.userId = userId;
         this.spaceId = spaceId;
         this.memberId = memberId;
         this.parentNodeId = parentNodeId;
         this.fileName = fileName;
 
-        fieldUpdatedInfo.set("createdAt", Instant.now(Clock.system(ZoneId.of("+8"))).toEpochMilli());
-        fieldUpdatedInfo.set("createdBy", uuid);
+        JSONObject fieldUpdated = new JSONObject();
+        fieldUpdated.set("createdAt", Instant.now(Clock.system(ZoneId.of("+8"))).toEpochMilli());
+        fieldUpdated.set("createdBy", uuid);
+        // the same for every record, serialize once
+        fieldUpdatedInfo = fieldUpdated.toString();
     }
 
     @Override
@@ -186,11 +190,14 @@ public class MultiSheetReadListener extends AnalysisEventListener<Map<Integer, S
         Map<Integer, String> headerMap = sheetHeadMap.get(sheetName);
         Meta meta = metaMap.get(sheetName);
 
-        // More than 50,000 rows are not allowed to write to the number table.
-        Integer totalRowsIncludingHeader = context.readSheetHolder().getApproximateTotalRowNumber();
-        log.info("Actual total number of rows (including header): {}", totalRowsIncludingHeader);
-        if (totalRowsIncludingHeader != null) {
-            ExceptionUtil.isTrue(totalRowsIncludingHeader - 1 <= limitProperties.getMaxRowCount(), ActionException.ROW_EXCEED_LIMIT);
+        // More than 50,000 rows are not allowed to write to the number table, checked once per sheet.
+        if (!sheetName.equals(rowCheckedSheetName)) {
+            Integer totalRowsIncludingHeader = context.readSheetHolder().getApproximateTotalRowNumber();
+            log.info("Actual total number of rows (including header): {}", totalRowsIncludingHeader);
+            if (totalRowsIncludingHeader != null) {
+                ExceptionUtil.isTrue(totalRowsIncludingHeader - 1 <= limitProperties.getMaxRowCount(), ActionException.ROW_EXCEED_LIMIT);
+            }
+            rowCheckedSheetName = sheetName;
         }
 
         if (headerMap.isEmpty()) {
@@ -260,20 +267,15 @@ public class MultiSheetReadListener extends AnalysisEventListener<Map<Integer, S
             }
         }
 
-        recordEntities.add(DatasheetRecordEntity.builder()
+        recordWriter.add(DatasheetRecordEntity.builder()
                 .id(IdWorker.getId())
                 .dstId(nodeMap.get(sheetName).getNodeId())
                 .recordId(recordId)
                 .data(recordData.toString())
-                .fieldUpdatedInfo(fieldUpdatedInfo.toString())
+                .fieldUpdatedInfo(fieldUpdatedInfo)
                 .createdBy(userId)
                 .updatedBy(userId)
                 .build());
-
-        if (recordEntities.size() >= BATCH_COUNT) {
-            saveRecords();
-            recordEntities = ListUtils.newArrayListWithExpectedSize(BATCH_COUNT);
-        }
     }
 
     @Override
@@ -362,23 +364,20 @@ public class MultiSheetReadListener extends AnalysisEventListener<Map<Integer, S
             metaEntities.add(metaEntity);
         });
 
+        // wait for the records being saved before the datasheets become visible
+        recordWriter.finish();
+
         log.info("start bulk insertion");
         StopWatch stopWatch = new StopWatch("Batch Insert Data");
         stopWatch.start();
         iNodeService.batchCreateDataSheet(
                 new NodeData(null, retNodeData.getNodeId(), null, null, retNodeData.getParentId()),
-                nodeEntities, datasheetEntities, metaEntities, recordEntities
+                nodeEntities, datasheetEntities, metaEntities, Collections.emptyList()
         );
         stopWatch.stop();
         log.info("Insert complete: {}", stopWatch.prettyPrint());
     }
 
-    public void saveRecords() {
-        log.info("save line records in batches");
-        iNodeService.batchSaveDstRecords(recordEntities);
-        log.info("storage successfully");
-    }
-
     public NodeData getRetNodeData() {
         return retNodeData;
     }
@@ -0,0 +1,134 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.workspace.listener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.apitable.workspace.entity.DatasheetRecordEntity;
+import com.apitable.workspace.support.BoundedRecordWriter;
+
+/**
+ * <p>
+ * Pipelined record writer of the import listeners.
+ * The parsing thread fills a batch of records, and the full batches are saved by the {@link BoundedRecordWriter},
+ * at most {@code maxPendingBatches} at a time, so that parsing and inserting overlap
+ * while the records held in memory stay bounded whatever the file size.
+ * </p>
+ * <p>
+ * Batches commit on their own, the records are only visible after the datasheet node is created,
+ * and the caller should remove the records of {@link #getDstIds()} when the import fails.
+ * </p>
+ */
+@Slf4j
+public class RecordBatchWriter {
+
+    private final BoundedRecordWriter writer;
+
+    private final Consumer<List<DatasheetRecordEntity>> batchSaver;
+
+    private final int batchSize;
+
+    private final AtomicLong savedCount = new AtomicLong();
+
+    private final long startTime = System.currentTimeMillis();
+
+    private List<DatasheetRecordEntity> buffer;
+
+    private volatile long addedCount;
+
+    public RecordBatchWriter(Executor executor, Consumer<List<DatasheetRecordEntity>> batchSaver, int batchSize, int maxPendingBatches) {
+        this.writer = new BoundedRecordWriter(executor, maxPendingBatches, "import");
+        this.batchSaver = batchSaver;
+        this.batchSize = Math.max(1, batchSize);
+        this.buffer = new ArrayList<>(this.batchSize);
+    }
+
+    /**
+     * add a record, the batch is handed over to the executor once it is full
+     *
+     * @param record record entity
+     */
+    public void add(DatasheetRecordEntity record) {
+        buffer.add(record);
+        addedCount++;
+        if (buffer.size() >= batchSize) {
+            submit();
+        }
+    }
+
+    /**
+     * save the remaining records and wait until all batches are saved
+     *
+     * @throws RuntimeException the first exception of saving batches
+     */
+    public void finish() {
+        submit();
+        writer.finish();
+        log.info("Import records complete, rows: {}, cost: {}ms", savedCount.get(), System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * stop submitting batches and wait for the batches being saved
+     */
+    public void abort() {
+        buffer = new ArrayList<>();
+        writer.abort();
+    }
+
+    /**
+     * datasheet ids of the records submitted to save
+     *
+     * @return dst ids
+     */
+    public Set<String> getDstIds() {
+        return writer.getDstIds();
+    }
+
+    public long getSavedCount() {
+        return savedCount.get();
+    }
+
+    private void submit() {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        List<DatasheetRecordEntity> batch = buffer;
+        buffer = new ArrayList<>(batchSize);
+        Set<String> dstIds = new LinkedHashSet<>();
+        for (DatasheetRecordEntity record : batch) {
+            dstIds.add(record.getDstId());
+        }
+        // back pressure, parsing waits while too many batches are being saved
+        writer.submit(dstIds, () -> save(batch));
+    }
+
+    private void save(List<DatasheetRecordEntity> batch) {
+        batchSaver.accept(batch);
+        long saved = savedCount.addAndGet(batch.size());
+        log.info("Import records progress, saved: {}, parsed: {}, cost: {}ms", saved, addedCount, System.currentTimeMillis() - startTime);
+    }
+}
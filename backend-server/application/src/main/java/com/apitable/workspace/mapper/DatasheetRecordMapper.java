@@ -20,6 +20,7 @@ package com.apitable.workspace.mapper;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
@@ -63,6 +64,14 @@ public interface DatasheetRecordMapper extends BaseMapper<DatasheetRecordEntity>
      */
     int insertBatch(@Param("entities") List<DatasheetRecordEntity> entities);
 
+    /**
+     * physically delete the records of datasheets
+     *
+     * @param dstIds datasheet ids
+     * @return affected rows
+     */
+    int deleteByDstIds(@Param("dstIds") Collection<String> dstIds);
+
     /**
      * it can query deleted record
      * Scenario: used to restore record data after deleting records.
@@ -118,4 +127,45 @@ public interface DatasheetRecordMapper extends BaseMapper<DatasheetRecordEntity>
      * @return DataSheetRecordGroupDto
      */
     List<DataSheetRecordGroupDTO> selectGroupDtoByDstIds(@Param("list") Collection<String> dstIds);
+
+    /**
+     * Query the next page of records to copy in record id order, paging by the last record id instead of offset
+     *
+     * @param dstId        datasheet id
+     * @param lastRecordId last record id of previous page, null for the first page
+     * @param count        page size
+     * @return records with primary key and record id only
+     */
+    List<DatasheetRecordEntity> selectIdsByDstIdAfterRecordId(@Param("dstId") String dstId,
+            @Param("lastRecordId") String lastRecordId, @Param("count") Integer count);
+
+    /**
+     * Query the next page of records in record id order, paging by the last record id instead of offset
+     *
+     * @param dstId        datasheet id
+     * @param delFieldIds  field ids removed from data
+     * @param lastRecordId last record id of previous page, null for the first page
+     * @param count        page size
+     * @return records, data is left as json text
+     */
+    List<DatasheetRecordEntity> selectByDstIdAfterRecordId(@Param("dstId") String dstId, @Param("delFieldIds") Collection<String> delFieldIds,
+            @Param("lastRecordId") String lastRecordId, @Param("count") Integer count);
+
+    /**
+     * Copy records into another datasheet by INSERT ... SELECT, the data never leaves the database.
+     * Only the affected keys are rewritten:
+     * the deleted fields are removed from data,
+     * and the auto number fields are picked from the original fieldUpdatedMap.
+     *
+     * @param userId             user id
+     * @param dstId              target datasheet id
+     * @param idMap              source record primary key -> new primary key
+     * @param delFieldIds        field ids removed from data
+     * @param autoNumberFieldIds auto number field ids kept in fieldUpdatedMap
+     * @param recordMeta         new record meta, null to retain the original one
+     * @return affected rows
+     */
+    int insertCopyByIds(@Param("userId") Long userId, @Param("dstId") String dstId,
+            @Param("idMap") Map<Long, Long> idMap, @Param("delFieldIds") Collection<String> delFieldIds,
+            @Param("autoNumberFieldIds") Collection<String> autoNumberFieldIds, @Param("recordMeta") String recordMeta);
 }
@@ -98,6 +98,15 @@ public interface NodeMapper extends BaseMapper<NodeEntity> {
      */
     List<String> selectLikeNodeName(@Param("spaceId") String spaceId, @Param("likeName") String likeName);
 
+    /**
+     * query the name of the nodes which can be searched,
+     * the same nodes as the fuzzy search
+     *
+     * @param spaceId space id
+     * @return node id and node name
+     */
+    List<BaseNodeInfo> selectSearchableNodeNameBySpaceId(@Param("spaceId") String spaceId);
+
     /**
      * Fuzzy search node
      * does not contain root node and template node
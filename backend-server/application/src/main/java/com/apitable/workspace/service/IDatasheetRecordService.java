@@ -35,6 +35,13 @@ public interface IDatasheetRecordService extends IService<DatasheetRecordEntity>
      */
     void batchSave(List<DatasheetRecordEntity> entities);
 
+    /**
+     * physically remove the records of datasheets which are not created
+     *
+     * @param dstIds datasheet ids
+     */
+    void removeByDstIds(Collection<String> dstIds);
+
     /**
      * @param userId user id
      * @param recordMap json format: record - field
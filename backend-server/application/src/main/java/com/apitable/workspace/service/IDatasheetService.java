@@ -31,6 +31,7 @@ import com.apitable.workspace.ro.RemindMemberRo;
 import com.apitable.workspace.ro.SnapshotMapRo;
 import com.apitable.workspace.dto.NodeCopyOptions;
 import com.apitable.workspace.entity.DatasheetEntity;
+import com.apitable.workspace.support.BoundedRecordWriter;
 
 public interface IDatasheetService extends IService<DatasheetEntity> {
 
@@ -90,6 +91,22 @@ public interface IDatasheetService extends IService<DatasheetEntity> {
     List<String> copy(Long userId, String spaceId, String sourceDstId, String destDstId, String destDstName,
             NodeCopyOptions options, Map<String, String> newNodeMap);
 
+    /**
+     * copy table, the records are copied by the pipeline when it is given
+     *
+     * @param userId       user id
+     * @param spaceId      space id
+     * @param sourceDstId  source datasheet id
+     * @param destDstId    new datasheet id
+     * @param destDstName  new datasheet name
+     * @param options      copy attribute
+     * @param newNodeMap   source node ID - new node ID MAP（all nodes transferred）
+     * @param recordCopier record writer of the folder copy, null to copy the records in place
+     * @return List<String>
+     */
+    List<String> copy(Long userId, String spaceId, String sourceDstId, String destDstId, String destDstName,
+            NodeCopyOptions options, Map<String, String> newNodeMap, BoundedRecordWriter recordCopier);
+
     /**
      *
      * @param widgetPanels      source widget panel
@@ -118,6 +135,15 @@ public interface IDatasheetService extends IService<DatasheetEntity> {
      */
     SnapshotMapRo delFieldIfLinkDstId(Long userId, String dstId, List<String> linkDstIds, boolean saveDb);
 
+    /**
+     * Deletes the fields of the specified association tables in meta, without saving
+     *
+     * @param metaMapRo  datasheet meta
+     * @param linkDstIds associated datasheet id
+     * @return deleted field ids
+     */
+    List<String> delLinkFieldInMeta(MetaMapRo metaMapRo, List<String> linkDstIds);
+
     /**
      * get multiple tables and corresponding snapshot
      *
@@ -18,6 +18,7 @@
 
 package com.apitable.workspace.service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -119,6 +120,17 @@ public interface IFieldRoleService {
      */
     FieldPermissionView getFieldPermissionView(Long memberId, String nodeId, String shareId);
 
+    /**
+     * get field permission view information of nodes in batch,
+     * nodes of the same datasheet share one field role evaluation
+     *
+     * @param memberId member id
+     * @param nodeIds node ids
+     * @param shareId       shareId
+     * @return node id -> FieldPermissionView, absent if the node has no datasheet
+     */
+    Map<String, FieldPermissionView> getFieldPermissionViews(Long memberId, List<String> nodeIds, String shareId);
+
     /**
      * get permissions for all fields in a table
      *
@@ -137,6 +149,14 @@ public interface IFieldRoleService {
      */
     List<String> getPermissionFieldIds(String datasheetId);
 
+    /**
+     * obtain the field ids of the column permission of datasheets at once
+     *
+     * @param datasheetIds datasheetIds
+     * @return datasheetId -> fieldIds, datasheets without column permission are absent
+     */
+    Map<String, List<String>> getPermissionFieldIdsMap(Collection<String> datasheetIds);
+
     /**
      * @param controlId     controlId
      * @param unitIds        unitIds
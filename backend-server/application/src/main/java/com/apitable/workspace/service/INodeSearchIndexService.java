@@ -0,0 +1,63 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.workspace.service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * <p>
+ * node name search index of space, changes are applied after the transaction commits
+ * </p>
+ */
+public interface INodeSearchIndexService {
+
+    /**
+     * fuzzy search node, the root node and template nodes cannot be searched
+     *
+     * @param spaceId space id
+     * @param keyword keyword
+     * @return node ids, ranked by exact match, prefix, suffix and contains
+     */
+    List<String> searchNodeIds(String spaceId, String keyword);
+
+    /**
+     * node is created or renamed
+     *
+     * @param spaceId  space id
+     * @param nodeId   node id
+     * @param nodeName node name
+     */
+    void put(String spaceId, String nodeId, String nodeName);
+
+    /**
+     * nodes are moved to rubbish
+     *
+     * @param spaceId space id
+     * @param nodeIds node ids
+     */
+    void remove(String spaceId, Collection<String> nodeIds);
+
+    /**
+     * discard the index of the space, it is rebuilt on the next search
+     *
+     * @param spaceId space id
+     */
+    void invalidate(String spaceId);
+}
@@ -97,6 +97,14 @@ public interface INodeService extends IService<NodeEntity> {
      */
     NodeType getTypeByNodeId(String nodeId);
 
+    /**
+     * batch get node type
+     *
+     * @param nodeIds node ids
+     * @return node id -> NodeType
+     */
+    Map<String, NodeType> getTypeByNodeIds(List<String> nodeIds);
+
     /**
      * @param nodeId node id
      * @return space ids
@@ -448,11 +456,6 @@ public interface INodeService extends IService<NodeEntity> {
      */
     void batchCreateDataSheet(NodeData data, List<NodeEntity> nodeEntities, List<DatasheetEntity> datasheetEntities, List<DatasheetMetaEntity> metaEntities, List<DatasheetRecordEntity> recordEntities);
 
-    /**
-     * @param recordEntities record
-     */
-    void batchSaveDstRecords(List<DatasheetRecordEntity> recordEntities);
-
     /**
      * @param nodeId node id
      * @param spaceId space id
@@ -23,6 +23,8 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -52,6 +54,7 @@ import com.apitable.user.mapper.UserMapper;
 import com.apitable.workspace.mapper.DatasheetRecordMapper;
 import com.apitable.workspace.dto.NodeCopyDTO;
 import com.apitable.workspace.service.IDatasheetRecordService;
+import com.apitable.shared.config.properties.LimitProperties;
 import com.apitable.shared.util.IdUtil;
 import com.apitable.workspace.entity.DatasheetRecordEntity;
 
@@ -65,6 +68,9 @@ public class DatasheetRecordServiceImpl extends ServiceImpl<DatasheetRecordMappe
     @Resource
     private UserMapper userMapper;
 
+    @Resource
+    private LimitProperties limitProperties;
+
     @Override
     public void batchSave(List<DatasheetRecordEntity> entities) {
         if (CollUtil.isEmpty(entities)) {
@@ -76,16 +82,26 @@ public class DatasheetRecordServiceImpl extends ServiceImpl<DatasheetRecordMappe
         }
     }
 
+    @Override
+    public void removeByDstIds(Collection<String> dstIds) {
+        if (CollUtil.isEmpty(dstIds)) {
+            return;
+        }
+        baseMapper.deleteByDstIds(dstIds);
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void saveBatch(Long userId, JSONObject recordMap, String dstId) {
         List<DatasheetRecordEntity> recordList = new ArrayList<>();
-        JSONObject recordMeta = this.getInitRecordMeta(userId);
+        String initRecordMeta = this.getInitRecordMeta(userId).toString();
         for (Map.Entry<String, Object> entry : recordMap.entrySet()) {
             RecordMapRo recordMapRo = BeanUtil.toBean(entry.getValue(), RecordMapRo.class);
+            String recordMeta = initRecordMeta;
             JSONObject fieldUpdatedMap = recordMapRo.getFieldUpdatedMap();
             if (fieldUpdatedMap != null && !fieldUpdatedMap.isEmpty()) {
-                recordMeta.set("fieldUpdatedMap", fieldUpdatedMap);
+                // the field updated map belongs to this record only
+                recordMeta = JSONUtil.parseObj(initRecordMeta).set("fieldUpdatedMap", fieldUpdatedMap).toString();
             }
             DatasheetRecordEntity recordEntity = DatasheetRecordEntity.builder()
                     .id(IdWorker.getId())
@@ -95,7 +111,7 @@ public class DatasheetRecordServiceImpl extends ServiceImpl<DatasheetRecordMappe
                     .dstId(dstId)
                     .createdBy(userId)
                     .updatedBy(userId)
-                    .fieldUpdatedInfo(recordMeta.toString())
+                    .fieldUpdatedInfo(recordMeta)
                     .build();
             recordList.add(recordEntity);
         }
@@ -108,47 +124,32 @@ public class DatasheetRecordServiceImpl extends ServiceImpl<DatasheetRecordMappe
     @Override
     public void copyRecords(Long userId, String oDstId, String nDstId, NodeCopyDTO nodeCopyDTO, boolean retain) {
         log.info("Copy records");
-        List<DatasheetRecordVo> voList = baseMapper.selectListByDstId(oDstId);
-        if (CollUtil.isEmpty(voList)) {
-            return;
-        }
+        long startTime = System.currentTimeMillis();
         Set<String> delFieldIds = CollUtil.unionDistinct(nodeCopyDTO.getDelFieldIds(),
                 nodeCopyDTO.getLinkFieldIds());
-        List<String> autoNumberFieldIds = nodeCopyDTO.getAutoNumberFieldIds();
-        JSONObject recordMeta = this.getInitRecordMeta(userId);
-        List<DatasheetRecordEntity> list = new ArrayList<>(voList.size());
-        voList.forEach(vo -> {
-            JSONObject data = vo.getData();
-            // delete specified field data
-            if (CollUtil.isNotEmpty(delFieldIds) && !data.isEmpty()) {
-                data.keySet().removeIf(delFieldIds::contains);
-            }
-            DatasheetRecordEntity entity = new DatasheetRecordEntity();
-            entity.setId(IdWorker.getId());
-            entity.setDstId(nDstId);
-            entity.setRecordId(vo.getId());
-            entity.setData(StrUtil.toString(data));
-            String fieldUpdatedInfo;
-            if (retain) {
-                fieldUpdatedInfo = vo.getRecordMeta();
+        // Keep the value of the self-increasing number without keeping all recordMeta.
+        List<String> autoNumberFieldIds = retain ? Collections.emptyList() : nodeCopyDTO.getAutoNumberFieldIds();
+        String recordMeta = retain ? null : this.getInitRecordMeta(userId).toString();
+        int batchSize = limitProperties.getCopyRecordBatchSize();
+        String lastRecordId = null;
+        int copied = 0;
+        while (true) {
+            // only the primary keys are read, the records are copied on the database side
+            List<DatasheetRecordEntity> page = baseMapper.selectIdsByDstIdAfterRecordId(oDstId, lastRecordId, batchSize);
+            if (page.isEmpty()) {
+                break;
             }
-            else if (autoNumberFieldIds.isEmpty()) {
-                fieldUpdatedInfo = recordMeta.toString();
+            Map<Long, Long> idMap = new LinkedHashMap<>(page.size() * 4 / 3 + 1);
+            for (DatasheetRecordEntity record : page) {
+                idMap.put(record.getId(), IdWorker.getId());
             }
-            else {
-                // Keep the value of the self-increasing number without keeping all recordMeta.
-                JSONObject fieldUpdatedMap = this.copyFieldUpdatedMap(vo.getRecordMeta(), autoNumberFieldIds);
-                fieldUpdatedInfo = recordMeta.set("fieldUpdatedMap", fieldUpdatedMap).toString();
+            copied += baseMapper.insertCopyByIds(userId, nDstId, idMap, delFieldIds, autoNumberFieldIds, recordMeta);
+            if (page.size() < batchSize) {
+                break;
             }
-            entity.setFieldUpdatedInfo(fieldUpdatedInfo);
-            entity.setCreatedBy(userId);
-            entity.setUpdatedBy(userId);
-            list.add(entity);
-        });
-        List<List<DatasheetRecordEntity>> split = CollUtil.split(list, 1000);
-        for (List<DatasheetRecordEntity> entities : split) {
-            baseMapper.insertBatch(entities);
+            lastRecordId = page.get(page.size() - 1).getRecordId();
         }
+        log.info("Copy records complete, datasheet: {} -> {}, rows: {}, cost: {}ms", oDstId, nDstId, copied, System.currentTimeMillis() - startTime);
     }
 
     @Override
@@ -241,19 +242,4 @@ public class DatasheetRecordServiceImpl extends ServiceImpl<DatasheetRecordMappe
         recordMeta.set("createdBy", uuid);
         return recordMeta;
     }
-
-    private JSONObject copyFieldUpdatedMap(String recordMeta, List<String> autoNumberFieldIds) {
-        JSONObject fieldUpdatedMap = JSONUtil.createObj();
-        JSONObject originFieldUpdatedMap = JSONUtil.parseObj(recordMeta).getJSONObject("fieldUpdatedMap");
-        if (originFieldUpdatedMap == null) {
-            return fieldUpdatedMap;
-        }
-        for (String fieldId : autoNumberFieldIds) {
-            if (originFieldUpdatedMap.get(fieldId) == null) {
-                continue;
-            }
-            fieldUpdatedMap.set(fieldId, originFieldUpdatedMap.get(fieldId));
-        }
-        return fieldUpdatedMap;
-    }
 }
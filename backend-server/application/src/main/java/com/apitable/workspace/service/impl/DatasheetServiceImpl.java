@@ -77,6 +77,8 @@ import com.apitable.shared.component.notification.NotificationTemplateId;
 import com.apitable.shared.config.properties.LimitProperties;
 import com.apitable.shared.sysconfig.i18n.I18nStringsUtil;
 import com.apitable.shared.util.IdUtil;
+import com.apitable.space.enums.SpaceUsageType;
+import com.apitable.space.service.ISpaceUsageService;
 import com.apitable.user.mapper.UserMapper;
 import com.apitable.workspace.dto.DataSheetRecordDTO;
 import com.apitable.workspace.dto.DatasheetMetaDTO;
@@ -114,6 +116,7 @@ import com.apitable.workspace.ro.ViewMapRo;
 import com.apitable.workspace.service.IDatasheetMetaService;
 import com.apitable.workspace.service.IDatasheetRecordService;
 import com.apitable.workspace.service.IDatasheetService;
+import com.apitable.workspace.support.BoundedRecordWriter;
 import com.apitable.workspace.vo.DatasheetRecordMapVo;
 import com.apitable.workspace.vo.DatasheetRecordVo;
 import com.apitable.core.exception.BusinessException;
@@ -187,6 +190,9 @@ public class DatasheetServiceImpl extends ServiceImpl<DatasheetMapper, Datasheet
     @Resource
     private IWidgetService iWidgetService;
 
+    @Resource
+    private ISpaceUsageService iSpaceUsageService;
+
     @Override
     public void batchSave(List<DatasheetEntity> entities) {
         if (CollUtil.isEmpty(entities)) {
@@ -215,6 +221,7 @@ public class DatasheetServiceImpl extends ServiceImpl<DatasheetMapper, Datasheet
         datasheetMetaService.create(creator, datasheet.getDstId(), JSONUtil.parseObj(snapshot.getMeta()).toString());
         // Save record information
         datasheetRecordService.saveBatch(creator, snapshot.getRecordMap(), datasheet.getDstId());
+        iSpaceUsageService.applyDelta(spaceId, SpaceUsageType.RECORD, countRows(snapshot.getMeta().getJSONArray("views")));
     }
 
     @Override
@@ -235,6 +242,7 @@ public class DatasheetServiceImpl extends ServiceImpl<DatasheetMapper, Datasheet
 
         boolean flag = this.save(datasheet);
         ExceptionUtil.isTrue(flag, DatabaseException.INSERT_ERROR);
+        iSpaceUsageService.applyDelta(spaceId, SpaceUsageType.RECORD, countRows(metaMapRo.getViews()));
     }
 
     @Override
@@ -288,6 +296,13 @@ public class DatasheetServiceImpl extends ServiceImpl<DatasheetMapper, Datasheet
     @Transactional(rollbackFor = Exception.class)
     public List<String> copy(Long userId, String spaceId, String sourceDstId, String destDstId, String destDstName,
             NodeCopyOptions options, Map<String, String> newNodeMap) {
+        return this.copy(userId, spaceId, sourceDstId, destDstId, destDstName, options, newNodeMap, null);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<String> copy(Long userId, String spaceId, String sourceDstId, String destDstId, String destDstName,
+            NodeCopyOptions options, Map<String, String> newNodeMap, BoundedRecordWriter recordCopier) {
         log.info("Copy datasheet");
         // Copy the datasheet, meta, and record.
         DatasheetEntity datasheet = DatasheetEntity.builder()
@@ -304,7 +319,13 @@ public class DatasheetServiceImpl extends ServiceImpl<DatasheetMapper, Datasheet
         MetaMapRo metaMapRo = nodeCopyDTO.getMetaMapRo();
         // save record
         if (ObjectUtil.isNotNull(options) && options.isCopyData()) {
-            datasheetRecordService.copyRecords(userId, sourceDstId, datasheet.getDstId(), nodeCopyDTO, options.isRetainRecordMeta());
+            if (recordCopier != null) {
+                recordCopier.submit(destDstId, () -> datasheetRecordService.copyRecords(userId, sourceDstId, destDstId,
+                        nodeCopyDTO, options.isRetainRecordMeta()));
+            }
+            else {
+                datasheetRecordService.copyRecords(userId, sourceDstId, datasheet.getDstId(), nodeCopyDTO, options.isRetainRecordMeta());
+            }
         }
         else {
             // Remove the original record id in each view rows and fill in a blank line.
@@ -338,9 +359,21 @@ public class DatasheetServiceImpl extends ServiceImpl<DatasheetMapper, Datasheet
         }
         // Save Meta information
         datasheetMetaService.create(userId, datasheet.getDstId(), JSONUtil.parseObj(metaMapRo).toString());
+        iSpaceUsageService.applyDelta(spaceId, SpaceUsageType.RECORD, countRows(metaMapRo.getViews()));
         return nodeCopyDTO.getLinkFieldIds();
     }
 
+    /**
+     * records counted by space usage, the rows of the first view
+     */
+    private static long countRows(JSONArray views) {
+        if (CollUtil.isEmpty(views)) {
+            return 0;
+        }
+        JSONArray rows = views.getJSONObject(0).getJSONArray("rows");
+        return rows != null ? rows.size() : 0;
+    }
+
     private NodeCopyDTO processMeta(Long userId, String spaceId, String sourceDstId, String destDstId, NodeCopyOptions options, Map<String, String> newNodeMap) {
         List<String> delFieldIds = new ArrayList<>();
         List<String> autoNumberFieldIds = new ArrayList<>();
@@ -639,22 +672,7 @@ public class DatasheetServiceImpl extends ServiceImpl<DatasheetMapper, Datasheet
             // get datasheet information
             SimpleDatasheetMetaDTO meta = datasheetMetaService.findByDstId(dstId);
             MetaMapRo metaMapRo = meta.getMeta().toBean(MetaMapRo.class);
-            List<String> delFieldIds = new ArrayList<>();
-            // find the field id of the associated datasheet
-            metaMapRo.getFieldMap().values().forEach(field -> {
-                FieldMapRo fieldMapRo = JSONUtil.parseObj(field).toBean(FieldMapRo.class);
-                if (fieldMapRo.getType().equals(FieldType.LINK.getFieldType())) {
-                    LinkFieldProperty property = fieldMapRo.getProperty().toBean(LinkFieldProperty.class);
-                    String foreignDstId = property.getForeignDatasheetId();
-                    if (linkDstIds.contains(foreignDstId)) {
-                        delFieldIds.add(fieldMapRo.getId());
-                    }
-                }
-            });
-            // fieldMap processing
-            delFieldIds.forEach(fieldId -> metaMapRo.getFieldMap().remove(fieldId));
-            // view attribute processing
-            this.delViewFieldId(metaMapRo, delFieldIds, delFieldIds);
+            List<String> delFieldIds = this.delLinkFieldInMeta(metaMapRo, linkDstIds);
             if (saveDb && CollUtil.isNotEmpty(delFieldIds)) {
                 // save changes
                 datasheetMetaService.edit(userId, dstId, MetaOpRo.builder().meta(JSONUtil.parseObj(metaMapRo)).build());
@@ -666,6 +684,27 @@ public class DatasheetServiceImpl extends ServiceImpl<DatasheetMapper, Datasheet
         return null;
     }
 
+    @Override
+    public List<String> delLinkFieldInMeta(MetaMapRo metaMapRo, List<String> linkDstIds) {
+        List<String> delFieldIds = new ArrayList<>();
+        // find the field id of the associated datasheet
+        metaMapRo.getFieldMap().values().forEach(field -> {
+            FieldMapRo fieldMapRo = JSONUtil.parseObj(field).toBean(FieldMapRo.class);
+            if (fieldMapRo.getType().equals(FieldType.LINK.getFieldType())) {
+                LinkFieldProperty property = fieldMapRo.getProperty().toBean(LinkFieldProperty.class);
+                String foreignDstId = property.getForeignDatasheetId();
+                if (linkDstIds.contains(foreignDstId)) {
+                    delFieldIds.add(fieldMapRo.getId());
+                }
+            }
+        });
+        // fieldMap processing
+        delFieldIds.forEach(fieldId -> metaMapRo.getFieldMap().remove(fieldId));
+        // view attribute processing
+        this.delViewFieldId(metaMapRo, delFieldIds, delFieldIds);
+        return delFieldIds;
+    }
+
     @Override
     public Map<String, SnapshotMapRo> findSnapshotMapByDstIds(List<String> dstIds, boolean hasRecordMap) {
         log.info("Get multiple datasheets and corresponding snapshot ");
@@ -772,25 +811,32 @@ public class DatasheetServiceImpl extends ServiceImpl<DatasheetMapper, Datasheet
             Map<Long, List<Long>> roleUnitIdToRoleMemberUnitIds = getRoleMemberUnits(units);
             // self don't need to send notifications, filter
             Long memberId = userId == null ? -2L : memberMapper.selectIdByUserIdAndSpaceId(userId, spaceId);
-            // Gets the organizational unit of the member type, the corresponding member.
-            Map<Long, Long> unitIdToMemberIdMap = units.stream()
+            List<UnitEntity> memberUnits = units.stream()
                     .filter(unit -> unit.getUnitType().equals(UnitType.MEMBER.getType())
                             && unit.getSpaceId().equals(spaceId) && !unit.getUnitRefId().equals(memberId))
-                    // Only members with read permission to the node send notifications
-                    .filter(unitEntity -> controlTemplate.hasNodePermission(unitEntity.getUnitRefId(), ro.getNodeId(), NodePermission.READ_NODE))
+                    .collect(Collectors.toList());
+            Map<Long, Long> teamIdToUnitIdMap = units.stream().filter(unit -> unit.getUnitType().equals(UnitType.TEAM.getType())
+                    && unit.getSpaceId().equals(spaceId)).collect(Collectors.toMap(UnitEntity::getUnitRefId, UnitEntity::getId));
+            List<Long> teamIds = new ArrayList<>(teamIdToUnitIdMap.keySet());
+            List<TeamMemberRelEntity> teamMemberRelEntities = CollUtil.isNotEmpty(teamIds) ?
+                    teamMemberRelMapper.selectByTeamIds(teamIds) : new ArrayList<>();
+            // Only members with read permission to the node send notifications, evaluate all candidates at one time
+            Set<Long> candidateMemberIds = new HashSet<>();
+            memberUnits.forEach(unit -> candidateMemberIds.add(unit.getUnitRefId()));
+            teamMemberRelEntities.forEach(rel -> candidateMemberIds.add(rel.getMemberId()));
+            candidateMemberIds.remove(memberId);
+            Set<Long> readableMemberIds = controlTemplate.filterMembersWithNodePermission(candidateMemberIds, ro.getNodeId(), NodePermission.READ_NODE);
+            // Gets the organizational unit of the member type, the corresponding member.
+            Map<Long, Long> unitIdToMemberIdMap = memberUnits.stream()
+                    .filter(unitEntity -> readableMemberIds.contains(unitEntity.getUnitRefId()))
                     .collect(Collectors.toMap(UnitEntity::getId, UnitEntity::getUnitRefId));
             List<Long> memberIds = new ArrayList<>(unitIdToMemberIdMap.values());
             // Obtain the organizational unit of the department type and the list of members.
             Map<Long, List<Long>> unitIdToMemberIdsMap = MapUtil.newHashMap();
-            Map<Long, Long> teamIdToUnitIdMap = units.stream().filter(unit -> unit.getUnitType().equals(UnitType.TEAM.getType())
-                    && unit.getSpaceId().equals(spaceId)).collect(Collectors.toMap(UnitEntity::getUnitRefId, UnitEntity::getId));
-            List<Long> teamIds = new ArrayList<>(teamIdToUnitIdMap.keySet());
             if (CollUtil.isNotEmpty(teamIds)) {
-                List<TeamMemberRelEntity> teamMemberRelEntities = teamMemberRelMapper.selectByTeamIds(teamIds);
                 teamMemberRelEntities.stream()
                         .filter(rel -> !rel.getMemberId().equals(memberId))
-                        // Only members with read permission to the node send notifications
-                        .filter(rel -> controlTemplate.hasNodePermission(rel.getMemberId(), ro.getNodeId(), NodePermission.READ_NODE))
+                        .filter(rel -> readableMemberIds.contains(rel.getMemberId()))
                         .forEach(rel -> {
                             Long unitId = teamIdToUnitIdMap.get(rel.getTeamId());
                             List<Long> members = unitIdToMemberIdsMap.get(unitId);
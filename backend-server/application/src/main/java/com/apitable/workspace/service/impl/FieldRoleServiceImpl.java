@@ -25,6 +25,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -439,74 +440,108 @@ public class FieldRoleServiceImpl implements IFieldRoleService {
 
     @Override
     public FieldPermissionView getFieldPermissionView(Long memberId, String nodeId, String shareId) {
-        log.info("The member [{}] obtains the field permission of the node [{}] and shares the ID: [{}]", memberId, nodeId, shareId);
-        NodeType type = iNodeService.getTypeByNodeId(nodeId);
-        String datasheetId;
-        switch (type) {
-            case DATASHEET:
-                datasheetId = nodeId;
-                break;
-            case FORM:
-            case MIRROR:
-                Map<String, String> formToDatasheetMap = iNodeRelService.getRelNodeToMainNodeMap(Collections.singletonList(nodeId));
-                if (MapUtil.isEmpty(formToDatasheetMap) || !formToDatasheetMap.containsKey(nodeId)) {
-                    return null;
-                }
-                datasheetId = formToDatasheetMap.get(nodeId);
-                break;
-            default:
-                return null;
+        return this.getFieldPermissionViews(memberId, Collections.singletonList(nodeId), shareId).get(nodeId);
+    }
+
+    @Override
+    public Map<String, FieldPermissionView> getFieldPermissionViews(Long memberId, List<String> nodeIds, String shareId) {
+        log.info("The member [{}] obtains the field permission of the nodes {} and shares the ID: [{}]", memberId, nodeIds, shareId);
+        Map<String, FieldPermissionView> views = new LinkedHashMap<>(nodeIds.size());
+        if (nodeIds.isEmpty()) {
+            return views;
         }
-        List<String> controlIds = iControlService.getControlIdByControlIdPrefixAndType(datasheetId, ControlType.DATASHEET_FIELD.getVal());
-        if (controlIds == null || controlIds.isEmpty()) {
-            return new FieldPermissionView(nodeId, datasheetId, null);
+        Map<String, NodeType> nodeTypes = iNodeService.getTypeByNodeIds(nodeIds);
+        // form and mirror use the field permissions of their source datasheet
+        List<String> relNodeIds = nodeIds.stream()
+                .filter(nodeId -> nodeTypes.get(nodeId) == NodeType.FORM || nodeTypes.get(nodeId) == NodeType.MIRROR)
+                .collect(toList());
+        Map<String, String> relNodeToDatasheetMap = relNodeIds.isEmpty() ? Collections.emptyMap()
+                : iNodeRelService.getRelNodeToMainNodeMap(relNodeIds);
+        Map<String, String> nodeToDatasheetMap = new LinkedHashMap<>(nodeIds.size());
+        for (String nodeId : nodeIds) {
+            if (nodeTypes.get(nodeId) == NodeType.DATASHEET) {
+                nodeToDatasheetMap.put(nodeId, nodeId);
+            }
+            else if (relNodeToDatasheetMap.containsKey(nodeId)) {
+                nodeToDatasheetMap.put(nodeId, relNodeToDatasheetMap.get(nodeId));
+            }
+        }
+        if (nodeToDatasheetMap.isEmpty()) {
+            return views;
+        }
+        // field control units of all datasheets at one time, datasheet id -> (control id -> field id)
+        Set<String> datasheetIds = new LinkedHashSet<>(nodeToDatasheetMap.values());
+        List<String> controlIds = iControlService.getControlIdByControlIdPrefixesAndType(datasheetIds, ControlType.DATASHEET_FIELD.getVal());
+        Map<String, Map<String, String>> datasheetControlIdToFieldIdMap = new HashMap<>(datasheetIds.size());
+        for (String controlId : controlIds) {
+            int index = controlId.indexOf(ControlIdBuilder.SYMBOL);
+            String datasheetId = index > 0 ? controlId.substring(0, index) : controlId;
+            if (datasheetIds.contains(datasheetId)) {
+                datasheetControlIdToFieldIdMap.computeIfAbsent(datasheetId, k -> new HashMap<>())
+                        .put(controlId, controlId.substring(index + 1));
+            }
         }
-        Map<String, String> controlIdToFieldIdMap = controlIds.stream()
-                .collect(Collectors.toMap(String::toString, controlId -> controlId.substring(controlId.indexOf(ControlIdBuilder.SYMBOL) + 1)));
-        // load field permissions in sharing
-        if (StrUtil.isNotBlank(shareId)) {
-            // If the datasheet is not collected, directly return the field with the permission set.
-            if (type != NodeType.FORM) {
-                Map<String, FieldPermissionInfo> permissionInfoMap = controlIdToFieldIdMap.values().stream()
+        boolean sharing = StrUtil.isNotBlank(shareId);
+        // form in sharing and in station loading need the permission configuration of fields
+        boolean settingRequired = !sharing || nodeToDatasheetMap.keySet().stream().anyMatch(nodeId -> nodeTypes.get(nodeId) == NodeType.FORM);
+        Map<String, ControlSettingEntity> controlSettingEntityMap = settingRequired && !controlIds.isEmpty()
+                ? iControlSettingService.getBatchByControlIds(controlIds).stream()
+                .collect(Collectors.toMap(ControlSettingEntity::getControlId, Function.identity()))
+                : Collections.emptyMap();
+        Long userId = !sharing && !controlIds.isEmpty() ? memberMapper.selectUserIdByMemberId(memberId) : null;
+        Map<String, Map<String, FieldPermissionInfo>> datasheetPermissionInfoMap = new HashMap<>(datasheetIds.size());
+        for (Entry<String, String> entry : nodeToDatasheetMap.entrySet()) {
+            String nodeId = entry.getKey();
+            String datasheetId = entry.getValue();
+            Map<String, String> controlIdToFieldIdMap = datasheetControlIdToFieldIdMap.get(datasheetId);
+            if (controlIdToFieldIdMap == null) {
+                views.put(nodeId, new FieldPermissionView(nodeId, datasheetId, null));
+                continue;
+            }
+            Map<String, FieldPermissionInfo> permissionInfoMap;
+            if (!sharing) {
+                // in station loading, field roles are evaluated once per datasheet
+                permissionInfoMap = datasheetPermissionInfoMap.computeIfAbsent(datasheetId,
+                        k -> this.getFieldPermissionInfoMap(memberId, userId, k, controlIdToFieldIdMap, controlSettingEntityMap));
+            }
+            else if (nodeTypes.get(nodeId) != NodeType.FORM) {
+                // If the datasheet is not collected, directly return the field with the permission set.
+                permissionInfoMap = controlIdToFieldIdMap.values().stream()
                         .collect(Collectors.toMap(String::toString, fieldId -> FieldPermissionInfo.builder()
                                 .fieldId(fieldId)
                                 .permission(new FieldPermission())
                                 .build()));
-                return new FieldPermissionView(nodeId, datasheetId, permissionInfoMap);
             }
-            // collect the datasheet and add the permission configuration attribute of the returned field.
-            List<ControlSettingEntity> controlSettingEntities = iControlSettingService.getBatchByControlIds(controlIds);
-            Map<String, ControlSettingEntity> controlSettingEntityMap = controlSettingEntities.stream()
-                    .collect(Collectors.toMap(ControlSettingEntity::getControlId, Function.identity()));
-            Map<String, FieldPermissionInfo> permissionInfoMap = controlIdToFieldIdMap.entrySet().stream()
-                    .collect(Collectors.toMap(Map.Entry::getValue, entry -> FieldPermissionInfo.builder()
-                            .fieldId(entry.getValue())
-                            .setting(JSONUtil.toBean(controlSettingEntityMap.get(entry.getKey()).getProps(), FieldRoleSetting.class))
-                            .permission(new FieldPermission())
-                            .build()));
-            return new FieldPermissionView(nodeId, datasheetId, permissionInfoMap);
+            else {
+                // collect the datasheet and add the permission configuration attribute of the returned field.
+                permissionInfoMap = controlIdToFieldIdMap.entrySet().stream()
+                        .collect(Collectors.toMap(Map.Entry::getValue, item -> FieldPermissionInfo.builder()
+                                .fieldId(item.getValue())
+                                .setting(JSONUtil.toBean(controlSettingEntityMap.get(item.getKey()).getProps(), FieldRoleSetting.class))
+                                .permission(new FieldPermission())
+                                .build()));
+            }
+            views.put(nodeId, new FieldPermissionView(nodeId, datasheetId, permissionInfoMap));
         }
-        // in station loading
+        return views;
+    }
+
+    private Map<String, FieldPermissionInfo> getFieldPermissionInfoMap(Long memberId, Long userId, String datasheetId,
+            Map<String, String> controlIdToFieldIdMap, Map<String, ControlSettingEntity> controlSettingEntityMap) {
         // get the permission role set
         ControlRoleDict roleDict = controlTemplate.fetchFieldRole(memberId, datasheetId, ListUtil.list(true, controlIdToFieldIdMap.values()));
-        // get permission configuration properties
-        List<ControlSettingEntity> controlSettingEntities = iControlSettingService.getBatchByControlIds(controlIds);
-        Map<String, String> controlIdToPropsMap = controlSettingEntities.stream()
-                .collect(Collectors.toMap(ControlSettingEntity::getControlId, ControlSettingEntity::getProps));
-        Map<String, Long> controlId2Creator = controlSettingEntities.stream()
-                .collect(Collectors.toMap(ControlSettingEntity::getControlId, ControlSettingEntity::getUpdatedBy));
-        Long userId = memberMapper.selectUserIdByMemberId(memberId);
-        Map<String, FieldPermissionInfo> permissionInfoMap = controlIdToFieldIdMap.entrySet().stream()
+        return controlIdToFieldIdMap.entrySet().stream()
                 .collect(Collectors.toMap(Map.Entry::getValue, entry -> {
+                    ControlSettingEntity setting = controlSettingEntityMap.get(entry.getKey());
                     FieldPermissionInfo fieldPermissionInfo = new FieldPermissionInfo();
                     fieldPermissionInfo.setFieldId(entry.getValue());
-                    fieldPermissionInfo.setSetting(JSONUtil.toBean(controlIdToPropsMap.get(entry.getKey()), FieldRoleSetting.class));
+                    fieldPermissionInfo.setSetting(JSONUtil.toBean(setting != null ? setting.getProps() : null, FieldRoleSetting.class));
                     if (roleDict.containsKey(entry.getValue())) {
                         ControlRole role = roleDict.get(entry.getValue());
                         fieldPermissionInfo.setHasRole(true);
                         fieldPermissionInfo.setRole(role.getRoleTag());
                         // Add whether the current user can manage this permission
-                        fieldPermissionInfo.setManageable(role.isAdmin() || controlId2Creator.get(entry.getKey()).equals(userId));
+                        fieldPermissionInfo.setManageable(role.isAdmin() || (setting != null && setting.getUpdatedBy().equals(userId)));
                         fieldPermissionInfo.setPermission(role.permissionToBean(FieldPermission.class));
                     }
                     else {
@@ -514,8 +549,6 @@ public class FieldRoleServiceImpl implements IFieldRoleService {
                     }
                     return fieldPermissionInfo;
                 }));
-
-        return new FieldPermissionView(nodeId, datasheetId, permissionInfoMap);
     }
 
     @Override
@@ -538,6 +571,29 @@ public class FieldRoleServiceImpl implements IFieldRoleService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public Map<String, List<String>> getPermissionFieldIdsMap(Collection<String> datasheetIds) {
+        if (CollUtil.isEmpty(datasheetIds)) {
+            return new HashMap<>(0);
+        }
+        Set<String> dstIds = new HashSet<>(datasheetIds);
+        List<String> controlIds = iControlService.getControlIdByControlIdPrefixesAndType(dstIds, ControlType.DATASHEET_FIELD.getVal());
+        Map<String, List<String>> dstPermissionFieldsMap = new HashMap<>(dstIds.size());
+        if (controlIds == null || controlIds.isEmpty()) {
+            return dstPermissionFieldsMap;
+        }
+        for (String controlId : controlIds) {
+            int index = controlId.indexOf(ControlIdBuilder.SYMBOL);
+            // the prefix query also matches a longer datasheet id, keep the requested ones only
+            if (index < 0 || !dstIds.contains(controlId.substring(0, index))) {
+                continue;
+            }
+            dstPermissionFieldsMap.computeIfAbsent(controlId.substring(0, index), k -> new ArrayList<>())
+                    .add(controlId.substring(index + 1));
+        }
+        return dstPermissionFieldsMap;
+    }
+
     @Override
     public Map<String, List<Long>> deleteFieldRoles(String controlId, List<Long> unitIds) {
         if (CollUtil.isEmpty(unitIds)) {
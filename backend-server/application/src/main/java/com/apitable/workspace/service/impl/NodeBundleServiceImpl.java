@@ -18,40 +18,44 @@
 
 package com.apitable.workspace.service.impl;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 import javax.annotation.Resource;
 
-import cn.hutool.core.codec.Base64;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.date.DatePattern;
 import cn.hutool.core.date.DateUtil;
-import cn.hutool.core.io.FileUtil;
-import cn.hutool.core.io.IoUtil;
 import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.crypto.digest.DigestAlgorithm;
 import cn.hutool.crypto.digest.Digester;
+import cn.hutool.json.JSONConfig;
 import cn.hutool.json.JSONException;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONTokener;
 import cn.hutool.json.JSONUtil;
 import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 
 import com.apitable.base.enums.ActionException;
 import com.apitable.base.enums.ParameterException;
@@ -59,19 +63,22 @@ import com.apitable.shared.cache.service.UserSpaceCacheService;
 import com.apitable.shared.security.PasswordService;
 import com.apitable.shared.util.ExportUtil;
 import com.apitable.shared.util.IdUtil;
-import com.apitable.shared.util.RandomExtendUtil;
 import com.apitable.space.dto.NodeAssetDTO;
 import com.apitable.space.mapper.SpaceAssetMapper;
 import com.apitable.space.service.ISpaceAssetService;
+import com.apitable.workspace.dto.DatasheetMetaDTO;
 import com.apitable.workspace.dto.Manifest;
 import com.apitable.workspace.dto.NodeDataFile;
 import com.apitable.workspace.dto.NodeFileTree;
+import com.apitable.workspace.entity.DatasheetRecordEntity;
 import com.apitable.workspace.enums.NodeType;
 import com.apitable.workspace.enums.PermissionException;
+import com.apitable.workspace.mapper.DatasheetRecordMapper;
 import com.apitable.workspace.mapper.NodeMapper;
 import com.apitable.workspace.ro.DataSheetCreateRo;
 import com.apitable.workspace.ro.MetaMapRo;
 import com.apitable.workspace.ro.SnapshotMapRo;
+import com.apitable.workspace.service.IDatasheetMetaService;
 import com.apitable.workspace.service.IDatasheetService;
 import com.apitable.workspace.service.INodeDescService;
 import com.apitable.workspace.service.INodeService;
@@ -85,6 +92,7 @@ import com.apitable.workspace.entity.NodeEntity;
 
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 @Slf4j
@@ -109,6 +117,12 @@ public class NodeBundleServiceImpl implements NodeBundleService {
     @Resource
     private SpaceAssetMapper spaceAssetMapper;
 
+    @Resource
+    private IDatasheetMetaService datasheetMetaService;
+
+    @Resource
+    private DatasheetRecordMapper datasheetRecordMapper;
+
     @Resource
     private PasswordService passwordService;
 
@@ -121,92 +135,77 @@ public class NodeBundleServiceImpl implements NodeBundleService {
 
     private static final String ASSET_DIR = "assets";
 
+    private static final int RECORD_PAGE_SIZE = 1000;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
     @Override
     public void generate(String nodeId, boolean saveData, String password) {
         log.info("generate bundle file");
         // check whether the node exists
         NodeEntity node = nodeMapper.selectByNodeId(nodeId);
         ExceptionUtil.isNotNull(node, PermissionException.NODE_ACCESS_DENIED);
-        // Create random temporary directories to avoid simultaneous use of the same node.
-        String dir = RandomExtendUtil.randomString(6);
-        Digester md5 = new Digester(DigestAlgorithm.MD5);
-        List<File> files = new ArrayList<>();
         // traverse all nodes down
         List<String> nodeIds = CollUtil.newArrayList(nodeId);
-        Map<String, String> nodeIdToFileNameMap = CollUtil.newHashMap();
+        Map<String, Integer> nodeIdToTypeMap = CollUtil.newHashMap();
+        nodeIdToTypeMap.put(nodeId, node.getType());
         List<NodeShareTree> childrenList = new ArrayList<>();
         if (node.getType() < NodeType.DATASHEET.getNodeType()) {
             childrenList = nodeMapper.selectShareTreeByNodeId(node.getSpaceId(), nodeId);
             if (CollUtil.isNotEmpty(childrenList)) {
-                List<String> ids = childrenList.stream().map(NodeShareTree::getNodeId).collect(Collectors.toList());
-                nodeIds.addAll(ids);
+                childrenList.forEach(child -> {
+                    nodeIds.add(child.getNodeId());
+                    nodeIdToTypeMap.put(child.getNodeId(), child.getType());
+                });
             }
         }
-        // build resource files
         List<NodeAssetDTO> nodeAssetDTOList = spaceAssetMapper.selectNodeAssetDto(nodeIds);
-        if (CollUtil.isNotEmpty(nodeAssetDTOList)) {
-            String jsonArrStrEncode = Base64.encode(JSONUtil.parseArray(nodeAssetDTOList).toString());
-            File assets = FileUtil.writeUtf8String(jsonArrStrEncode, StrUtil.format("{}/{}--{}", dir, ASSET_DIR, md5.digestHex(jsonArrStrEncode)));
-            files.add(assets);
-        }
-        // build data files
         Map<String, String> nodeIdToDescMap = iNodeDescService.getNodeIdToDescMap(nodeIds);
         Map<String, List<String>> foreignDstIdsMap = iDatasheetService.getForeignDstIds(nodeIds, true);
-        if (MapUtil.isNotEmpty(foreignDstIdsMap)) {
-            nodeIds = (List<String>) CollUtil.subtract(nodeIds, foreignDstIdsMap.keySet());
-            // processing correlation table
-            foreignDstIdsMap.forEach((dstId, foreignDstIds) -> {
-                SnapshotMapRo snapshotMapRo = iDatasheetService.delFieldIfLinkDstId(null, dstId, foreignDstIds, false);
-                if (!saveData) {
-                    snapshotMapRo.setRecordMap(JSONUtil.createObj());
+        List<NodeShareTree> finalChildrenList = childrenList;
+        // The zip is written to the response directly, and the datasheets are streamed one by one,
+        // no temporary file and no whole snapshot is kept in memory.
+        try {
+            String zipFileName = URLEncoder.encode(StrUtil.format("{}.apitable", node.getNodeName()), StandardCharsets.UTF_8.name());
+            ExportUtil.exportStream(zipFileName, "application/zip", out -> {
+                ZipOutputStream zip = new ZipOutputStream(out);
+                Map<String, String> nodeIdToFileNameMap = CollUtil.newHashMap();
+                // build resource files
+                if (CollUtil.isNotEmpty(nodeAssetDTOList)) {
+                    String jsonArrStrEncode = Base64.getEncoder().encodeToString(
+                            JSONUtil.parseArray(nodeAssetDTOList).toString().getBytes(StandardCharsets.UTF_8));
+                    writeEntry(zip, StrUtil.format("{}/{}", ASSET_DIR, md5Hex(jsonArrStrEncode)), jsonArrStrEncode);
                 }
-                createDataFile(dir, md5, nodeIdToFileNameMap, files, dstId, snapshotMapRo, nodeIdToDescMap.get(dstId));
-            });
-        }
-        if (CollUtil.isNotEmpty(nodeIds)) {
-            // get snapshot
-            Map<String, SnapshotMapRo> snapshotMap = iDatasheetService.findSnapshotMapByDstIds(nodeIds, saveData);
-            nodeIds.stream().filter(id -> snapshotMap.get(id) != null || nodeIdToDescMap.get(id) != null).forEach(
-                    id -> createDataFile(dir, md5, nodeIdToFileNameMap, files, id, snapshotMap.get(id), nodeIdToDescMap.get(id)));
-        }
-        // build a file tree and generate manifest
-        NodeFileTree root = new NodeFileTree(null, nodeId, node.getNodeName(), node.getIcon(), node.getType(), node.getCover(), nodeIdToFileNameMap.get(nodeId));
-        if (CollUtil.isNotEmpty(childrenList)) {
-            List<NodeFileTree> childList = new ArrayList<>();
-            childrenList.forEach(share -> {
-                NodeFileTree nodeFileTree = new NodeFileTree(share.getParentId(), share.getNodeId(), share.getNodeName(),
-                        share.getIcon(), share.getType(), share.getCover(), nodeIdToFileNameMap.get(share.getNodeId()));
-                childList.add(nodeFileTree);
+                // build data files
+                for (String id : nodeIds) {
+                    if (foreignDstIdsMap.containsKey(id)) {
+                        // processing correlation table
+                        MetaMapRo meta = datasheetMetaService.findByDstId(id).getMeta().toBean(MetaMapRo.class);
+                        List<String> delFieldIds = iDatasheetService.delLinkFieldInMeta(meta, foreignDstIdsMap.get(id));
+                        writeDatasheetFile(zip, nodeIdToFileNameMap, id, JSONUtil.toJsonStr(meta), delFieldIds, saveData, nodeIdToDescMap.get(id));
+                        continue;
+                    }
+                    String metaData = null;
+                    if (NodeType.DATASHEET.getNodeType() == nodeIdToTypeMap.get(id)) {
+                        List<DatasheetMetaDTO> metas = datasheetMetaService.findMetaDtoByDstIds(Collections.singletonList(id));
+                        metaData = metas.isEmpty() ? null : metas.get(0).getMetaData();
+                    }
+                    if (metaData != null) {
+                        writeDatasheetFile(zip, nodeIdToFileNameMap, id, metaData, null, saveData, nodeIdToDescMap.get(id));
+                    }
+                    else if (nodeIdToDescMap.get(id) != null) {
+                        writeDescriptionFile(zip, nodeIdToFileNameMap, id, nodeIdToDescMap.get(id));
+                    }
+                }
+                // build a file tree and generate manifest
+                Manifest manifest = buildManifest(node, finalChildrenList, nodeIdToFileNameMap, password);
+                writeEntry(zip, MANIFEST, JSONUtil.parseObj(manifest).toString());
+                zip.finish();
             });
-            List<NodeFileTree> treeList = new DefaultTreeBuildFactory<NodeFileTree>(nodeId).doTreeBuild(childList);
-            root.setChild(treeList);
-        }
-        String version = DateUtil.format(LocalDateTime.now(), DatePattern.NORM_DATE_PATTERN);
-        Manifest manifest = Manifest.builder().version(version).root(root).build();
-        if (StrUtil.isNotBlank(password)) {
-            String pwdEncode = passwordService.encode(password);
-            manifest.setEncryption("password");
-            manifest.setPassword(pwdEncode);
-        }
-        File manifestFile = FileUtil.writeUtf8String(JSONUtil.parseObj(manifest).toString(), StrUtil.format("{}/{}", dir, MANIFEST));
-        files.add(manifestFile);
-        String zipFileName = StrUtil.format("{}/{}.apitable", dir, node.getNodeName());
-        File zipFile = FileUtil.file(zipFileName);
-        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(zipFile))) {
-            for (File file : files) {
-                zip.putNextEntry(new ZipEntry(file.getName().replace("--", "/")));
-                zip.write(Files.readAllBytes(file.toPath()));
-                zip.closeEntry();
-            }
-            ExportUtil.exportBytes(IoUtil.readBytes(new FileInputStream(zipFile)),
-                    URLEncoder.encode(zipFile.getName(), StandardCharsets.UTF_8.name()), "application/zip");
         }
         catch (IOException e) {
             log.error("generation bundle failed", e);
         }
-        finally {
-            FileUtil.del(dir);
-        }
     }
 
     @Override
@@ -230,30 +229,24 @@ public class NodeBundleServiceImpl implements NodeBundleService {
         iNodeService.checkEnableOperateNodeBySpaceFeature(memberId, spaceId, parentId);
         String manifestStr = null;
         String assetsContent = null;
-        // get file
-        Map<String, String> fileNameToContentMap = MapUtil.newHashMap();
+        // The manifest is the last entry, read it and the assets first, and skip the data files.
+        Set<String> dataFileNames = new HashSet<>();
         try (ZipInputStream zip = new ZipInputStream(file.getInputStream())) {
             ZipEntry entry;
             while ((entry = zip.getNextEntry()) != null) {
                 String name = entry.getName();
-                BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(zip));
-                String line;
-                StringBuilder content = new StringBuilder();
-                while ((line = bufferedReader.readLine()) != null) {
-                    content.append(line);
-                }
                 if (MANIFEST.equals(name)) {
-                    manifestStr = content.toString();
+                    manifestStr = StreamUtils.copyToString(zip, StandardCharsets.UTF_8);
                 }
                 else if (name.startsWith(ASSET_DIR)) {
-                    assetsContent = content.toString();
+                    assetsContent = StreamUtils.copyToString(Base64.getMimeDecoder().wrap(zip), StandardCharsets.UTF_8);
                 }
                 else {
-                    fileNameToContentMap.put(name, content.toString());
+                    dataFileNames.add(name);
                 }
             }
         }
-        catch (IOException e) {
+        catch (IOException | IllegalArgumentException e) {
             log.info("parsing bundle file failed");
             throw new BusinessException(ActionException.FILE_ERROR_CONTENT);
         }
@@ -279,31 +272,28 @@ public class NodeBundleServiceImpl implements NodeBundleService {
             this.processNode(userId, spaceId, parentId, preNodeId, root, nodeList, newNodeIdMap, fileNameToNodeMap);
             // processing data files
             if (MapUtil.isNotEmpty(fileNameToNodeMap)) {
-                ExceptionUtil.isTrue(fileNameToNodeMap.size() == fileNameToContentMap.size(), ActionException.FILE_ERROR_CONTENT);
+                ExceptionUtil.isTrue(fileNameToNodeMap.size() == dataFileNames.size(), ActionException.FILE_ERROR_CONTENT);
                 // Obtain the ID of the space to which the original node belongs. If it is inconsistent with the saved space, you need to clear the data related to the member field.
                 String sourceSpaceId = nodeMapper.selectSpaceIdByNodeIdIncludeDeleted(root.getNodeId());
                 boolean same = spaceId.equals(sourceSpaceId);
                 List<NodeDescEntity> nodeDescList = new ArrayList<>();
-                fileNameToContentMap.forEach((fileName, content) -> {
-                    NodeDataFile dataFile = JSONUtil.parseObj(Base64.decodeStr(content)).toBean(NodeDataFile.class);
-                    List<DataSheetCreateRo> roList = fileNameToNodeMap.get(fileName);
-                    SnapshotMapRo snapshot = dataFile.getSnapshot();
-                    roList.forEach(createRo -> {
-                        if (snapshot != null) {
-                            MetaMapRo meta = snapshot.getMeta().toBean(MetaMapRo.class);
-                            List<String> delFieldIds = iDatasheetService.replaceFieldDstId(userId, same, meta, newNodeIdMap);
-                            if (!same && CollUtil.isNotEmpty(delFieldIds)) {
-                                snapshot.getRecordMap().values().forEach(recordMapRo ->
-                                        JSONUtil.parseObj(recordMapRo).getJSONObject("data").keySet().removeIf(delFieldIds::contains));
-                            }
-                            iDatasheetService.create(userId, spaceId, createRo.getNodeId(), createRo.getName(), meta, snapshot.getRecordMap());
-                        }
-                        if (dataFile.getDescription() != null) {
-                            NodeDescEntity descEntity = NodeDescEntity.builder().id(IdWorker.getId()).nodeId(createRo.getNodeId()).description(dataFile.getDescription()).build();
-                            nodeDescList.add(descEntity);
+                // Parse the data files one by one from the stream, only one snapshot is kept in memory at a time.
+                try (ZipInputStream zip = new ZipInputStream(file.getInputStream())) {
+                    ZipEntry entry;
+                    while ((entry = zip.getNextEntry()) != null) {
+                        List<DataSheetCreateRo> roList = fileNameToNodeMap.get(entry.getName());
+                        if (roList == null) {
+                            continue;
                         }
-                    });
-                });
+                        Reader reader = new InputStreamReader(Base64.getMimeDecoder().wrap(zip), StandardCharsets.UTF_8);
+                        NodeDataFile dataFile = new JSONObject(new JSONTokener(reader, JSONConfig.create())).toBean(NodeDataFile.class);
+                        this.createDataFileNodes(userId, spaceId, same, newNodeIdMap, dataFile, roList, nodeDescList);
+                    }
+                }
+                catch (IOException | IllegalArgumentException e) {
+                    log.info("parsing bundle file failed");
+                    throw new BusinessException(ActionException.FILE_ERROR_CONTENT);
+                }
                 iNodeDescService.insertBatch(nodeDescList);
             }
             // The node after the original front node is updated, and the position is moved back by one bit.
@@ -311,7 +301,7 @@ public class NodeBundleServiceImpl implements NodeBundleService {
             iNodeService.insertBatch(nodeList, null);
             // processing resource files
             if (StrUtil.isNotBlank(assetsContent)) {
-                List<NodeAssetDTO> list = JSONUtil.parseArray(Base64.decodeStr(assetsContent)).toList(NodeAssetDTO.class);
+                List<NodeAssetDTO> list = JSONUtil.parseArray(assetsContent).toList(NodeAssetDTO.class);
                 iSpaceAssetService.processNodeAssets(newNodeIdMap, spaceId, list);
             }
         }
@@ -320,6 +310,47 @@ public class NodeBundleServiceImpl implements NodeBundleService {
         }
     }
 
+    private void createDataFileNodes(Long userId, String spaceId, boolean same, Map<String, String> newNodeIdMap,
+            NodeDataFile dataFile, List<DataSheetCreateRo> roList, List<NodeDescEntity> nodeDescList) {
+        SnapshotMapRo snapshot = dataFile.getSnapshot();
+        roList.forEach(createRo -> {
+            if (snapshot != null) {
+                MetaMapRo meta = snapshot.getMeta().toBean(MetaMapRo.class);
+                List<String> delFieldIds = iDatasheetService.replaceFieldDstId(userId, same, meta, newNodeIdMap);
+                if (!same && CollUtil.isNotEmpty(delFieldIds)) {
+                    snapshot.getRecordMap().values().forEach(recordMapRo ->
+                            JSONUtil.parseObj(recordMapRo).getJSONObject("data").keySet().removeIf(delFieldIds::contains));
+                }
+                snapshot.getRecordMap().values().forEach(recordMapRo -> restoreFieldUpdatedMap(recordMapRo, delFieldIds));
+                iDatasheetService.create(userId, spaceId, createRo.getNodeId(), createRo.getName(), meta, snapshot.getRecordMap());
+            }
+            if (dataFile.getDescription() != null) {
+                NodeDescEntity descEntity = NodeDescEntity.builder().id(IdWorker.getId()).nodeId(createRo.getNodeId()).description(dataFile.getDescription()).build();
+                nodeDescList.add(descEntity);
+            }
+        });
+    }
+
+    /**
+     * The record meta is exported as json text, restore its field updated map for the import,
+     * the created info of the record meta belongs to the importer.
+     */
+    private static void restoreFieldUpdatedMap(Object recordMapRo, List<String> delFieldIds) {
+        if (!(recordMapRo instanceof JSONObject)) {
+            return;
+        }
+        JSONObject record = (JSONObject) recordMapRo;
+        String recordMeta = record.getStr("recordMeta");
+        if (record.containsKey("fieldUpdatedMap") || !JSONUtil.isJsonObj(recordMeta)) {
+            return;
+        }
+        JSONObject fieldUpdatedMap = JSONUtil.parseObj(recordMeta).getJSONObject("fieldUpdatedMap");
+        if (fieldUpdatedMap != null) {
+            fieldUpdatedMap.keySet().removeIf(delFieldIds::contains);
+            record.set("fieldUpdatedMap", fieldUpdatedMap);
+        }
+    }
+
     private void processNode(Long userId, String spaceId, String parentId, String preNodeId, NodeFileTree node, List<NodeEntity> nodeList, Map<String, String> newNodeIdMap, Map<String, List<DataSheetCreateRo>> fileNameToNodeMap) {
         boolean isDst = node.getType() == NodeType.DATASHEET.getNodeType();
         String nodeId = isDst ? IdUtil.createDstId() : IdUtil.createNodeId();
@@ -365,16 +396,114 @@ public class NodeBundleServiceImpl implements NodeBundleService {
         }
     }
 
-    private void createDataFile(String dir, Digester md5, Map<String, String> nodeIdToFileNameMap, List<File> files, String nodeId, SnapshotMapRo snapshotMapRo, String nodeDesc) {
-        NodeDataFile dataFile = new NodeDataFile(nodeDesc, snapshotMapRo);
-        String jsonStrEncode = Base64.encode(JSONUtil.parseObj(dataFile).toString());
-        String fileName = StrUtil.join(".", md5.digestHex(jsonStrEncode), "apitable");
+    private Manifest buildManifest(NodeEntity node, List<NodeShareTree> childrenList, Map<String, String> nodeIdToFileNameMap, String password) {
+        NodeFileTree root = new NodeFileTree(null, node.getNodeId(), node.getNodeName(), node.getIcon(), node.getType(), node.getCover(), nodeIdToFileNameMap.get(node.getNodeId()));
+        if (CollUtil.isNotEmpty(childrenList)) {
+            List<NodeFileTree> childList = new ArrayList<>();
+            childrenList.forEach(share -> {
+                NodeFileTree nodeFileTree = new NodeFileTree(share.getParentId(), share.getNodeId(), share.getNodeName(),
+                        share.getIcon(), share.getType(), share.getCover(), nodeIdToFileNameMap.get(share.getNodeId()));
+                childList.add(nodeFileTree);
+            });
+            List<NodeFileTree> treeList = new DefaultTreeBuildFactory<NodeFileTree>(node.getNodeId()).doTreeBuild(childList);
+            root.setChild(treeList);
+        }
+        String version = DateUtil.format(LocalDateTime.now(), DatePattern.NORM_DATE_PATTERN);
+        Manifest manifest = Manifest.builder().version(version).root(root).build();
+        if (StrUtil.isNotBlank(password)) {
+            String pwdEncode = passwordService.encode(password);
+            manifest.setEncryption("password");
+            manifest.setPassword(pwdEncode);
+        }
+        return manifest;
+    }
+
+    /**
+     * Write the data file of a datasheet, the records are read page by page and written to the zip entry through
+     * the json generator and base64 encoder, the data of each record is copied as json text without parsing.
+     * The file name can not be the digest of the content any more, it is the digest of the datasheet id.
+     */
+    private void writeDatasheetFile(ZipOutputStream zip, Map<String, String> nodeIdToFileNameMap, String dstId, String metaData,
+            List<String> delFieldIds, boolean saveData, String nodeDesc) throws IOException {
+        String fileName = StrUtil.join(".", md5Hex(dstId), "apitable");
+        zip.putNextEntry(new ZipEntry(StrUtil.format("{}/{}", DATA_DIR, fileName)));
+        OutputStream base64 = Base64.getEncoder().wrap(new CloseShieldOutputStream(zip));
+        // closing the generator flushes the base64 padding, the zip stays open
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(base64, JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            if (nodeDesc != null) {
+                generator.writeStringField("description", nodeDesc);
+            }
+            generator.writeObjectFieldStart("snapshot");
+            generator.writeFieldName("meta");
+            generator.writeRawValue(metaData);
+            generator.writeObjectFieldStart("recordMap");
+            if (saveData) {
+                writeRecords(generator, dstId, delFieldIds);
+            }
+            generator.writeEndObject();
+            generator.writeEndObject();
+            generator.writeEndObject();
+        }
+        zip.closeEntry();
+        nodeIdToFileNameMap.put(dstId, fileName);
+    }
+
+    private void writeRecords(JsonGenerator generator, String dstId, List<String> delFieldIds) throws IOException {
+        String lastRecordId = null;
+        while (true) {
+            List<DatasheetRecordEntity> records = datasheetRecordMapper.selectByDstIdAfterRecordId(dstId, delFieldIds, lastRecordId, RECORD_PAGE_SIZE);
+            for (DatasheetRecordEntity record : records) {
+                // the same fields as the record view object
+                generator.writeObjectFieldStart(record.getRecordId());
+                generator.writeStringField("id", record.getRecordId());
+                if (record.getData() != null) {
+                    generator.writeFieldName("data");
+                    generator.writeRawValue(record.getData());
+                }
+                if (record.getRevisionHistory() != null) {
+                    generator.writeArrayFieldStart("revisionHistory");
+                    for (String revision : StrUtil.split(record.getRevisionHistory(), ',')) {
+                        generator.writeNumber(Integer.parseInt(revision));
+                    }
+                    generator.writeEndArray();
+                }
+                if (record.getRevision() != null) {
+                    generator.writeNumberField("revision", record.getRevision());
+                }
+                if (record.getFieldUpdatedInfo() != null) {
+                    generator.writeStringField("recordMeta", record.getFieldUpdatedInfo());
+                }
+                generator.writeEndObject();
+            }
+            if (records.size() < RECORD_PAGE_SIZE) {
+                return;
+            }
+            lastRecordId = records.get(records.size() - 1).getRecordId();
+        }
+    }
+
+    /**
+     * Write the data file of a node which only has description, it is small and named by the digest of the content
+     */
+    private void writeDescriptionFile(ZipOutputStream zip, Map<String, String> nodeIdToFileNameMap, String nodeId, String nodeDesc) throws IOException {
+        NodeDataFile dataFile = new NodeDataFile(nodeDesc, null);
+        String jsonStrEncode = Base64.getEncoder().encodeToString(JSONUtil.parseObj(dataFile).toString().getBytes(StandardCharsets.UTF_8));
+        String fileName = StrUtil.join(".", md5Hex(jsonStrEncode), "apitable");
         // The same file already exists and is not generated repeatedly (scenario: folder description is the same)
         if (!nodeIdToFileNameMap.containsValue(fileName)) {
-            File file = FileUtil.writeUtf8String(jsonStrEncode, StrUtil.format("{}/{}--{}", dir, DATA_DIR, fileName));
-            files.add(file);
+            writeEntry(zip, StrUtil.format("{}/{}", DATA_DIR, fileName), jsonStrEncode);
         }
         nodeIdToFileNameMap.put(nodeId, fileName);
     }
 
+    private static void writeEntry(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    private static String md5Hex(String content) {
+        return new Digester(DigestAlgorithm.MD5).digestHex(content);
+    }
 }
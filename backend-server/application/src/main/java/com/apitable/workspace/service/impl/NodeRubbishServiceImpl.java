@@ -43,6 +43,7 @@ import com.apitable.control.infrastructure.role.RoleConstants.Node;
 import com.apitable.control.service.IControlService;
 import com.apitable.interfaces.billing.facade.EntitlementServiceFacade;
 import com.apitable.interfaces.billing.model.SubscriptionInfo;
+import com.apitable.shared.cache.service.ControlRoleCacheService;
 import com.apitable.shared.clock.spring.ClockManager;
 import com.apitable.shared.component.TaskManager;
 import com.apitable.shared.config.properties.LimitProperties;
@@ -54,6 +55,7 @@ import com.apitable.workspace.mapper.NodeMapper;
 import com.apitable.workspace.service.IDatasheetService;
 import com.apitable.workspace.service.INodeRoleService;
 import com.apitable.workspace.service.INodeRubbishService;
+import com.apitable.workspace.service.INodeSearchIndexService;
 import com.apitable.workspace.service.INodeService;
 import com.apitable.workspace.vo.BaseNodeInfo;
 import com.apitable.workspace.vo.RubbishNodeVo;
@@ -74,6 +76,12 @@ public class NodeRubbishServiceImpl implements INodeRubbishService {
     @Resource
     private NodeMapper nodeMapper;
 
+    @Resource
+    private ControlRoleCacheService controlRoleCacheService;
+
+    @Resource
+    private INodeSearchIndexService iNodeSearchIndexService;
+
     @Resource
     private IDatasheetService iDatasheetService;
 
@@ -174,6 +182,11 @@ public class NodeRubbishServiceImpl implements INodeRubbishService {
         // modify the information of the recovery node
         boolean flag = SqlHelper.retBool(nodeMapper.updateInfoByNodeId(nodeId, parentId, null, name));
         ExceptionUtil.isTrue(flag, DatabaseException.EDIT_ERROR);
+        String spaceId = nodeMapper.selectSpaceIdByNodeId(nodeId);
+        // the node may be recovered to another parent node
+        controlRoleCacheService.invalidate(spaceId);
+        // the node and its children can be searched again
+        iNodeSearchIndexService.invalidate(spaceId);
     }
 
     @Override
@@ -0,0 +1,213 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.workspace.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+
+import cn.hutool.cache.Cache;
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import com.apitable.core.constants.RedisConstants;
+import com.apitable.shared.config.properties.NodeSearchIndexProperties;
+import com.apitable.workspace.mapper.NodeMapper;
+import com.apitable.workspace.service.INodeSearchIndexService;
+import com.apitable.workspace.support.NodeNameIndex;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * <p>
+ * node search index of spaces, built lazily on the first search of the space.
+ * every change bumps the version stamp of the space in redis and is published to redis channel,
+ * a node applies the change to its index only if the index is right at the previous version, otherwise drops the index.
+ * a search rebuilds the index when its version is behind the version stamp.
+ * the message is the space id, the version, the operation and its arguments, one per line.
+ * </p>
+ */
+@Slf4j
+@Service
+public class NodeSearchIndexServiceImpl implements INodeSearchIndexService, MessageListener {
+
+    private static final char SEPARATOR = '\n';
+
+    private static final String PUT = "put";
+
+    private static final String REMOVE = "remove";
+
+    private static final String INVALIDATE = "invalidate";
+
+    /**
+     * locks of building index, so that a space is loaded once at a time
+     */
+    private static final int BUILD_LOCKS = 64;
+
+    @Resource
+    private NodeMapper nodeMapper;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private NodeSearchIndexProperties nodeSearchIndexProperties;
+
+    private final Object[] buildLocks = new Object[BUILD_LOCKS];
+
+    private Cache<String, NodeNameIndex> indexes;
+
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < BUILD_LOCKS; i++) {
+            buildLocks[i] = new Object();
+        }
+        indexes = CacheUtil.newLRUCache(nodeSearchIndexProperties.getMaximumSpaces(),
+                nodeSearchIndexProperties.getExpireMinutes() * 60 * 1000L);
+    }
+
+    @Override
+    public List<String> searchNodeIds(String spaceId, String keyword) {
+        if (!nodeSearchIndexProperties.isEnabled()) {
+            return nodeMapper.selectLikeNodeName(spaceId, keyword);
+        }
+        return getIndex(spaceId).search(keyword, nodeSearchIndexProperties.getMaxResults());
+    }
+
+    @Override
+    public void put(String spaceId, String nodeId, String nodeName) {
+        if (!nodeSearchIndexProperties.isEnabled() || StrUtil.hasBlank(spaceId, nodeId, nodeName)) {
+            return;
+        }
+        afterCommit(() -> publish(spaceId, PUT, CollUtil.newArrayList(nodeId, nodeName)));
+    }
+
+    @Override
+    public void remove(String spaceId, Collection<String> nodeIds) {
+        if (!nodeSearchIndexProperties.isEnabled() || StrUtil.isBlank(spaceId) || CollUtil.isEmpty(nodeIds)) {
+            return;
+        }
+        List<String> ids = new ArrayList<>(nodeIds);
+        afterCommit(() -> publish(spaceId, REMOVE, ids));
+    }
+
+    @Override
+    public void invalidate(String spaceId) {
+        if (!nodeSearchIndexProperties.isEnabled() || StrUtil.isBlank(spaceId)) {
+            return;
+        }
+        afterCommit(() -> publish(spaceId, INVALIDATE, Collections.emptyList()));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        List<String> lines = StrUtil.split(new String(message.getBody(), StandardCharsets.UTF_8), SEPARATOR);
+        if (lines.size() < 3) {
+            log.warn("Ignore invalid node search index message: {}", lines);
+            return;
+        }
+        applyLocal(lines.get(0), Long.parseLong(lines.get(1)), lines.get(2), lines.subList(3, lines.size()));
+    }
+
+    private NodeNameIndex getIndex(String spaceId) {
+        long version = getVersion(spaceId);
+        NodeNameIndex index = indexes.get(spaceId);
+        if (index != null && index.getVersion() == version) {
+            return index;
+        }
+        synchronized (buildLocks[Math.floorMod(spaceId.hashCode(), BUILD_LOCKS)]) {
+            index = indexes.get(spaceId);
+            if (index != null && index.getVersion() == version) {
+                return index;
+            }
+            long start = System.currentTimeMillis();
+            // read the version before loading, a change committed meanwhile makes the next search rebuild again
+            version = getVersion(spaceId);
+            index = NodeNameIndex.of(version, nodeMapper.selectSearchableNodeNameBySpaceId(spaceId));
+            indexes.put(spaceId, index);
+            log.info("Build node search index of space「{}」, nodes: {}, cost: {}ms", spaceId, index.size(), System.currentTimeMillis() - start);
+            return index;
+        }
+    }
+
+    private void publish(String spaceId, String operation, List<String> args) {
+        Long version = stringRedisTemplate.opsForValue().increment(RedisConstants.getNodeSearchVersionKey(spaceId));
+        if (version == null) {
+            return;
+        }
+        // apply locally first, the search right after the change sees it without waiting for the message
+        applyLocal(spaceId, version, operation, args);
+        StringBuilder message = new StringBuilder(spaceId).append(SEPARATOR).append(version).append(SEPARATOR).append(operation);
+        args.forEach(arg -> message.append(SEPARATOR).append(arg));
+        stringRedisTemplate.convertAndSend(RedisConstants.NODE_SEARCH_INDEX_CHANNEL, message.toString());
+    }
+
+    private void applyLocal(String spaceId, long version, String operation, List<String> args) {
+        NodeNameIndex index = indexes.get(spaceId, false);
+        if (index == null) {
+            return;
+        }
+        boolean applied;
+        switch (operation) {
+            case PUT:
+                // node name is the rest of the message
+                applied = args.size() >= 2 && index.put(version, args.get(0), CollUtil.join(args.subList(1, args.size()), String.valueOf(SEPARATOR)));
+                break;
+            case REMOVE:
+                applied = index.remove(version, args);
+                break;
+            default:
+                applied = index.getVersion() >= version;
+                break;
+        }
+        if (!applied) {
+            indexes.remove(spaceId);
+        }
+    }
+
+    private long getVersion(String spaceId) {
+        String version = stringRedisTemplate.opsForValue().get(RedisConstants.getNodeSearchVersionKey(spaceId));
+        return version != null ? Long.parseLong(version) : 0L;
+    }
+
+    private void afterCommit(Runnable runnable) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    runnable.run();
+                }
+            });
+            return;
+        }
+        runnable.run();
+    }
+}
@@ -21,6 +21,7 @@ package com.apitable.workspace.service.impl;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -31,8 +32,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -45,7 +46,6 @@ import cn.hutool.core.map.MapUtil;
 import cn.hutool.core.util.BooleanUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.json.JSONArray;
 import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
 import com.alibaba.excel.EasyExcel;
@@ -58,8 +58,7 @@ import com.baomidou.mybatisplus.core.toolkit.IdWorker;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.baomidou.mybatisplus.extension.toolkit.SqlHelper;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVRecord;
+import org.apache.commons.io.input.ReaderInputStream;
 import org.apache.poi.EncryptedDocumentException;
 
 import com.apitable.base.enums.ActionException;
@@ -75,6 +74,7 @@ import com.apitable.organization.dto.MemberDTO;
 import com.apitable.organization.mapper.MemberMapper;
 import com.apitable.organization.service.IMemberService;
 import com.apitable.shared.cache.bean.LoginUserDto;
+import com.apitable.shared.cache.service.ControlRoleCacheService;
 import com.apitable.shared.cache.service.UserSpaceCacheService;
 import com.apitable.shared.component.adapter.MultiDatasourceAdapterTemplate;
 import com.apitable.shared.config.properties.LimitProperties;
@@ -92,9 +92,11 @@ import com.apitable.shared.util.IdUtil;
 import com.apitable.shared.util.StringUtil;
 import com.apitable.space.enums.AuditSpaceAction;
 import com.apitable.space.enums.SpaceException;
+import com.apitable.space.enums.SpaceUsageType;
 import com.apitable.space.mapper.SpaceAssetMapper;
 import com.apitable.space.service.ISpaceAssetService;
 import com.apitable.space.service.ISpaceRoleService;
+import com.apitable.space.service.ISpaceUsageService;
 import com.apitable.space.service.ISpaceService;
 import com.apitable.space.vo.SpaceGlobalFeature;
 import com.apitable.template.enums.TemplateException;
@@ -110,31 +112,26 @@ import com.apitable.workspace.entity.DatasheetMetaEntity;
 import com.apitable.workspace.entity.DatasheetRecordEntity;
 import com.apitable.workspace.entity.NodeDescEntity;
 import com.apitable.workspace.entity.NodeEntity;
-import com.apitable.workspace.enums.FieldType;
 import com.apitable.workspace.enums.IdRulePrefixEnum;
 import com.apitable.workspace.enums.NodeException;
 import com.apitable.workspace.enums.NodeType;
 import com.apitable.workspace.enums.PermissionException;
 import com.apitable.workspace.enums.ResourceType;
-import com.apitable.workspace.enums.ViewType;
 import com.apitable.workspace.listener.CsvReadListener;
 import com.apitable.workspace.listener.ExcelSheetsDataListener;
 import com.apitable.workspace.listener.MultiSheetReadListener;
+import com.apitable.workspace.listener.RecordBatchWriter;
+import com.apitable.user.mapper.UserMapper;
 import com.apitable.workspace.mapper.DatasheetMetaMapper;
 import com.apitable.workspace.mapper.NodeMapper;
 import com.apitable.workspace.mapper.NodeShareSettingMapper;
 import com.apitable.workspace.ro.CreateDatasheetRo;
-import com.apitable.workspace.ro.FieldMapRo;
 import com.apitable.workspace.ro.ImportExcelOpRo;
-import com.apitable.workspace.ro.MetaMapRo;
 import com.apitable.workspace.ro.NodeCopyOpRo;
 import com.apitable.workspace.ro.NodeMoveOpRo;
 import com.apitable.workspace.ro.NodeOpRo;
 import com.apitable.workspace.ro.NodeRelRo;
 import com.apitable.workspace.ro.NodeUpdateOpRo;
-import com.apitable.workspace.ro.RecordDataRo;
-import com.apitable.workspace.ro.RecordMapRo;
-import com.apitable.workspace.ro.ViewMapRo;
 import com.apitable.workspace.service.IDatasheetMetaService;
 import com.apitable.workspace.service.IDatasheetRecordService;
 import com.apitable.workspace.service.IDatasheetService;
@@ -142,8 +139,10 @@ import com.apitable.workspace.service.IFieldRoleService;
 import com.apitable.workspace.service.INodeDescService;
 import com.apitable.workspace.service.INodeRelService;
 import com.apitable.workspace.service.INodeRoleService;
+import com.apitable.workspace.service.INodeSearchIndexService;
 import com.apitable.workspace.service.INodeService;
 import com.apitable.workspace.service.IResourceMetaService;
+import com.apitable.workspace.support.BoundedRecordWriter;
 import com.apitable.workspace.vo.BaseNodeInfo;
 import com.apitable.workspace.vo.FieldPermissionInfo;
 import com.apitable.workspace.vo.NodeFromSpaceVo;
@@ -168,9 +167,12 @@ import com.apitable.integration.grpc.BasicResult;
 import com.apitable.integration.grpc.NodeCopyRo;
 import com.apitable.integration.grpc.NodeDeleteRo;
 
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import static com.apitable.shared.constants.AssetsPublicConstants.SPACE_PREFIX;
@@ -208,6 +210,9 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
     @Resource
     private ISpaceAssetService iSpaceAssetService;
 
+    @Resource
+    private ISpaceUsageService iSpaceUsageService;
+
     @Resource
     private SpaceAssetMapper spaceAssetMapper;
 
@@ -229,6 +234,12 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
     @Resource
     private LimitProperties limitProperties;
 
+    @Resource
+    private TaskExecutor taskExecutor;
+
+    @Resource
+    private UserMapper userMapper;
+
     @Resource
     private IFieldRoleService iFieldRoleService;
 
@@ -250,6 +261,12 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
     @Resource
     private UserSpaceCacheService userSpaceCacheService;
 
+    @Resource
+    private ControlRoleCacheService controlRoleCacheService;
+
+    @Resource
+    private INodeSearchIndexService iNodeSearchIndexService;
+
     @Resource
     private MultiDatasourceAdapterTemplate multiDatasourceAdapterTemplate;
 
@@ -278,6 +295,18 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
         return NodeType.toEnum(type);
     }
 
+    @Override
+    public Map<String, NodeType> getTypeByNodeIds(List<String> nodeIds) {
+        if (nodeIds.isEmpty()) {
+            return new HashMap<>(0);
+        }
+        List<NodeBaseInfoDTO> nodes = nodeMapper.selectBaseNodeInfoByNodeIdsIncludeDelete(nodeIds);
+        Map<String, NodeType> nodeTypes = nodes.stream()
+                .collect(Collectors.toMap(NodeBaseInfoDTO::getNodeId, node -> NodeType.toEnum(node.getType()), (k1, k2) -> k1));
+        ExceptionUtil.isTrue(nodeTypes.keySet().containsAll(nodeIds), PermissionException.NODE_NOT_EXIST);
+        return nodeTypes;
+    }
+
     @Override
     public NodeEntity getByNodeId(String nodeId) {
         log.info("Query node: {}", nodeId);
@@ -401,8 +430,8 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
         if (StrUtil.isBlank(StrUtil.trim(keyword))) {
             return new ArrayList<>();
         }
-        // fuzzy search results
-        List<String> nodeIds = nodeMapper.selectLikeNodeName(spaceId, StrUtil.trim(keyword));
+        // fuzzy search results, ranked and limited by the index, only these nodes are evaluated for permission
+        List<String> nodeIds = iNodeSearchIndexService.searchNodeIds(spaceId, StrUtil.trim(keyword));
         List<NodeInfoVo> nodeInfos = this.getNodeInfoByNodeIds(spaceId, memberId, nodeIds);
         return formatNodeSearchResults(spaceId, nodeInfos);
     }
@@ -491,7 +520,7 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
         // Batch query node information
         List<NodeInfoVo> infos = nodeMapper.selectNodeInfoByNodeIds(roleDict.keySet(), memberId);
         // Node switches to memory custom sorting
-        CollectionUtil.customSequenceSort(infos, NodeInfoVo::getNodeId, new ArrayList<>(roleDict.keySet()));
+        CollectionUtil.customSequenceSort(infos, NodeInfoVo::getNodeId, roleDict.keySet());
         SpaceGlobalFeature feature = iSpaceService.getSpaceGlobalFeature(spaceId);
         setRole(infos, roleDict, feature);
         return infos;
@@ -505,7 +534,7 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
         ExceptionUtil.isFalse(roleDict.isEmpty(), PermissionException.NODE_ACCESS_DENIED);
         List<NodeInfoTreeVo> treeList = nodeMapper.selectNodeInfoTreeByNodeIds(roleDict.keySet(), memberId);
         // Node switches to memory custom sort
-        CollectionUtil.customSequenceSort(treeList, NodeInfoTreeVo::getNodeId, new ArrayList<>(roleDict.keySet()));
+        CollectionUtil.customSequenceSort(treeList, NodeInfoTreeVo::getNodeId, roleDict.keySet());
         SpaceGlobalFeature feature = iSpaceService.getSpaceGlobalFeature(spaceId);
         setRole(treeList, roleDict, feature);
         List<NodeInfoTreeVo> nodeTrees = new DefaultTreeBuildFactory<NodeInfoTreeVo>().doTreeBuild(treeList);
@@ -547,6 +576,7 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
         nodeMapper.updatePreNodeIdBySelf(nodeId, preNodeId, nodeOpRo.getParentId());
         boolean flag = save(nodeEntity);
         ExceptionUtil.isTrue(flag, DatabaseException.INSERT_ERROR);
+        iNodeSearchIndexService.put(spaceId, nodeId, name);
         return nodeEntity.getNodeId();
     }
 
@@ -585,6 +615,9 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
 
         boolean flag = save(nodeEntity);
         ExceptionUtil.isTrue(flag, DatabaseException.INSERT_ERROR);
+        if (dto.getType() != NodeType.ROOT.getNodeType()) {
+            iNodeSearchIndexService.put(dto.getSpaceId(), dto.getNewNodeId(), dto.getNodeName());
+        }
         return nodeEntity.getNodeId();
     }
 
@@ -604,6 +637,7 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
             // iSubscriptionService.checkSheetNums(nodeList.get(0).getSpaceId(), dstCount);
             boolean flag = SqlHelper.retBool(nodeMapper.insertBatch(nodeList));
             ExceptionUtil.isTrue(flag, DatabaseException.INSERT_ERROR);
+            iNodeSearchIndexService.invalidate(nodeList.get(0).getSpaceId());
         }
     }
 
@@ -644,6 +678,9 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
         String nodeName = duplicateNameModify(entity.getParentId(), entity.getType(), name, nodeId);
         boolean flag = SqlHelper.retBool(nodeMapper.updateNameByNodeId(nodeId, nodeName));
         ExceptionUtil.isTrue(flag, DatabaseException.EDIT_ERROR);
+        if (!Boolean.TRUE.equals(entity.getIsTemplate())) {
+            iNodeSearchIndexService.put(entity.getSpaceId(), nodeId, nodeName);
+        }
         // The datasheet node, corresponding to the modification.
         if (entity.getType() == NodeType.DATASHEET.getNodeType()) {
             iDatasheetService.updateDstName(userId, nodeId, nodeName);
@@ -731,6 +768,8 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
             nodeIds.add(nodeEntity.getParentId());
             nodeIds.add(opRo.getParentId());
             info.set(AuditConstants.OLD_PARENT_ID, nodeEntity.getParentId());
+            // the inherited roles of the node and its children are changed
+            controlRoleCacheService.invalidate(nodeEntity.getSpaceId());
         }
         else {
             // Sort at the same level, the old and new front nodes are the same, that is, no movement has occurred.
@@ -750,6 +789,10 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
         nodeMapper.updatePreNodeIdBySelf(nodeEntity.getNodeId(), preNodeId, parentId);
         // Update the information of this node (the ID of the previous node may be updated to null, so update By Id is not used)
         nodeMapper.updateInfoByNodeId(nodeEntity.getNodeId(), parentId, preNodeId, name);
+        if (!name.equals(nodeEntity.getNodeName())) {
+            // renamed for the same name in the new folder
+            iNodeSearchIndexService.put(nodeEntity.getSpaceId(), nodeEntity.getNodeId(), name);
+        }
         // Publish Space Audit Events
         info.set(AuditConstants.MOVE_EFFECT_SUFFIX_NODES, CollUtil.emptyIfNull(suffixNodeIds));
         AuditSpaceArg arg = AuditSpaceArg.builder().action(action).userId(userId).nodeId(opRo.getNodeId()).info(info).build();
@@ -780,10 +823,13 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
             iDatasheetService.updateIsDeletedStatus(userId, nodeIds, true);
             boolean flag = SqlHelper.retBool(nodeMapper.updateIsRubbishByNodeIdIn(userId, nodeIds, true));
             ExceptionUtil.isTrue(flag, DatabaseException.DELETE_ERROR);
+            iNodeSearchIndexService.remove(spaceId, nodeIds);
             // disable node sharing
             nodeShareSettingMapper.disableByNodeIds(nodeIds);
             // delete the spatial attachment resource of the node
             iSpaceAssetService.updateIsDeletedByNodeIds(nodeIds, true);
+            // the roles of the deleted nodes and their children are changed
+            controlRoleCacheService.invalidate(spaceId);
         }
         list.forEach(nodeEntity -> {
             // The previous node corresponding to the updated node
@@ -1006,6 +1052,14 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
         toSaveNode.setCreatedBy(userId);
         toSaveNode.setUpdatedBy(userId);
         this.save(toSaveNode);
+        if (!options.isTemplate()) {
+            if (nodeType == NodeType.FOLDER) {
+                iNodeSearchIndexService.invalidate(spaceId);
+            }
+            else {
+                iNodeSearchIndexService.put(spaceId, toSaveNodeId, name);
+            }
+        }
         // description of batch replication nodes
         iNodeDescService.copyBatch(newNodeMap);
         // Batch copy of spatial attachment resources referenced by nodes
@@ -1090,25 +1144,15 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
         ExceptionUtil.isTrue(flag, NodeException.SHARE_NODE_STORE_FAIL);
         // Copy datasheet processing
         if (nodeTypeToNodeIdsMap.containsKey(NodeType.DATASHEET.getNodeType())) {
+            List<NodeShareTree> datasheets = nodeTypeToNodeIdsMap.get(NodeType.DATASHEET.getNodeType()).stream()
+                    .filter(subNode -> !filterNodeIds.contains(subNode.getNodeId()))
+                    .collect(Collectors.toList());
             if (options.isFilterPermissionField()) {
                 // Obtain the datasheet and the field set of the corresponding column permission
-                Map<String, List<String>> dstPermissionFieldsMap = new HashMap<>(16);
-                nodeTypeToNodeIdsMap.get(NodeType.DATASHEET.getNodeType()).stream()
-                        .filter(subNode -> !filterNodeIds.contains(subNode.getNodeId()))
-                        .forEach(subNode -> {
-                            List<String> permissionFieldIds = iFieldRoleService.getPermissionFieldIds(subNode.getNodeId());
-                            if (!permissionFieldIds.isEmpty()) {
-                                dstPermissionFieldsMap.put(subNode.getNodeId(), permissionFieldIds);
-                            }
-                        });
-                options.setDstPermissionFieldsMap(dstPermissionFieldsMap);
-            }
-            for (NodeShareTree subNode : nodeTypeToNodeIdsMap.get(NodeType.DATASHEET.getNodeType())) {
-                if (filterNodeIds.contains(subNode.getNodeId())) {
-                    continue;
-                }
-                iDatasheetService.copy(userId, spaceId, subNode.getNodeId(), newNodeMap.get(subNode.getNodeId()), subNode.getNodeName(), options, newNodeMap);
+                List<String> dstIds = datasheets.stream().map(NodeShareTree::getNodeId).collect(Collectors.toList());
+                options.setDstPermissionFieldsMap(iFieldRoleService.getPermissionFieldIdsMap(dstIds));
             }
+            this.copyDatasheets(userId, spaceId, datasheets, newNodeMap, options);
         }
         // Copy form processing
         if (nodeTypeToNodeIdsMap.containsKey(NodeType.FORM.getNodeType())) {
@@ -1142,6 +1186,69 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
         }
     }
 
+    /**
+     * Copy the datasheets of a folder one by one,
+     * and the records of independent datasheets are copied concurrently by the bounded record writer.
+     */
+    private void copyDatasheets(Long userId, String spaceId, List<NodeShareTree> datasheets,
+            Map<String, String> newNodeMap, NodeCopyOptions options) {
+        if (datasheets.isEmpty()) {
+            return;
+        }
+        BoundedRecordWriter recordCopier = options.isCopyData() ? this.createRecordCopier() : null;
+        try {
+            for (NodeShareTree subNode : datasheets) {
+                iDatasheetService.copy(userId, spaceId, subNode.getNodeId(), newNodeMap.get(subNode.getNodeId()),
+                        subNode.getNodeName(), options, newNodeMap, recordCopier);
+            }
+            if (recordCopier != null) {
+                recordCopier.finish();
+            }
+        }
+        catch (RuntimeException e) {
+            if (recordCopier != null) {
+                recordCopier.abort();
+                if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                    this.removeCopiedRecords(recordCopier);
+                }
+            }
+            throw e;
+        }
+    }
+
+    private BoundedRecordWriter createRecordCopier() {
+        BoundedRecordWriter recordCopier = new BoundedRecordWriter(taskExecutor, limitProperties.getCopyMaxParallelDatasheets(), "copy");
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // records commit on their own, remove them when the datasheets are rolled back
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        removeCopiedRecords(recordCopier);
+                    }
+                }
+            });
+        }
+        return recordCopier;
+    }
+
+    /**
+     * remove the records copied before the copy failed, their datasheets are never created
+     */
+    private void removeCopiedRecords(BoundedRecordWriter recordCopier) {
+        Set<String> dstIds = recordCopier.getDstIds();
+        if (dstIds.isEmpty()) {
+            return;
+        }
+        log.warn("Copy failed, remove the copied records of datasheet: {}", dstIds);
+        try {
+            iDatasheetRecordService.removeByDstIds(dstIds);
+        }
+        catch (RuntimeException e) {
+            log.error("Fail to remove the records of failed copy: {}", dstIds, e);
+        }
+    }
+
     public void processNodeHasSourceDatasheet(Integer nodeType, List<String> filterNodeIds, Map<Integer, List<NodeShareTree>> nodeTypeToNodeIdsMap) {
         if (!nodeTypeToNodeIdsMap.containsKey(nodeType)) {
             return;
@@ -1199,57 +1306,24 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
         if (StrUtil.isBlank(fileSuffix)) {
             throw new BusinessException("File name is empty ");
         }
+        Long memberId = userSpaceCacheService.getMemberId(userId, spaceId);
+        checkEnableOperateNodeBySpaceFeature(memberId, spaceId, opRo.getParentId());
+        String uuid = userMapper.selectUuidById(userId);
         // When importing a node, the uploaded file is in CSV format.
         if (fileSuffix.equals(FileSuffixConstants.CSV)) {
-            // identification file code
+            // identification file code, and transcode while reading
             String charset = FileTool.identifyCoding(file.getInputStream());
-            Iterable<CSVRecord> csvRecords = CSVFormat.DEFAULT.withNullString("").parse(
-                    new InputStreamReader(file.getInputStream(), charset)
-            );
-            List<List<Object>> readAll = new ArrayList<>();
-            for (CSVRecord csvRecord : csvRecords) {
-                // create csv row to store data per row
-                List<Object> csvRow = new ArrayList<>();
-                for (int i = 0; i < csvRecord.size(); i++) {
-                    String value = csvRecord.get(i);
-                    if (StrUtil.isBlank(value)) {
-                        csvRow.add("");
-                    }
-                    else {
-                        csvRow.add(value);
-                    }
-                }
-                readAll.add(csvRow);
-            }
-            return this.processExcel(readAll, opRo.getParentId(), spaceId, userId, mainName);
+            InputStream inputStream = new ReaderInputStream(new InputStreamReader(file.getInputStream(), charset), Charset.defaultCharset());
+            return this.parseCsv(userId, uuid, spaceId, memberId, opRo.getParentId(), mainName, inputStream);
         }
         // When importing a node, the uploaded file is in XLS or XLSX format.
         if (fileSuffix.equals(FileSuffixConstants.XLS) || fileSuffix.equals(FileSuffixConstants.XLSX)) {
-            ExcelReader excelReader = null;
             try {
-                // ExcelListener (cannot be handed over to spring container management)
-                ExcelSheetsDataListener sheetsDataListener = new ExcelSheetsDataListener();
-                excelReader = EasyExcel.read(file.getInputStream(), null, sheetsDataListener).build();
-                List<ReadSheet> readSheets = excelReader.excelExecutor().sheetList();
-                // If there is a WPS hidden table, the removal will not be processed.
-                readSheets.removeIf(readSheet -> "WpsReserved_CellImgList".equals(readSheet.getSheetName()));
-                // Excel contains only one worksheet
-                if (readSheets.size() == 1) {
-                    List<List<Object>> read = this.importSingleSheetByEasyExcel(excelReader, sheetsDataListener, readSheets.get(0));
-                    return this.processExcel(read, opRo.getParentId(), spaceId, userId, mainName);
-                }
-                // Excel contains multiple worksheets
-                Map<String, List<List<Object>>> readAll = this.importMultipleSheetsByEasyExcel(excelReader, sheetsDataListener, readSheets);
-                return this.processExcels(readAll, opRo.getParentId(), spaceId, userId, mainName);
+                return this.parseExcel(userId, uuid, spaceId, memberId, opRo.getParentId(), mainName, fileSuffix, file.getInputStream());
             }
             catch (EncryptedDocumentException e) {
                 throw new BusinessException(ActionException.FILE_HAS_PASSWORD);
             }
-            finally {
-                if (Objects.nonNull(excelReader)) {
-                    excelReader.finish();
-                }
-            }
         }
         else {
             throw new BusinessException(ActionException.FILE_ERROR_FORMAT);
@@ -1306,146 +1380,6 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
         ExceptionUtil.isTrue(flag, DatabaseException.EDIT_ERROR);
     }
 
-    /**
-     * processing excel data
-     */
-    private String processExcel(List<List<Object>> readAll, String parentId, String spaceId, Long userId, String name) {
-        Long memberId = userSpaceCacheService.getMemberId(userId, spaceId);
-        checkEnableOperateNodeBySpaceFeature(memberId, spaceId, parentId);
-        // long maxRowLimit = iSubscriptionService.getPlanMaxRows(spaceId);
-        // ExceptionUtil.isTrue(readAll != null && readAll.size() <= maxRowLimit + 1, SubscribeFunctionException.ROW_LIMIT);
-        // If the table is empty, create an initialization table
-        if (readAll.size() == 0) {
-            return this.createNode(userId, spaceId, NodeOpRo.builder()
-                    .type(NodeType.DATASHEET.getNodeType())
-                    .parentId(parentId)
-                    .nodeName(name)
-                    .build());
-        }
-        else {
-            boolean first = true;
-            JSONObject recordMap = JSONUtil.createObj();
-            JSONObject fieldMap = JSONUtil.createObj();
-            ViewMapRo viewMapRo = new ViewMapRo();
-            JSONArray columns = JSONUtil.createArray();
-            JSONArray rows = JSONUtil.createArray();
-            List<String> fieldIds = null;
-            List<String> fldNameList = new ArrayList<>();
-            // Traverse row, first row as field attribute
-            for (List<Object> list : readAll) {
-                // Handling Empty Character Columns at the End Caused by excel Format Problems
-                if (ObjectUtil.isNull(CollUtil.getLast(list)) || CollUtil.getLast(list) == "") {
-                    int i;
-                    for (i = list.size() - 1; i >= 0; i--) {
-                        if (ObjectUtil.isNotNull(list.get(i)) && list.get(i) != "") {
-                            break;
-                        }
-                    }
-                    list = CollUtil.sub(list, 0, i + 1);
-                }
-                ExceptionUtil.isTrue(list.size() <= limitProperties.getMaxColumnCount(), ActionException.COLUMN_EXCEED_LIMIT);
-                if (first) {
-                    fieldIds = new ArrayList<>(list.size());
-                    first = false;
-                    int i = 1;
-                    for (Object fieldName : list) {
-                        this.addField(fieldIds, columns, fieldMap, null == fieldName ? null : fieldName.toString(), i, fldNameList);
-                        i++;
-                    }
-                    viewMapRo = ViewMapRo.builder()
-                            .id(IdUtil.createViewId())
-                            .name(I18nStringsUtil.t("default_view"))
-                            .type(ViewType.GRID.getType())
-                            .columns(columns)
-                            .frozenColumnCount(1)
-                            .build();
-                    if (readAll.size() == 1) {
-                        // Only one line acts as a field condition and fills a blank line.
-                        this.addRecord(recordMap, rows, null, null, null, null, null, fldNameList);
-                    }
-                }
-                else {
-                    // processing record
-                    this.addRecord(recordMap, rows, list, fieldIds, columns, fieldMap, viewMapRo, fldNameList);
-                }
-            }
-            viewMapRo.setRows(rows);
-            JSONArray views = JSONUtil.createArray();
-            views.add(viewMapRo);
-            MetaMapRo metaMapRo = MetaMapRo.builder().fieldMap(fieldMap).views(views).build();
-            String nodeId = IdUtil.createDstId();
-            // Change the pre-node ID of the original first node to the imported node ID
-            nodeMapper.updatePreNodeIdBySelf(nodeId, null, parentId);
-            // create node datasheet
-            this.createChildNode(userId, CreateNodeDto.builder()
-                    .spaceId(spaceId)
-                    .parentId(parentId)
-                    .nodeName(name)
-                    .newNodeId(nodeId)
-                    .type(NodeType.DATASHEET.getNodeType()).build());
-            iDatasheetService.create(userId, spaceId, nodeId, name, metaMapRo, recordMap);
-            return nodeId;
-        }
-    }
-
-    /**
-     * add records
-     */
-    private void addRecord(JSONObject recordMap, JSONArray rows, List<Object> list, List<String> fieldIds, JSONArray columns, JSONObject fieldMap, ViewMapRo viewMapRo, List<String> fldNameList) {
-        String recordId = IdUtil.createRecordId();
-        JSONObject recordJson = JSONUtil.createObj();
-        recordJson.set("recordId", recordId);
-        rows.add(recordJson);
-        JSONObject data = JSONUtil.createObj();
-        if (CollUtil.isNotEmpty(list)) {
-            int i = 0;
-            for (Object text : list) {
-                if (i >= fieldIds.size()) {
-                    // The number of columns exceeds the first row list, fill the field
-                    this.addField(fieldIds, columns, fieldMap, null, i + 1, fldNameList);
-                    viewMapRo.setColumns(columns);
-                }
-                if (ObjectUtil.isNotNull(text) && text != "") {
-                    JSONArray filedArray = JSONUtil.createArray();
-                    filedArray.add(RecordDataRo.builder().text(text.toString()).type(FieldType.TEXT.getFieldType()).build());
-                    data.set(fieldIds.get(i), filedArray);
-                }
-                i++;
-            }
-        }
-        recordMap.set(recordId, RecordMapRo.builder().id(recordId).data(data).build());
-    }
-
-    /**
-     * add field
-     */
-    private void addField(List<String> fieldIds, JSONArray columns, JSONObject fieldMap, String fieldName, int i, List<String> fldNameList) {
-        String fieldId = IdUtil.createFieldId();
-        fieldIds.add(fieldId);
-        JSONObject fieldJson = JSONUtil.createObj();
-        fieldJson.set("fieldId", fieldId);
-        if (i == 1) {
-            // Add the total number of statistical records in the first column
-            fieldJson.set("statType", 1);
-        }
-        columns.add(fieldJson);
-        if (StrUtil.isBlank(fieldName)) {
-            fieldName = "Field " + i;
-        }
-        // ensure that the field name is unique
-        int j = 2;
-        String name = fieldName;
-        while (fldNameList.contains(fieldName)) {
-            fieldName = name.concat(" " + j);
-            j++;
-        }
-        fldNameList.add(fieldName);
-        fieldMap.set(fieldId, FieldMapRo.builder()
-                .id(fieldId)
-                .name(fieldName)
-                .type(FieldType.TEXT.getFieldType()).build());
-    }
-
     /**
      * duplicate name modification
      */
@@ -1596,26 +1530,6 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
         }
     }
 
-    /**
-     * operate multiple excel sheet
-     *
-     * @param readAll all records
-     * @param parentId parent node id
-     * @param spaceId space id
-     * @param userId user id
-     * @param name node name
-     * @return node id
-     */
-    private String processExcels(Map<String, List<List<Object>>> readAll, String parentId, String spaceId, Long userId, String name) {
-        String nodeId = this.createNode(userId, spaceId, NodeOpRo.builder()
-                .type(NodeType.FOLDER.getNodeType())
-                .parentId(parentId)
-                .nodeName(name)
-                .build());
-        readAll.forEach((sheetName, read) -> processExcel(read, nodeId, spaceId, userId, sheetName));
-        return nodeId;
-    }
-
     /**
      * Get the superior path, split by "/", do not retain the root node
      */
@@ -1650,10 +1564,10 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public String parseExcel(Long userId, String uuid, String spaceId, Long memberId, String parentNodeId, String fileName, String fileSuffix, InputStream inputStream) {
         ExcelReader excelReader = null;
-        MultiSheetReadListener readListener = new MultiSheetReadListener(this, userId, uuid, spaceId, memberId, parentNodeId, fileName);
+        RecordBatchWriter recordWriter = createImportRecordWriter();
+        MultiSheetReadListener readListener = new MultiSheetReadListener(SpringContextHolder.getBean(INodeService.class), recordWriter, userId, uuid, spaceId, memberId, parentNodeId, fileName);
         ExcelReaderBuilder readerBuilder;
         ExcelTypeEnum excelType = FileSuffixConstants.XLS.equals(fileSuffix) ?
                 ExcelTypeEnum.XLS :
@@ -1665,8 +1579,13 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
             excelReader = readerBuilder.registerReadListener(readListener).build();
             List<ReadSheet> readSheets = excelReader.excelExecutor().sheetList();
             excelReader.read(readSheets);
+            iSpaceUsageService.applyDelta(spaceId, SpaceUsageType.RECORD, recordWriter.getSavedCount());
             return readListener.getRetNodeData().getNodeId();
         }
+        catch (RuntimeException e) {
+            this.abortImport(recordWriter);
+            throw e;
+        }
         finally {
             if (excelReader != null) {
                 // Don't forget to close it here. Temporary files will be created when reading, and the disk will collapse.
@@ -1676,18 +1595,23 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
     }
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public String parseCsv(Long userId, String uuid, String spaceId, Long memberId, String parentNodeId, String fileName, InputStream inputStream) {
         ExcelReader excelReader = null;
-        CsvReadListener readListener = new CsvReadListener(this, userId, uuid, spaceId, memberId, parentNodeId, fileName);
+        RecordBatchWriter recordWriter = createImportRecordWriter();
+        CsvReadListener readListener = new CsvReadListener(SpringContextHolder.getBean(INodeService.class), recordWriter, userId, uuid, spaceId, memberId, parentNodeId, fileName);
         try {
             excelReader = EasyExcel.read(inputStream)
                     .excelType(ExcelTypeEnum.CSV)
                     .registerReadListener(readListener)
                     .build();
             excelReader.readAll();
+            iSpaceUsageService.applyDelta(spaceId, SpaceUsageType.RECORD, recordWriter.getSavedCount());
             return readListener.getRetNodeId();
         }
+        catch (RuntimeException e) {
+            this.abortImport(recordWriter);
+            throw e;
+        }
         finally {
             if (excelReader != null) {
                 // Don't forget to close it here. Temporary files will be created when reading, and the disk will collapse.
@@ -1696,6 +1620,33 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
         }
     }
 
+    /**
+     * Records are inserted in batches on the task executor while the file is parsed,
+     * and the datasheet is created in one transaction after all records are saved.
+     */
+    private RecordBatchWriter createImportRecordWriter() {
+        return new RecordBatchWriter(taskExecutor, iDatasheetRecordService::batchSave,
+                limitProperties.getImportBatchSize(), limitProperties.getImportMaxPendingBatches());
+    }
+
+    /**
+     * remove the records saved before the import failed, their datasheets are never created
+     */
+    private void abortImport(RecordBatchWriter recordWriter) {
+        recordWriter.abort();
+        Set<String> dstIds = recordWriter.getDstIds();
+        if (dstIds.isEmpty()) {
+            return;
+        }
+        log.warn("Import failed, remove the saved records of datasheet: {}", dstIds);
+        try {
+            iDatasheetRecordService.removeByDstIds(dstIds);
+        }
+        catch (RuntimeException e) {
+            log.error("Fail to remove the records of failed import: {}", dstIds, e);
+        }
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void batchCreateDataSheet(NodeData data, List<NodeEntity> nodeEntities, List<DatasheetEntity> datasheetEntities, List<DatasheetMetaEntity> metaEntities, List<DatasheetRecordEntity> recordEntities) {
@@ -1703,6 +1654,7 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
         nodeMapper.updatePreNodeIdBySelf(data.getNodeId(), null, data.getParentId());
 
         nodeMapper.insertBatch(nodeEntities);
+        iNodeSearchIndexService.invalidate(nodeEntities.get(0).getSpaceId());
 
         iDatasheetService.batchSave(datasheetEntities);
 
@@ -1711,11 +1663,6 @@ public class NodeServiceImpl extends ServiceImpl<NodeMapper, NodeEntity> impleme
         iDatasheetRecordService.batchSave(recordEntities);
     }
 
-    @Override
-    public void batchSaveDstRecords(List<DatasheetRecordEntity> recordEntities) {
-        iDatasheetRecordService.batchSave(recordEntities);
-    }
-
     @Override
     public NodeExtra getNodeExtras(String nodeId, String spaceId, String extras) {
         NodeExtra extraVo = new NodeExtra();
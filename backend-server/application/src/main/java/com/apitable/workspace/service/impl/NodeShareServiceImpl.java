@@ -292,7 +292,7 @@ public class NodeShareServiceImpl implements INodeShareService {
         // query sharing node tree
         List<NodeShareTree> list = nodeMapper.selectShareTree(filterNodeIds);
         // node switches to memory custom sort
-        CollectionUtil.customSequenceSort(list, NodeShareTree::getNodeId, new ArrayList<>(filterNodeIds));
+        CollectionUtil.customSequenceSort(list, NodeShareTree::getNodeId, filterNodeIds);
         List<NodeShareTree> treeList = new DefaultTreeBuildFactory<NodeShareTree>(node.getNodeId()).doTreeBuild(list);
         nodeShareInfoVo.setNodeTree(treeList);
         NodeShareTree nodeTree = new NodeShareTree();
@@ -0,0 +1,164 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.workspace.support;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+import lombok.extern.slf4j.Slf4j;
+
+import com.apitable.core.exception.BusinessException;
+
+/**
+ * <p>
+ * Bounded writer of datasheet records, shared by the folder copy and the file import.
+ * The writes are handed over to the task executor, at most {@code maxPendingWrites} at a time,
+ * the caller waits while too many writes are pending, and a write rejected by the saturated executor runs on the caller.
+ * The first failed write stops the writes not started yet, and it is thrown to the caller.
+ * </p>
+ * <p>
+ * Writes commit on their own, the records are only visible after the datasheet node is created,
+ * and the caller should remove the records of {@link #getDstIds()} when the writing fails.
+ * </p>
+ */
+@Slf4j
+public class BoundedRecordWriter {
+
+    private final Executor executor;
+
+    private final String operation;
+
+    private final int maxPendingWrites;
+
+    private final Semaphore pendingWrites;
+
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    private final Set<String> dstIds = Collections.synchronizedSet(new LinkedHashSet<>());
+
+    /**
+     * @param executor         task executor
+     * @param maxPendingWrites writes running or waiting on the executor at the same time
+     * @param operation        name of the operation in errors and logs, such as copy or import
+     */
+    public BoundedRecordWriter(Executor executor, int maxPendingWrites, String operation) {
+        this.executor = executor;
+        this.operation = operation;
+        this.maxPendingWrites = Math.max(1, maxPendingWrites);
+        this.pendingWrites = new Semaphore(this.maxPendingWrites);
+    }
+
+    /**
+     * hand over the write of a datasheet
+     *
+     * @param dstId datasheet id
+     * @param write records write
+     */
+    public void submit(String dstId, Runnable write) {
+        submit(Collections.singleton(dstId), write);
+    }
+
+    /**
+     * hand over a write, the caller waits while too many writes are pending
+     *
+     * @param dstIds datasheet ids of the written records
+     * @param write  records write
+     */
+    public void submit(Collection<String> dstIds, Runnable write) {
+        throwIfFailed();
+        try {
+            pendingWrites.acquire();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(operation + " interrupted");
+        }
+        this.dstIds.addAll(dstIds);
+        Runnable task = () -> write(dstIds, write);
+        try {
+            executor.execute(task);
+        }
+        catch (RejectedExecutionException e) {
+            // executor is saturated, write on the calling thread
+            task.run();
+        }
+    }
+
+    /**
+     * wait until all writes are done
+     *
+     * @throws RuntimeException the first exception of writes
+     */
+    public void finish() {
+        awaitPendingWrites();
+        throwIfFailed();
+    }
+
+    /**
+     * stop writing and wait for the pending writes
+     */
+    public void abort() {
+        failure.compareAndSet(null, new BusinessException(operation + " aborted"));
+        awaitPendingWrites();
+    }
+
+    /**
+     * datasheet ids of the writes submitted
+     *
+     * @return dst ids
+     */
+    public Set<String> getDstIds() {
+        synchronized (dstIds) {
+            return new LinkedHashSet<>(dstIds);
+        }
+    }
+
+    private void write(Collection<String> dstIds, Runnable write) {
+        try {
+            if (failure.get() == null) {
+                write.run();
+            }
+        }
+        catch (RuntimeException e) {
+            log.error("Fail to {} records of datasheet: {}", operation, dstIds, e);
+            failure.compareAndSet(null, e);
+        }
+        finally {
+            pendingWrites.release();
+        }
+    }
+
+    private void awaitPendingWrites() {
+        pendingWrites.acquireUninterruptibly(maxPendingWrites);
+        pendingWrites.release(maxPendingWrites);
+    }
+
+    private void throwIfFailed() {
+        RuntimeException e = failure.get();
+        if (e != null) {
+            throw e;
+        }
+    }
+}
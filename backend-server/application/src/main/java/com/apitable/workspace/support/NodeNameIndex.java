@@ -0,0 +1,352 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.workspace.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.apitable.workspace.vo.BaseNodeInfo;
+
+/**
+ * <p>
+ * In-memory n-gram index of the node names of a space, replaces the fuzzy LIKE query of node search.
+ * Every name is posted under its characters and its trigrams,
+ * a keyword of three characters or more intersects the trigram postings, a shorter one intersects the character postings,
+ * and the candidates are checked with contains, so the result is the same as the LIKE query.
+ * </p>
+ * <p>
+ * Names are case-insensitive. Documents are append-only, a renamed or removed node leaves a tombstone,
+ * and the postings are rebuilt from the live documents when tombstones pile up.
+ * Each change carries the version of the space, a change out of order is refused and the caller drops the index.
+ * </p>
+ */
+public final class NodeNameIndex {
+
+    private static final int TRIGRAM = 3;
+
+    /**
+     * rebuild postings when tombstones exceed this and half of the documents
+     */
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long version;
+
+    private String[] nodeIds;
+
+    private String[] names;
+
+    private int docCount;
+
+    private final BitSet removed = new BitSet();
+
+    private int removedCount;
+
+    private final Map<String, Integer> docs;
+
+    private Map<Long, Postings> postings;
+
+    private NodeNameIndex(long version, int expectedSize) {
+        int capacity = Math.max(16, expectedSize);
+        this.version = version;
+        this.nodeIds = new String[capacity];
+        this.names = new String[capacity];
+        this.docs = new HashMap<>(Math.max(16, (int) (capacity / 0.75f) + 1));
+        this.postings = new HashMap<>();
+    }
+
+    /**
+     * build index of node names
+     * @param version version of the space the nodes are loaded at
+     * @param nodes node id and node name
+     * @return NodeNameIndex
+     */
+    public static NodeNameIndex of(long version, List<BaseNodeInfo> nodes) {
+        NodeNameIndex index = new NodeNameIndex(version, nodes.size());
+        for (BaseNodeInfo node : nodes) {
+            index.add(node.getNodeId(), node.getNodeName());
+        }
+        return index;
+    }
+
+    public long getVersion() {
+        lock.readLock().lock();
+        try {
+            return version;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * number of the live nodes
+     * @return size
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docCount - removedCount;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * add a node or rename it
+     * @param version  version of the change
+     * @param nodeId   node id
+     * @param nodeName node name
+     * @return false if the change is out of order, the index should be dropped
+     */
+    public boolean put(long version, String nodeId, String nodeName) {
+        lock.writeLock().lock();
+        try {
+            if (version <= this.version) {
+                return true;
+            }
+            if (version != this.version + 1) {
+                return false;
+            }
+            Integer doc = docs.get(nodeId);
+            if (doc == null || !names[doc].equals(normalize(nodeName))) {
+                delete(nodeId);
+                add(nodeId, nodeName);
+            }
+            this.version = version;
+            compactIfNecessary();
+            return true;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * remove nodes
+     * @param version version of the change
+     * @param nodeIds node ids
+     * @return false if the change is out of order, the index should be dropped
+     */
+    public boolean remove(long version, Collection<String> nodeIds) {
+        lock.writeLock().lock();
+        try {
+            if (version <= this.version) {
+                return true;
+            }
+            if (version != this.version + 1) {
+                return false;
+            }
+            nodeIds.forEach(this::delete);
+            this.version = version;
+            compactIfNecessary();
+            return true;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * search nodes whose name contains the keyword,
+     * ranked by exact match, prefix, suffix and contains, then the shorter name first
+     * @param keyword keyword
+     * @param limit   maximum number of node ids
+     * @return node ids
+     */
+    public List<String> search(String keyword, int limit) {
+        String kw = normalize(keyword);
+        if (kw.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            int[] candidates = candidates(kw);
+            long[] scores = new long[candidates.length];
+            int matched = 0;
+            for (int doc : candidates) {
+                if (removed.get(doc)) {
+                    continue;
+                }
+                String name = names[doc];
+                if (!name.contains(kw)) {
+                    continue;
+                }
+                long rank = name.length() == kw.length() ? 1 : name.startsWith(kw) ? 2 : name.endsWith(kw) ? 3 : 4;
+                scores[matched++] = rank << 60 | (long) Math.min(name.length(), 0xFFFFFFF) << 32 | doc;
+            }
+            Arrays.sort(scores, 0, matched);
+            List<String> result = new ArrayList<>(Math.min(matched, limit));
+            for (int i = 0; i < matched && i < limit; i++) {
+                result.add(nodeIds[(int) scores[i]]);
+            }
+            return result;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int[] candidates(String kw) {
+        List<Postings> lists = new ArrayList<>();
+        for (long key : grams(kw)) {
+            Postings list = postings.get(key);
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        lists.sort((a, b) -> Integer.compare(a.size, b.size));
+        int[] result = Arrays.copyOf(lists.get(0).docs, lists.get(0).size);
+        int size = result.length;
+        for (int i = 1; i < lists.size() && size > 0; i++) {
+            size = intersect(result, size, lists.get(i));
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    /**
+     * intersect sorted doc ids in place
+     */
+    private static int intersect(int[] docs, int size, Postings other) {
+        int n = 0;
+        int j = 0;
+        for (int i = 0; i < size && j < other.size; i++) {
+            while (j < other.size && other.docs[j] < docs[i]) {
+                j++;
+            }
+            if (j < other.size && other.docs[j] == docs[i]) {
+                docs[n++] = docs[i];
+            }
+        }
+        return n;
+    }
+
+    private void add(String nodeId, String nodeName) {
+        String name = normalize(nodeName);
+        if (docCount == nodeIds.length) {
+            nodeIds = Arrays.copyOf(nodeIds, docCount * 2);
+            names = Arrays.copyOf(names, docCount * 2);
+        }
+        int doc = docCount++;
+        nodeIds[doc] = nodeId;
+        names[doc] = name;
+        docs.put(nodeId, doc);
+        post(doc, name);
+    }
+
+    private void post(int doc, String name) {
+        for (long key : grams(name)) {
+            postings.computeIfAbsent(key, k -> new Postings()).add(doc);
+        }
+        if (name.length() >= TRIGRAM) {
+            // a short keyword only uses character postings
+            for (int i = 0; i < name.length(); i++) {
+                postings.computeIfAbsent((long) name.charAt(i), k -> new Postings()).add(doc);
+            }
+        }
+    }
+
+    private void delete(String nodeId) {
+        Integer doc = docs.remove(nodeId);
+        if (doc != null) {
+            removed.set(doc);
+            removedCount++;
+        }
+    }
+
+    private void compactIfNecessary() {
+        if (removedCount <= COMPACT_THRESHOLD || removedCount * 2 <= docCount) {
+            return;
+        }
+        String[] liveIds = new String[docCount - removedCount];
+        String[] liveNames = new String[liveIds.length];
+        int n = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (!removed.get(doc)) {
+                liveIds[n] = nodeIds[doc];
+                liveNames[n++] = names[doc];
+            }
+        }
+        nodeIds = Arrays.copyOf(liveIds, Math.max(16, n));
+        names = Arrays.copyOf(liveNames, Math.max(16, n));
+        docCount = n;
+        removed.clear();
+        removedCount = 0;
+        docs.clear();
+        postings = new HashMap<>();
+        for (int doc = 0; doc < n; doc++) {
+            docs.put(nodeIds[doc], doc);
+            post(doc, names[doc]);
+        }
+    }
+
+    /**
+     * grams of the keyword or the name, trigrams if long enough, otherwise characters
+     */
+    private static Set<Long> grams(String text) {
+        Set<Long> keys = new LinkedHashSet<>();
+        if (text.length() < TRIGRAM) {
+            for (int i = 0; i < text.length(); i++) {
+                keys.add((long) text.charAt(i));
+            }
+            return keys;
+        }
+        for (int i = 0; i + TRIGRAM <= text.length(); i++) {
+            keys.add(1L << 48 | (long) text.charAt(i) << 32 | (long) text.charAt(i + 1) << 16 | text.charAt(i + 2));
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * ascending doc ids, docs are appended in order so the list stays sorted
+     */
+    private static final class Postings {
+
+        private int[] docs = new int[4];
+
+        private int size;
+
+        void add(int doc) {
+            if (size > 0 && docs[size - 1] == doc) {
+                return;
+            }
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size++] = doc;
+        }
+    }
+}
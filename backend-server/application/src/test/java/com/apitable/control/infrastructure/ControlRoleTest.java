@@ -21,25 +21,35 @@ package com.apitable.control.infrastructure;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+import cn.hutool.core.bean.BeanUtil;
 import org.junit.jupiter.api.Test;
 
 import com.apitable.control.infrastructure.permission.FieldPermission;
 import com.apitable.control.infrastructure.permission.NodePermission;
 import com.apitable.control.infrastructure.role.ControlRole;
 import com.apitable.control.infrastructure.role.ControlRoleManager;
+import com.apitable.control.infrastructure.role.DefaultWorkbenchRole;
+import com.apitable.control.infrastructure.role.FieldEditorRole;
 import com.apitable.control.infrastructure.role.FieldReaderRole;
 import com.apitable.control.infrastructure.role.NodeEditorRole;
 import com.apitable.control.infrastructure.role.NodeManagerRole;
 import com.apitable.control.infrastructure.role.NodeOwnerRole;
 import com.apitable.control.infrastructure.role.NodeReaderRole;
+import com.apitable.control.infrastructure.role.NodeRole;
 import com.apitable.control.infrastructure.role.NodeUpdaterRole;
 import com.apitable.control.infrastructure.role.RoleConstants.Field;
 import com.apitable.control.infrastructure.role.RoleConstants.Node;
+import com.apitable.space.vo.SpaceGlobalFeature;
+import com.apitable.workspace.vo.DatasheetPermissionView;
+import com.apitable.workspace.vo.NodePermissionView;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.util.Lists.list;
 
 /**
@@ -263,4 +273,89 @@ public class ControlRoleTest {
         assertThat(updater.getPermissions()).contains(NodePermission.EDIT_CELL);
         assertThat(updater.getPermissions()).contains(NodePermission.CREATE_ROW);
     }
+
+    @Test
+    public void testRoleCacheValue() {
+        assertThat(ControlRoleManager.fromCacheValue(ControlRoleManager.toCacheValue(null))).isNull();
+        assertThat(ControlRoleManager.fromCacheValue(ControlRoleManager.toCacheValue(new DefaultWorkbenchRole())))
+                .isInstanceOf(DefaultWorkbenchRole.class);
+        ControlRole nodeAdmin = ControlRoleManager.fromCacheValue(ControlRoleManager.toCacheValue(new NodeManagerRole(true, true)));
+        assertThat(nodeAdmin.isAdmin()).isTrue();
+        assertThat(nodeAdmin.getPermissions()).containsAll(new NodeManagerRole().getPermissions());
+        ControlRole fieldAdmin = ControlRoleManager.fromCacheValue(ControlRoleManager.toCacheValue(new FieldEditorRole(true, true)));
+        assertThat(fieldAdmin).isInstanceOf(FieldEditorRole.class);
+        assertThat(fieldAdmin.isAdmin()).isTrue();
+        // node role in field dict of the datasheet owner
+        ControlRole nodeEditor = ControlRoleManager.parseNodeRole(Node.EDITOR);
+        assertThat(ControlRoleManager.fromCacheValue(ControlRoleManager.toCacheValue(nodeEditor))).isSameAs(nodeEditor);
+        ControlRole fieldReader = ControlRoleManager.parseFieldRole(Field.READER);
+        assertThat(ControlRoleManager.fromCacheValue(ControlRoleManager.toCacheValue(fieldReader))).isSameAs(fieldReader);
+    }
+
+    @Test
+    public void testGroupPermissionBit() {
+        ControlRole reader = new NodeReaderRole();
+        assertThat(reader.getGroupPermissionBit()).containsEntry(0, NodePermission.READ_NODE.getValue() | NodePermission.EXPORT_NODE.getValue())
+                .containsEntry(2, FieldPermission.READ_FIELD_DATA.getValue())
+                .doesNotContainKey(1);
+        // no permission of the group
+        assertThat(reader.hasPermission(NodePermission.CREATE_VIEW)).isFalse();
+        assertThat(new FieldReaderRole().hasPermission(NodePermission.READ_NODE)).isFalse();
+        assertThatThrownBy(() -> reader.getPermissions().add(NodePermission.MANAGE_NODE))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void testGetTopRole() {
+        assertThat(ControlRoleManager.getTopNodeRole(list(Node.READER, Node.MANAGER, Node.EDITOR)).getRoleTag()).isEqualTo(Node.MANAGER);
+        assertThat(ControlRoleManager.getTopNodeRole(list(Node.UPDATER, Node.READER)).getRoleTag()).isEqualTo(Node.UPDATER);
+        assertThat(ControlRoleManager.getTopFieldRole(list(Field.EDITOR, Field.READER)).getRoleTag()).isEqualTo(Field.EDITOR);
+        // manager and owner have the same permissions, the later one wins like the sorting did
+        assertThat(ControlRoleManager.getTopNodeRole(list(Node.MANAGER, Node.OWNER)).getRoleTag()).isEqualTo(Node.OWNER);
+        assertThat(ControlRoleManager.getTopNodeRole(list(Node.OWNER, Node.MANAGER)).getRoleTag()).isEqualTo(Node.MANAGER);
+    }
+
+    @Test
+    public void testGhostNodeRole() {
+        NodeRole editor = (NodeRole) ControlRoleManager.parseNodeRole(Node.EDITOR);
+        NodeRole ghost = editor.withGhostNode(true);
+        assertThat(ghost.isGhostNode()).isTrue();
+        assertThat(ghost).isInstanceOf(NodeEditorRole.class);
+        assertThat(ghost.isEqualTo(editor)).isTrue();
+        assertThat(ghost.hasPermission(NodePermission.EDIT_NODE)).isTrue();
+        // the shared role is not changed
+        assertThat(editor.isGhostNode()).isFalse();
+        assertThat(editor.withGhostNode(false)).isSameAs(editor);
+    }
+
+    @Test
+    public void testPermissionToBean() {
+        List<ControlRole> roles = list(new NodeReaderRole(), new NodeUpdaterRole(), new NodeEditorRole(), new NodeManagerRole(),
+                new NodeManagerRole(true, true), new DefaultWorkbenchRole(), new FieldReaderRole(), new FieldEditorRole());
+        for (ControlRole role : roles) {
+            Map<String, Boolean> map = new HashMap<>();
+            role.getPermissions().forEach(permission -> map.put(permission.getCode(), true));
+            assertThat(role.permissionToBean(NodePermissionView.class)).isEqualTo(BeanUtil.toBeanIgnoreError(map, NodePermissionView.class));
+            assertThat(role.permissionToBean(DatasheetPermissionView.class)).isEqualTo(BeanUtil.toBeanIgnoreError(map, DatasheetPermissionView.class));
+            assertThat(role.permissionToBean(com.apitable.workspace.vo.FieldPermission.class))
+                    .isEqualTo(BeanUtil.toBeanIgnoreError(map, com.apitable.workspace.vo.FieldPermission.class));
+        }
+        // every call returns a new bean
+        ControlRole editor = ControlRoleManager.parseNodeRole(Node.EDITOR);
+        assertThat(editor.permissionToBean(NodePermissionView.class)).isNotSameAs(editor.permissionToBean(NodePermissionView.class));
+    }
+
+    @Test
+    public void testPermissionToBeanWithExportLevel() {
+        SpaceGlobalFeature feature = new SpaceGlobalFeature();
+        feature.setExportLevel(ExportLevelEnum.LEVEL_BEYOND_EDIT.getValue());
+        assertThat(new NodeReaderRole().permissionToBean(NodePermissionView.class, feature).getExportable()).isFalse();
+        assertThat(new NodeEditorRole().permissionToBean(NodePermissionView.class, feature).getExportable()).isTrue();
+        assertThat(new NodeReaderRole().permissionToBean(NodePermissionView.class, feature).getReadable()).isTrue();
+        feature.setExportLevel(ExportLevelEnum.LEVEL_CLOSED.getValue());
+        assertThat(new NodeManagerRole().permissionToBean(NodePermissionView.class, feature).getExportable()).isFalse();
+        // admin is not limited
+        assertThat(new NodeManagerRole(true, true).permissionToBean(NodePermissionView.class, feature).getExportable()).isTrue();
+        assertThat(new NodeReaderRole().permissionToBean(NodePermissionView.class).getExportable()).isTrue();
+    }
 }
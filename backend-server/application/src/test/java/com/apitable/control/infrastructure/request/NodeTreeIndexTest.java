@@ -0,0 +1,86 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.control.infrastructure.request;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.apitable.workspace.dto.SimpleNodeInfo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Node Tree Index Unit Test
+ */
+public class NodeTreeIndexTest {
+
+    /**
+     * fod1(role)
+     *   ├── fod2
+     *   │    └── fod3(role)
+     *   │         └── dst1
+     *   └── dst2
+     */
+    private static List<SimpleNodeInfo> nodeList() {
+        List<SimpleNodeInfo> nodeList = new ArrayList<>();
+        nodeList.add(node("fod1", "root", false));
+        nodeList.add(node("fod2", "fod1", true));
+        nodeList.add(node("dst2", "fod1", true));
+        nodeList.add(node("fod3", "fod2", false));
+        nodeList.add(node("dst1", "fod3", true));
+        return nodeList;
+    }
+
+    private static SimpleNodeInfo node(String nodeId, String parentId, boolean extend) {
+        SimpleNodeInfo node = new SimpleNodeInfo();
+        node.setNodeId(nodeId);
+        node.setParentId(parentId);
+        node.setExtend(extend);
+        return node;
+    }
+
+    @Test
+    public void testGetNode() {
+        NodeTreeIndex index = NodeTreeIndex.of(nodeList());
+        assertThat(index.size()).isEqualTo(5);
+        assertThat(index.getNode("fod3").getParentId()).isEqualTo("fod2");
+        assertThat(index.getNode("fod4")).isNull();
+    }
+
+    @Test
+    public void testGetChildren() {
+        NodeTreeIndex index = NodeTreeIndex.of(nodeList());
+        assertThat(index.getChildren("fod1")).containsExactly("fod2", "dst2");
+        assertThat(index.getChildren("dst1")).isEmpty();
+        assertThat(index.getAllChildren("fod1")).containsExactly("fod2", "dst2", "fod3", "dst1");
+        assertThat(index.getAllChildren("fod2")).containsExactly("fod3", "dst1");
+    }
+
+    @Test
+    public void testGetRoleParentIds() {
+        NodeTreeIndex index = NodeTreeIndex.of(nodeList());
+        assertThat(index.getRoleParentIdsFromBottom2Top(index.getNode("dst1"))).containsExactly("fod3", "fod1");
+        assertThat(index.getRoleParentIdsFromTop2Bottom(index.getNode("dst1"))).containsExactly("fod1", "fod3");
+        assertThat(index.getRoleParentIdsFromBottom2Top(index.getNode("fod3"))).containsExactly("fod1");
+        assertThat(index.getRoleParentIdsFromBottom2Top(index.getNode("dst2"))).containsExactly("fod1");
+        assertThat(index.getRoleParentIdsFromBottom2Top(index.getNode("fod1"))).isEmpty();
+    }
+}
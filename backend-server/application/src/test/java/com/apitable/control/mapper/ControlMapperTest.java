@@ -64,6 +64,13 @@ public class ControlMapperTest extends AbstractMyBatisMapperTest {
         Assertions.assertThat(controlIds).isNotEmpty();
     }
 
+    @Test
+    @Sql("/sql/control-data.sql")
+    void selectControlIdByControlIdPrefixesAndType() {
+        List<String> controlIds = controlMapper.selectControlIdByControlIdPrefixesAndType(Lists.list("dst895mJZVVTUoy9GF", "dstNotExist"), 1);
+        assertThat(controlIds).containsExactlyInAnyOrder("dst895mJZVVTUoy9GF-fldQaavrdDK8K", "dst895mJZVVTUoy9GF-fldjki1tL7iaK");
+    }
+
     @Test
     @Sql("/sql/control-data.sql")
     void selectControlIdByControlIds() {
@@ -0,0 +1,111 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.organization.excel.handler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import cn.hutool.core.collection.CollUtil;
+import com.alibaba.excel.EasyExcel;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import com.apitable.AbstractIntegrationTest;
+import com.apitable.mock.bean.MockUserSpace;
+import com.apitable.organization.vo.ParseErrorRecordVO;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+public class UploadDataListenerTest extends AbstractIntegrationTest {
+
+    private static final int LARGE_SHEET_ROWS = 5000;
+
+    @Test
+    void givenLargeSheetWhenImportThenAllRowsSaved() {
+        MockUserSpace userSpace = createSingleUserAndSpace();
+        String spaceId = userSpace.getSpaceId();
+        String prefix = IdWorker.getIdStr();
+        List<List<String>> rows = new ArrayList<>(LARGE_SHEET_ROWS);
+        for (int i = 0; i < LARGE_SHEET_ROWS; i++) {
+            // the rows are spread over a few teams, and a part of them are registered users
+            String email = prefix + "-" + i + "@apitable.com";
+            if (i % 10 == 0) {
+                createUserWithEmail(email);
+            }
+            rows.add(Arrays.asList("member " + i, email, "Team " + i % 20, "position", String.valueOf(i)));
+        }
+        int memberCount = iMemberService.getTotalMemberCountBySpaceId(spaceId);
+
+        long start = System.currentTimeMillis();
+        UploadDataListener listener = read(spaceId, rows);
+        long cost = System.currentTimeMillis() - start;
+        log.info("Import {} members cost {}ms, {} rows/s", LARGE_SHEET_ROWS, cost, LARGE_SHEET_ROWS * 1000L / Math.max(cost, 1));
+
+        assertThat(listener.getErrorList()).isEmpty();
+        assertThat(listener.getRowCount()).isEqualTo(LARGE_SHEET_ROWS);
+        assertThat(listener.getSuccessCount()).isEqualTo(LARGE_SHEET_ROWS);
+        assertThat(listener.getMemberIds()).hasSize(LARGE_SHEET_ROWS);
+        assertThat(listener.getSendNotifyEmails()).hasSize(LARGE_SHEET_ROWS / 10);
+        assertThat(listener.getSendInviteEmails()).hasSize(LARGE_SHEET_ROWS - LARGE_SHEET_ROWS / 10);
+        assertThat(iMemberService.getTotalMemberCountBySpaceId(spaceId)).isEqualTo(memberCount + LARGE_SHEET_ROWS);
+    }
+
+    @Test
+    void givenRepeatedEmailWhenImportThenReportedAsRepeatedInSheet() {
+        MockUserSpace userSpace = createSingleUserAndSpace();
+        String spaceId = userSpace.getSpaceId();
+        String existingEmail = IdWorker.getIdStr() + "@apitable.com";
+        createUserWithEmail(existingEmail);
+        UploadDataListener first = read(spaceId, Collections.singletonList(Arrays.asList("existing", existingEmail, null, null, null)));
+        assertThat(first.getErrorList()).isEmpty();
+
+        String repeatedEmail = IdWorker.getIdStr() + "@apitable.com";
+        List<List<String>> rows = CollUtil.newArrayList(
+                Arrays.asList("first", repeatedEmail, null, null, null),
+                Arrays.asList("existing", existingEmail, null, null, null),
+                Arrays.asList("second", repeatedEmail.toUpperCase(), null, null, null));
+        UploadDataListener listener = read(spaceId, rows);
+
+        assertThat(listener.getSuccessCount()).isEqualTo(1);
+        assertThat(listener.getErrorList()).extracting(ParseErrorRecordVO::getMessage).containsExactly(
+                "The email already exist in the current space", "The email is repeated in the uploaded file");
+        assertThat(listener.getErrorList()).extracting(ParseErrorRecordVO::getRowNumber).containsExactly(5, 6);
+    }
+
+    private UploadDataListener read(String spaceId, List<List<String>> rows) {
+        // the template has three head rows
+        List<List<String>> sheet = new ArrayList<>();
+        sheet.add(Collections.singletonList("member import"));
+        sheet.add(Collections.singletonList("fill in the members below"));
+        sheet.add(Arrays.asList("name", "email", "team", "position", "job number"));
+        sheet.addAll(rows);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EasyExcel.write(out).needHead(false).sheet().doWrite(sheet);
+        UploadDataListener listener = new UploadDataListener(spaceId, iMemberService, -1, iMemberService.getTotalMemberCountBySpaceId(spaceId))
+                .resources(Collections.singleton("CREATE_TEAM"));
+        EasyExcel.read(new ByteArrayInputStream(out.toByteArray()), listener).sheet().headRowNumber(3).doRead();
+        return listener;
+    }
+}
@@ -342,6 +342,13 @@ public class MemberMapperTest extends AbstractMyBatisMapperTest {
         assertThat(entity).isNotNull();
     }
 
+    @Test
+    @Sql("/sql/unit-member-data.sql")
+    void testSelectByUserIdsAndSpaceIdIgnoreDelete() {
+        List<MemberEntity> entities = memberMapper.selectByUserIdsAndSpaceIdIgnoreDelete(CollUtil.newArrayList(41L), "spc41");
+        assertThat(entities).extracting(MemberEntity::getId).containsExactly(41L);
+    }
+
     @Test
     @Sql({"/sql/unit-member-data.sql"})
     void testSelectNodeRoleMemberByIds() {
@@ -30,6 +30,7 @@ import org.junit.jupiter.api.Test;
 
 import com.apitable.AbstractMyBatisMapperTest;
 import com.apitable.organization.dto.RoleMemberInfoDTO;
+import com.apitable.organization.entity.RoleMemberEntity;
 
 import org.springframework.test.context.jdbc.Sql;
 
@@ -105,4 +106,11 @@ public class RoleMemberMapperTest extends AbstractMyBatisMapperTest {
         assertThat(roleMembers.size()).isEqualTo(2);
     }
 
+    @Test
+    @Sql({"/sql/unit-role-member-data.sql", "/sql/unit-role-data.sql"})
+    void givenTowRoleMembersWhenSelectRoleMembersBySpaceIdThenRoleMembers() {
+        List<RoleMemberEntity> roleMembers = roleMemberMapper.selectRoleMembersBySpaceId("spc20220824");
+        assertThat(roleMembers.size()).isEqualTo(2);
+    }
+
 }
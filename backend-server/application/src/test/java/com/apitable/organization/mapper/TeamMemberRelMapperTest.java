@@ -96,4 +96,12 @@ public class TeamMemberRelMapperTest extends AbstractMyBatisMapperTest {
         assertThat(ids).isNotEmpty();
     }
 
+    @Test
+    @Sql({ "/sql/unit-member-data.sql", "/sql/unit-team-data.sql",
+            "/sql/unit-team-member-rel-data.sql"})
+    void testSelectTeamIdAndMemberIdBySpaceId() {
+        List<TeamMemberRelEntity> entities = teamMemberRelMapper.selectTeamIdAndMemberIdBySpaceId("spc41");
+        assertThat(entities).extracting(TeamMemberRelEntity::getMemberId).containsExactlyInAnyOrder(41L, 45L);
+    }
+
 }
@@ -90,4 +90,11 @@ public class UnitMapperTest extends AbstractMyBatisMapperTest {
         List<UnitEntity> entities = unitMapper.selectByUnitIds(CollUtil.newArrayList(41L));
         assertThat(entities).isNotEmpty();
     }
+
+    @Test
+    @Sql("/sql/unit-data.sql")
+    void testSelectRefIdAndTypeBySpaceId() {
+        List<UnitEntity> entities = unitMapper.selectRefIdAndTypeBySpaceId("spc20220824");
+        assertThat(entities).hasSize(3);
+    }
 }
@@ -20,13 +20,18 @@ package com.apitable.organization.service.impl;
 
 import com.apitable.AbstractIntegrationTest;
 import com.apitable.mock.bean.MockUserSpace;
+import com.apitable.organization.dto.UploadDataDTO;
+import com.apitable.organization.dto.UploadDataResultDTO;
 import com.apitable.organization.entity.MemberEntity;
 import com.apitable.organization.enums.UserSpaceStatus;
+import com.apitable.organization.service.IUnitService;
 import com.apitable.user.entity.UserEntity;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.util.Lists.list;
@@ -37,6 +42,9 @@ import static org.assertj.core.util.Lists.list;
  */
 public class MemberServiceImplTest extends AbstractIntegrationTest {
 
+    @Autowired
+    private IUnitService iUnitService;
+
     @Test
     public void testInvitationWithoutExistUser() {
         MockUserSpace mockUserSpace = createSingleUserAndSpace();
@@ -112,4 +120,76 @@ public class MemberServiceImplTest extends AbstractIntegrationTest {
         assertThat(member.getIsPoint()).isNotNull().isTrue();
         assertThat(member.getStatus()).isEqualTo(UserSpaceStatus.ACTIVE.getStatus());
     }
+
+    @Test
+    public void testGetUnitsByMembers() {
+        MockUserSpace userSpace = createSingleUserAndSpace();
+        Long roleId = addRoleMembers(userSpace);
+        Long rootTeamId = iTeamService.getRootTeamId(userSpace.getSpaceId());
+        Long subTeamId = iTeamService.createSubTeam(userSpace.getSpaceId(), "sub team", rootTeamId);
+        UserEntity user = createUserRandom();
+        Long subTeamMemberId = createMember(user.getId(), userSpace.getSpaceId(), subTeamId);
+        Long adminMemberId = iMemberService.getMemberIdByUserIdAndSpaceId(userSpace.getUserId(), userSpace.getSpaceId());
+
+        Map<Long, List<Long>> memberUnits = iMemberService.getUnitsByMembers(list(adminMemberId, subTeamMemberId));
+        assertThat(memberUnits).containsOnlyKeys(adminMemberId, subTeamMemberId);
+        // same as one by one
+        assertThat(memberUnits.get(adminMemberId)).containsExactlyInAnyOrderElementsOf(iMemberService.getUnitsByMember(adminMemberId));
+        assertThat(memberUnits.get(subTeamMemberId)).containsExactlyInAnyOrderElementsOf(iMemberService.getUnitsByMember(subTeamMemberId));
+        // member, role of member
+        assertThat(memberUnits.get(adminMemberId)).contains(iUnitService.getUnitIdByRefId(roleId));
+        // member, sub team and parent team
+        assertThat(memberUnits.get(subTeamMemberId)).contains(iUnitService.getUnitIdByRefId(subTeamMemberId),
+                iUnitService.getUnitIdByRefId(subTeamId), iUnitService.getUnitIdByRefId(rootTeamId));
+    }
+
+    @Test
+    public void testSaveUploadData() {
+        MockUserSpace userSpace = createSingleUserAndSpace();
+        UserEntity user = createUserWithEmail("shawndgh@163.com");
+        Long rootTeamId = iTeamService.getRootTeamId(userSpace.getSpaceId());
+        Long devTeamId = iTeamService.createSubTeam(userSpace.getSpaceId(), "Dev", rootTeamId);
+
+        UploadDataDTO userRow = new UploadDataDTO();
+        userRow.setEmail("shawndgh@163.com");
+        userRow.setTeam("Dev, Dev-Java");
+        UploadDataDTO inviteRow = new UploadDataDTO();
+        inviteRow.setEmail("test@apitable.com");
+        UploadDataResultDTO result = iMemberService.saveUploadData(userSpace.getSpaceId(), list(userRow, inviteRow), true);
+        assertThat(result.getMemberIds()).hasSize(2);
+        assertThat(result.getNotifyEmails()).containsExactly("shawndgh@163.com");
+        assertThat(result.getInviteEmails()).containsExactly("test@apitable.com");
+
+        MemberEntity member = iMemberService.getByUserIdAndSpaceId(user.getId(), userSpace.getSpaceId());
+        assertThat(member.getIsActive()).isTrue();
+        // the existing team is related, the missing team is created under it
+        Map<String, Long> teamPathMap = iTeamService.getTeamNamePathMap(userSpace.getSpaceId());
+        assertThat(teamPathMap).containsEntry("Dev", devTeamId).containsKey("Dev-Java");
+        assertThat(iTeamMemberRelService.getTeamByMemberId(member.getId()))
+                .containsExactlyInAnyOrder(devTeamId, teamPathMap.get("Dev-Java"));
+        MemberEntity invited = iMemberService.getBySpaceIdAndEmail(userSpace.getSpaceId(), "test@apitable.com");
+        assertThat(invited.getIsActive()).isFalse();
+        assertThat(iTeamMemberRelService.getTeamByMemberId(invited.getId())).containsOnly(rootTeamId);
+    }
+
+    @Test
+    public void testSaveUploadDataWithRestore() {
+        MockUserSpace userSpace = createSingleUserAndSpace();
+        UserEntity user = createUserWithEmail("shawndgh@163.com");
+        Long toDeletedMemberId = createMember(user.getId(), userSpace.getSpaceId());
+        iMemberService.removeByMemberIds(Collections.singletonList(toDeletedMemberId));
+
+        UploadDataDTO row = new UploadDataDTO();
+        row.setEmail("shawndgh@163.com");
+        row.setTeam("Sales");
+        UploadDataResultDTO result = iMemberService.saveUploadData(userSpace.getSpaceId(), list(row), false);
+        assertThat(result.getMemberIds()).containsExactly(toDeletedMemberId);
+
+        // the team can not be created, the member joins the root team
+        MemberEntity member = iMemberService.getById(toDeletedMemberId);
+        assertThat(member).isNotNull();
+        assertThat(member.getIsActive()).isTrue();
+        Long rootTeamId = iTeamService.getRootTeamId(userSpace.getSpaceId());
+        assertThat(iTeamMemberRelService.getTeamByMemberId(toDeletedMemberId)).containsOnly(rootTeamId);
+    }
 }
@@ -0,0 +1,128 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.organization.support;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import cn.hutool.core.collection.CollUtil;
+import org.junit.jupiter.api.Test;
+
+import com.apitable.organization.entity.RoleMemberEntity;
+import com.apitable.organization.entity.TeamEntity;
+import com.apitable.organization.entity.TeamMemberRelEntity;
+import com.apitable.organization.entity.UnitEntity;
+import com.apitable.organization.enums.UnitType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Organization Graph Unit Test
+ */
+public class OrganizationGraphTest {
+
+    private static final long ROLE_ID = 7L;
+
+    /**
+     * root(1) -> Dev(2) -> Backend(3) -> Java(4), root(1) -> Sales(5), Orphan(6) is under a deleted team
+     */
+    private static OrganizationGraph graph() {
+        List<TeamEntity> teams = new ArrayList<>();
+        teams.add(team(1L, 0L, "root"));
+        teams.add(team(2L, 1L, "Dev"));
+        teams.add(team(3L, 2L, "Backend"));
+        teams.add(team(4L, 3L, "Java"));
+        teams.add(team(5L, 1L, "Sales"));
+        teams.add(team(6L, 99L, "Orphan"));
+        List<TeamMemberRelEntity> rels = new ArrayList<>();
+        rels.add(rel(1L, 101L));
+        rels.add(rel(3L, 102L));
+        rels.add(rel(4L, 103L));
+        rels.add(rel(5L, 103L));
+        rels.add(rel(6L, 104L));
+        List<RoleMemberEntity> roleMembers = new ArrayList<>();
+        roleMembers.add(roleMember(2L, UnitType.TEAM));
+        roleMembers.add(roleMember(101L, UnitType.MEMBER));
+        // the member is deleted
+        roleMembers.add(roleMember(999L, UnitType.MEMBER));
+        List<UnitEntity> units = new ArrayList<>();
+        teams.forEach(team -> units.add(unit(1000 + team.getId(), team.getId(), UnitType.TEAM)));
+        rels.forEach(rel -> units.add(unit(2000 + rel.getMemberId(), rel.getMemberId(), UnitType.MEMBER)));
+        units.add(unit(3000 + ROLE_ID, ROLE_ID, UnitType.ROLE));
+        return OrganizationGraph.of(1, teams, rels, roleMembers, units);
+    }
+
+    private static TeamEntity team(Long id, Long parentId, String name) {
+        return TeamEntity.builder().id(id).parentId(parentId).teamName(name).build();
+    }
+
+    private static TeamMemberRelEntity rel(Long teamId, Long memberId) {
+        return TeamMemberRelEntity.builder().teamId(teamId).memberId(memberId).build();
+    }
+
+    private static RoleMemberEntity roleMember(Long refId, UnitType type) {
+        return RoleMemberEntity.builder().roleId(ROLE_ID).unitRefId(refId).unitType(type.getType()).build();
+    }
+
+    private static UnitEntity unit(Long id, Long refId, UnitType type) {
+        return UnitEntity.builder().id(id).unitRefId(refId).unitType(type.getType()).build();
+    }
+
+    @Test
+    public void testGetTeamIdsByMemberId() {
+        OrganizationGraph graph = graph();
+        assertThat(graph.getTeamIdsByMemberId(103L)).containsExactlyInAnyOrder(4L, 3L, 2L, 1L, 5L);
+        assertThat(graph.getTeamIdsByMemberId(104L)).containsExactly(6L);
+        assertThat(graph.getTeamIdsByMemberId(999L)).isEmpty();
+    }
+
+    @Test
+    public void testGetUnitIdsByMemberId() {
+        OrganizationGraph graph = graph();
+        assertThat(graph.getUnitIdsByMemberId(101L)).containsExactlyInAnyOrder(2101L, 1001L, 3007L);
+        assertThat(graph.getUnitIdsByMemberId(102L)).containsExactlyInAnyOrder(2102L, 1003L, 1002L, 1001L);
+    }
+
+    @Test
+    public void testGetMemberIdsByTeamIds() {
+        OrganizationGraph graph = graph();
+        assertThat(graph.getMemberIdsByTeamIds(CollUtil.newArrayList(2L))).containsExactlyInAnyOrder(102L, 103L);
+        // cached closure of the sub team is reused
+        assertThat(graph.getMemberIdsByTeamIds(CollUtil.newArrayList(1L))).containsExactlyInAnyOrder(101L, 102L, 103L);
+        assertThat(graph.getMemberIdsByTeamIds(CollUtil.newArrayList(4L, 5L))).containsExactly(103L);
+        assertThat(graph.getMemberIdsByTeamIds(CollUtil.newArrayList(99L))).isEmpty();
+    }
+
+    @Test
+    public void testGetMemberIdsByRoleIds() {
+        OrganizationGraph graph = graph();
+        assertThat(graph.getMemberIdsByRoleIds(CollUtil.newArrayList(ROLE_ID))).containsExactlyInAnyOrder(101L, 102L, 103L);
+        assertThat(graph.getMemberIdsByRoleIds(CollUtil.newArrayList(8L))).isEmpty();
+    }
+
+    @Test
+    public void testGetTeamPathNames() {
+        OrganizationGraph graph = graph();
+        assertThat(graph.getTeamPathNames(4L)).containsExactly("Dev", "Backend", "Java");
+        assertThat(graph.getTeamPathNames(5L)).containsExactly("Sales");
+        assertThat(graph.getTeamPathNames(1L)).containsExactly("root");
+        assertThat(graph.getTeamPathNames(6L)).isEmpty();
+        assertThat(graph.getTeamPathNames(99L)).isEmpty();
+    }
+}
@@ -21,6 +21,7 @@ package com.apitable.player.service.impl;
 import java.util.Collections;
 import java.util.List;
 
+import cn.hutool.core.collection.ListUtil;
 import cn.hutool.core.lang.Dict;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONObject;
@@ -75,4 +76,15 @@ public class PlayerNotificationServiceImplTest extends AbstractIntegrationTest {
         assertThat(extrasObj.getByPath(BODY_EXTRAS + "." + EXTRA_TOAST + "." + EXTRA_TOAST_URL)).isEqualTo(template.getUrl());
 
     }
+
+    @Test
+    public void testFrequencyLimitedInBatch() {
+        Long userId = IdWorker.getId();
+        Long otherUserId = IdWorker.getId();
+        Long anotherUserId = IdWorker.getId();
+        NotificationTemplate template = notificationFactory.getTemplateById(NotificationTemplateId.CAPACITY_LIMIT.getValue());
+        assertThat(notificationFactory.frequencyLimited(ListUtil.toList(userId, otherUserId), template, "nonce")).isEmpty();
+        assertThat(notificationFactory.frequencyLimited(ListUtil.toList(userId, anotherUserId), template, "nonce")).containsExactly(userId);
+        assertThat(notificationFactory.frequencyLimited(otherUserId, template, "nonce")).isTrue();
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.cache.near;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Near Cache Unit Test
+ */
+public class NearCacheTest {
+
+    @Test
+    public void testGetCountsHitAndMiss() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        NearCache<String> cache = new NearCache<>("test", true, 10, 60 * 1000L, UnaryOperator.identity(), meterRegistry);
+        assertThat(cache.get("k1")).isNull();
+        cache.put("k1", "v1");
+        assertThat(cache.get("k1")).isEqualTo("v1");
+        assertThat(cache.get("k1")).isEqualTo("v1");
+        assertThat(meterRegistry.get("near.cache.gets").tag("cache", "test").tag("result", "hit").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get("near.cache.gets").tag("cache", "test").tag("result", "miss").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("near.cache.size").tag("cache", "test").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    public void testEvict() {
+        NearCache<String> cache = new NearCache<>("test", true, 10, 60 * 1000L, UnaryOperator.identity(), new SimpleMeterRegistry());
+        cache.put("k1", "v1");
+        cache.put("k2", "v2");
+        cache.evict("k1");
+        assertThat(cache.get("k1")).isNull();
+        assertThat(cache.get("k2")).isEqualTo("v2");
+    }
+
+    @Test
+    public void testBoundedSize() {
+        NearCache<Integer> cache = new NearCache<>("test", true, 3, 60 * 1000L, UnaryOperator.identity(), new SimpleMeterRegistry());
+        for (int i = 0; i < 10; i++) {
+            cache.put("k" + i, i);
+        }
+        assertThat(cache.size()).isEqualTo(3);
+    }
+
+    @Test
+    public void testDisabled() {
+        NearCache<String> cache = new NearCache<>("test", false, 10, 60 * 1000L, UnaryOperator.identity(), new SimpleMeterRegistry());
+        cache.put("k1", "v1");
+        assertThat(cache.get("k1")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    public void testValuesAreCopiedInAndOut() {
+        NearCache<List<String>> cache = new NearCache<>("test", true, 10, 60 * 1000L, ArrayList::new, new SimpleMeterRegistry());
+        List<String> value = new ArrayList<>();
+        value.add("a");
+        cache.put("k1", value);
+        value.add("b");
+        List<String> cached = cache.get("k1");
+        assertThat(cached).containsExactly("a");
+        cached.add("c");
+        assertThat(cache.get("k1")).containsExactly("a");
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.cache.service;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import javax.annotation.Resource;
+
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import org.junit.jupiter.api.Test;
+
+import com.apitable.AbstractIntegrationTest;
+import com.apitable.control.infrastructure.role.ControlRole;
+import com.apitable.control.infrastructure.role.ControlRoleManager;
+import com.apitable.control.infrastructure.role.RoleConstants.Node;
+import com.apitable.core.constants.RedisConstants;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ControlRoleCacheServiceTest extends AbstractIntegrationTest {
+
+    private static final String SCOPE = "node";
+
+    private static final String NODE_ID = "fod1";
+
+    @Resource
+    private ControlRoleCacheService controlRoleCacheService;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * roles as they are stored, read by the loader
+     */
+    private final Map<String, String> storedRoles = new HashMap<>();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<List<String>, Map<String, ControlRole>> loader = controlIds -> {
+        loads.incrementAndGet();
+        Map<String, ControlRole> roles = new HashMap<>(controlIds.size());
+        controlIds.forEach(controlId -> roles.put(controlId, ControlRoleManager.parseNodeRole(storedRoles.get(controlId))));
+        return roles;
+    };
+
+    private String getRoleTag(String spaceId) {
+        return controlRoleCacheService.getMemberControlRoles(spaceId, 1L, SCOPE, Collections.singletonList(NODE_ID), loader)
+                .get(NODE_ID).getRoleTag();
+    }
+
+    private String getVersion(String spaceId) {
+        return stringRedisTemplate.opsForValue().get(RedisConstants.getSpaceControlRoleVersionKey(spaceId));
+    }
+
+    @Test
+    void givenCachedRoleWhenGetAgainThenNotLoaded() {
+        String spaceId = "spc" + IdWorker.getIdStr();
+        storedRoles.put(NODE_ID, Node.EDITOR);
+        assertThat(getRoleTag(spaceId)).isEqualTo(Node.EDITOR);
+        // changed without invalidation, the cached role is still read
+        storedRoles.put(NODE_ID, Node.READER);
+        assertThat(getRoleTag(spaceId)).isEqualTo(Node.EDITOR);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void givenInvalidateInTransactionWhenCommitThenVersionBumpedAfterCommit() {
+        String spaceId = "spc" + IdWorker.getIdStr();
+        storedRoles.put(NODE_ID, Node.EDITOR);
+        assertThat(getRoleTag(spaceId)).isEqualTo(Node.EDITOR);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            storedRoles.put(NODE_ID, Node.READER);
+            controlRoleCacheService.invalidate(spaceId);
+            // not bumped before commit, a concurrent read would cache the old role under the new version
+            assertThat(getVersion(spaceId)).isNull();
+        });
+        assertThat(getVersion(spaceId)).isEqualTo("1");
+
+        // both levels miss after the bump, the changed role is loaded
+        assertThat(getRoleTag(spaceId)).isEqualTo(Node.READER);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void givenInvalidateInTransactionWhenRollbackThenVersionNotBumped() {
+        String spaceId = "spc" + IdWorker.getIdStr();
+        storedRoles.put(NODE_ID, Node.EDITOR);
+        assertThat(getRoleTag(spaceId)).isEqualTo(Node.EDITOR);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            controlRoleCacheService.invalidate(spaceId);
+            status.setRollbackOnly();
+        });
+        assertThat(getVersion(spaceId)).isNull();
+        assertThat(getRoleTag(spaceId)).isEqualTo(Node.EDITOR);
+        assertThat(loads.get()).isEqualTo(1);
+    }
+}
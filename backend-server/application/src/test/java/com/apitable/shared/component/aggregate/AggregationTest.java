@@ -0,0 +1,131 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.component.aggregate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.apitable.core.exception.BusinessException;
+import com.apitable.shared.component.aggregate.Aggregation.Branch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Aggregation Unit Test
+ */
+public class AggregationTest {
+
+    private ExecutorService executor;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() {
+        executor = Executors.newCachedThreadPool();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    private Aggregation begin() {
+        return new Aggregation("test", executor, 1000, meterRegistry);
+    }
+
+    @Test
+    public void testForkRunsConcurrently() {
+        CountDownLatch latch = new CountDownLatch(2);
+        Aggregation aggregation = begin();
+        // each branch waits for the other one, they only finish if they run at the same time
+        Branch<Boolean> first = aggregation.fork("first", () -> countDownAndAwait(latch), false);
+        Branch<Boolean> second = aggregation.fork("second", () -> countDownAndAwait(latch), false);
+        assertThat(first.get()).isTrue();
+        assertThat(second.get()).isTrue();
+        assertThat(meterRegistry.get("task.aggregate.branch").tag("outcome", "success").timers()).hasSize(2);
+    }
+
+    @Test
+    public void testFallbackOnTimeout() {
+        // the other party never comes
+        CountDownLatch never = new CountDownLatch(2);
+        Branch<Long> branch = begin().fork("slow", () -> {
+            countDownAndAwait(never);
+            return 1L;
+        }, 0L, 50);
+        assertThat(branch.get()).isEqualTo(0L);
+        assertThat(meterRegistry.get("task.aggregate.fallback").tag("reason", "timeout").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFallbackOnError() {
+        Branch<Long> branch = begin().fork("broken", () -> {
+            throw new IllegalStateException("broken");
+        }, 0L);
+        assertThat(branch.get()).isEqualTo(0L);
+        assertThat(meterRegistry.get("task.aggregate.fallback").tag("reason", "error").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFailureThrownByRequiredBranch() {
+        Branch<Long> branch = begin().fork("required", () -> {
+            throw new IllegalStateException("broken");
+        });
+        assertThatThrownBy(branch::get).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void testBusinessExceptionNotReplacedByFallback() {
+        Branch<Long> branch = begin().fork("business", () -> {
+            throw new BusinessException("not in space");
+        }, 0L);
+        assertThatThrownBy(branch::get).isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    public void testThenUsesFallbackOfFailedBranch() {
+        Aggregation aggregation = begin();
+        Branch<Long> size = aggregation.fork("size", () -> 10L, 0L);
+        Branch<Long> doubled = size.then("doubled", value -> value * 2, -1L);
+        assertThat(doubled.get()).isEqualTo(20L);
+        Branch<Long> broken = aggregation.fork("broken", () -> {
+            throw new IllegalStateException("broken");
+        }, 5L);
+        assertThat(broken.then("tripled", value -> value * 3, -1L).get()).isEqualTo(15L);
+    }
+
+    private static boolean countDownAndAwait(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            latch.await();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return true;
+    }
+}
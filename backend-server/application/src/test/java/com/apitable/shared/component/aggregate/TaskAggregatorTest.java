@@ -0,0 +1,103 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.component.aggregate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Resource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import com.apitable.AbstractIntegrationTest;
+import com.apitable.shared.component.aggregate.Aggregation.Branch;
+import com.apitable.shared.config.properties.TaskAggregateProperties;
+import com.apitable.shared.holder.UserHolder;
+
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TaskAggregatorTest extends AbstractIntegrationTest {
+
+    @Resource
+    private TaskAggregator taskAggregator;
+
+    @Resource
+    private TaskAggregateProperties taskAggregateProperties;
+
+    @AfterEach
+    public void clearContext() {
+        RequestContextHolder.resetRequestAttributes();
+        LocaleContextHolder.resetLocaleContext();
+        MDC.clear();
+        UserHolder.remove();
+    }
+
+    @Test
+    void givenSaturatedPoolWhenForkThenRequestThreadKeepsContext() throws InterruptedException {
+        RequestAttributes requestAttributes = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(requestAttributes);
+        MDC.put("traceId", "trace");
+        initCallContext(1L);
+
+        Aggregation aggregation = taskAggregator.begin("test");
+        int poolSize = taskAggregateProperties.getPoolSize();
+        CountDownLatch started = new CountDownLatch(poolSize);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Branch<Boolean>> busy = new ArrayList<>(poolSize);
+        try {
+            // occupy every thread of the pool, it has no queue
+            for (int i = 0; i < poolSize; i++) {
+                busy.add(aggregation.fork("busy", () -> {
+                    started.countDown();
+                    try {
+                        return release.await(10, TimeUnit.SECONDS);
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }, false, 10000));
+            }
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Thread requestThread = Thread.currentThread();
+            Branch<Thread> overflow = aggregation.fork("overflow", Thread::currentThread);
+            assertThat(overflow.get()).isSameAs(requestThread);
+        }
+        finally {
+            release.countDown();
+        }
+        busy.forEach(branch -> assertThat(branch.get()).isTrue());
+
+        // the lookup run by the request thread does not reset its context
+        assertThat(UserHolder.get()).isEqualTo(1L);
+        assertThat(RequestContextHolder.getRequestAttributes()).isSameAs(requestAttributes);
+        assertThat(MDC.get("traceId")).isEqualTo("trace");
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.component.notification.queue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.apitable.AbstractIntegrationTest;
+import com.apitable.core.constants.RedisConstants;
+import com.apitable.player.ro.NotificationCreateRo;
+import com.apitable.player.service.IPlayerNotificationService;
+import com.apitable.shared.component.notification.NotificationTemplateId;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.willAnswer;
+
+public class NotificationFanoutWorkerTest extends AbstractIntegrationTest {
+
+    @MockBean
+    private IPlayerNotificationService iPlayerNotificationService;
+
+    @Autowired
+    private NotificationFanoutWorker notificationFanoutWorker;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Test
+    void givenFailedJobWhenResumeThenFinished() {
+        createUserRandom();
+        AtomicInteger calls = new AtomicInteger();
+        willAnswer(invocation -> {
+            if (calls.incrementAndGet() == 1) {
+                throw new IllegalStateException("insert failed");
+            }
+            return true;
+        }).given(iPlayerNotificationService).createNotifyWithoutVerify(anyList(), any(), any());
+        NotificationCreateRo ro = new NotificationCreateRo();
+        ro.setTemplateId(NotificationTemplateId.WEB_PUBLISH.getValue());
+
+        String jobId = notificationFanoutWorker.submit(ro);
+        String leaseKey = RedisConstants.getNotifyFanoutLeaseKey(jobId);
+        await().atMost(10, SECONDS).until(() -> calls.get() > 0 && !Boolean.TRUE.equals(stringRedisTemplate.hasKey(leaseKey)));
+        assertThat(stringRedisTemplate.opsForSet().isMember(RedisConstants.NOTIFY_FANOUT_JOBS, jobId)).isTrue();
+        assertThat(stringRedisTemplate.opsForHash().get(RedisConstants.getNotifyFanoutJobKey(jobId), "checkpoint")).isEqualTo("0");
+
+        notificationFanoutWorker.resumeAll();
+        await().atMost(10, SECONDS).until(() -> !Boolean.TRUE.equals(stringRedisTemplate.opsForSet().isMember(RedisConstants.NOTIFY_FANOUT_JOBS, jobId)));
+        assertThat(calls.get()).isGreaterThan(1);
+        assertThat(stringRedisTemplate.hasKey(RedisConstants.getNotifyFanoutJobKey(jobId))).isFalse();
+    }
+
+    @Test
+    void givenFailuresWhenRetryDelayThenBackoffToMaximum() {
+        assertThat(NotificationFanoutWorker.retryDelay(1)).isEqualTo(30);
+        assertThat(NotificationFanoutWorker.retryDelay(2)).isEqualTo(60);
+        assertThat(NotificationFanoutWorker.retryDelay(3)).isEqualTo(120);
+        assertThat(NotificationFanoutWorker.retryDelay(100)).isEqualTo(30 * 60);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.component.scanner;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.apitable.shared.component.ResourceDefinition;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Default Api Resource Factory Unit Test
+ */
+public class DefaultApiResourceFactoryTest {
+
+    private DefaultApiResourceFactory factory;
+
+    @BeforeEach
+    public void setUp() {
+        factory = new DefaultApiResourceFactory();
+        register("/space/list");
+        register("/space/{spaceId}");
+        register("/space/info");
+        register("/node/{nodeId}/children");
+        register("/node/{nodeId}/detail/");
+        register("/asset/**");
+    }
+
+    private void register(String url) {
+        ResourceDefinition resourceDefinition = new ResourceDefinition();
+        resourceDefinition.setModularCode("test");
+        resourceDefinition.setResourceCode(url);
+        resourceDefinition.setResourceUrl(url);
+        factory.registerDefinition(Collections.singletonList(resourceDefinition));
+    }
+
+    private String resolve(String url) {
+        ResourceDefinition resourceDefinition = factory.getResourceByUrl(url);
+        return resourceDefinition != null ? resourceDefinition.getResourceUrl() : null;
+    }
+
+    @Test
+    public void testExactUrl() {
+        assertThat(resolve("/space/list")).isEqualTo("/space/list");
+        assertThat(resolve("/space/info")).isEqualTo("/space/info");
+    }
+
+    @Test
+    public void testLiteralBeforePathVariable() {
+        assertThat(resolve("/space/spc123")).isEqualTo("/space/{spaceId}");
+        assertThat(resolve("/node/dst123/children")).isEqualTo("/node/{nodeId}/children");
+        // the cached result does not change
+        assertThat(resolve("/space/spc123")).isEqualTo("/space/{spaceId}");
+        assertThat(resolve("/space/info")).isEqualTo("/space/info");
+    }
+
+    @Test
+    public void testTrailingSlash() {
+        assertThat(resolve("/node/dst123/detail/")).isEqualTo("/node/{nodeId}/detail/");
+        assertThat(resolve("/node/dst123/detail")).isNull();
+        assertThat(resolve("/space/spc123/")).isNull();
+    }
+
+    @Test
+    public void testAntPattern() {
+        assertThat(resolve("/asset/upload/token")).isEqualTo("/asset/**");
+    }
+
+    @Test
+    public void testUnknownUrl() {
+        assertThat(resolve("/unknown")).isNull();
+        assertThat(resolve("/node/dst123")).isNull();
+        assertThat(resolve("/space/spc123/members")).isNull();
+    }
+
+    @Test
+    public void testClear() {
+        assertThat(resolve("/space/list")).isNotNull();
+        factory.clear();
+        assertThat(resolve("/space/list")).isNull();
+    }
+}
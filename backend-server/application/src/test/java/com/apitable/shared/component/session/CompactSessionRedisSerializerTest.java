@@ -0,0 +1,92 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.component.session;
+
+import java.util.Collections;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Compact Session Redis Serializer Unit Test
+ */
+public class CompactSessionRedisSerializerTest {
+
+    private final RedisSerializer<Object> jsonSerializer = new GenericJackson2JsonRedisSerializer(new ObjectMapper());
+
+    private final CompactSessionRedisSerializer serializer = new CompactSessionRedisSerializer(jsonSerializer, true);
+
+    @Test
+    public void testRoundTrip() {
+        long now = System.currentTimeMillis();
+        assertThat(serializer.deserialize(serializer.serialize(now))).isEqualTo(now);
+        assertThat(serializer.deserialize(serializer.serialize(-1L))).isEqualTo(-1L);
+        assertThat(serializer.deserialize(serializer.serialize(Long.MIN_VALUE))).isEqualTo(Long.MIN_VALUE);
+        assertThat(serializer.deserialize(serializer.serialize(2592000))).isEqualTo(2592000);
+        assertThat(serializer.deserialize(serializer.serialize("1234567890"))).isEqualTo("1234567890");
+        assertThat(serializer.deserialize(serializer.serialize("钉钉用户"))).isEqualTo("钉钉用户");
+        assertThat(serializer.deserialize(serializer.serialize(""))).isEqualTo("");
+        assertThat(serializer.deserialize(serializer.serialize(true))).isEqualTo(true);
+        assertThat(serializer.deserialize(serializer.serialize(null))).isNull();
+    }
+
+    @Test
+    public void testCompactSize() {
+        // a timestamp takes the header and 6 bytes, json of it takes 13 bytes
+        assertThat(serializer.serialize(1666051200000L)).hasSize(9);
+        assertThat(serializer.serialize(1666051200000L)).hasSizeLessThan(jsonSerializer.serialize(1666051200000L).length);
+    }
+
+    @Test
+    public void testOtherValueWithJson() {
+        Map<String, Object> value = Collections.singletonMap("name", "apitable");
+        byte[] bytes = serializer.serialize(value);
+        assertThat(bytes[0]).isEqualTo(CompactSessionRedisSerializer.MAGIC);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(value);
+    }
+
+    @Test
+    public void testReadJsonValue() {
+        assertThat(serializer.deserialize(jsonSerializer.serialize("1234567890"))).isEqualTo("1234567890");
+        assertThat(serializer.deserialize(jsonSerializer.serialize(1666051200000L))).isEqualTo(1666051200000L);
+    }
+
+    @Test
+    public void testWriteJson() {
+        CompactSessionRedisSerializer jsonWriter = new CompactSessionRedisSerializer(jsonSerializer, false);
+        byte[] bytes = jsonWriter.serialize("1234567890");
+        assertThat(bytes).isEqualTo(jsonSerializer.serialize("1234567890"));
+        assertThat(serializer.deserialize(bytes)).isEqualTo("1234567890");
+    }
+
+    @Test
+    public void testUnsupportedVersion() {
+        byte[] bytes = serializer.serialize("1234567890");
+        bytes[1] = CompactSessionRedisSerializer.VERSION + 1;
+        assertThatThrownBy(() -> serializer.deserialize(bytes)).isInstanceOf(SerializationException.class);
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.component.session;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisServerCommands;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Local Cached Session Repository Unit Test
+ */
+public class LocalCachedSessionRepositoryTest {
+
+    private final InMemorySessionRepository redis = new InMemorySessionRepository();
+
+    private final LocalCachedSessionRepository repository = new LocalCachedSessionRepository(redis, "apitable:session", 100,
+            60 * 1000L, Duration.ofSeconds(60));
+
+    @Test
+    public void testFindFromLocalCopy() {
+        MapSession session = redis.createSession();
+        session.setAttribute("name", "value");
+        redis.save(session);
+        assertThat(repository.findById(session.getId()).<String>getAttribute("name")).isEqualTo("value");
+        assertThat(repository.findById(session.getId()).<String>getAttribute("name")).isEqualTo("value");
+        assertThat(redis.finds).isEqualTo(1);
+    }
+
+    @Test
+    public void testKeyspaceEventDropsLocalCopy() {
+        MapSession session = redis.createSession();
+        redis.save(session);
+        repository.findById(session.getId());
+        // changed by another node
+        redis.sessions.get(session.getId()).setAttribute("name", "changed");
+        repository.onMessage(keyspaceMessage(session.getId()), null);
+        assertThat(repository.findById(session.getId()).<String>getAttribute("name")).isEqualTo("changed");
+        assertThat(redis.finds).isEqualTo(2);
+    }
+
+    @Test
+    public void testLastAccessedTimeWrittenBackAfterTouchInterval() {
+        MapSession session = redis.createSession();
+        redis.save(session);
+        repository.findById(session.getId());
+        int saves = redis.saves;
+
+        Session cached = repository.findById(session.getId());
+        cached.setLastAccessedTime(cached.getLastAccessedTime().plusSeconds(10));
+        repository.save(cached);
+        assertThat(redis.saves).isEqualTo(saves);
+
+        cached = repository.findById(session.getId());
+        cached.setLastAccessedTime(cached.getLastAccessedTime().plusSeconds(120));
+        repository.save(cached);
+        assertThat(redis.saves).isEqualTo(saves + 1);
+        assertThat(redis.sessions.get(session.getId()).getLastAccessedTime()).isEqualTo(cached.getLastAccessedTime());
+    }
+
+    @Test
+    public void testChangeGoesToRedis() {
+        MapSession session = redis.createSession();
+        redis.save(session);
+        repository.findById(session.getId());
+        Session cached = repository.findById(session.getId());
+        cached.setAttribute("name", "value");
+        repository.save(cached);
+        assertThat(redis.sessions.get(session.getId()).<String>getAttribute("name")).isEqualTo("value");
+        assertThat(repository.findById(session.getId()).<String>getAttribute("name")).isEqualTo("value");
+    }
+
+    @Test
+    public void testDeleteDropsLocalCopy() {
+        MapSession session = redis.createSession();
+        redis.save(session);
+        repository.findById(session.getId());
+        repository.deleteById(session.getId());
+        assertThat(repository.findById(session.getId())).isNull();
+    }
+
+    @Test
+    public void testMissingKeyspaceEvents() {
+        assertThat(LocalCachedSessionRepository.missingKeyspaceEvents("")).isEqualTo("Khgx");
+        assertThat(LocalCachedSessionRepository.missingKeyspaceEvents("Ex")).isEqualTo("Khg");
+        assertThat(LocalCachedSessionRepository.missingKeyspaceEvents("KA")).isEmpty();
+        assertThat(LocalCachedSessionRepository.missingKeyspaceEvents("gxKh")).isEmpty();
+        assertThat(LocalCachedSessionRepository.missingKeyspaceEvents("EA")).isEqualTo("K");
+    }
+
+    @Test
+    public void testEnableMissingKeyspaceEvents() {
+        RedisServerCommands serverCommands = mock(RedisServerCommands.class);
+        Properties config = new Properties();
+        config.setProperty("notify-keyspace-events", "Ex");
+        given(serverCommands.getConfig("notify-keyspace-events")).willReturn(config);
+        repository.checkKeyspaceNotifications(connectionFactory(serverCommands));
+        verify(serverCommands).setConfig("notify-keyspace-events", "ExKhg");
+        assertThat(repository.isLocalCopyEnabled()).isTrue();
+    }
+
+    @Test
+    public void testKeyspaceEventsAlreadyEnabled() {
+        RedisServerCommands serverCommands = mock(RedisServerCommands.class);
+        Properties config = new Properties();
+        config.setProperty("notify-keyspace-events", "KA");
+        given(serverCommands.getConfig("notify-keyspace-events")).willReturn(config);
+        repository.checkKeyspaceNotifications(connectionFactory(serverCommands));
+        verify(serverCommands, never()).setConfig("notify-keyspace-events", "KA");
+        assertThat(repository.isLocalCopyEnabled()).isTrue();
+    }
+
+    @Test
+    public void testLocalCopyTurnedOffWhenKeyspaceEventsNotAllowed() {
+        RedisServerCommands serverCommands = mock(RedisServerCommands.class);
+        willThrow(new IllegalStateException("unknown command 'CONFIG'")).given(serverCommands).getConfig("notify-keyspace-events");
+        repository.checkKeyspaceNotifications(connectionFactory(serverCommands));
+        assertThat(repository.isLocalCopyEnabled()).isFalse();
+
+        MapSession session = redis.createSession();
+        redis.save(session);
+        repository.findById(session.getId());
+        repository.findById(session.getId());
+        assertThat(redis.finds).isEqualTo(2);
+    }
+
+    private static RedisConnectionFactory connectionFactory(RedisServerCommands serverCommands) {
+        RedisConnection connection = mock(RedisConnection.class);
+        given(connection.serverCommands()).willReturn(serverCommands);
+        RedisConnectionFactory factory = mock(RedisConnectionFactory.class);
+        given(factory.getConnection()).willReturn(connection);
+        return factory;
+    }
+
+    private static DefaultMessage keyspaceMessage(String sessionId) {
+        String channel = "__keyspace@0__:apitable:session:sessions:" + sessionId;
+        return new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8), "hset".getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * sessions of redis, a copy is saved and returned like the redis repository
+     */
+    private static class InMemorySessionRepository implements FindByIndexNameSessionRepository<MapSession> {
+
+        private final Map<String, MapSession> sessions = new HashMap<>();
+
+        private int finds;
+
+        private int saves;
+
+        @Override
+        public MapSession createSession() {
+            return new MapSession();
+        }
+
+        @Override
+        public void save(MapSession session) {
+            saves++;
+            sessions.put(session.getId(), new MapSession(session));
+        }
+
+        @Override
+        public MapSession findById(String id) {
+            finds++;
+            MapSession session = sessions.get(id);
+            return session != null ? new MapSession(session) : null;
+        }
+
+        @Override
+        public void deleteById(String id) {
+            sessions.remove(id);
+        }
+
+        @Override
+        public Map<String, MapSession> findByIndexNameAndIndexValue(String indexName, String indexValue) {
+            return Collections.emptyMap();
+        }
+    }
+}
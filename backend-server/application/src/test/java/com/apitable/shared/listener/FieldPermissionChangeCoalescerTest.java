@@ -0,0 +1,132 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.listener;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.apitable.shared.listener.event.FieldPermissionEvent.Arg;
+
+import static com.apitable.shared.listener.enums.FieldPermissionChangeEvent.FIELD_PERMISSION_CHANGE;
+import static com.apitable.shared.listener.enums.FieldPermissionChangeEvent.FIELD_PERMISSION_DISABLE;
+import static com.apitable.shared.listener.enums.FieldPermissionChangeEvent.FIELD_PERMISSION_ENABLE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * FieldPermissionChangeCoalescer Unit Test
+ */
+public class FieldPermissionChangeCoalescerTest {
+
+    private ScheduledExecutorService scheduler;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    public void teardown() {
+        scheduler.shutdownNow();
+    }
+
+    private static Arg change(String fieldId, List<Long> changedUnitIds, List<Long> delUnitIds) {
+        return Arg.builder().event(FIELD_PERMISSION_CHANGE).datasheetId("dst1").fieldId(fieldId)
+                .role("editor").changedUnitIds(changedUnitIds).delUnitIds(delUnitIds).build();
+    }
+
+    private static Arg event(Arg arg, String operator) {
+        return arg.toBuilder().operator(operator).build();
+    }
+
+    @Test
+    public void testMergeConsecutiveChangesOfField() {
+        List<Arg> merged = FieldPermissionChangeCoalescer.merge(Arrays.asList(
+                change("fld1", Arrays.asList(1L, 2L), null),
+                change("fld2", Collections.singletonList(5L), null),
+                change("fld1", null, Arrays.asList(2L, 3L)),
+                change("fld1", Collections.singletonList(4L), null)));
+        assertThat(merged).hasSize(2);
+        assertThat(merged.get(0).getFieldId()).isEqualTo("fld1");
+        assertThat(merged.get(0).getChangedUnitIds()).containsExactly(1L, 2L, 3L, 4L);
+        assertThat(merged.get(0).getDelUnitIds()).isNull();
+        assertThat(merged.get(0).getRole()).isNull();
+        assertThat(merged.get(1).getChangedUnitIds()).containsExactly(5L);
+    }
+
+    @Test
+    public void testKeepOrderOfDifferentEvents() {
+        Arg enable = Arg.builder().event(FIELD_PERMISSION_ENABLE).datasheetId("dst1").fieldId("fld1").build();
+        Arg disable = Arg.builder().event(FIELD_PERMISSION_DISABLE).datasheetId("dst1").fieldId("fld1").build();
+        List<Arg> merged = FieldPermissionChangeCoalescer.merge(Arrays.asList(
+                enable,
+                change("fld1", Collections.singletonList(1L), null),
+                event(disable, "first"),
+                event(disable, "second")));
+        assertThat(merged).extracting(Arg::getEvent)
+                .containsExactly(FIELD_PERMISSION_ENABLE, FIELD_PERMISSION_CHANGE, FIELD_PERMISSION_DISABLE);
+        assertThat(merged.get(2).getOperator()).isEqualTo("second");
+    }
+
+    @Test
+    public void testBroadcastOnceInWindow() throws InterruptedException {
+        List<Arg> emitted = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        FieldPermissionChangeCoalescer coalescer = new FieldPermissionChangeCoalescer(scheduler, 100, arg -> {
+            emitted.add(arg);
+            latch.countDown();
+        }, meterRegistry);
+        for (long unitId = 0; unitId < 50; unitId++) {
+            coalescer.offer(change("fld1", Collections.singletonList(unitId), null));
+        }
+        assertThat(meterRegistry.get("field.permission.broadcast.queue").gauge().value()).isEqualTo(50);
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        // the metrics are recorded after the broadcast, wait for the flush to end
+        scheduler.shutdown();
+        assertThat(scheduler.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(emitted).hasSize(1);
+        assertThat(emitted.get(0).getChangedUnitIds()).hasSize(50);
+        assertThat(meterRegistry.get("field.permission.broadcast.queue").gauge().value()).isEqualTo(0);
+        assertThat(meterRegistry.get("field.permission.broadcast.merge.ratio").summary().max()).isEqualTo(50);
+        assertThat(meterRegistry.get("field.permission.broadcast.emit").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFlushAllBeforeWindowEnds() {
+        List<Arg> emitted = new CopyOnWriteArrayList<>();
+        FieldPermissionChangeCoalescer coalescer = new FieldPermissionChangeCoalescer(scheduler, 60000, emitted::add, meterRegistry);
+        coalescer.offer(change("fld1", Collections.singletonList(1L), null));
+        coalescer.offer(change("fld2", Collections.singletonList(2L), null));
+        coalescer.flushAll();
+        assertThat(emitted).extracting(Arg::getFieldId).containsExactly("fld1", "fld2");
+    }
+}
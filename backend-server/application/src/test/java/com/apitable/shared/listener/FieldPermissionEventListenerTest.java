@@ -0,0 +1,202 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.shared.listener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.stream.Collectors;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import com.apitable.base.service.RestTemplateService;
+import com.apitable.control.service.IControlRoleService;
+import com.apitable.control.service.IControlService;
+import com.apitable.organization.dto.MemberBaseInfoDTO;
+import com.apitable.organization.enums.UnitType;
+import com.apitable.organization.mapper.MemberMapper;
+import com.apitable.organization.service.ITeamService;
+import com.apitable.organization.service.IUnitService;
+import com.apitable.shared.listener.event.FieldPermissionEvent.Arg;
+import com.apitable.space.service.ISpaceRoleService;
+import com.apitable.workspace.dto.ControlRoleUnitDTO;
+import com.apitable.workspace.ro.FieldPermissionChangeNotifyRo;
+import com.apitable.workspace.ro.FieldPermissionChangeNotifyRo.ChangeObject;
+import com.apitable.workspace.service.INodeService;
+
+import static com.apitable.shared.listener.enums.FieldPermissionChangeEvent.FIELD_PERMISSION_CHANGE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * FieldPermissionEventListener Unit Test
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class FieldPermissionEventListenerTest {
+
+    @Mock
+    private INodeService iNodeService;
+
+    @Mock
+    private IControlService iControlService;
+
+    @Mock
+    private IControlRoleService iControlRoleService;
+
+    @Mock
+    private ISpaceRoleService iSpaceRoleService;
+
+    @Mock
+    private ITeamService iTeamService;
+
+    @Mock
+    private IUnitService iUnitService;
+
+    @Mock
+    private MemberMapper memberMapper;
+
+    @Mock
+    private RestTemplateService restTemplateService;
+
+    @InjectMocks
+    private FieldPermissionEventListener listener;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * field roles of the members as they are stored now, the unit of a member is 10 times the member id
+     */
+    private final Map<Long, String> memberRoles = new HashMap<>();
+
+    @BeforeEach
+    public void setup() {
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        given(iNodeService.getSpaceIdByNodeId("dst1")).willReturn("spc1");
+        given(iSpaceRoleService.getSpaceAdminsWithWorkbenchManage("spc1")).willReturn(Collections.emptyList());
+        willAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+                .map(unitId -> unitId / 10).collect(Collectors.toList()))
+                .given(iUnitService).getMembersIdByUnitIds(anyCollection());
+        willAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream().map(memberId -> {
+            MemberBaseInfoDTO member = new MemberBaseInfoDTO();
+            member.setId(memberId);
+            member.setUuid("user" + memberId);
+            return member;
+        }).collect(Collectors.toList())).given(memberMapper).selectBaseInfoDTOByIds(anyCollection());
+        willAnswer(invocation -> memberRoles.entrySet().stream().map(entry -> {
+            ControlRoleUnitDTO control = new ControlRoleUnitDTO();
+            control.setUnitId(entry.getKey() * 10);
+            control.setUnitType(UnitType.MEMBER.getType());
+            control.setUnitRefId(entry.getKey());
+            control.setRole(entry.getValue());
+            return control;
+        }).collect(Collectors.toList())).given(iControlRoleService).getControlRolesUnitDtoByControlId(anyString());
+    }
+
+    @AfterEach
+    public void teardown() {
+        scheduler.shutdownNow();
+    }
+
+    private static Arg change(String role, List<Long> changedUnitIds, List<Long> delUnitIds) {
+        return Arg.builder().event(FIELD_PERMISSION_CHANGE).datasheetId("dst1").fieldId("fld1")
+                .role(role).changedUnitIds(changedUnitIds).delUnitIds(delUnitIds).build();
+    }
+
+    private List<FieldPermissionChangeNotifyRo> broadcasts(int count) {
+        ArgumentCaptor<FieldPermissionChangeNotifyRo> captor = ArgumentCaptor.forClass(FieldPermissionChangeNotifyRo.class);
+        verify(restTemplateService, times(count)).fieldPermissionChangeNotify(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static ChangeObject changeOf(FieldPermissionChangeNotifyRo notifyRo, String uuid) {
+        List<ChangeObject> changes = notifyRo.getChanges().stream()
+                .filter(change -> change.getUuids().contains(uuid)).collect(Collectors.toList());
+        assertThat(changes).hasSize(1);
+        return changes.get(0);
+    }
+
+    @Test
+    public void testBroadcastAddedRole() {
+        memberRoles.put(1L, "editor");
+        listener.broadcast(change("editor", Collections.singletonList(10L), null));
+        FieldPermissionChangeNotifyRo notifyRo = broadcasts(1).get(0);
+        assertThat(notifyRo.getChanges()).hasSize(1);
+        ChangeObject change = changeOf(notifyRo, "user1");
+        assertThat(change.getRole()).isEqualTo("editor");
+        assertThat(change.getPermission().getEditable()).isTrue();
+    }
+
+    @Test
+    public void testBroadcastDeletedRole() {
+        memberRoles.put(2L, "reader");
+        listener.broadcast(change(null, null, Collections.singletonList(10L)));
+        FieldPermissionChangeNotifyRo notifyRo = broadcasts(1).get(0);
+        // the member whose role is deleted is broadcast an empty permission set, the others are untouched
+        assertThat(notifyRo.getChanges()).hasSize(1);
+        ChangeObject change = changeOf(notifyRo, "user1");
+        assertThat(change.getRole()).isEmpty();
+        assertThat(change.getPermission().getReadable()).isNull();
+        assertThat(change.getPermission().getEditable()).isNull();
+    }
+
+    @Test
+    public void testBroadcastOneDiffPerMemberInWindow() {
+        FieldPermissionChangeCoalescer coalescer = new FieldPermissionChangeCoalescer(scheduler, 60000,
+                listener::broadcast, new SimpleMeterRegistry());
+        // member 1 is changed from reader to editor and back, member 2 is added, member 3 is deleted
+        coalescer.offer(change("editor", Collections.singletonList(10L), null));
+        coalescer.offer(change("editor", Collections.singletonList(20L), null));
+        coalescer.offer(change("reader", Collections.singletonList(10L), null));
+        coalescer.offer(change(null, null, Collections.singletonList(30L)));
+        memberRoles.put(1L, "reader");
+        memberRoles.put(2L, "editor");
+        coalescer.flushAll();
+
+        FieldPermissionChangeNotifyRo notifyRo = broadcasts(1).get(0);
+        List<String> uuids = new ArrayList<>();
+        notifyRo.getChanges().forEach(change -> uuids.addAll(change.getUuids()));
+        assertThat(uuids).containsExactlyInAnyOrder("user1", "user2", "user3");
+        assertThat(changeOf(notifyRo, "user1").getRole()).isEqualTo("reader");
+        assertThat(changeOf(notifyRo, "user1").getPermission().getReadable()).isTrue();
+        assertThat(changeOf(notifyRo, "user1").getPermission().getEditable()).isNotEqualTo(Boolean.TRUE);
+        assertThat(changeOf(notifyRo, "user2").getRole()).isEqualTo("editor");
+        assertThat(changeOf(notifyRo, "user3").getRole()).isEmpty();
+    }
+}
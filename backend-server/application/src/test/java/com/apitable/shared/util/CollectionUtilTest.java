@@ -18,7 +18,9 @@
 
 package com.apitable.shared.util;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -68,6 +70,21 @@ public class CollectionUtilTest {
                 .containsSequence(expectResult3);
     }
 
+    @Test
+    public void testCustomSequenceSort_sameAsIndexOfComparator() {
+        List<String> sequence = list("c", "a", "x", "c", "b");
+        List<String> testList = list("a", "d", "b", "c", "e", "a", "c", "f");
+        List<String> expect = new ArrayList<>(testList);
+        expect.sort(Comparator.comparing(o -> {
+            int index = sequence.indexOf(o);
+            return index == -1 ? Integer.MAX_VALUE : index;
+        }));
+        assertThat(CollectionUtil.customSequenceSort(testList, String::toString, new LinkedHashSet<>(sequence)))
+                .isSameAs(testList)
+                .containsExactlyElementsOf(expect)
+                .containsExactly("c", "c", "a", "a", "b", "d", "e", "f");
+    }
+
     @Test
     public void testDistinctIgnoreCaseWithSet() {
         Set<String> collections = Sets.newTreeSet("John.Boe@APITABLE.com", "john.Boe@apitable.com");
@@ -79,9 +79,16 @@ public class SpaceAssetMapperTest extends AbstractMyBatisMapperTest {
 
     @Test
     @Sql({ "/sql/space-asset-data.sql", "/sql/asset-data.sql" })
-    void testSelectFileSizeBySpaceId() {
-        List<Integer> entities = spaceAssetMapper.selectFileSizeBySpaceId("spc41");
-        assertThat(entities).isNotEmpty();
+    void testSumFileSizeBySpaceId() {
+        Long fileSize = spaceAssetMapper.sumFileSizeBySpaceId("spc41");
+        assertThat(fileSize).isEqualTo(41L);
+    }
+
+    @Test
+    @Sql("/sql/space-asset-data.sql")
+    void testCountBySpaceIdAndAssetId() {
+        Integer count = spaceAssetMapper.countBySpaceIdAndAssetId("spc41", 41L);
+        assertThat(count).isEqualTo(1);
     }
 
 }
@@ -0,0 +1,78 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.space.mapper;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.apitable.AbstractMyBatisMapperTest;
+import com.apitable.space.entity.SpaceUsageEntity;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.jdbc.Sql;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpaceUsageMapperTest extends AbstractMyBatisMapperTest {
+
+    @Autowired
+    SpaceUsageMapper spaceUsageMapper;
+
+    @Test
+    @Sql("/sql/space-usage-data.sql")
+    void testSelectBySpaceId() {
+        SpaceUsageEntity entity = spaceUsageMapper.selectBySpaceId("spc41");
+        assertThat(entity).isNotNull();
+        assertThat(entity.getCapacity()).isEqualTo(41L);
+    }
+
+    @Test
+    @Sql("/sql/space-usage-data.sql")
+    void testInsertOrUpdateBatchKeepsNullCounter() {
+        SpaceUsageEntity entity = SpaceUsageEntity.builder().id(43L).spaceId("spc41").capacity(43L).build();
+        spaceUsageMapper.insertOrUpdateBatch(Collections.singletonList(entity));
+        SpaceUsageEntity saved = spaceUsageMapper.selectBySpaceId("spc41");
+        assertThat(saved.getCapacity()).isEqualTo(43L);
+        assertThat(saved.getRecordCount()).isEqualTo(41L);
+        assertThat(saved.getMemberCount()).isEqualTo(41L);
+    }
+
+    @Test
+    @Sql("/sql/space-usage-data.sql")
+    void testInsertOrUpdateReconciled() {
+        SpaceUsageEntity entity = SpaceUsageEntity.builder().id(43L).spaceId("spc42")
+                .capacity(1L).recordCount(2L).memberCount(3L).reconciledAt(LocalDateTime.now()).build();
+        spaceUsageMapper.insertOrUpdateReconciled(entity);
+        SpaceUsageEntity saved = spaceUsageMapper.selectBySpaceId("spc42");
+        assertThat(saved.getRecordCount()).isEqualTo(2L);
+        assertThat(saved.getReconciledAt()).isNotNull();
+    }
+
+    @Test
+    @Sql("/sql/space-usage-data.sql")
+    void testSelectSpaceIdByReconciledAtBefore() {
+        List<String> spaceIds = spaceUsageMapper.selectSpaceIdByReconciledAtBefore(LocalDateTime.of(2022, 12, 2, 0, 0), 10);
+        assertThat(spaceIds).containsExactly("spc42", "spc41");
+        spaceIds = spaceUsageMapper.selectSpaceIdByReconciledAtBefore(LocalDateTime.of(2022, 11, 1, 0, 0), 10);
+        assertThat(spaceIds).containsExactly("spc42");
+    }
+}
@@ -96,9 +96,9 @@ public class StaticsMapperTest extends AbstractMyBatisMapperTest {
 
     @Test
     @Sql("/sql/space-asset-data.sql")
-    void testSelectFileSizeBySpaceId() {
-        List<Integer> entities = staticsMapper.selectFileSizeBySpaceId("spc41");
-        assertThat(entities).isNotEmpty();
+    void testSumFileSizeBySpaceId() {
+        Long fileSize = staticsMapper.sumFileSizeBySpaceId("spc41");
+        assertThat(fileSize).isEqualTo(41L);
     }
 
     @Test
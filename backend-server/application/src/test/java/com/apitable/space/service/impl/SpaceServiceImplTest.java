@@ -31,6 +31,7 @@ import com.apitable.interfaces.billing.model.SubscriptionInfo;
 import com.apitable.mock.bean.MockUserSpace;
 import com.apitable.space.dto.GetSpaceListFilterCondition;
 import com.apitable.space.dto.SpaceCapacityUsedInfo;
+import com.apitable.space.vo.SpaceGlobalFeature;
 import com.apitable.space.vo.SpaceVO;
 import com.apitable.user.entity.UserEntity;
 import org.junit.jupiter.api.Test;
@@ -65,6 +66,15 @@ public class SpaceServiceImplTest extends AbstractIntegrationTest {
         assertThat(spaceVOList).isNotEmpty().hasSize(1);
     }
 
+    @Test
+    void givenSwitchSpaceProsWhenGetSpaceGlobalFeatureThenChanged() {
+        MockUserSpace userSpace = createSingleUserAndSpace();
+        SpaceGlobalFeature feature = iSpaceService.getSpaceGlobalFeature(userSpace.getSpaceId());
+        assertThat(feature.getInvitable()).isNotEqualTo(false);
+        iSpaceService.switchSpacePros(userSpace.getUserId(), userSpace.getSpaceId(), SpaceGlobalFeature.builder().invitable(false).build());
+        assertThat(iSpaceService.getSpaceGlobalFeature(userSpace.getSpaceId()).getInvitable()).isFalse();
+    }
+
     @Test
     void givenExitMemberWhenCheckUserInSpaceWhenSuccess() {
         MockUserSpace userSpace = createSingleUserAndSpace();
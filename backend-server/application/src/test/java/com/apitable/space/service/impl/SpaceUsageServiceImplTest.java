@@ -0,0 +1,101 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.space.service.impl;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+
+import com.apitable.AbstractIntegrationTest;
+import com.apitable.core.constants.RedisConstants;
+import com.apitable.mock.bean.MockUserSpace;
+import com.apitable.space.entity.SpaceUsageEntity;
+import com.apitable.space.enums.SpaceUsageType;
+import com.apitable.space.mapper.SpaceUsageMapper;
+import com.apitable.space.service.ISpaceUsageService;
+import com.apitable.user.entity.UserEntity;
+
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpaceUsageServiceImplTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private ISpaceUsageService iSpaceUsageService;
+
+    @Autowired
+    private SpaceUsageMapper spaceUsageMapper;
+
+    @Test
+    void givenNewMemberWhenGetMemberUsageThenIncreased() {
+        MockUserSpace userSpace = createSingleUserAndSpace();
+        long memberCount = iSpaceUsageService.getUsage(userSpace.getSpaceId(), SpaceUsageType.MEMBER);
+        assertThat(memberCount).isEqualTo(1L);
+        UserEntity user = iUserService.createUserByEmail("boy@apitable.com");
+        createMember(user.getId(), userSpace.getSpaceId());
+        assertThat(iSpaceUsageService.getUsage(userSpace.getSpaceId(), SpaceUsageType.MEMBER)).isEqualTo(2L);
+    }
+
+    @Test
+    void givenInvalidatedCounterWhenGetUsageThenCountedAgain() {
+        MockUserSpace userSpace = createSingleUserAndSpace();
+        assertThat(iSpaceUsageService.getUsage(userSpace.getSpaceId(), SpaceUsageType.CAPACITY)).isZero();
+        iSpaceUsageService.applyDelta(userSpace.getSpaceId(), SpaceUsageType.CAPACITY, 100L);
+        assertThat(iSpaceUsageService.getUsage(userSpace.getSpaceId(), SpaceUsageType.CAPACITY)).isEqualTo(100L);
+        iSpaceUsageService.invalidate(userSpace.getSpaceId(), SpaceUsageType.CAPACITY);
+        assertThat(iSpaceUsageService.getUsage(userSpace.getSpaceId(), SpaceUsageType.CAPACITY)).isZero();
+    }
+
+    @Test
+    void givenDeltaOfDroppedCounterWhenGetUsageThenCountedAgain() {
+        MockUserSpace userSpace = createSingleUserAndSpace();
+        iSpaceUsageService.applyDelta(userSpace.getSpaceId(), SpaceUsageType.CAPACITY, 100L);
+        assertThat(iSpaceUsageService.getUsage(userSpace.getSpaceId(), SpaceUsageType.CAPACITY)).isZero();
+    }
+
+    @Test
+    void givenCheckpointWhenRedisLostThenLoadCheckpoint() {
+        MockUserSpace userSpace = createSingleUserAndSpace();
+        iSpaceUsageService.getUsage(userSpace.getSpaceId(), SpaceUsageType.MEMBER);
+        assertThat(iSpaceUsageService.checkpoint(10)).isEqualTo(1);
+        SpaceUsageEntity checkpoint = spaceUsageMapper.selectBySpaceId(userSpace.getSpaceId());
+        assertThat(checkpoint.getMemberCount()).isEqualTo(1L);
+        assertThat(checkpoint.getCapacity()).isNull();
+        // the checkpoint is loaded instead of counting
+        checkpoint.setMemberCount(5L);
+        spaceUsageMapper.updateById(checkpoint);
+        redisTemplate.delete(RedisConstants.getSpaceUsageKey(userSpace.getSpaceId()));
+        assertThat(iSpaceUsageService.getUsage(userSpace.getSpaceId(), SpaceUsageType.MEMBER)).isEqualTo(5L);
+    }
+
+    @Test
+    void givenDriftedCounterWhenReconcileThenCountedAgain() {
+        MockUserSpace userSpace = createSingleUserAndSpace();
+        iSpaceUsageService.getUsage(userSpace.getSpaceId(), SpaceUsageType.CAPACITY);
+        iSpaceUsageService.applyDelta(userSpace.getSpaceId(), SpaceUsageType.CAPACITY, 100L);
+        iSpaceUsageService.checkpoint(10);
+        assertThat(iSpaceUsageService.reconcileStale(LocalDateTime.now(), 10)).isEqualTo(1);
+        assertThat(iSpaceUsageService.getUsage(userSpace.getSpaceId(), SpaceUsageType.CAPACITY)).isZero();
+        SpaceUsageEntity checkpoint = spaceUsageMapper.selectBySpaceId(userSpace.getSpaceId());
+        assertThat(checkpoint.getCapacity()).isZero();
+        assertThat(checkpoint.getMemberCount()).isEqualTo(1L);
+        assertThat(checkpoint.getReconciledAt()).isNotNull();
+    }
+}
@@ -147,6 +147,13 @@ public class UserMapperTest extends AbstractMyBatisMapperTest {
         assertThat(entities).isNotEmpty();
     }
 
+    @Test
+    @Sql("/sql/user-data.sql")
+    void testSelectUserIdsAfterId() {
+        assertThat(userMapper.selectUserIdsAfterId(0L, 2)).containsExactly(1L, 2L);
+        assertThat(userMapper.selectUserIdsAfterId(2L, 10)).containsExactly(3L, 41L, 45L);
+    }
+
 
     @Test
     @Sql("/sql/user-data.sql")
@@ -0,0 +1,102 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.workspace.listener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.apitable.workspace.entity.DatasheetRecordEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Record Batch Writer Unit Test
+ */
+public class RecordBatchWriterTest {
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static DatasheetRecordEntity record(String dstId, int i) {
+        return DatasheetRecordEntity.builder().dstId(dstId).recordId("rec" + i).build();
+    }
+
+    @Test
+    void testSaveInBatches() {
+        List<List<DatasheetRecordEntity>> batches = Collections.synchronizedList(new ArrayList<>());
+        RecordBatchWriter writer = new RecordBatchWriter(executor, batches::add, 3, 2);
+        for (int i = 0; i < 10; i++) {
+            writer.add(record(i < 5 ? "dst1" : "dst2", i));
+        }
+        writer.finish();
+        assertThat(writer.getSavedCount()).isEqualTo(10);
+        assertThat(batches).hasSize(4).allSatisfy(batch -> assertThat(batch.size()).isLessThanOrEqualTo(3));
+        assertThat(writer.getDstIds()).containsExactly("dst1", "dst2");
+    }
+
+    @Test
+    void testFailedBatchStopsImport() {
+        AtomicInteger saved = new AtomicInteger();
+        RecordBatchWriter writer = new RecordBatchWriter(executor, batch -> {
+            if (saved.incrementAndGet() == 2) {
+                throw new IllegalStateException("insert failed");
+            }
+        }, 2, 1);
+        assertThatThrownBy(() -> {
+            for (int i = 0; i < 100; i++) {
+                writer.add(record("dst1", i));
+            }
+            writer.finish();
+        }).isInstanceOf(IllegalStateException.class).hasMessage("insert failed");
+        writer.abort();
+        // no batch is saved after the failure
+        assertThat(saved.get()).isEqualTo(2);
+        assertThat(writer.getDstIds()).containsExactly("dst1");
+    }
+
+    @Test
+    void testSaveOnCallerWhenRejected() {
+        List<DatasheetRecordEntity> saved = Collections.synchronizedList(new ArrayList<>());
+        executor.shutdown();
+        RecordBatchWriter writer = new RecordBatchWriter(executor, saved::addAll, 2, 2);
+        for (int i = 0; i < 5; i++) {
+            writer.add(record("dst1", i));
+        }
+        writer.finish();
+        assertThat(saved).hasSize(5);
+    }
+}
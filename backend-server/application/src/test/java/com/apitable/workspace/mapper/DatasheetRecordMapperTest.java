@@ -18,14 +18,20 @@
 
 package com.apitable.workspace.mapper;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import cn.hutool.core.collection.CollUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
 import org.junit.jupiter.api.Test;
 
 import com.apitable.AbstractMyBatisMapperTest;
 import com.apitable.workspace.dto.DataSheetRecordDTO;
 import com.apitable.workspace.dto.DataSheetRecordGroupDTO;
+import com.apitable.workspace.entity.DatasheetRecordEntity;
 import com.apitable.workspace.vo.DatasheetRecordVo;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -67,4 +73,90 @@ public class DatasheetRecordMapperTest extends AbstractMyBatisMapperTest {
         assertThat(entities);
     }
 
+    @Test
+    @Sql("/sql/datasheet-record-data.sql")
+    void testSelectIdsByDstIdAfterRecordId() {
+        List<DatasheetRecordEntity> entities = datasheetRecordMapper.selectIdsByDstIdAfterRecordId("dst0ZDEBxQPJxoaQ1h", null, 10);
+        assertThat(entities).extracting(DatasheetRecordEntity::getRecordId).containsExactly("rec5TDJ5dfewH");
+        assertThat(datasheetRecordMapper.selectIdsByDstIdAfterRecordId("dst0ZDEBxQPJxoaQ1h", "rec5TDJ5dfewH", 10)).isEmpty();
+    }
+
+    @Test
+    @Sql("/sql/datasheet-record-data.sql")
+    void testSelectByDstIdAfterRecordId() {
+        List<DatasheetRecordEntity> entities = datasheetRecordMapper.selectByDstIdAfterRecordId("dst0ZDEBxQPJxoaQ1h",
+                Collections.singletonList("fld1"), null, 10);
+        assertThat(entities).hasSize(1);
+        assertThat(entities.get(0).getData()).isEqualTo("{}");
+        assertThat(entities.get(0).getRevisionHistory()).isEqualTo("13");
+    }
+
+    @Test
+    @Sql("/sql/datasheet-record-data.sql")
+    void testInsertCopyByIds() {
+        Map<Long, Long> idMap = Collections.singletonMap(0L, 1L);
+        int count = datasheetRecordMapper.insertCopyByIds(1L, "dstCopy", idMap,
+                Collections.emptyList(), Collections.emptyList(), null);
+        assertThat(count).isEqualTo(1);
+        assertThat(datasheetRecordMapper.countByDstId("dstCopy")).isEqualTo(1);
+    }
+
+    @Test
+    @Sql("/sql/datasheet-record-copy-data.sql")
+    void testInsertCopyByIdsWithDeletedField() {
+        int count = datasheetRecordMapper.insertCopyByIds(1L, "dstCopy", Collections.singletonMap(10L, 11L),
+                Collections.singletonList("fld2"), Collections.emptyList(), null);
+        assertThat(count).isEqualTo(1);
+        DatasheetRecordEntity copy = datasheetRecordMapper.selectById(11L);
+        JSONObject data = JSONUtil.parseObj(copy.getData());
+        assertThat(data.keySet()).containsExactlyInAnyOrder("fld1", "fldAuto");
+        assertThat(data.getStr("fld1")).isEqualTo("a");
+        // the original field updated info is retained
+        JSONObject fieldUpdatedInfo = JSONUtil.parseObj(copy.getFieldUpdatedInfo());
+        assertThat(fieldUpdatedInfo.getLong("createdAt")).isEqualTo(1595922741000L);
+        assertThat(fieldUpdatedInfo.getJSONObject("fieldUpdatedMap").keySet()).containsExactlyInAnyOrder("fld1", "fldAuto");
+    }
+
+    @Test
+    @Sql("/sql/datasheet-record-copy-data.sql")
+    void testInsertCopyByIdsWithRecordMeta() {
+        String recordMeta = "{\"createdAt\": 1700000000000, \"createdBy\": \"uuid2\"}";
+        datasheetRecordMapper.insertCopyByIds(1L, "dstCopy", Collections.singletonMap(10L, 11L),
+                Collections.singletonList("fld2"), Collections.emptyList(), recordMeta);
+        DatasheetRecordEntity copy = datasheetRecordMapper.selectById(11L);
+        assertThat(JSONUtil.parseObj(copy.getData()).keySet()).doesNotContain("fld2");
+        JSONObject fieldUpdatedInfo = JSONUtil.parseObj(copy.getFieldUpdatedInfo());
+        assertThat(fieldUpdatedInfo.keySet()).containsExactlyInAnyOrder("createdAt", "createdBy");
+        assertThat(fieldUpdatedInfo.getLong("createdAt")).isEqualTo(1700000000000L);
+        assertThat(fieldUpdatedInfo.getStr("createdBy")).isEqualTo("uuid2");
+    }
+
+    @Test
+    @Sql("/sql/datasheet-record-copy-data.sql")
+    void testInsertCopyByIdsWithAutoNumberField() {
+        String recordMeta = "{\"createdAt\": 1700000000000}";
+        datasheetRecordMapper.insertCopyByIds(1L, "dstCopy", Collections.singletonMap(10L, 11L),
+                Collections.emptyList(), Arrays.asList("fldAuto", "fldAutoAbsent"), recordMeta);
+        DatasheetRecordEntity copy = datasheetRecordMapper.selectById(11L);
+        assertThat(JSONUtil.parseObj(copy.getData()).keySet()).containsExactlyInAnyOrder("fld1", "fld2", "fldAuto");
+        // only the auto number fields are picked from the original map, a field without entry is left out
+        JSONObject fieldUpdatedInfo = JSONUtil.parseObj(copy.getFieldUpdatedInfo());
+        assertThat(fieldUpdatedInfo.getLong("createdAt")).isEqualTo(1700000000000L);
+        JSONObject fieldUpdatedMap = fieldUpdatedInfo.getJSONObject("fieldUpdatedMap");
+        assertThat(fieldUpdatedMap.keySet()).containsExactly("fldAuto");
+        assertThat(fieldUpdatedMap.getJSONObject("fldAuto").getInt("autoNumber")).isEqualTo(3);
+    }
+
+    @Test
+    @Sql("/sql/datasheet-record-copy-data.sql")
+    void testInsertCopyByIdsWithAutoNumberFieldWithoutRecordMeta() {
+        datasheetRecordMapper.insertCopyByIds(1L, "dstCopy", Collections.singletonMap(10L, 11L),
+                Collections.singletonList("fld1"), Collections.singletonList("fldAuto"), null);
+        DatasheetRecordEntity copy = datasheetRecordMapper.selectById(11L);
+        assertThat(JSONUtil.parseObj(copy.getData()).keySet()).containsExactlyInAnyOrder("fld2", "fldAuto");
+        JSONObject fieldUpdatedInfo = JSONUtil.parseObj(copy.getFieldUpdatedInfo());
+        assertThat(fieldUpdatedInfo.getLong("createdAt")).isEqualTo(1595922741000L);
+        assertThat(fieldUpdatedInfo.getJSONObject("fieldUpdatedMap").keySet()).containsExactlyInAnyOrder("fld1", "fldAuto");
+    }
+
 }
@@ -98,6 +98,13 @@ public class NodeMapperTest extends AbstractMyBatisMapperTest {
         assertThat(ids).isNotEmpty();
     }
 
+    @Test
+    @Sql("/sql/node-data.sql")
+    void testSelectSearchableNodeNameBySpaceId() {
+        List<BaseNodeInfo> nodes = nodeMapper.selectSearchableNodeNameBySpaceId("spczJrh2i3tLW");
+        assertThat(nodes).extracting(BaseNodeInfo::getNodeName).contains("A1", "A2", "A3");
+    }
+
 
     @Test
     @Sql({ "/sql/node-data.sql", "/sql/space-data.sql" })
@@ -18,6 +18,8 @@
 
 package com.apitable.workspace.service.impl;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +28,8 @@ import cn.hutool.core.collection.CollUtil;
 import org.junit.jupiter.api.Test;
 
 import com.apitable.AbstractIntegrationTest;
+import com.apitable.control.infrastructure.ControlRoleDict;
+import com.apitable.control.infrastructure.ControlTemplate;
 import com.apitable.control.infrastructure.role.RoleConstants;
 import com.apitable.control.infrastructure.role.RoleConstants.Node;
 import com.apitable.control.service.IControlRoleService;
@@ -33,7 +37,9 @@ import com.apitable.mock.bean.MockUserSpace;
 import com.apitable.organization.service.IMemberService;
 import com.apitable.organization.service.ITeamService;
 import com.apitable.organization.service.IUnitService;
+import com.apitable.shared.util.IdUtil;
 import com.apitable.user.entity.UserEntity;
+import com.apitable.workspace.dto.CreateNodeDto;
 import com.apitable.workspace.dto.DatasheetSnapshot;
 import com.apitable.workspace.dto.DatasheetSnapshot.Field;
 import com.apitable.workspace.dto.DatasheetSnapshot.View;
@@ -41,13 +47,23 @@ import com.apitable.workspace.enums.NodeType;
 import com.apitable.workspace.ro.NodeOpRo;
 import com.apitable.workspace.service.IDatasheetMetaService;
 import com.apitable.workspace.service.IFieldRoleService;
+import com.apitable.workspace.service.INodeRelService;
 import com.apitable.workspace.service.INodeRoleService;
 import com.apitable.workspace.service.INodeService;
 import com.apitable.workspace.vo.FieldCollaboratorVO;
+import com.apitable.workspace.vo.FieldPermissionInfo;
+import com.apitable.workspace.vo.FieldPermissionView;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 /**
  * @author tao
@@ -78,6 +94,12 @@ public class FieldRoleServiceImplTest extends AbstractIntegrationTest {
     @Autowired
     private IControlRoleService iControlRoleService;
 
+    @Autowired
+    private INodeRelService iNodeRelService;
+
+    @SpyBean
+    private ControlTemplate controlTemplate;
+
     @Test
     void givenRootTeamWhenGetFieldRolesThenReturnRootTeamWithEditRole() {
         // When obtaining field permissions, if the field does not have permission to enable,
@@ -197,6 +219,72 @@ public class FieldRoleServiceImplTest extends AbstractIntegrationTest {
         assertThat(roleToUnitIds.get(RoleConstants.Field.EDITOR).get(0)).isEqualTo(3L);
     }
 
+    @Test
+    void givenFieldsOpenedByMemberWhenFetchFieldRolesThenOwnerCanEditAll() {
+        MockUserSpace userSpace = createSingleUserAndSpace();
+        String nodeId = initNode(userSpace, false, false);
+        UserEntity user = createUserRandom();
+        Long memberId = createMember(user.getId(), userSpace.getSpaceId());
+        List<String> fieldIds = new ArrayList<>(iDatasheetMetaService.getMetaByDstId(nodeId).getMeta().getFieldMap().keySet());
+        assertThat(fieldIds.size()).isGreaterThan(1);
+        fieldIds.forEach(fieldId -> iFieldRoleService.enableFieldRole(user.getId(), nodeId, fieldId, false));
+        // the owner fields are resolved first, the rest of the fields by roles
+        ControlRoleDict roleDict = controlTemplate.fetchFieldRole(memberId, nodeId, fieldIds);
+        assertThat(roleDict.keySet()).containsExactlyInAnyOrderElementsOf(fieldIds);
+        fieldIds.forEach(fieldId -> assertThat(roleDict.get(fieldId).getRoleTag()).isEqualTo(RoleConstants.Field.EDITOR));
+        // answered from the cache
+        ControlRoleDict cachedRoleDict = controlTemplate.fetchFieldRole(memberId, nodeId, fieldIds);
+        assertThat(cachedRoleDict.keySet()).containsExactlyInAnyOrderElementsOf(fieldIds);
+    }
+
+    @Test
+    void givenNodesOfSameDatasheetWhenGetFieldPermissionViewsThenRolesEvaluatedOncePerDatasheet() {
+        MockUserSpace userSpace = createSingleUserAndSpace();
+        Long memberId = iMemberService.getMemberIdByUserIdAndSpaceId(userSpace.getUserId(), userSpace.getSpaceId());
+        String datasheetId = initNode(userSpace, false, false);
+        String fieldId = getNoFirstFieldId(datasheetId);
+        iFieldRoleService.enableFieldRole(userSpace.getUserId(), datasheetId, fieldId, false);
+        // form and mirror of the datasheet
+        String formId = createRelNode(userSpace, datasheetId, NodeType.FORM);
+        String mirrorId = createRelNode(userSpace, datasheetId, NodeType.MIRROR);
+        // a datasheet without field permission enabled
+        String otherDatasheetId = initNode(userSpace, false, false);
+        clearInvocations(controlTemplate);
+
+        Map<String, FieldPermissionView> views = iFieldRoleService.getFieldPermissionViews(memberId,
+                Arrays.asList(formId, datasheetId, otherDatasheetId, mirrorId), null);
+
+        assertThat(views.keySet()).containsExactly(formId, datasheetId, otherDatasheetId, mirrorId);
+        for (String nodeId : Arrays.asList(datasheetId, formId, mirrorId)) {
+            FieldPermissionView view = views.get(nodeId);
+            assertThat(view.getNodeId()).isEqualTo(nodeId);
+            assertThat(view.getDatasheetId()).isEqualTo(datasheetId);
+            assertThat(view.getFieldPermissionMap()).containsOnlyKeys(fieldId);
+            FieldPermissionInfo info = view.getFieldPermissionMap().get(fieldId);
+            assertThat(info.getHasRole()).isTrue();
+            assertThat(info.getRole()).isEqualTo(RoleConstants.Field.EDITOR);
+            assertThat(info.getPermission().getEditable()).isTrue();
+        }
+        FieldPermissionView otherView = views.get(otherDatasheetId);
+        assertThat(otherView.getDatasheetId()).isEqualTo(otherDatasheetId);
+        assertThat(otherView.getFieldPermissionMap()).isNull();
+        // the three nodes of the datasheet share one evaluation, no evaluation without field permission
+        verify(controlTemplate, times(1)).fetchFieldRole(eq(memberId), eq(datasheetId), anyList());
+        verify(controlTemplate, never()).fetchFieldRole(eq(memberId), eq(otherDatasheetId), anyList());
+    }
+
+    private String createRelNode(MockUserSpace userSpace, String datasheetId, NodeType type) {
+        String nodeId = iNodeService.createChildNode(userSpace.getUserId(), CreateNodeDto.builder()
+                .spaceId(userSpace.getSpaceId())
+                .parentId(iNodeService.getRootNodeIdBySpaceId(userSpace.getSpaceId()))
+                .newNodeId(IdUtil.createNodeId(type.getNodeType()))
+                .nodeName(type.name())
+                .type(type.getNodeType())
+                .build());
+        iNodeRelService.create(userSpace.getUserId(), datasheetId, nodeId, null);
+        return nodeId;
+    }
+
     private String initNode(MockUserSpace userSpace, boolean isAddControl, boolean isExtend) {
         String rootNodeId = iNodeService.getRootNodeIdBySpaceId(userSpace.getSpaceId());
         String controlNodeId = null;
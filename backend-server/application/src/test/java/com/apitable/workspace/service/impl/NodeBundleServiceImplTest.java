@@ -0,0 +1,182 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.workspace.service.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import javax.annotation.Resource;
+
+import cn.hutool.json.JSONArray;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.apitable.AbstractIntegrationTest;
+import com.apitable.mock.bean.MockUserSpace;
+import com.apitable.shared.util.IdUtil;
+import com.apitable.workspace.entity.DatasheetRecordEntity;
+import com.apitable.workspace.enums.NodeType;
+import com.apitable.workspace.mapper.DatasheetRecordMapper;
+import com.apitable.workspace.mapper.NodeMapper;
+import com.apitable.workspace.ro.MetaOpRo;
+import com.apitable.workspace.ro.NodeOpRo;
+import com.apitable.workspace.service.IDatasheetMetaService;
+import com.apitable.workspace.service.IDatasheetRecordService;
+import com.apitable.workspace.service.NodeBundleService;
+
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NodeBundleServiceImplTest extends AbstractIntegrationTest {
+
+    @Resource
+    private NodeBundleService nodeBundleService;
+
+    @Resource
+    private IDatasheetMetaService iDatasheetMetaService;
+
+    @Resource
+    private IDatasheetRecordService iDatasheetRecordService;
+
+    @Resource
+    private DatasheetRecordMapper datasheetRecordMapper;
+
+    @Resource
+    private NodeMapper nodeMapper;
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void givenFolderWithForeignLinkWhenExportAndImportThenRoundTrip() throws IOException {
+        MockUserSpace userSpace = createSingleUserAndSpace();
+        Long userId = userSpace.getUserId();
+        String spaceId = userSpace.getSpaceId();
+        String rootNodeId = iNodeService.getRootNodeIdBySpaceId(spaceId);
+        String folderId = createNode(userId, spaceId, rootNodeId, NodeType.FOLDER, "folder");
+        String dstId = createNode(userId, spaceId, folderId, NodeType.DATASHEET, "datasheet");
+        // the linked datasheet is outside the exported folder
+        String foreignDstId = createNode(userId, spaceId, rootNodeId, NodeType.DATASHEET, "foreign");
+        String textFieldId = IdUtil.createFieldId();
+        String linkFieldId = IdUtil.createFieldId();
+        String recordId = IdUtil.createRecordId();
+        JSONObject meta = JSONUtil.createObj()
+                .set("fieldMap", JSONUtil.createObj()
+                        .set(textFieldId, JSONUtil.createObj().set("id", textFieldId).set("name", "Title").set("type", 19).set("property", JSONUtil.createObj()))
+                        .set(linkFieldId, JSONUtil.createObj().set("id", linkFieldId).set("name", "Link").set("type", 7)
+                                .set("property", JSONUtil.createObj().set("foreignDatasheetId", foreignDstId))))
+                .set("views", JSONUtil.createArray().put(JSONUtil.createObj()
+                        .set("id", IdUtil.createViewId()).set("name", "Grid").set("type", 1)
+                        .set("rows", JSONUtil.createArray().put(JSONUtil.createObj().set("recordId", recordId)))
+                        .set("columns", JSONUtil.createArray()
+                                .put(JSONUtil.createObj().set("fieldId", textFieldId))
+                                .put(JSONUtil.createObj().set("fieldId", linkFieldId)))));
+        iDatasheetMetaService.edit(userId, dstId, MetaOpRo.builder().meta(meta).build());
+        String recordMeta = JSONUtil.createObj().set("createdBy", "creator")
+                .set("fieldUpdatedMap", JSONUtil.createObj()
+                        .set(textFieldId, JSONUtil.createObj().set("at", 1L))
+                        .set(linkFieldId, JSONUtil.createObj().set("at", 2L)))
+                .toString();
+        iDatasheetRecordService.save(DatasheetRecordEntity.builder()
+                .recordId(recordId)
+                .dstId(dstId)
+                .data(JSONUtil.createObj().set(textFieldId, "hello").set(linkFieldId, JSONUtil.createArray().put("recForeign")).toString())
+                .revisionHistory("0,1")
+                .revision(1L)
+                .fieldUpdatedInfo(recordMeta)
+                .createdBy(userId)
+                .updatedBy(userId)
+                .build());
+
+        // export
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest(), response));
+        nodeBundleService.generate(folderId, true, null);
+        byte[] bundle = response.getContentAsByteArray();
+        JSONObject dataFile = readDataFile(bundle);
+        JSONObject snapshot = dataFile.getJSONObject("snapshot");
+        assertThat(snapshot.getJSONObject("meta").getJSONObject("fieldMap").keySet()).containsExactly(textFieldId);
+        JSONObject record = snapshot.getJSONObject("recordMap").getJSONObject(recordId);
+        assertThat(record.getJSONObject("data").keySet()).containsExactly(textFieldId);
+        assertThat(record.getJSONArray("revisionHistory").toList(Integer.class)).containsExactly(0, 1);
+        assertThat(record.getLong("revision")).isEqualTo(1L);
+        assertThat(JSONUtil.parseObj(record.getStr("recordMeta"))).isEqualTo(JSONUtil.parseObj(recordMeta));
+
+        // import
+        List<String> existingNodeIds = nodeMapper.selectSubNodeIds(rootNodeId);
+        nodeBundleService.analyze(new MockMultipartFile("file", "folder.apitable", "application/zip", bundle),
+                null, rootNodeId, null, userId);
+        List<String> importedNodeIds = new ArrayList<>(nodeMapper.selectSubNodeIds(rootNodeId));
+        importedNodeIds.removeAll(existingNodeIds);
+        assertThat(importedNodeIds).hasSize(1);
+        List<String> importedDstIds = nodeMapper.selectSubNodeIds(importedNodeIds.get(0));
+        assertThat(importedDstIds).hasSize(1);
+        String importedDstId = importedDstIds.get(0);
+        JSONObject importedMeta = iDatasheetMetaService.findByDstId(importedDstId).getMeta();
+        assertThat(importedMeta.getJSONObject("fieldMap").keySet()).containsExactly(textFieldId);
+        JSONArray columns = importedMeta.getJSONArray("views").getJSONObject(0).getJSONArray("columns");
+        assertThat(columns).hasSize(1);
+        DatasheetRecordEntity importedRecord = datasheetRecordMapper.selectByDstIdAfterRecordId(importedDstId, null, null, 100)
+                .stream().filter(entity -> recordId.equals(entity.getRecordId())).findFirst().orElse(null);
+        assertThat(importedRecord).isNotNull();
+        assertThat(JSONUtil.parseObj(importedRecord.getData())).isEqualTo(JSONUtil.createObj().set(textFieldId, "hello"));
+        JSONObject importedRecordMeta = JSONUtil.parseObj(importedRecord.getFieldUpdatedInfo());
+        assertThat(importedRecordMeta.getStr("createdBy")).isEqualTo(iUserService.getById(userId).getUuid());
+        assertThat(importedRecordMeta.getJSONObject("fieldUpdatedMap").keySet()).containsExactly(textFieldId);
+        assertThat(importedRecordMeta.getJSONObject("fieldUpdatedMap").getJSONObject(textFieldId).getLong("at")).isEqualTo(1L);
+    }
+
+    private String createNode(Long userId, String spaceId, String parentId, NodeType type, String name) {
+        NodeOpRo nodeOpRo = NodeOpRo.builder()
+                .parentId(parentId)
+                .type(type.getNodeType())
+                .nodeName(name)
+                .build();
+        return iNodeService.createNode(userId, spaceId, nodeOpRo);
+    }
+
+    private static JSONObject readDataFile(byte[] bundle) throws IOException {
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bundle))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.getName().startsWith("data/")) {
+                    byte[] content = Base64.getMimeDecoder().decode(StreamUtils.copyToByteArray(zip));
+                    return JSONUtil.parseObj(new String(content, StandardCharsets.UTF_8));
+                }
+            }
+        }
+        throw new IllegalStateException("no data file in bundle");
+    }
+}
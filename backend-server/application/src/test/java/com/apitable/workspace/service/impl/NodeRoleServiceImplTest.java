@@ -19,11 +19,16 @@
 package com.apitable.workspace.service.impl;
 
 import java.util.List;
+import java.util.Map;
 
 import cn.hutool.core.collection.CollUtil;
 import org.junit.jupiter.api.Test;
 
 import com.apitable.AbstractIntegrationTest;
+import com.apitable.control.infrastructure.ControlRequestOption;
+import com.apitable.control.infrastructure.ControlRoleDict;
+import com.apitable.control.infrastructure.ControlTemplate;
+import com.apitable.control.infrastructure.role.ControlRole;
 import com.apitable.control.infrastructure.role.RoleConstants.Node;
 import com.apitable.control.service.IControlRoleService;
 import com.apitable.mock.bean.MockUserSpace;
@@ -61,6 +66,9 @@ public class NodeRoleServiceImplTest extends AbstractIntegrationTest {
     @Autowired
     private IControlRoleService iControlRoleService;
 
+    @Autowired
+    private ControlTemplate controlTemplate;
+
     @Test
     void givenNoExtendWhenAddExtendNodeRoleThenAddRootTeamRole() {
         MockUserSpace userSpace = createSingleUserAndSpace();
@@ -112,4 +120,49 @@ public class NodeRoleServiceImplTest extends AbstractIntegrationTest {
         List<ControlRoleInfo> controlRoleInfos = iNodeRoleService.deleteNodeRoles("nod", CollUtil.newArrayList(1L, 3L));
         assertThat(controlRoleInfos.size()).isEqualTo(2);
     }
+
+    @Test
+    void givenRubbishAndInternalOptionWhenFetchNodeRolesThenSameAsOneByOne() {
+        MockUserSpace userSpace = createSingleUserAndSpace();
+        String rootNodeId = iNodeService.getRootNodeIdBySpaceId(userSpace.getSpaceId());
+        NodeOpRo folderOp = new NodeOpRo().toBuilder()
+                .parentId(rootNodeId)
+                .type(NodeType.FOLDER.getNodeType())
+                .nodeName("folder")
+                .build();
+        String folderId = iNodeService.createNode(userSpace.getUserId(), userSpace.getSpaceId(), folderOp);
+        NodeOpRo datasheetOp = new NodeOpRo().toBuilder()
+                .parentId(folderId)
+                .type(NodeType.DATASHEET.getNodeType())
+                .nodeName("datasheet")
+                .build();
+        String datasheetId = iNodeService.createNode(userSpace.getUserId(), userSpace.getSpaceId(), datasheetOp);
+        iNodeRoleService.enableNodeRole(userSpace.getUserId(), userSpace.getSpaceId(), folderId, false);
+        Long editorMemberId = createMember(createUserRandom().getId(), userSpace.getSpaceId());
+        Long deniedMemberId = createMember(createUserRandom().getId(), userSpace.getSpaceId());
+        iNodeRoleService.addNodeRole(userSpace.getUserId(), folderId, Node.EDITOR,
+                CollUtil.newArrayList(iUnitService.getUnitIdByRefId(editorMemberId)));
+        List<Long> memberIds = CollUtil.newArrayList(editorMemberId, deniedMemberId);
+        List<String> nodeIds = CollUtil.newArrayList(folderId, datasheetId);
+
+        Map<Long, ControlRoleDict> rubbishRoles = controlTemplate.fetchNodeRoles(memberIds, nodeIds,
+                ControlRequestOption.create().setRubbishRoleBuilding(true));
+        Map<Long, ControlRoleDict> internalRoles = controlTemplate.fetchNodeRoles(memberIds, nodeIds,
+                ControlRequestOption.create().setInternalBuilding(true));
+        for (Long memberId : memberIds) {
+            assertSameRoles(rubbishRoles.get(memberId), controlTemplate.fetchRubbishNodeRole(memberId, nodeIds));
+            assertSameRoles(internalRoles.get(memberId), controlTemplate.fetchInternalNodeRole(memberId, nodeIds));
+        }
+        assertThat(internalRoles.get(editorMemberId).get(datasheetId).getRoleTag()).isEqualTo(Node.EDITOR);
+        assertThat(internalRoles.get(deniedMemberId)).doesNotContainKey(datasheetId);
+    }
+
+    private static void assertSameRoles(ControlRoleDict actual, ControlRoleDict expected) {
+        assertThat(actual.keySet()).containsExactlyInAnyOrderElementsOf(expected.keySet());
+        expected.forEach((nodeId, role) -> {
+            ControlRole actualRole = actual.get(nodeId);
+            assertThat(actualRole.getRoleTag()).isEqualTo(role.getRoleTag());
+            assertThat(actualRole.getPermissions()).containsExactlyInAnyOrderElementsOf(role.getPermissions());
+        });
+    }
 }
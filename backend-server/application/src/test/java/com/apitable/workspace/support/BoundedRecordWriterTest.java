@@ -0,0 +1,129 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.workspace.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Bounded Record Writer Unit Test
+ */
+public class BoundedRecordWriterTest {
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testCopyDatasheetsConcurrently() {
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        List<String> copied = Collections.synchronizedList(new ArrayList<>());
+        BoundedRecordWriter writer = new BoundedRecordWriter(executor, 2, "copy");
+        for (String dstId : new String[] { "dst1", "dst2" }) {
+            writer.submit(dstId, () -> {
+                bothRunning.countDown();
+                try {
+                    // each copy waits for the other one, it only passes when they run at the same time
+                    assertThat(bothRunning.await(5, TimeUnit.SECONDS)).isTrue();
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                copied.add(dstId);
+            });
+        }
+        writer.finish();
+        assertThat(copied).containsExactlyInAnyOrder("dst1", "dst2");
+        assertThat(writer.getDstIds()).containsExactly("dst1", "dst2");
+    }
+
+    @Test
+    void testParallelismIsBounded() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        BoundedRecordWriter writer = new BoundedRecordWriter(executor, 2, "copy");
+        for (int i = 0; i < 10; i++) {
+            writer.submit("dst" + i, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(10);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+            });
+        }
+        writer.finish();
+        assertThat(maxRunning.get()).isLessThanOrEqualTo(2);
+        assertThat(writer.getDstIds()).hasSize(10);
+    }
+
+    @Test
+    void testFailedWriteStopsWriter() {
+        AtomicInteger copied = new AtomicInteger();
+        BoundedRecordWriter writer = new BoundedRecordWriter(executor, 1, "copy");
+        assertThatThrownBy(() -> {
+            for (int i = 0; i < 10; i++) {
+                writer.submit("dst" + i, () -> {
+                    if (copied.incrementAndGet() == 2) {
+                        throw new IllegalStateException("copy failed");
+                    }
+                });
+            }
+            writer.finish();
+        }).isInstanceOf(IllegalStateException.class).hasMessage("copy failed");
+        writer.abort();
+        // no datasheet is copied after the failure
+        assertThat(copied.get()).isEqualTo(2);
+        assertThat(writer.getDstIds()).contains("dst0", "dst1");
+    }
+
+    @Test
+    void testCopyOnCallerWhenRejected() {
+        List<String> copied = new ArrayList<>();
+        executor.shutdown();
+        BoundedRecordWriter writer = new BoundedRecordWriter(executor, 2, "copy");
+        writer.submit("dst1", () -> copied.add("dst1"));
+        writer.submit("dst2", () -> copied.add("dst2"));
+        writer.finish();
+        assertThat(copied).containsExactly("dst1", "dst2");
+    }
+}
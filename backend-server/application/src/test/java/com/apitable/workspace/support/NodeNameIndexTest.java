@@ -0,0 +1,117 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.workspace.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.apitable.workspace.vo.BaseNodeInfo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Node Name Index Unit Test
+ */
+public class NodeNameIndexTest {
+
+    private static NodeNameIndex index() {
+        List<BaseNodeInfo> nodes = new ArrayList<>();
+        nodes.add(node("dst1", "Sales Report"));
+        nodes.add(node("dst2", "report"));
+        nodes.add(node("dst3", "Report of 2022"));
+        nodes.add(node("dst4", "Weekly Report"));
+        nodes.add(node("dst5", "Todo"));
+        nodes.add(node("dst6", "项目计划"));
+        return NodeNameIndex.of(0, nodes);
+    }
+
+    private static BaseNodeInfo node(String nodeId, String nodeName) {
+        BaseNodeInfo node = new BaseNodeInfo();
+        node.setNodeId(nodeId);
+        node.setNodeName(nodeName);
+        return node;
+    }
+
+    @Test
+    public void testSearchRankedLikeFuzzyQuery() {
+        NodeNameIndex index = index();
+        // exact, prefix, suffix with the shorter name first
+        assertThat(index.search("REPORT", 50)).containsExactly("dst2", "dst3", "dst1", "dst4");
+        assertThat(index.search("port o", 50)).containsExactly("dst3");
+        assertThat(index.search("report", 2)).containsExactly("dst2", "dst3");
+        assertThat(index.search("reports", 50)).isEmpty();
+    }
+
+    @Test
+    public void testSearchShortKeyword() {
+        NodeNameIndex index = index();
+        assertThat(index.search("t", 50)).containsExactlyInAnyOrder("dst1", "dst2", "dst3", "dst4", "dst5");
+        assertThat(index.search("td", 50)).isEmpty();
+        assertThat(index.search("计划", 50)).containsExactly("dst6");
+        assertThat(index.search(" ", 50)).isEmpty();
+    }
+
+    @Test
+    public void testPutAndRemove() {
+        NodeNameIndex index = index();
+        assertThat(index.put(1, "dst5", "Daily Report")).isTrue();
+        assertThat(index.put(2, "dst7", "Reporter")).isTrue();
+        assertThat(index.search("todo", 50)).isEmpty();
+        assertThat(index.search("report", 50)).containsExactly("dst2", "dst7", "dst3", "dst1", "dst5", "dst4");
+        assertThat(index.remove(3, Collections.singletonList("dst2"))).isTrue();
+        assertThat(index.search("report", 1)).containsExactly("dst7");
+        assertThat(index.size()).isEqualTo(6);
+        assertThat(index.getVersion()).isEqualTo(3);
+    }
+
+    @Test
+    public void testChangeOutOfOrder() {
+        NodeNameIndex index = index();
+        assertThat(index.put(1, "dst7", "Plan")).isTrue();
+        // applied already
+        assertThat(index.put(1, "dst8", "Plan B")).isTrue();
+        assertThat(index.search("plan", 50)).containsExactly("dst7");
+        // a change is missed
+        assertThat(index.remove(3, Collections.singletonList("dst7"))).isFalse();
+        assertThat(index.getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    public void testCompact() {
+        List<BaseNodeInfo> nodes = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            nodes.add(node("dst" + i, "sheet " + i));
+        }
+        NodeNameIndex index = NodeNameIndex.of(0, nodes);
+        List<String> removed = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            removed.add("dst" + i);
+        }
+        assertThat(index.remove(1, removed)).isTrue();
+        assertThat(index.put(2, "dst2500", "table 2500")).isTrue();
+        assertThat(index.size()).isEqualTo(1000);
+        assertThat(index.search("sheet 1999", 50)).isEmpty();
+        assertThat(index.search("sheet 2999", 50)).containsExactly("dst2999");
+        assertThat(index.search("table", 50)).containsExactly("dst2500");
+        assertThat(index.search("sheet 2", 2)).containsExactly("dst2000", "dst2001");
+    }
+}
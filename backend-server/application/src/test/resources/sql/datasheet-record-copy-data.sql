@@ -0,0 +1,22 @@
+-- APITable <https://github.com/apitable/apitable>
+-- Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+--
+-- This program is free software: you can redistribute it and/or modify
+-- it under the terms of the GNU Affero General Public License as published by
+-- the Free Software Foundation, either version 3 of the License, or
+-- (at your option) any later version.
+--
+-- This program is distributed in the hope that it will be useful,
+-- but WITHOUT ANY WARRANTY; without even the implied warranty of
+-- MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+-- GNU Affero General Public License for more details.
+--
+-- You should have received a copy of the GNU Affero General Public License
+-- along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+INSERT INTO `datasheet_record` (`id`, `record_id`, `dst_id`, `data`,
+                                     `revision_history`, `revision`,
+                                     `field_updated_info`, `is_deleted`)
+VALUES (10, 'recCopySource', 'dstCopySource',
+        '{\"fld1\": \"a\", \"fld2\": \"b\", \"fldAuto\": 3}', '1', 1,
+        '{\"createdAt\": 1595922741000, \"fieldUpdatedMap\": {\"fld1\": {\"at\": 1595922741000, \"by\": \"uuid1\"}, \"fldAuto\": {\"autoNumber\": 3}}}', 0);
@@ -0,0 +1,271 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.core.support.tree;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.apitable.core.support.tree.v2.TreeUtil;
+
+/**
+ * <p>
+ * Tree building of DefaultTreeBuildFactory: the list scan per node against the parent id index.
+ * Shapes: a deep chain of folders, one wide folder, and a space like tree
+ * where one of five nodes is a folder under a random folder.
+ * The list scan is quadratic or worse, so it only runs on small trees.
+ * </p>
+ * Run with: ./gradlew :shared:core:jmh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class TreeBuildBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class LegacyTree {
+
+        @Param({ "CHAIN", "WIDE", "SPACE" })
+        private String shape;
+
+        @Param({ "500", "2000" })
+        private int nodeCount;
+
+        private List<String[]> nodes;
+
+        @Setup
+        public void setup() {
+            nodes = generate(shape, nodeCount);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class IndexedTree {
+
+        @Param({ "CHAIN", "WIDE", "SPACE" })
+        private String shape;
+
+        @Param({ "2000", "10000", "50000" })
+        private int nodeCount;
+
+        private List<String[]> nodes;
+
+        @Setup
+        public void setup() {
+            nodes = generate(shape, nodeCount);
+        }
+    }
+
+    @Benchmark
+    public List<TreeNode> legacyListScan(LegacyTree state) {
+        return new LegacyTreeBuildFactory().doTreeBuild(toNodes(state.nodes));
+    }
+
+    @Benchmark
+    public List<TreeNode> parentIdIndex(IndexedTree state) {
+        return new DefaultTreeBuildFactory<TreeNode>().doTreeBuild(toNodes(state.nodes));
+    }
+
+    @Benchmark
+    public List<TreeNodeV2> treeUtilV2(IndexedTree state) {
+        List<TreeNodeV2> nodes = new ArrayList<>(state.nodes.size());
+        for (String[] node : state.nodes) {
+            nodes.add(new TreeNodeV2(node[0], node[1]));
+        }
+        return TreeUtil.build(nodes);
+    }
+
+    private static List<String[]> generate(String shape, int nodeCount) {
+        Random random = new Random(20221018L);
+        List<String[]> nodes = new ArrayList<>(nodeCount);
+        List<String> folderIds = new ArrayList<>();
+        folderIds.add(DefaultTreeBuildFactory.ROOT_PARENT_ID);
+        for (int i = 0; i < nodeCount; i++) {
+            String nodeId = "n" + i;
+            switch (shape) {
+                case "CHAIN":
+                    nodes.add(new String[] { nodeId, i == 0 ? DefaultTreeBuildFactory.ROOT_PARENT_ID : "n" + (i - 1) });
+                    break;
+                case "WIDE":
+                    nodes.add(new String[] { nodeId, i == 0 ? DefaultTreeBuildFactory.ROOT_PARENT_ID : "n0" });
+                    break;
+                default:
+                    nodes.add(new String[] { nodeId, folderIds.get(random.nextInt(folderIds.size())) });
+                    if (i % 5 == 0) {
+                        folderIds.add(nodeId);
+                    }
+            }
+        }
+        Collections.shuffle(nodes, random);
+        return nodes;
+    }
+
+    private static List<TreeNode> toNodes(List<String[]> nodes) {
+        List<TreeNode> treeNodes = new ArrayList<>(nodes.size());
+        for (String[] node : nodes) {
+            treeNodes.add(new TreeNode(node[0], node[1]));
+        }
+        return treeNodes;
+    }
+
+    /**
+     * the list scan DefaultTreeBuildFactory used before the parent id index
+     */
+    private static class LegacyTreeBuildFactory extends AbstractTreeBuildFactory<TreeNode> {
+
+        private void buildChildNodes(List<TreeNode> totalNodes, TreeNode node, List<TreeNode> childNodeLists) {
+            List<TreeNode> nodeSubLists = new ArrayList<>();
+            for (TreeNode nodeItem : totalNodes) {
+                if (nodeItem.getNodeParentId().equals(node.getNodeId())) {
+                    nodeSubLists.add(nodeItem);
+                }
+            }
+            for (TreeNode nodeSubList : nodeSubLists) {
+                buildChildNodes(totalNodes, nodeSubList, new ArrayList<>());
+            }
+            childNodeLists.addAll(nodeSubLists);
+            node.setChildrenNodes(childNodeLists);
+        }
+
+        @Override
+        protected List<TreeNode> beforeBuild(List<TreeNode> nodes) {
+            return nodes;
+        }
+
+        @Override
+        protected List<TreeNode> executeBuilding(List<TreeNode> nodes) {
+            for (TreeNode treeNode : nodes) {
+                this.buildChildNodes(nodes, treeNode, new ArrayList<>());
+            }
+            return nodes;
+        }
+
+        @Override
+        protected List<TreeNode> afterBuild(List<TreeNode> nodes) {
+            List<TreeNode> results = new ArrayList<>();
+            for (TreeNode node : nodes) {
+                if (node.getNodeParentId().equals(DefaultTreeBuildFactory.ROOT_PARENT_ID)) {
+                    results.add(node);
+                }
+            }
+            return results;
+        }
+    }
+
+    public static class TreeNode implements Tree {
+
+        private final String nodeId;
+
+        private final String parentId;
+
+        private List<TreeNode> children;
+
+        TreeNode(String nodeId, String parentId) {
+            this.nodeId = nodeId;
+            this.parentId = parentId;
+        }
+
+        @Override
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        @Override
+        public String getNodeParentId() {
+            return parentId;
+        }
+
+        @Override
+        public List<TreeNode> getChildrenNodes() {
+            return children;
+        }
+
+        @Override
+        public void setChildrenNodes(List childrenNodes) {
+            this.children = childrenNodes;
+        }
+    }
+
+    public static class TreeNodeV2 implements com.apitable.core.support.tree.v2.Tree {
+
+        private final String id;
+
+        private String parentId;
+
+        private int level;
+
+        private List<TreeNodeV2> children;
+
+        TreeNodeV2(String id, String parentId) {
+            this.id = id;
+            this.parentId = parentId;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String getParentId() {
+            return parentId;
+        }
+
+        @Override
+        public void setParentId(String parentId) {
+            this.parentId = parentId;
+        }
+
+        @Override
+        public List<TreeNodeV2> getChildren() {
+            return children;
+        }
+
+        @Override
+        public void setChildren(List children) {
+            this.children = children;
+        }
+
+        @Override
+        public int getLevel() {
+            return level;
+        }
+
+        @Override
+        public void setLevel(int level) {
+            this.level = level;
+        }
+    }
+}
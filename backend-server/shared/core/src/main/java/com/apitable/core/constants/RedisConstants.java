@@ -59,6 +59,46 @@ public class RedisConstants {
      */
     private static final String USER_SPACE_REMIND_KEY = "cache:user:{}:space:{}:remind";
 
+    /**
+     * version stamp of the control roles in the space, bumped when permissions change
+     */
+    private static final String SPACE_CONTROL_ROLE_VERSION_KEY = "cache:space:{}:control:version";
+
+    /**
+     * resolved control roles of the member in the space, under a version stamp
+     */
+    private static final String MEMBER_CONTROL_ROLE_KEY = "cache:space:{}:member:{}:control:{}";
+
+    /**
+     * version stamp of the space global feature, bumped when the feature changes
+     */
+    private static final String SPACE_FEATURE_VERSION_KEY = "cache:space:{}:feature:version";
+
+    /**
+     * space global feature, under a version stamp
+     */
+    private static final String SPACE_FEATURE_KEY = "cache:space:{}:feature:{}";
+
+    /**
+     * usage counters of space ---> hash: counter type -> value
+     */
+    private static final String SPACE_USAGE_KEY = "cache:space:{}:usage";
+
+    /**
+     * spaces whose usage counters changed since the last checkpoint
+     */
+    public static final String SPACE_USAGE_DIRTY_KEY = "cache:space:usage:dirty";
+
+    /**
+     * version stamp of node search index of space
+     */
+    private static final String NODE_SEARCH_VERSION_KEY = "cache:space:{}:node:search:version";
+
+    /**
+     * version stamp of organization graph of space, bumped when teams, members or roles change
+     */
+    private static final String ORGANIZATION_GRAPH_VERSION_KEY = "cache:space:{}:organization:version";
+
     /**
      * storage structure of verification code ---> verification Code Type（SMS/EMAIL）：business type（login/register/...）：storage object（phone or email）
      */
@@ -134,6 +174,16 @@ public class RedisConstants {
      */
     public static final String NOTIFY_TEMPORARY_KEY = "notify:cache:temporary:{}";
 
+    /**
+     * pub/sub channel of near cache invalidation
+     */
+    public static final String NEAR_CACHE_INVALIDATE_CHANNEL = "channel:near-cache:invalidate";
+
+    /**
+     * pub/sub channel of node search index changes
+     */
+    public static final String NODE_SEARCH_INDEX_CHANNEL = "channel:node-search-index:change";
+
     /**
      * space template reference
      */
@@ -144,6 +194,21 @@ public class RedisConstants {
      */
     private static final String NOTIFY_FREQUENCY_LIMIT = "notify:cache:frequency:{}:{}:{}";
 
+    /**
+     * unfinished notification fan-out jobs
+     */
+    public static final String NOTIFY_FANOUT_JOBS = "notify:fanout:jobs";
+
+    /**
+     * notification fan-out job ---> notify:fanout:job:job id
+     */
+    private static final String NOTIFY_FANOUT_JOB = "notify:fanout:job:{}";
+
+    /**
+     * lease of running notification fan-out job ---> notify:fanout:lease:job id
+     */
+    private static final String NOTIFY_FANOUT_LEASE = "notify:fanout:lease:{}";
+
     /**
      * Get the key stored by the login user
      *
@@ -217,6 +282,87 @@ public class RedisConstants {
         return StrUtil.format(USER_SPACE_REMIND_KEY, userId, spaceId);
     }
 
+    /**
+     * Get the version stamp key of control roles in the space
+     *
+     * @param spaceId space's id
+     * @return version stamp storage key
+     */
+    public static String getSpaceControlRoleVersionKey(String spaceId) {
+        Assert.notBlank(spaceId, "space does not exist");
+        return StrUtil.format(SPACE_CONTROL_ROLE_VERSION_KEY, spaceId);
+    }
+
+    /**
+     * Get the key of control roles resolved for the member
+     *
+     * @param spaceId  space's id
+     * @param memberId member's id
+     * @param version  version stamp of the space
+     * @return control roles storage key
+     */
+    public static String getMemberControlRoleKey(String spaceId, Long memberId, long version) {
+        Assert.notBlank(spaceId, "space does not exist");
+        Assert.notNull(memberId, "member does not exist");
+        return StrUtil.format(MEMBER_CONTROL_ROLE_KEY, spaceId, memberId, version);
+    }
+
+    /**
+     * Get the key of the version stamp of space global feature
+     *
+     * @param spaceId space's id
+     * @return key
+     */
+    public static String getSpaceFeatureVersionKey(String spaceId) {
+        Assert.notBlank(spaceId, "space does not exist");
+        return StrUtil.format(SPACE_FEATURE_VERSION_KEY, spaceId);
+    }
+
+    /**
+     * Get the key of space global feature
+     *
+     * @param spaceId space's id
+     * @param version version stamp of space global feature
+     * @return key
+     */
+    public static String getSpaceFeatureKey(String spaceId, long version) {
+        Assert.notBlank(spaceId, "space does not exist");
+        return StrUtil.format(SPACE_FEATURE_KEY, spaceId, version);
+    }
+
+    /**
+     * Get the key of the version stamp of node search index
+     *
+     * @param spaceId space's id
+     * @return key
+     */
+    public static String getNodeSearchVersionKey(String spaceId) {
+        Assert.notBlank(spaceId, "space does not exist");
+        return StrUtil.format(NODE_SEARCH_VERSION_KEY, spaceId);
+    }
+
+    /**
+     * Get the key of organization graph version stamp
+     *
+     * @param spaceId space's id
+     * @return version stamp storage key
+     */
+    public static String getOrganizationGraphVersionKey(String spaceId) {
+        Assert.notBlank(spaceId, "space does not exist");
+        return StrUtil.format(ORGANIZATION_GRAPH_VERSION_KEY, spaceId);
+    }
+
+    /**
+     * Get the key of space usage counters
+     *
+     * @param spaceId space's id
+     * @return key
+     */
+    public static String getSpaceUsageKey(String spaceId) {
+        Assert.notBlank(spaceId, "space does not exist");
+        return StrUtil.format(SPACE_USAGE_KEY, spaceId);
+    }
+
     /**
      * Get the key of verification code storage
      *
@@ -363,4 +509,26 @@ public class RedisConstants {
         Assert.notBlank(templateId, "notification template does not exist");
         return StrUtil.format(NOTIFY_FREQUENCY_LIMIT, templateId, userId, nonce);
     }
+
+    /**
+     * Get the key of notification fan-out job
+     *
+     * @param jobId job id
+     * @return String
+     */
+    public static String getNotifyFanoutJobKey(String jobId) {
+        Assert.notBlank(jobId, "job does not exist");
+        return StrUtil.format(NOTIFY_FANOUT_JOB, jobId);
+    }
+
+    /**
+     * Get the lease key of notification fan-out job
+     *
+     * @param jobId job id
+     * @return String
+     */
+    public static String getNotifyFanoutLeaseKey(String jobId) {
+        Assert.notBlank(jobId, "job does not exist");
+        return StrUtil.format(NOTIFY_FANOUT_LEASE, jobId);
+    }
 }
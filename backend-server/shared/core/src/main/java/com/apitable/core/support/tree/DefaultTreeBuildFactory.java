@@ -18,10 +18,9 @@
 
 package com.apitable.core.support.tree;
 
-import cn.hutool.core.collection.CollUtil;
-
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * <p>
@@ -46,43 +45,19 @@ public class DefaultTreeBuildFactory<T extends Tree> extends AbstractTreeBuildFa
 	}
 
 	/**
-     * query a collection of child nodes
+     * link the child nodes of every node, the child nodes keep the order of the list
      *
-     * @param totalNodes     the list of all nodes
-     * @param node           node to be queried
-     * @param childNodeLists the child nodes of the queried node
+     * @param totalNodes the list of all nodes
      */
-    private void buildChildNodes(List<T> totalNodes, T node, List<T> childNodeLists) {
-        if (totalNodes == null || node == null) {
-            return;
-        }
-
-        List<T> nodeSubLists = getSubChildLevelOne(totalNodes, node);
-
-        if (CollUtil.isNotEmpty(nodeSubLists)) {
-            for (T nodeSubList : nodeSubLists) {
-                buildChildNodes(totalNodes, nodeSubList, new ArrayList<>());
+    private void buildChildNodes(List<T> totalNodes) {
+        Map<String, List<T>> childrenMap = TreeNodeIndex.groupByParentId(totalNodes, Tree::getNodeParentId);
+        for (T node : totalNodes) {
+            if (node == null) {
+                continue;
             }
+            List<T> children = childrenMap.get(node.getNodeId());
+            node.setChildrenNodes(children != null ? new ArrayList<>(children) : new ArrayList<>());
         }
-
-        childNodeLists.addAll(nodeSubLists);
-        node.setChildrenNodes(childNodeLists);
-    }
-
-    /**
-     * gets the node's child nodes
-     *
-     * @param list  the list of nodes
-     * @param node  the node to be queried
-     */
-    private List<T> getSubChildLevelOne(List<T> list, T node) {
-        List<T> nodeList = new ArrayList<>();
-        for (T nodeItem : list) {
-            if (nodeItem.getNodeParentId().equals(node.getNodeId())) {
-                nodeList.add(nodeItem);
-            }
-        }
-        return nodeList;
     }
 
     @Override
@@ -93,9 +68,7 @@ public class DefaultTreeBuildFactory<T extends Tree> extends AbstractTreeBuildFa
 
     @Override
     protected List<T> executeBuilding(List<T> nodes) {
-        for (T treeNode : nodes) {
-            this.buildChildNodes(nodes, treeNode, new ArrayList<>());
-        }
+        this.buildChildNodes(nodes);
         return nodes;
     }
 
@@ -0,0 +1,57 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.core.support.tree;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * hash index of tree nodes, shared by the tree builders.
+ * children of every parent are grouped in one pass over the node list,
+ * so linking the tree is linear instead of scanning the list for each node.
+ * </p>
+ */
+public final class TreeNodeIndex {
+
+    private TreeNodeIndex() {
+    }
+
+    /**
+     * group nodes by their parent id, the nodes in every group keep the order of the list
+     *
+     * @param nodes          the list of nodes
+     * @param parentIdGetter the parent id getter of node
+     * @param <T>            the node type
+     * @return parent id -> child nodes
+     */
+    public static <T> Map<String, List<T>> groupByParentId(Collection<T> nodes, Function<T, String> parentIdGetter) {
+        Map<String, List<T>> childrenMap = new HashMap<>(Math.max(16, (int) (nodes.size() / 0.75f) + 1));
+        for (T node : nodes) {
+            if (node != null) {
+                childrenMap.computeIfAbsent(parentIdGetter.apply(node), k -> new ArrayList<>()).add(node);
+            }
+        }
+        return childrenMap;
+    }
+}
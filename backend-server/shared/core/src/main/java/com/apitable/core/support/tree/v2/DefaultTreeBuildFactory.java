@@ -18,7 +18,10 @@
 
 package com.apitable.core.support.tree.v2;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,6 +30,8 @@ import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
 
+import com.apitable.core.support.tree.TreeNodeIndex;
+
 /**
  * <p>
  * V2 default recursive tool, used to traverse nodes that have parent-child relationships.
@@ -83,22 +88,26 @@ public class DefaultTreeBuildFactory<T extends Tree> extends AbstractTreeBuildFa
             eTreeMap.put(totalNode.getId(), totalNode);
         }
 
-        List<T> rootTreeList = CollUtil.newArrayList();
-        String parentId;
+        // When no children, building an empty object
         for (T node : eTreeMap.values()) {
-            // When no children, building an empty object
             if (CollUtil.isEmpty(node.getChildren())) {
                 node.setChildren(new ArrayList<>());
             }
-            parentId = node.getParentId();
-            if (ObjectUtil.equals(rootId, parentId)) {
-                rootTreeList.add(node);
+        }
+
+        // link from the roots down, so that the level of parent is known before its children
+        final Map<String, List<T>> childrenMap = TreeNodeIndex.groupByParentId(eTreeMap.values(), Tree::getParentId);
+        List<T> rootTreeList = CollUtil.newArrayList(childrenMap.getOrDefault(rootId, Collections.emptyList()));
+        Deque<T> queue = new ArrayDeque<>(rootTreeList);
+        while (!queue.isEmpty()) {
+            T parentNode = queue.poll();
+            List<T> children = childrenMap.get(parentNode.getId());
+            if (null == children || ObjectUtil.equals(rootId, parentNode.getId())) {
                 continue;
             }
-
-            final T parentNode = eTreeMap.get(parentId);
-            if (null != parentNode) {
-                parentNode.addChildren(node);
+            for (T child : children) {
+                parentNode.addChildren(child);
+                queue.add(child);
             }
         }
         return rootTreeList;
@@ -0,0 +1,63 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.core.util;
+
+import java.awt.Dimension;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+/**
+ * <p>
+ * image tool
+ * </p>
+ *
+ */
+public class ImageTool {
+
+    /**
+     * Read width and height of the image from its header, the pixels are not decoded.
+     * Only the bytes of header are read from the stream and cached in memory.
+     *
+     * @param in image input stream
+     * @return image size, null if it is not an image
+     * @throws IOException io exception
+     */
+    public static Dimension readSize(InputStream in) throws IOException {
+        try (ImageInputStream imageIn = new MemoryCacheImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageIn);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageIn, true, true);
+                return new Dimension(reader.getWidth(0), reader.getHeight(0));
+            }
+            finally {
+                reader.dispose();
+            }
+        }
+    }
+}
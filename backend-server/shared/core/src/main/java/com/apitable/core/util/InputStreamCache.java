@@ -18,21 +18,31 @@
 
 package com.apitable.core.util;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
 import java.util.Objects;
 
+import cn.hutool.core.codec.Base64;
 import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.io.IoUtil;
+import cn.hutool.core.util.ArrayUtil;
 import cn.hutool.core.util.ObjectUtil;
+import cn.hutool.crypto.digest.DigestAlgorithm;
+import cn.hutool.crypto.digest.Digester;
 
 /**
  * <p>
  * Input stream cache
- * Consider whether the memory is full when processing a large number of images
+ * The stream is read once: md5 checksum and head bytes are computed while it is copied,
+ * small content stays in memory and larger content is transferred to a temporary file,
+ * so reading it again does not copy the bytes on heap.
  * </p>
  *
  */
@@ -41,7 +51,7 @@ public class InputStreamCache implements AutoCloseable {
     /**
      * save the bytes in the InputStream to the ByteArrayOutputStream
      */
-    private ByteArrayOutputStream byteArrayOutputStream = null;
+    private BufferOutputStream byteArrayOutputStream = null;
 
     /**
      * automatic transfer of temporary files
@@ -56,7 +66,12 @@ public class InputStreamCache implements AutoCloseable {
     /**
      * Auto-dump file size
      */
-    private final long AUTO_TRANSFER_TO_TEMP_SIZE = 50 * 1024 * 1024;
+    private static final long AUTO_TRANSFER_TO_TEMP_SIZE = 2 * 1024 * 1024;
+
+    /**
+     * length of head bytes used by head sum
+     */
+    private static final int HEAD_SUM_LENGTH = 32;
 
     /**
      * file size
@@ -68,6 +83,20 @@ public class InputStreamCache implements AutoCloseable {
      */
     private boolean autoTransfer;
 
+    /**
+     * number of bytes read from the stream
+     */
+    private long readSize;
+
+    /**
+     * md5 checksum, encoded in Base64
+     */
+    private String checksum;
+
+    private final byte[] head = new byte[HEAD_SUM_LENGTH];
+
+    private int headLength;
+
     public InputStreamCache(InputStream inputStream) {
         this(inputStream, -1);
     }
@@ -75,33 +104,47 @@ public class InputStreamCache implements AutoCloseable {
     public InputStreamCache(InputStream inputStream, long fileSize) {
         this.fileSize = fileSize;
 
+        OutputStream out = null;
         try {
             Objects.requireNonNull(inputStream);
-
+            MessageDigest md5 = new Digester(DigestAlgorithm.MD5).getDigest();
             // Determines whether the size is self-determined and saved as a temporary file
             if (fileSize >= AUTO_TRANSFER_TO_TEMP_SIZE) {
-                location = this.saveToTemp(inputStream);
-                this.autoTransfer = true;
+                out = this.transferToTemp();
             }
             else {
-                if (fileSize <= 0) {
-                    byteArrayOutputStream = new ByteArrayOutputStream();
-                }
-                else {
-                    byteArrayOutputStream = new ByteArrayOutputStream((int) fileSize);
-                }
-                byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
-                int len;
+                byteArrayOutputStream = new BufferOutputStream(fileSize <= 0 ? DEFAULT_BUFFER_SIZE : (int) fileSize);
+                out = byteArrayOutputStream;
+            }
+            byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
+            int len;
 
-                while ((len = inputStream.read(buffer)) > -1) {
-                    byteArrayOutputStream.write(buffer, 0, len);
+            while ((len = inputStream.read(buffer)) > -1) {
+                if (!this.autoTransfer && readSize + len > AUTO_TRANSFER_TO_TEMP_SIZE) {
+                    // the declared size is missing or wrong, move what is read to the temporary file
+                    out = this.transferToTemp();
                 }
-                byteArrayOutputStream.flush();
+                md5.update(buffer, 0, len);
+                if (headLength < HEAD_SUM_LENGTH) {
+                    int length = Math.min(len, HEAD_SUM_LENGTH - headLength);
+                    System.arraycopy(buffer, 0, head, headLength, length);
+                    headLength += length;
+                }
+                out.write(buffer, 0, len);
+                readSize += len;
             }
+            out.flush();
+            this.checksum = Base64.encode(md5.digest());
         }
         catch (IOException e) {
+            this.close();
             throw new RuntimeException("Cache Stream Read Exception");
         }
+        finally {
+            if (this.autoTransfer) {
+                IoUtil.close(out);
+            }
+        }
     }
 
     /**
@@ -120,11 +163,29 @@ public class InputStreamCache implements AutoCloseable {
             if (ObjectUtil.isNull(byteArrayOutputStream)) {
                 return null;
             }
-            // return a new byte stream
-            return new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
+            // return a new byte stream on the cached bytes
+            return byteArrayOutputStream.toInputStream();
         }
     }
 
+    /**
+     * Get md5 checksum of the content, the same as {@link DigestUtil#md5Hex(InputStream)}
+     *
+     * @return checksum
+     */
+    public String getChecksum() {
+        return this.checksum;
+    }
+
+    /**
+     * Get head sum of the content, the same as {@link DigestUtil#createHeadSum(InputStream)}
+     *
+     * @return head sum
+     */
+    public String getHeadSum() {
+        return Base64.encode(ArrayUtil.resize(ArrayUtil.sub(head, 0, headLength), HEAD_SUM_LENGTH));
+    }
+
     /**
      * Get the file size, which may be: 0
      *
@@ -142,7 +203,7 @@ public class InputStreamCache implements AutoCloseable {
      */
     public long getFileSize(boolean compute) {
         if (this.fileSize <= 0 && compute) {
-            return FileTool.calculateSize(getInputStream());
+            return this.readSize;
         }
         return this.fileSize;
     }
@@ -157,21 +218,20 @@ public class InputStreamCache implements AutoCloseable {
     }
 
     /**
-     * Save temporary file
+     * Create temporary file and move the bytes read in memory to it
      *
-     * @param inputStream input stream
-     * @return temporary file
+     * @return output stream of temporary file
+     * @throws IOException io exception
      */
-    private File saveToTemp(InputStream inputStream) {
-        // transfer file
-        File tempFile;
-        try {
-            tempFile = FileTool.createUploadTempFile().toFile();
-            return FileUtil.writeFromStream(inputStream, tempFile);
-        }
-        catch (IOException e) {
-            throw new RuntimeException("Cache Stream Read Exception");
+    private OutputStream transferToTemp() throws IOException {
+        location = FileTool.createUploadTempFile().toFile();
+        this.autoTransfer = true;
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(location), DEFAULT_BUFFER_SIZE);
+        if (byteArrayOutputStream != null) {
+            byteArrayOutputStream.writeTo(out);
+            byteArrayOutputStream = null;
         }
+        return out;
     }
 
     @Override
@@ -183,4 +243,18 @@ public class InputStreamCache implements AutoCloseable {
             location.deleteOnExit();
         }
     }
+
+    /**
+     * byte array output stream reading its buffer without copy
+     */
+    private static class BufferOutputStream extends ByteArrayOutputStream {
+
+        BufferOutputStream(int size) {
+            super(size);
+        }
+
+        InputStream toInputStream() {
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+    }
 }
@@ -0,0 +1,186 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.core.support.tree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.apitable.core.support.tree.v2.TreeUtil;
+
+/**
+ * <p>
+ *  tree build factory's test
+ * </p>
+ */
+class TreeBuildFactoryTests {
+
+    /**
+     * 1
+     * ├── 2
+     * │   └── 4
+     * │       └── 5
+     * └── 3
+     * 6
+     */
+    private static final String[][] NODES = {
+        { "5", "4" }, { "3", "1" }, { "1", "0" }, { "4", "2" }, { "2", "1" }, { "6", "0" }, { "7", "8" }
+    };
+
+    @Test
+    void defaultTreeBuildTest() {
+        List<TreeNode> nodes = new ArrayList<>();
+        for (String[] node : NODES) {
+            nodes.add(new TreeNode(node[0], node[1]));
+        }
+        List<TreeNode> roots = new DefaultTreeBuildFactory<TreeNode>().doTreeBuild(nodes);
+        Assertions.assertEquals(2, roots.size());
+        TreeNode first = roots.get(0);
+        Assertions.assertEquals("1", first.getNodeId());
+        Assertions.assertEquals("3", first.getChildren().get(0).getNodeId());
+        Assertions.assertEquals("2", first.getChildren().get(1).getNodeId());
+        TreeNode second = first.getChildren().get(1);
+        Assertions.assertEquals("5", second.getChildren().get(0).getChildren().get(0).getNodeId());
+        Assertions.assertTrue(roots.get(1).getChildren().isEmpty());
+    }
+
+    @Test
+    void subTreeBuildTest() {
+        List<TreeNode> nodes = new ArrayList<>();
+        for (String[] node : NODES) {
+            nodes.add(new TreeNode(node[0], node[1]));
+        }
+        List<TreeNode> roots = new DefaultTreeBuildFactory<TreeNode>("2").doTreeBuild(nodes);
+        Assertions.assertEquals(1, roots.size());
+        Assertions.assertEquals("4", roots.get(0).getNodeId());
+        Assertions.assertEquals("5", roots.get(0).getChildren().get(0).getNodeId());
+    }
+
+    @Test
+    void treeUtilBuildTest() {
+        List<TreeNodeV2> nodes = new ArrayList<>();
+        for (String[] node : NODES) {
+            nodes.add(new TreeNodeV2(node[0], node[1]));
+        }
+        List<TreeNodeV2> roots = TreeUtil.build(nodes);
+        Assertions.assertEquals(2, roots.size());
+        TreeNodeV2 first = roots.get(0);
+        Assertions.assertEquals("1", first.getId());
+        Assertions.assertEquals("3", first.getChildren().get(0).getId());
+        TreeNodeV2 second = first.getChildren().get(1);
+        Assertions.assertEquals("2", second.getId());
+        Assertions.assertEquals(1, second.getLevel());
+        TreeNodeV2 leaf = second.getChildren().get(0).getChildren().get(0);
+        Assertions.assertEquals("5", leaf.getId());
+        Assertions.assertEquals(3, leaf.getLevel());
+        // the original nodes are not changed
+        Assertions.assertNull(nodes.get(2).getChildren());
+    }
+
+    static class TreeNode implements Tree {
+
+        private final String nodeId;
+
+        private final String parentId;
+
+        private List<TreeNode> children;
+
+        TreeNode(String nodeId, String parentId) {
+            this.nodeId = nodeId;
+            this.parentId = parentId;
+        }
+
+        List<TreeNode> getChildren() {
+            return children;
+        }
+
+        @Override
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        @Override
+        public String getNodeParentId() {
+            return parentId;
+        }
+
+        @Override
+        public List<TreeNode> getChildrenNodes() {
+            return children;
+        }
+
+        @Override
+        public void setChildrenNodes(List childrenNodes) {
+            this.children = childrenNodes;
+        }
+    }
+
+    static class TreeNodeV2 implements com.apitable.core.support.tree.v2.Tree {
+
+        private final String id;
+
+        private String parentId;
+
+        private int level;
+
+        private List<TreeNodeV2> children;
+
+        TreeNodeV2(String id, String parentId) {
+            this.id = id;
+            this.parentId = parentId;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String getParentId() {
+            return parentId;
+        }
+
+        @Override
+        public void setParentId(String parentId) {
+            this.parentId = parentId;
+        }
+
+        @Override
+        public List<TreeNodeV2> getChildren() {
+            return children;
+        }
+
+        @Override
+        public void setChildren(List children) {
+            this.children = children;
+        }
+
+        @Override
+        public int getLevel() {
+            return level;
+        }
+
+        @Override
+        public void setLevel(int level) {
+            this.level = level;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.core.util;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>
+ *  image tool's test
+ * </p>
+ */
+class ImageToolTests {
+
+    private static byte[] image(String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(30, 20, BufferedImage.TYPE_INT_RGB), format, out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void readSizeTest() throws IOException {
+        Assertions.assertEquals(new Dimension(30, 20), ImageTool.readSize(new ByteArrayInputStream(image("png"))));
+        Assertions.assertEquals(new Dimension(30, 20), ImageTool.readSize(new ByteArrayInputStream(image("jpg"))));
+    }
+
+    @Test
+    void readSizeOfNonImageTest() throws IOException {
+        Assertions.assertNull(ImageTool.readSize(new ByteArrayInputStream("%PDF-1.4".getBytes())));
+    }
+}
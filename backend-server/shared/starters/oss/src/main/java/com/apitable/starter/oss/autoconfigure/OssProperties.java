@@ -269,6 +269,21 @@ public class OssProperties {
 
         private String bucketPolicy;
 
+        /**
+         * time to keep a bucket known to exist, seconds
+         */
+        private long bucketCacheSeconds = 300;
+
+        /**
+         * threads uploading parts, shared by all uploads
+         */
+        private int uploadThreads = 8;
+
+        /**
+         * parts of an upload in flight at the same time
+         */
+        private int maxInFlightParts = 4;
+
         public String getEndpoint() {
             return endpoint;
         }
@@ -308,6 +323,30 @@ public class OssProperties {
         public void setBucketPolicy(String bucketPolicy) {
             this.bucketPolicy = bucketPolicy;
         }
+
+        public long getBucketCacheSeconds() {
+            return bucketCacheSeconds;
+        }
+
+        public void setBucketCacheSeconds(long bucketCacheSeconds) {
+            this.bucketCacheSeconds = bucketCacheSeconds;
+        }
+
+        public int getUploadThreads() {
+            return uploadThreads;
+        }
+
+        public void setUploadThreads(int uploadThreads) {
+            this.uploadThreads = uploadThreads;
+        }
+
+        public int getMaxInFlightParts() {
+            return maxInFlightParts;
+        }
+
+        public void setMaxInFlightParts(int maxInFlightParts) {
+            this.maxInFlightParts = maxInFlightParts;
+        }
     }
 
     public static class Callback {
@@ -0,0 +1,63 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.starter.oss.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Buckets known to exist, shared by the client requests of a factory,
+ * so that the bucket is not checked by a round trip before every operation.
+ * an entry expires after the ttl, then the bucket is checked again.
+ */
+public class BucketCache {
+
+    private final long ttlMillis;
+
+    private final Map<String, Long> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * @param ttlMillis time to keep a bucket, milliseconds, nothing is kept if it is not positive
+     */
+    public BucketCache(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    public boolean contains(String bucketName) {
+        Long expireAt = buckets.get(bucketName);
+        if (expireAt == null) {
+            return false;
+        }
+        if (expireAt < System.currentTimeMillis()) {
+            buckets.remove(bucketName, expireAt);
+            return false;
+        }
+        return true;
+    }
+
+    public void put(String bucketName) {
+        if (ttlMillis > 0) {
+            buckets.put(bucketName, System.currentTimeMillis() + ttlMillis);
+        }
+    }
+
+    public void evict(String bucketName) {
+        buckets.remove(bucketName);
+    }
+}
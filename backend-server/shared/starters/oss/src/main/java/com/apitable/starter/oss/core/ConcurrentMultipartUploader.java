@@ -0,0 +1,234 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.starter.oss.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Upload a stream of unknown length in parts concurrently.
+ * a stream shorter than the first part is put in one request.
+ * the part size grows as the parts add up, so a large stream stays within the part limit,
+ * the parts in flight are bounded, which bounds the buffers of an upload.
+ * the upload is aborted if any part fails, so no incomplete parts are left in the bucket.
+ */
+public class ConcurrentMultipartUploader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConcurrentMultipartUploader.class);
+
+    /**
+     * maximum parts of an upload, the limit of s3
+     */
+    public static final int MAX_PARTS = 10000;
+
+    /**
+     * minimum size of a part except the last one, the limit of s3
+     */
+    public static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    public static final int DEFAULT_PART_SIZE = 10 * 1024 * 1024;
+
+    private static final int MAX_PART_SIZE = 128 * 1024 * 1024;
+
+    /**
+     * the part size doubles after every this number of parts
+     */
+    private static final int PARTS_PER_SIZE = 1000;
+
+    private final Executor executor;
+
+    private final int maxInFlightParts;
+
+    private final int initialPartSize;
+
+    public ConcurrentMultipartUploader(Executor executor, int maxInFlightParts) {
+        this(executor, maxInFlightParts, DEFAULT_PART_SIZE);
+    }
+
+    public ConcurrentMultipartUploader(Executor executor, int maxInFlightParts, int initialPartSize) {
+        this.executor = executor;
+        this.maxInFlightParts = Math.max(maxInFlightParts, 1);
+        this.initialPartSize = Math.max(initialPartSize, MIN_PART_SIZE);
+    }
+
+    /**
+     * upload the stream to the target
+     *
+     * @param in     stream, not closed
+     * @param target object to write
+     * @throws IOException read or upload failed
+     */
+    public void upload(InputStream in, MultipartTarget target) throws IOException {
+        byte[] buffer = new byte[initialPartSize];
+        int length = readFully(in, buffer);
+        if (length < buffer.length) {
+            target.putObject(buffer, length);
+            return;
+        }
+        String uploadId = target.createMultipartUpload();
+        Semaphore inFlight = new Semaphore(maxInFlightParts);
+        List<CompletableFuture<String>> etags = new ArrayList<>();
+        try {
+            int partNumber = 1;
+            while (length > 0) {
+                if (partNumber > MAX_PARTS) {
+                    throw new IOException("the stream exceeds the maximum parts of an upload");
+                }
+                inFlight.acquire();
+                failFast(etags);
+                etags.add(uploadPart(target, uploadId, partNumber, buffer, length, inFlight));
+                partNumber++;
+                buffer = new byte[partSize(partNumber)];
+                length = readFully(in, buffer);
+            }
+            List<String> completed = new ArrayList<>(etags.size());
+            for (CompletableFuture<String> etag : etags) {
+                completed.add(etag.join());
+            }
+            target.completeMultipartUpload(uploadId, completed);
+        }
+        catch (Exception e) {
+            // wait for the parts in flight, a part finished after the abort would be left in the bucket
+            etags.forEach(etag -> etag.handle((result, t) -> null).join());
+            abort(target, uploadId);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            throw cause instanceof IOException ? (IOException) cause : new IOException("upload failed", cause);
+        }
+    }
+
+    private CompletableFuture<String> uploadPart(MultipartTarget target, String uploadId, int partNumber,
+            byte[] data, int length, Semaphore inFlight) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return target.uploadPart(uploadId, partNumber, data, length);
+                }
+                catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+                finally {
+                    inFlight.release();
+                }
+            }, executor);
+        }
+        catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    /**
+     * stop reading the stream as soon as a part failed
+     */
+    private static void failFast(List<CompletableFuture<String>> etags) {
+        for (CompletableFuture<String> etag : etags) {
+            if (etag.isCompletedExceptionally()) {
+                etag.join();
+            }
+        }
+    }
+
+    private void abort(MultipartTarget target, String uploadId) {
+        try {
+            target.abortMultipartUpload(uploadId);
+        }
+        catch (Exception e) {
+            LOGGER.warn("Abort multipart upload「{}」failed", uploadId, e);
+        }
+    }
+
+    /**
+     * size of the part, doubled after every thousand parts
+     *
+     * @param partNumber part number, from 1
+     * @return part size
+     */
+    int partSize(int partNumber) {
+        long size = (long) initialPartSize << Math.min((partNumber - 1) / PARTS_PER_SIZE, 30);
+        return (int) Math.min(size, Math.max(MAX_PART_SIZE, initialPartSize));
+    }
+
+    private static int readFully(InputStream in, byte[] buffer) throws IOException {
+        int length = 0;
+        while (length < buffer.length) {
+            int read = in.read(buffer, length, buffer.length - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+        return length;
+    }
+
+    /**
+     * the object written by multipart upload
+     */
+    public interface MultipartTarget {
+
+        /**
+         * put the object in one request
+         *
+         * @param data   content
+         * @param length content length
+         * @throws IOException upload failed
+         */
+        void putObject(byte[] data, int length) throws IOException;
+
+        /**
+         * @return upload id
+         * @throws IOException upload failed
+         */
+        String createMultipartUpload() throws IOException;
+
+        /**
+         * @param uploadId   upload id
+         * @param partNumber part number, from 1
+         * @param data       content
+         * @param length     content length
+         * @return etag of part
+         * @throws IOException upload failed
+         */
+        String uploadPart(String uploadId, int partNumber, byte[] data, int length) throws IOException;
+
+        /**
+         * @param uploadId upload id
+         * @param etags    etags of parts, in order of part number
+         * @throws IOException upload failed
+         */
+        void completeMultipartUpload(String uploadId, List<String> etags) throws IOException;
+
+        /**
+         * @param uploadId upload id
+         * @throws IOException abort failed
+         */
+        void abortMultipartUpload(String uploadId) throws IOException;
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.starter.oss.core.minio;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.google.common.collect.Multimap;
+import io.minio.MinioClient;
+import io.minio.messages.Part;
+
+import com.apitable.starter.oss.core.ConcurrentMultipartUploader.MultipartTarget;
+
+/**
+ * minio client with the multipart operations, they are protected in the sdk.
+ * it shares the http client of the given client.
+ */
+public class MinioMultipartClient extends MinioClient {
+
+    public MinioMultipartClient(MinioClient client) {
+        super(client);
+    }
+
+    /**
+     * the object written by multipart upload
+     *
+     * @param bucketName bucket name
+     * @param objectName object name
+     * @param headers    headers of the object, such as content type
+     * @param single     put the object in one request
+     * @return MultipartTarget
+     */
+    public MultipartTarget target(String bucketName, String objectName, Multimap<String, String> headers, SinglePut single) {
+        return new MultipartTarget() {
+
+            @Override
+            public void putObject(byte[] data, int length) throws IOException {
+                single.put(data, length);
+            }
+
+            @Override
+            public String createMultipartUpload() throws IOException {
+                try {
+                    return MinioMultipartClient.this.createMultipartUpload(bucketName, null, objectName, headers, null)
+                            .result().uploadId();
+                }
+                catch (IOException e) {
+                    throw e;
+                }
+                catch (Exception e) {
+                    throw new IOException("create multipart upload failed", e);
+                }
+            }
+
+            @Override
+            public String uploadPart(String uploadId, int partNumber, byte[] data, int length) throws IOException {
+                try {
+                    return MinioMultipartClient.this.uploadPart(bucketName, null, objectName, data, length,
+                            uploadId, partNumber, null, null).etag();
+                }
+                catch (IOException e) {
+                    throw e;
+                }
+                catch (Exception e) {
+                    throw new IOException("upload part failed", e);
+                }
+            }
+
+            @Override
+            public void completeMultipartUpload(String uploadId, List<String> etags) throws IOException {
+                Part[] parts = new Part[etags.size()];
+                for (int i = 0; i < parts.length; i++) {
+                    parts[i] = new Part(i + 1, etags.get(i));
+                }
+                try {
+                    MinioMultipartClient.this.completeMultipartUpload(bucketName, null, objectName, uploadId, parts, null, null);
+                }
+                catch (IOException e) {
+                    throw e;
+                }
+                catch (Exception e) {
+                    throw new IOException("complete multipart upload failed", e);
+                }
+            }
+
+            @Override
+            public void abortMultipartUpload(String uploadId) throws IOException {
+                try {
+                    MinioMultipartClient.this.abortMultipartUpload(bucketName, null, objectName, uploadId, null, null);
+                }
+                catch (IOException e) {
+                    throw e;
+                }
+                catch (Exception e) {
+                    throw new IOException("abort multipart upload failed", e);
+                }
+            }
+        };
+    }
+
+    /**
+     * put the object in one request
+     */
+    @FunctionalInterface
+    public interface SinglePut {
+
+        void put(byte[] data, int length) throws IOException;
+    }
+}
@@ -18,6 +18,7 @@
 
 package com.apitable.starter.oss.core.minio;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
@@ -27,6 +28,8 @@ import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import cn.hutool.core.util.StrUtil;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
 import io.minio.BucketExistsArgs;
 import io.minio.GetObjectArgs;
 import io.minio.GetObjectResponse;
@@ -39,10 +42,13 @@ import io.minio.RemoveObjectArgs;
 import io.minio.SetBucketPolicyArgs;
 import io.minio.StatObjectArgs;
 import io.minio.StatObjectResponse;
+import io.minio.errors.ErrorResponseException;
 import io.minio.http.Method;
 import okhttp3.Headers;
 
 import com.apitable.starter.oss.core.AbstractOssClientRequest;
+import com.apitable.starter.oss.core.BucketCache;
+import com.apitable.starter.oss.core.ConcurrentMultipartUploader;
 import com.apitable.starter.oss.core.OssObject;
 import com.apitable.starter.oss.core.OssStatObject;
 import com.apitable.starter.oss.core.OssUploadAuth;
@@ -60,33 +66,53 @@ public class MinioOssClientRequest extends AbstractOssClientRequest {
 
     private static final String CONTENT_LENGTH = "Content-Length";
 
-    private final MinioClient minioClient;
+    private static final String NO_SUCH_BUCKET = "NoSuchBucket";
+
+    private final MinioMultipartClient minioClient;
 
     private final boolean autoCreateBucket;
 
     private String bucketPolicyJson;
 
+    private final BucketCache bucketCache;
+
+    private final ConcurrentMultipartUploader uploader;
+
     public MinioOssClientRequest(MinioClient minioClient) {
         this(minioClient, false);
     }
 
     public MinioOssClientRequest(MinioClient minioClient, boolean autoCreateBucket) {
-        this.minioClient = minioClient;
-        this.autoCreateBucket = autoCreateBucket;
+        this(minioClient, autoCreateBucket, null);
     }
 
     public MinioOssClientRequest(MinioClient minioClient, boolean autoCreateBucket, String bucketPolicyJson) {
-        this.minioClient = minioClient;
+        this(minioClient, autoCreateBucket, bucketPolicyJson, new BucketCache(0),
+                new ConcurrentMultipartUploader(Runnable::run, 1));
+    }
+
+    public MinioOssClientRequest(MinioClient minioClient, boolean autoCreateBucket, String bucketPolicyJson,
+            BucketCache bucketCache, ConcurrentMultipartUploader uploader) {
+        this.minioClient = minioClient instanceof MinioMultipartClient
+                ? (MinioMultipartClient) minioClient : new MinioMultipartClient(minioClient);
         this.autoCreateBucket = autoCreateBucket;
         this.bucketPolicyJson = bucketPolicyJson;
+        this.bucketCache = bucketCache;
+        this.uploader = uploader;
     }
 
     @Override
     protected boolean isBucketExist(String bucketName) {
+        if (bucketCache.contains(bucketName)) {
+            return true;
+        }
         boolean found = false;
         try {
             found = minioClient.bucketExists(BucketExistsArgs.builder().bucket(bucketName).build());
-            if (!found) {
+            if (found) {
+                bucketCache.put(bucketName);
+            }
+            else {
                 if (autoCreateBucket) {
                     minioClient.makeBucket(
                             MakeBucketArgs.builder()
@@ -99,6 +125,7 @@ public class MinioOssClientRequest extends AbstractOssClientRequest {
                                     .config(bucketPolicyJson)
                                     .build()
                     );
+                    bucketCache.put(bucketName);
                 }
                 else {
                     throw new UnsupportedOperationException("Your bucket does not exist and cannot be initialized");
@@ -111,6 +138,22 @@ public class MinioOssClientRequest extends AbstractOssClientRequest {
         return found;
     }
 
+    /**
+     * the bucket is removed behind the cache, forget it so that it is checked (and created) by the next operation
+     *
+     * @param bucketName bucket name
+     * @param e          failure of the operation, the error response may be wrapped
+     */
+    private void evictIfNoSuchBucket(String bucketName, Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ErrorResponseException
+                    && NO_SUCH_BUCKET.equals(((ErrorResponseException) cause).errorResponse().code())) {
+                bucketCache.evict(bucketName);
+                return;
+            }
+        }
+    }
+
     @Override
     public UrlFetchResponse uploadRemoteUrl(String bucketName, String remoteSrcUrl, String keyPath) throws IOException {
         isBucketExist(bucketName);
@@ -127,6 +170,7 @@ public class MinioOssClientRequest extends AbstractOssClientRequest {
             return new UrlFetchResponse(response.object(), response.etag(), contentLength, contentType);
         }
         catch (Exception e) {
+            evictIfNoSuchBucket(bucketName, e);
             e.printStackTrace();
             throw new IOException("upload failed", e);
         }
@@ -134,43 +178,47 @@ public class MinioOssClientRequest extends AbstractOssClientRequest {
 
     @Override
     public void uploadStreamForObject(String bucketName, InputStream in, String keyPath) throws IOException {
-        isBucketExist(bucketName);
-        try {
-            minioClient.putObject(
-                    PutObjectArgs.builder()
-                            .bucket(bucketName)
-                            .object(keyPath)
-                            .stream(in, -1, 10485760)
-                            .build());
-        }
-        catch (Exception e) {
-            e.printStackTrace();
-            throw new IOException("upload failed", e);
-        }
+        uploadStreamForObject(bucketName, in, keyPath, null, null);
     }
 
     @Override
     public void uploadStreamForObject(String bucketName, InputStream in, String path, String mimeType, String digest) throws IOException {
         isBucketExist(bucketName);
+        Map<String, String> userMetadata = new HashMap<>(16);
+        if (StrUtil.isNotBlank(mimeType)) {
+            userMetadata.put(CONTENT_TYPE, mimeType);
+        }
+        if (StrUtil.isNotBlank(digest)) {
+            userMetadata.put(CONTENT_MD5, digest);
+        }
+        // the digest is of the whole object, it can only be checked by a single put
+        Multimap<String, String> multipartHeaders = HashMultimap.create();
+        if (StrUtil.isNotBlank(mimeType)) {
+            multipartHeaders.put(CONTENT_TYPE, mimeType);
+        }
         try {
-            Map<String, String> userMetadata = new HashMap<>(16);
-            if (StrUtil.isNotBlank(mimeType)) {
-                userMetadata.put(CONTENT_TYPE, mimeType);
-            }
-            if (StrUtil.isNotBlank(digest)) {
-                userMetadata.put(CONTENT_MD5, digest);
-            }
-            minioClient.putObject(
-                    PutObjectArgs.builder()
+            uploader.upload(in, minioClient.target(bucketName, path, multipartHeaders, (data, length) -> {
+                try {
+                    PutObjectArgs.Builder builder = PutObjectArgs.builder()
                             .bucket(bucketName)
                             .object(path)
-                            // 10M slice upload
-                            .stream(in, -1, 10485760)
-                            .contentType(mimeType)
-                            .headers(userMetadata)
-                            .build());
+                            .stream(new ByteArrayInputStream(data, 0, length), length, -1)
+                            .headers(userMetadata);
+                    if (StrUtil.isNotBlank(mimeType)) {
+                        builder.contentType(mimeType);
+                    }
+                    minioClient.putObject(builder.build());
+                }
+                catch (IOException e) {
+                    throw e;
+                }
+                catch (Exception e) {
+                    throw new IOException("put object failed", e);
+                }
+            }));
         }
-        catch (Exception e) {
+        catch (IOException e) {
+            evictIfNoSuchBucket(bucketName, e);
             e.printStackTrace();
             throw new IOException("upload failed", e);
         }
@@ -192,6 +240,7 @@ public class MinioOssClientRequest extends AbstractOssClientRequest {
                     headers.get(CONTENT_TYPE), response);
         }
         catch (Exception e) {
+            evictIfNoSuchBucket(bucketName, e);
             e.printStackTrace();
             return null;
         }
@@ -241,6 +290,7 @@ public class MinioOssClientRequest extends AbstractOssClientRequest {
             return true;
         }
         catch (Exception e) {
+            evictIfNoSuchBucket(bucketName, e);
             e.printStackTrace();
             return false;
         }
@@ -18,35 +18,78 @@
 
 package com.apitable.starter.oss.core.minio;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import io.minio.MinioClient;
 
+import com.apitable.starter.oss.core.BucketCache;
+import com.apitable.starter.oss.core.ConcurrentMultipartUploader;
 import com.apitable.starter.oss.core.OssClientRequest;
 import com.apitable.starter.oss.core.OssClientRequestFactory;
 
+/**
+ * the client, the bucket cache and the upload threads are shared by the client requests
+ */
 public class MinioOssClientRequestFactory implements OssClientRequestFactory {
 
-    private final String endpoint;
+    private static final long DEFAULT_BUCKET_CACHE_SECONDS = 300;
 
-    private final String accessKey;
+    private static final int DEFAULT_UPLOAD_THREADS = 8;
 
-    private final String secretKey;
+    private static final int DEFAULT_MAX_IN_FLIGHT_PARTS = 4;
 
     private final String bucketPolicyJson;
 
+    private final MinioMultipartClient minioClient;
+
+    private final BucketCache bucketCache;
+
+    private final ExecutorService uploadExecutor;
+
+    private final ConcurrentMultipartUploader uploader;
+
     public MinioOssClientRequestFactory(String endpoint, String accessKey, String secretKey, String bucketPolicyJson) {
-        this.endpoint = endpoint;
-        this.accessKey = accessKey;
-        this.secretKey = secretKey;
+        this(endpoint, accessKey, secretKey, bucketPolicyJson,
+                DEFAULT_BUCKET_CACHE_SECONDS, DEFAULT_UPLOAD_THREADS, DEFAULT_MAX_IN_FLIGHT_PARTS);
+    }
+
+    /**
+     * @param bucketCacheSeconds time to keep a bucket known to exist, seconds
+     * @param uploadThreads      threads uploading parts, shared by all uploads
+     * @param maxInFlightParts   parts of an upload in flight at the same time
+     */
+    public MinioOssClientRequestFactory(String endpoint, String accessKey, String secretKey, String bucketPolicyJson,
+            long bucketCacheSeconds, int uploadThreads, int maxInFlightParts) {
         this.bucketPolicyJson = bucketPolicyJson;
+        this.minioClient = new MinioMultipartClient(
+                MinioClient.builder()
+                        .endpoint(endpoint)
+                        .credentials(accessKey, secretKey)
+                        .build());
+        this.bucketCache = new BucketCache(TimeUnit.SECONDS.toMillis(bucketCacheSeconds));
+        int threads = Math.max(uploadThreads, 1);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.uploadExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread thread = new Thread(r, "oss-upload-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.uploader = new ConcurrentMultipartUploader(uploadExecutor, maxInFlightParts);
     }
 
     @Override
     public OssClientRequest createClient() {
-        MinioClient minioClient =
-            MinioClient.builder()
-                .endpoint(endpoint)
-                .credentials(accessKey, secretKey)
-                .build();
-        return new MinioOssClientRequest(minioClient, true, bucketPolicyJson);
+        return new MinioOssClientRequest(minioClient, true, bucketPolicyJson, bucketCache, uploader);
+    }
+
+    /**
+     * stop the upload threads, called when the bean is destroyed
+     */
+    public void close() {
+        uploadExecutor.shutdown();
     }
 }
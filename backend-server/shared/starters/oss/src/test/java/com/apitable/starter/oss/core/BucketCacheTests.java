@@ -0,0 +1,60 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.starter.oss.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * <p>
+ *  bucket cache's test
+ * </p>
+ */
+class BucketCacheTests {
+
+    @Test
+    void bucketExpiresAfterTtlTest() throws InterruptedException {
+        BucketCache cache = new BucketCache(50);
+        cache.put("bucket");
+        Assertions.assertTrue(cache.contains("bucket"));
+        Assertions.assertFalse(cache.contains("other"));
+        Thread.sleep(100);
+        Assertions.assertFalse(cache.contains("bucket"));
+        // the bucket is kept again once it is checked
+        cache.put("bucket");
+        Assertions.assertTrue(cache.contains("bucket"));
+    }
+
+    @Test
+    void nothingKeptWithoutTtlTest() {
+        BucketCache cache = new BucketCache(0);
+        cache.put("bucket");
+        Assertions.assertFalse(cache.contains("bucket"));
+    }
+
+    @Test
+    void evictBucketTest() {
+        BucketCache cache = new BucketCache(60_000);
+        cache.put("bucket");
+        cache.put("other");
+        cache.evict("bucket");
+        Assertions.assertFalse(cache.contains("bucket"));
+        Assertions.assertTrue(cache.contains("other"));
+    }
+}
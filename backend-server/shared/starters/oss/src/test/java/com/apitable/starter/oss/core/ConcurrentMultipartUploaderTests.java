@@ -0,0 +1,173 @@
+/*
+ * APITable <https://github.com/apitable/apitable>
+ * Copyright (C) 2022 APITable Ltd. <https://apitable.com>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.apitable.starter.oss.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.apitable.starter.oss.core.ConcurrentMultipartUploader.MultipartTarget;
+
+/**
+ * <p>
+ *  concurrent multipart uploader's test, against an in-memory object
+ * </p>
+ */
+class ConcurrentMultipartUploaderTests {
+
+    private static final int PART_SIZE = ConcurrentMultipartUploader.MIN_PART_SIZE;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setup() {
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void teardown() {
+        executor.shutdownNow();
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+
+    @Test
+    void shortStreamPutInOneRequestTest() throws IOException {
+        byte[] bytes = randomBytes(1024);
+        InMemoryTarget target = new InMemoryTarget(-1);
+        new ConcurrentMultipartUploader(executor, 2, PART_SIZE).upload(new ByteArrayInputStream(bytes), target);
+        Assertions.assertArrayEquals(bytes, target.object);
+        Assertions.assertEquals(0, target.uploads.get());
+    }
+
+    @Test
+    void multipartUploadTest() throws IOException {
+        byte[] bytes = randomBytes(3 * PART_SIZE + 7);
+        InMemoryTarget target = new InMemoryTarget(-1);
+        new ConcurrentMultipartUploader(executor, 2, PART_SIZE).upload(new ByteArrayInputStream(bytes), target);
+        Assertions.assertArrayEquals(bytes, target.object);
+        Assertions.assertEquals(1, target.uploads.get());
+        Assertions.assertEquals(Arrays.asList("etag-1", "etag-2", "etag-3", "etag-4"), target.completedEtags);
+        Assertions.assertTrue(target.maxInFlight.get() <= 2);
+        Assertions.assertFalse(target.aborted);
+    }
+
+    @Test
+    void abortOnPartFailureTest() {
+        byte[] bytes = randomBytes(4 * PART_SIZE);
+        InMemoryTarget target = new InMemoryTarget(2);
+        ConcurrentMultipartUploader uploader = new ConcurrentMultipartUploader(executor, 2, PART_SIZE);
+        Assertions.assertThrows(IOException.class, () -> uploader.upload(new ByteArrayInputStream(bytes), target));
+        Assertions.assertTrue(target.aborted);
+        Assertions.assertNull(target.object);
+        Assertions.assertEquals(0, target.inFlight.get());
+    }
+
+    @Test
+    void partSizeGrowsTest() {
+        ConcurrentMultipartUploader uploader = new ConcurrentMultipartUploader(executor, 2);
+        Assertions.assertEquals(ConcurrentMultipartUploader.DEFAULT_PART_SIZE, uploader.partSize(1));
+        Assertions.assertEquals(ConcurrentMultipartUploader.DEFAULT_PART_SIZE, uploader.partSize(1000));
+        Assertions.assertEquals(2 * ConcurrentMultipartUploader.DEFAULT_PART_SIZE, uploader.partSize(1001));
+        Assertions.assertEquals(128 * 1024 * 1024, uploader.partSize(ConcurrentMultipartUploader.MAX_PARTS));
+    }
+
+    private static class InMemoryTarget implements MultipartTarget {
+
+        private final int failedPart;
+
+        private final Map<Integer, byte[]> parts = new ConcurrentHashMap<>();
+
+        private final AtomicInteger uploads = new AtomicInteger();
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+
+        private List<String> completedEtags;
+
+        private byte[] object;
+
+        private volatile boolean aborted;
+
+        InMemoryTarget(int failedPart) {
+            this.failedPart = failedPart;
+        }
+
+        @Override
+        public void putObject(byte[] data, int length) {
+            object = Arrays.copyOf(data, length);
+        }
+
+        @Override
+        public String createMultipartUpload() {
+            uploads.incrementAndGet();
+            return "upload-1";
+        }
+
+        @Override
+        public String uploadPart(String uploadId, int partNumber, byte[] data, int length) throws IOException {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                if (partNumber == failedPart) {
+                    throw new IOException("part failed");
+                }
+                parts.put(partNumber, Arrays.copyOf(data, length));
+                return "etag-" + partNumber;
+            }
+            finally {
+                inFlight.decrementAndGet();
+            }
+        }
+
+        @Override
+        public void completeMultipartUpload(String uploadId, List<String> etags) {
+            completedEtags = new ArrayList<>(etags);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (int i = 1; i <= etags.size(); i++) {
+                out.write(parts.get(i), 0, parts.get(i).length);
+            }
+            object = out.toByteArray();
+        }
+
+        @Override
+        public void abortMultipartUpload(String uploadId) {
+            aborted = true;
+            parts.clear();
+        }
+    }
+}